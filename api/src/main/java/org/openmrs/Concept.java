@@ -10,6 +10,7 @@
 package org.openmrs;
 
 import java.io.Serializable;
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -20,8 +21,11 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
@@ -126,6 +130,13 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 	 * getCompatibleNames().
 	 */
 	private Map<Locale, List<ConceptName>> compatibleCache;
+	
+	/**
+	 * The names resolved by getName(), getPreferredName(Locale), getFullySpecifiedName(Locale) and
+	 * getShortNameInLocale(Locale), rebuilt when the names or their types, locales or voided flags
+	 * change.
+	 */
+	private transient volatile ResolvedNames resolvedNames;
 
 	private Set<ConceptAttribute> attributes = new LinkedHashSet<>();
 
@@ -447,14 +458,26 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 	 * @should return name in broader locale in case none is found in specific one
 	 */
 	public ConceptName getName() {
-		if (getNames().isEmpty()) {
+		ResolvedNames resolved = getResolvedNames();
+		if (!resolved.hasNames()) {
 			if (log.isDebugEnabled()) {
 				log.debug("there are no names defined for: " + conceptId);
 			}
 			return null;
 		}
 		
-		for (Locale currentLocale : LocaleUtility.getLocalesInOrder()) {
+		Set<Locale> localesInOrder = LocaleUtility.getSharedLocalesInOrder();
+		SimpleImmutableEntry<Set<Locale>, ConceptName> name = resolved.name;
+		// the ordering is shared until the locale settings change, so the same instance means the same order
+		if (name == null || name.getKey() != localesInOrder) {
+			name = new SimpleImmutableEntry<>(localesInOrder, resolveName(localesInOrder));
+			resolved.name = name;
+		}
+		return name.getValue();
+	}
+	
+	private ConceptName resolveName(Set<Locale> localesInOrder) {
+		for (Locale currentLocale : localesInOrder) {
 			ConceptName preferredName = getPreferredName(currentLocale);
 			if (preferredName != null) {
 				return preferredName;
@@ -646,7 +669,14 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 	 * @should return the fully specified name if no name is explicitly marked as locale preferred
 	 */
 	public ConceptName getPreferredName(Locale forLocale) {
-		
+		if (forLocale == null) {
+			return resolvePreferredName(null);
+		}
+		return getResolvedNames().preferredNames.computeIfAbsent(forLocale,
+		    locale -> Optional.ofNullable(resolvePreferredName(locale))).orElse(null);
+	}
+	
+	private ConceptName resolvePreferredName(Locale forLocale) {
 		if (log.isDebugEnabled()) {
 			log.debug("Getting preferred conceptName for locale: " + forLocale);
 		}
@@ -697,7 +727,15 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 	 * @should return the name marked as fully specified for the given locale
 	 */
 	public ConceptName getFullySpecifiedName(Locale locale) {
-		if (locale != null && !getNames(locale).isEmpty()) {
+		if (locale == null) {
+			return null;
+		}
+		return getResolvedNames().fullySpecifiedNames.computeIfAbsent(locale,
+		    l -> Optional.ofNullable(resolveFullySpecifiedName(l))).orElse(null);
+	}
+	
+	private ConceptName resolveFullySpecifiedName(Locale locale) {
+		if (!getNames(locale).isEmpty()) {
 			//get the first fully specified name, since every concept must have a fully specified name,
 			//then, this loop will have to return a name
 			for (ConceptName conceptName : getNames(locale)) {
@@ -850,8 +888,16 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 	 * @return the short name, or null if none has been explicitly set
 	 */
 	public ConceptName getShortNameInLocale(Locale locale) {
+		if (locale == null) {
+			return null;
+		}
+		return getResolvedNames().shortNames.computeIfAbsent(locale, l -> Optional.ofNullable(resolveShortName(l)))
+		        .orElse(null);
+	}
+	
+	private ConceptName resolveShortName(Locale locale) {
 		ConceptName bestMatch = null;
-		if (locale != null && !getShortNames().isEmpty()) {
+		if (!getShortNames().isEmpty()) {
 			for (ConceptName shortName : getShortNames()) {
 				Locale nameLocale = shortName.getLocale();
 				if (nameLocale.equals(locale)) {
@@ -1670,4 +1716,83 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 		attribute.setOwner(this);
 	}
 
+	/**
+	 * @return the resolved names of this concept, new ones if the names have changed since they were
+	 *         resolved
+	 */
+	private ResolvedNames getResolvedNames() {
+		ResolvedNames resolved = resolvedNames;
+		if (resolved == null || !resolved.isResolvedFrom(names)) {
+			resolved = new ResolvedNames(names);
+			resolvedNames = resolved;
+		}
+		return resolved;
+	}
+	
+	/**
+	 * The names of a concept resolved by locale, along with the state of the names they were resolved
+	 * from. Comparing that state is a single pass over the names, which is much cheaper than resolving
+	 * a name again.
+	 */
+	private static final class ResolvedNames {
+		
+		private static final int FIELDS_PER_NAME = 5;
+		
+		private final Object[] namesState;
+		
+		private final boolean hasNames;
+		
+		private final Map<Locale, Optional<ConceptName>> preferredNames = new ConcurrentHashMap<>();
+		
+		private final Map<Locale, Optional<ConceptName>> fullySpecifiedNames = new ConcurrentHashMap<>();
+		
+		private final Map<Locale, Optional<ConceptName>> shortNames = new ConcurrentHashMap<>();
+		
+		/**
+		 * The name returned by getName() and the ordering of locales it was resolved with
+		 */
+		private volatile SimpleImmutableEntry<Set<Locale>, ConceptName> name;
+		
+		private ResolvedNames(Collection<ConceptName> names) {
+			int size = names == null ? 0 : names.size();
+			namesState = new Object[size * FIELDS_PER_NAME];
+			boolean anyUnvoided = false;
+			int i = 0;
+			if (names != null) {
+				for (ConceptName conceptName : names) {
+					namesState[i++] = conceptName;
+					namesState[i++] = conceptName.getVoided();
+					namesState[i++] = conceptName.getLocale();
+					namesState[i++] = conceptName.getLocalePreferred();
+					namesState[i++] = conceptName.getConceptNameType();
+					anyUnvoided = anyUnvoided || !conceptName.getVoided();
+				}
+			}
+			hasNames = anyUnvoided;
+		}
+		
+		private boolean hasNames() {
+			return hasNames;
+		}
+		
+		private boolean isResolvedFrom(Collection<ConceptName> names) {
+			int size = names == null ? 0 : names.size();
+			if (namesState.length != size * FIELDS_PER_NAME) {
+				return false;
+			}
+			if (names == null) {
+				return true;
+			}
+			int i = 0;
+			for (ConceptName conceptName : names) {
+				if (namesState[i++] != conceptName || !Objects.equals(namesState[i++], conceptName.getVoided())
+				        || !Objects.equals(namesState[i++], conceptName.getLocale())
+				        || !Objects.equals(namesState[i++], conceptName.getLocalePreferred())
+				        || namesState[i++] != conceptName.getConceptNameType()) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
 }
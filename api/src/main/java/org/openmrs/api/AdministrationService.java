@@ -322,6 +322,16 @@ public interface AdministrationService extends OpenmrsService {
 	 */
 	public int getMaximumPropertyLength(Class<? extends OpenmrsObject> aClass, String fieldName);
 	
+	/**
+	 * @param aClass class of object getting the lengths for
+	 * @return the max field lengths of the string properties of the class by property name, empty if
+	 *         the class is not mapped
+	 * @since 2.4.0
+	 * @should return the lengths of the string properties
+	 * @should return an empty map for a class that is not mapped
+	 */
+	public Map<String, Integer> getMaximumStringPropertyLengths(Class<?> aClass);
+	
 	/**
 	 * Performs validation in the manual flush mode to prevent any premature flushes.
 	 * <p>
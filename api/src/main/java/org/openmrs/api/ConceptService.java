@@ -633,6 +633,34 @@ public interface ConceptService extends OpenmrsService {
 	@Authorized(PrivilegeConstants.GET_CONCEPTS)
 	public List<ConceptSet> getSetsContainingConcept(Concept concept) throws APIException;
 	
+	/**
+	 * Gets an index of the membership of all concept sets. The index is built with a single query and
+	 * kept in the api cache until a transaction that saves or purges a concept completes.
+	 * 
+	 * @return the membership of all concept sets
+	 * @throws APIException
+	 * @since 2.4.0
+	 * @should return the members of nested sets
+	 * @should reflect set members added by saving a concept
+	 * @should not keep set members of a rolled back transaction
+	 */
+	@Authorized(PrivilegeConstants.GET_CONCEPTS)
+	public ConceptSetIndex getConceptSetIndex() throws APIException;
+	
+	/**
+	 * Checks if a concept is a member of a concept set or of any set nested in it
+	 * 
+	 * @param concept the concept to look for
+	 * @param conceptSet the concept representing the concept set
+	 * @return true if the concept is in the set
+	 * @throws APIException
+	 * @since 2.4.0
+	 * @should return true if the concept is in a nested set
+	 * @should return false if the concept is not in the set
+	 */
+	@Authorized(PrivilegeConstants.GET_CONCEPTS)
+	public boolean isConceptInSet(Concept concept, Concept conceptSet) throws APIException;
+	
 	/**
 	 * Get a List of all concept proposals
 	 * 
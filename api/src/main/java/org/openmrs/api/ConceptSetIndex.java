@@ -0,0 +1,125 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable snapshot of the membership of all concept sets, by concept id. The members of a set,
+ * including the members of the sets nested in it, are worked out the first time they are asked for
+ * and then kept for as long as the snapshot is used.
+ *
+ * @see ConceptService#getConceptSetIndex()
+ * @since 2.4.0
+ */
+public class ConceptSetIndex implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private static final int[] NO_MEMBERS = new int[0];
+	
+	private final Map<Integer, int[]> membersBySet;
+	
+	private final Set<Integer> sets;
+	
+	private final Map<Integer, int[]> descendantsBySet = new ConcurrentHashMap<>();
+	
+	private final Map<Integer, Set<Integer>> descendantSetsBySet = new ConcurrentHashMap<>();
+	
+	/**
+	 * @param membersBySet the ids of the direct members of each set concept, in sort weight order
+	 * @param sets the ids of the concepts that are sets
+	 */
+	public ConceptSetIndex(Map<Integer, List<Integer>> membersBySet, Set<Integer> sets) {
+		this.membersBySet = new HashMap<>(membersBySet.size());
+		for (Map.Entry<Integer, List<Integer>> entry : membersBySet.entrySet()) {
+			this.membersBySet.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+		}
+		this.sets = new HashSet<>(sets);
+	}
+	
+	/**
+	 * Gets the members of a set and of all the sets nested in it, in the order in which
+	 * {@link ConceptService#getConceptsByConceptSet(org.openmrs.Concept)} returns them
+	 *
+	 * @param conceptSetId the id of the set concept
+	 * @return the ids of the members, a concept that is in several of the nested sets is included once
+	 *         for each of them
+	 * @should return the members of nested sets after the nested set
+	 * @should not loop on sets that contain each other
+	 */
+	public List<Integer> getConceptIds(Integer conceptSetId) {
+		int[] descendants = getDescendants(conceptSetId);
+		List<Integer> conceptIds = new ArrayList<>(descendants.length);
+		for (int conceptId : descendants) {
+			conceptIds.add(conceptId);
+		}
+		return conceptIds;
+	}
+	
+	/**
+	 * @param conceptId the id of the concept to look for
+	 * @param conceptSetId the id of the set concept
+	 * @return true if the concept is a member of the set or of any set nested in it
+	 * @should return true for members of nested sets
+	 * @should return false for concepts that are not in the set
+	 */
+	public boolean contains(Integer conceptId, Integer conceptSetId) {
+		return conceptId != null && conceptSetId != null && descendantSetsBySet.computeIfAbsent(conceptSetId, id -> {
+			Set<Integer> descendantSet = new HashSet<>();
+			for (int descendant : getDescendants(id)) {
+				descendantSet.add(descendant);
+			}
+			return descendantSet;
+		}).contains(conceptId);
+	}
+	
+	private int[] getDescendants(Integer conceptSetId) {
+		if (conceptSetId == null) {
+			return NO_MEMBERS;
+		}
+		return descendantsBySet.computeIfAbsent(conceptSetId, id -> {
+			List<Integer> descendants = new ArrayList<>();
+			addDescendants(id, descendants, new HashSet<>());
+			return descendants.stream().mapToInt(Integer::intValue).toArray();
+		});
+	}
+	
+	private void addDescendants(Integer conceptSetId, List<Integer> descendants, Set<Integer> alreadySeen) {
+		if (!alreadySeen.add(conceptSetId)) {
+			return;
+		}
+		for (int member : membersBySet.getOrDefault(conceptSetId, NO_MEMBERS)) {
+			descendants.add(member);
+			if (sets.contains(member)) {
+				addDescendants(member, descendants, alreadySeen);
+			}
+		}
+	}
+	
+	/**
+	 * @return the number of sets that have members
+	 */
+	public int getSetCount() {
+		return membersBySet.size();
+	}
+	
+	@Override
+	public String toString() {
+		return "ConceptSetIndex[sets=" + getSetCount() + "]";
+	}
+}
@@ -13,6 +13,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.openmrs.Cohort;
 import org.openmrs.Encounter;
@@ -644,6 +645,23 @@ public interface EncounterService extends OpenmrsService {
 	@Authorized( { PrivilegeConstants.GET_ENCOUNTERS })
 	public List<Encounter> filterEncountersByViewPermissions(List<Encounter> encounters, User user);
 	
+	/**
+	 * Gets the ids of the encounter types whose view privilege the given user lacks, i.e. the types
+	 * of the encounters that {@link #filterEncountersByViewPermissions(List, User)} would remove.
+	 * Implementations cache the view privileges of the encounter types until an encounter type
+	 * changes and check them against the current privileges of the user, so that encounter searches
+	 * can exclude these types in the database query.
+	 * 
+	 * @param user the user to check, the authenticated user from context is used if null
+	 * @return the ids of the encounter types the user may not view, empty if they may view all
+	 * @since 2.4.0
+	 * @should return ids of encounter types whose view privilege the user does not have
+	 * @should return an empty set if the user can view all encounter types
+	 * @should apply the roles a user is granted at once
+	 */
+	@Authorized( { PrivilegeConstants.GET_ENCOUNTERS })
+	public Set<Integer> getEncounterTypeIdsNotViewableBy(User user);
+	
 	/**
 	 * Determines whether given user is granted to view all encounter types or not
 	 * 
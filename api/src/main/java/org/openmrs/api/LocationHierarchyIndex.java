@@ -0,0 +1,141 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The parent of every location and the retired flags, by location id, so that hierarchy questions
+ * can be answered without loading the child locations level by level. The answers for a location
+ * are remembered, the index is replaced rather than updated when a location changes.
+ *
+ * @see LocationService#getLocationHierarchyIndex()
+ * @since 2.4.0
+ */
+public class LocationHierarchyIndex implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private final Map<Integer, Integer> parents;
+	
+	private final Map<Integer, List<Integer>> children = new HashMap<>();
+	
+	private final Set<Integer> retired;
+	
+	private final Map<Integer, Set<Integer>> descendants = new ConcurrentHashMap<>();
+	
+	private final Map<Integer, Set<Integer>> unretiredDescendants = new ConcurrentHashMap<>();
+	
+	private final Map<Integer, List<Integer>> ancestors = new ConcurrentHashMap<>();
+	
+	/**
+	 * @param parents the id of the parent location of each location, null for root locations
+	 * @param retired the ids of the retired locations
+	 */
+	public LocationHierarchyIndex(Map<Integer, Integer> parents, Set<Integer> retired) {
+		this.parents = new HashMap<>(parents);
+		for (Map.Entry<Integer, Integer> entry : parents.entrySet()) {
+			if (entry.getValue() != null) {
+				children.computeIfAbsent(entry.getValue(), id -> new ArrayList<>()).add(entry.getKey());
+			}
+		}
+		this.retired = new HashSet<>(retired);
+	}
+	
+	/**
+	 * Gets the descendants of a location the way {@link org.openmrs.Location#getDescendantLocations(boolean)}
+	 * does, a retired location and the locations below it are left out unless retired locations are
+	 * included
+	 *
+	 * @param locationId the id of the location
+	 * @param includeRetired whether to include retired locations
+	 * @return the ids of the locations below the given location, not including the location itself
+	 * @should return the locations at all levels below the location
+	 * @should leave out the locations below a retired location unless retired locations are included
+	 * @should not loop on locations that are their own ancestors
+	 */
+	public Set<Integer> getDescendantIds(Integer locationId, boolean includeRetired) {
+		if (locationId == null) {
+			return Collections.emptySet();
+		}
+		return (includeRetired ? descendants : unretiredDescendants).computeIfAbsent(locationId, id -> {
+			Set<Integer> found = new LinkedHashSet<>();
+			addDescendants(id, includeRetired, found);
+			found.remove(id);
+			return Collections.unmodifiableSet(found);
+		});
+	}
+	
+	private void addDescendants(Integer locationId, boolean includeRetired, Set<Integer> found) {
+		for (Integer child : children.getOrDefault(locationId, Collections.emptyList())) {
+			if ((includeRetired || !retired.contains(child)) && found.add(child)) {
+				addDescendants(child, includeRetired, found);
+			}
+		}
+	}
+	
+	/**
+	 * @param locationId the id of the location
+	 * @return the ids of the parent of the location, its parent and so on up to the root location
+	 * @should return the ancestors starting with the parent
+	 * @should not loop on locations that are their own ancestors
+	 */
+	public List<Integer> getAncestorIds(Integer locationId) {
+		if (locationId == null) {
+			return Collections.emptyList();
+		}
+		return ancestors.computeIfAbsent(locationId, id -> {
+			Set<Integer> found = new LinkedHashSet<>();
+			Integer parent = parents.get(id);
+			while (parent != null && !parent.equals(id) && found.add(parent)) {
+				parent = parents.get(parent);
+			}
+			return Collections.unmodifiableList(new ArrayList<>(found));
+		});
+	}
+	
+	/**
+	 * Checks a location the way {@link org.openmrs.Location#isInHierarchy(org.openmrs.Location, org.openmrs.Location)}
+	 * does
+	 *
+	 * @param locationId the id of the location to check
+	 * @param rootId the id of the location at the top of the hierarchy
+	 * @return true if the location is the root location or is below it
+	 * @should return true for the root location and the locations below it
+	 * @should return false for locations that are not below the root location
+	 */
+	public boolean isInHierarchy(Integer locationId, Integer rootId) {
+		if (locationId == null || rootId == null) {
+			return false;
+		}
+		return locationId.equals(rootId) || getAncestorIds(locationId).contains(rootId);
+	}
+	
+	/**
+	 * @return the number of locations in the hierarchy
+	 */
+	public int getLocationCount() {
+		return parents.size();
+	}
+	
+	@Override
+	public String toString() {
+		return "LocationHierarchyIndex[locations=" + getLocationCount() + "]";
+	}
+}
@@ -11,6 +11,7 @@ package org.openmrs.api;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.openmrs.Address;
 import org.openmrs.Location;
@@ -367,6 +368,49 @@ public interface LocationService extends OpenmrsService {
 	@Authorized( { PrivilegeConstants.GET_LOCATIONS })
 	public List<Location> getRootLocations(boolean includeRetired);
 	
+	/**
+	 * Gets an index of the location hierarchy. The index is built with a single query and kept in the
+	 * api cache. Saving or purging a location drops it once the transaction has completed.
+	 * 
+	 * @return the hierarchy of all locations
+	 * @throws APIException
+	 * @since 2.4.0
+	 * @should reflect a parent location changed by saving a location
+	 * @should not share the index of a transaction that changed a location
+	 */
+	@Authorized( { PrivilegeConstants.GET_LOCATIONS })
+	public LocationHierarchyIndex getLocationHierarchyIndex() throws APIException;
+	
+	/**
+	 * Gets the locations below a location at all levels, like {@link Location#getDescendantLocations(boolean)}
+	 * but without loading the child locations of each level
+	 * 
+	 * @param location the location to get the descendants of
+	 * @param includeRetired whether to include retired locations and the locations below them
+	 * @return the locations below the given location
+	 * @throws APIException
+	 * @since 2.4.0
+	 * @should return the same locations as the location itself
+	 * @should return an empty set for a location that is not saved
+	 */
+	@Authorized( { PrivilegeConstants.GET_LOCATIONS })
+	public Set<Location> getDescendantLocations(Location location, boolean includeRetired) throws APIException;
+	
+	/**
+	 * Checks if a location is in the hierarchy of another location, like
+	 * {@link Location#isInHierarchy(Location, Location)} but without loading each parent location
+	 * 
+	 * @param location the location to check
+	 * @param root the location at the top of the hierarchy
+	 * @return true if the location is the root location or is below it
+	 * @throws APIException
+	 * @since 2.4.0
+	 * @should return true for locations below the root location
+	 * @should return false for locations that are not below the root location
+	 */
+	@Authorized( { PrivilegeConstants.GET_LOCATIONS })
+	public boolean isInHierarchy(Location location, Location root) throws APIException;
+	
 	/**
 	 * Given an Address object, returns all the possible values for the specified AddressField. This
 	 * method is not implemented in core, but is meant to overridden by implementing modules such as
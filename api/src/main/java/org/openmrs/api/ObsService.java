@@ -12,7 +12,9 @@ package org.openmrs.api;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
+import org.openmrs.Cohort;
 import org.openmrs.Concept;
 import org.openmrs.ConceptName;
 import org.openmrs.Encounter;
@@ -106,6 +108,11 @@ public interface ObsService extends OpenmrsService {
 	 * </ul>
 	 * </p>
 	 *
+	 * <p>If the {@link org.openmrs.util.OpenmrsConstants#GP_OBS_VOID_EDITED_OBS_WITH_DIRECT_UPDATE}
+	 * global property is true, the obs you passed and its saved group members are voided with a direct
+	 * update instead of through {@link #voidObs(Obs, String)}, unless the obs is complex. AOP advice
+	 * around voidObs, the void handlers and the Hibernate interceptors are then not called for them.</p>
+	 *
 	 * @param obs the Obs to save to the database
 	 * @param changeMessage String explaining why <code>obs</code> is being changed. If
 	 *            <code>obs</code> is a new obs, changeMessage is nullable, or if it is being
@@ -124,10 +131,29 @@ public interface ObsService extends OpenmrsService {
 	 * @should link original and updated obs
 	 * @should set void reason message to changeMessage
      * @should not void an Obs with no changes
+	 * @should void the original obs with a direct update if enabled
+	 * @should void the saved group members of the original obs with a direct update if enabled
 	 */
 	@Authorized( { PrivilegeConstants.ADD_OBS, PrivilegeConstants.EDIT_OBS })
 	public Obs saveObs(Obs obs, String changeMessage) throws APIException;
 	
+	/**
+	 * Saves the new obs of an encounter, with their group members, in one pass. Each new obs is
+	 * validated and handled by the save handlers once together with its group members, instead of
+	 * every obs and group member going through {@link #saveObs(Obs, String)} on its own. Obs of the
+	 * encounter that were saved before are left alone.
+	 * 
+	 * @param encounter the saved encounter whose new obs to save
+	 * @return the new obs at the top level of the encounter that were saved
+	 * @throws APIException
+	 * @since 2.4.0
+	 * @see EncounterService#saveEncounter(Encounter)
+	 * @should save new obs with their group members
+	 * @should not save obs that were saved before
+	 */
+	@Authorized(PrivilegeConstants.ADD_OBS)
+	public List<Obs> saveNewEncounterObs(Encounter encounter) throws APIException;
+	
 	/**
 	 * Equivalent to deleting an observation
 	 * 
@@ -282,6 +308,54 @@ public interface ObsService extends OpenmrsService {
 	        Integer mostRecentN, Integer obsGroupId, Date fromDate, Date toDate, boolean includeVoidedObs,
 	        String accessionNumber) throws APIException;
 	
+	/**
+	 * Gets the most recent (non voided) observations for each combination of person and question
+	 * concept in a single query, e.g. the latest value of each of the concepts shown on a patient
+	 * dashboard. Unlike the <code>mostRecentN</code> argument of
+	 * {@link #getObservations(List, List, List, List, List, List, List, Integer, Integer, Date, Date, boolean)}
+	 * which limits the total number of obs returned, the limit here applies to each person and
+	 * concept separately. Obs with the same obsDatetime are ordered by descending obsId.
+	 * 
+	 * @param whom the persons to get the obs for, all persons if null or empty
+	 * @param questions the question concepts to get the obs for (required)
+	 * @param mostRecentN the number of obs to return per person and concept, 1 if null
+	 * @param toDate ignore obs after this date (optional)
+	 * @return the obs ordered by person id, concept id and then most recent first
+	 * @throws APIException
+	 * @since 2.4.0
+	 * @should return the most recent obs for each person and concept
+	 * @should return the given number of obs for each person and concept
+	 * @should ignore obs after the given date
+	 * @should not return voided obs
+	 */
+	@Authorized(PrivilegeConstants.GET_OBS)
+	public List<Obs> getMostRecentObservations(List<Person> whom, List<Concept> questions, Integer mostRecentN,
+	        Date toDate) throws APIException;
+	
+	/**
+	 * Streaming variant of {@link #getMostRecentObservations(List, List, Integer, Date)} for
+	 * cohort wide use, e.g. the latest value of a concept for each patient in a cohort. The obs are
+	 * loaded in batches and passed one at a time to the given action, in the same order as they
+	 * would be returned by {@link #getMostRecentObservations(List, List, Integer, Date)}. The obs
+	 * that were not already in the session are loaded read only and evicted from the session once the
+	 * action returns, so memory use does not grow with the size of the cohort and the action must not
+	 * modify them. Obs the caller had already loaded stay in the session.
+	 * 
+	 * @param cohort the patients to get the obs for, all persons if null
+	 * @param questions the question concepts to get the obs for (required)
+	 * @param mostRecentN the number of obs to return per person and concept, 1 if null
+	 * @param toDate ignore obs after this date (optional)
+	 * @param action the action to perform on each obs
+	 * @throws APIException
+	 * @since 2.4.0
+	 * @should pass the most recent obs for each patient in the cohort to the action
+	 * @should pass the most recent obs of all persons to the action if the cohort is null
+	 * @should not evict obs that were already in the session
+	 */
+	@Authorized(PrivilegeConstants.GET_OBS)
+	public void forEachMostRecentObservation(Cohort cohort, List<Concept> questions, Integer mostRecentN, Date toDate,
+	        Consumer<Obs> action) throws APIException;
+	
 	/**
 	 * This method fetches the count of observations according to the criteria in the given
 	 * arguments. All arguments are optional and nullable. If more than one argument is non-null,
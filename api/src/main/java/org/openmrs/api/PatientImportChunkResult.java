@@ -0,0 +1,55 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outcome of {@link PatientService#importPatientChunk(List)}: the ids of the imported patients
+ * and why the others were rejected.
+ *
+ * @since 2.4.0
+ */
+public final class PatientImportChunkResult implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private final List<Integer> importedPatientIds;
+	
+	private final Map<Integer, String> errors;
+	
+	/**
+	 * @param importedPatientIds the ids of the patients that were imported
+	 * @param errors why patients could not be imported, by their position in the chunk
+	 */
+	public PatientImportChunkResult(List<Integer> importedPatientIds, Map<Integer, String> errors) {
+		this.importedPatientIds = Collections.unmodifiableList(new ArrayList<>(importedPatientIds));
+		this.errors = Collections.unmodifiableMap(new LinkedHashMap<>(errors));
+	}
+	
+	/**
+	 * @return the ids of the patients that were imported
+	 */
+	public List<Integer> getImportedPatientIds() {
+		return importedPatientIds;
+	}
+	
+	/**
+	 * @return why patients could not be imported, by their position in the chunk starting at 0
+	 */
+	public Map<Integer, String> getErrors() {
+		return errors;
+	}
+}
@@ -0,0 +1,124 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+/**
+ * The outcome of {@link PatientService#importPatients(java.util.Iterator)}: how many patients were
+ * imported, how fast, and why the others were rejected.
+ *
+ * @since 2.4.0
+ */
+public class PatientImportResult implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private final long startTime = System.currentTimeMillis();
+	
+	private long endTime = 0;
+	
+	private int importedCount = 0;
+	
+	private final Map<Integer, String> errors = new LinkedHashMap<>();
+	
+	private transient Future<?> searchIndexUpdate;
+	
+	/**
+	 * Records that a patient was imported
+	 */
+	public void addImported() {
+		importedCount++;
+	}
+	
+	/**
+	 * Records that a patient could not be imported
+	 *
+	 * @param index the position of the patient in the imported records, starting at 0
+	 * @param error why the patient could not be imported
+	 */
+	public void addError(int index, String error) {
+		errors.put(index, error);
+	}
+	
+	/**
+	 * Records that the import has finished
+	 */
+	public void finish() {
+		endTime = System.currentTimeMillis();
+	}
+	
+	/**
+	 * @param searchIndexUpdate the update of the search index for the last committed patients
+	 */
+	public void setSearchIndexUpdate(Future<?> searchIndexUpdate) {
+		this.searchIndexUpdate = searchIndexUpdate;
+	}
+	
+	/**
+	 * The search index is updated in the background one chunk after the other, so this completes
+	 * once it is up to date for all imported patients.
+	 * 
+	 * @return the update of the search index for the last committed patients, null if no patient
+	 *         was imported
+	 */
+	public Future<?> getSearchIndexUpdate() {
+		return searchIndexUpdate;
+	}
+	
+	/**
+	 * @return the number of patients that were imported
+	 */
+	public int getImportedCount() {
+		return importedCount;
+	}
+	
+	/**
+	 * @return the number of patients that could not be imported
+	 */
+	public int getFailedCount() {
+		return errors.size();
+	}
+	
+	/**
+	 * @return why patients could not be imported, by their position in the imported records
+	 */
+	public Map<Integer, String> getErrors() {
+		return Collections.unmodifiableMap(errors);
+	}
+	
+	/**
+	 * @return the time the import has been running for, or took if it has finished, in milliseconds
+	 */
+	public long getElapsedTime() {
+		return (endTime != 0 ? endTime : System.currentTimeMillis()) - startTime;
+	}
+	
+	/**
+	 * @return the average number of records processed per second
+	 */
+	public double getRecordsPerSecond() {
+		long elapsed = getElapsedTime();
+		if (elapsed <= 0) {
+			return 0;
+		}
+		return (getImportedCount() + getFailedCount()) * 1000.0 / elapsed;
+	}
+	
+	@Override
+	public String toString() {
+		return "PatientImportResult[imported=" + getImportedCount() + ", failed=" + getFailedCount() + ", recordsPerSecond="
+		        + String.format("%.1f", getRecordsPerSecond()) + "]";
+	}
+}
@@ -11,6 +11,7 @@ package org.openmrs.api;
 
 import java.util.Collection;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 
 import org.openmrs.Allergies;
@@ -69,6 +70,39 @@ public interface PatientService extends OpenmrsService {
 	@Authorized( { PrivilegeConstants.ADD_PATIENTS, PrivilegeConstants.EDIT_PATIENTS })
 	public Patient savePatient(Patient patient) throws APIException;
 	
+	/**
+	 * Imports new patients in bulk. Each patient is validated and prepared like
+	 * {@link #savePatient(Patient)} does, but is then inserted directly, bypassing the hibernate
+	 * session and the search index. The patients are committed in chunks, each in a transaction of
+	 * its own, and the search index is updated for the patients of a chunk in the background once
+	 * it has been committed. Patients that fail are reported in the result instead of aborting the
+	 * import.
+	 * 
+	 * @param patients the new patients to import, they are read one at a time
+	 * @return the number of imported patients, the throughput and why the other patients failed
+	 * @throws APIException
+	 * @since 2.4.0
+	 * @should import new patients with their names, addresses, attributes and identifiers
+	 * @should report invalid patients and continue with the next ones
+	 * @should report patients with an identifier used by a patient imported before
+	 * @should update the search index for the imported patients
+	 */
+	@Authorized(PrivilegeConstants.ADD_PATIENTS)
+	public PatientImportResult importPatients(Iterator<Patient> patients) throws APIException;
+	
+	/**
+	 * Imports a chunk of new patients in a transaction of its own. This is what
+	 * {@link #importPatients(Iterator)} calls for each chunk, it does not update the search index.
+	 * 
+	 * @param patients the new patients to import
+	 * @return the ids of the imported patients and why the other patients failed
+	 * @throws APIException
+	 * @since 2.4.0
+	 * @should import valid patients and report the others by their position in the chunk
+	 */
+	@Authorized(PrivilegeConstants.ADD_PATIENTS)
+	public PatientImportChunkResult importPatientChunk(List<Patient> patients) throws APIException;
+	
 	/**
 	 * Get patient by internal identifier
 	 * 
@@ -396,7 +430,10 @@ public interface PatientService extends OpenmrsService {
 	public void purgePatientIdentifierType(PatientIdentifierType patientIdentifierType) throws APIException;
 		
 	/**
-	 * Convenience method to validate all identifiers for a given patient
+	 * Convenience method to validate all identifiers for a given patient. Since 2.4.0 the check that
+	 * no other patient has one of the identifiers runs after all identifiers were validated, so an
+	 * invalid or duplicate identifier of this patient is reported before an identifier that is not
+	 * unique across patients.
 	 * 
 	 * @param patient patient for which to validate identifiers
 	 * @see #checkPatientIdentifiers(Patient)
@@ -653,6 +690,22 @@ public interface PatientService extends OpenmrsService {
 	@Authorized(PrivilegeConstants.GET_PATIENTS)
 	public boolean isIdentifierInUseByAnotherPatient(PatientIdentifier patientIdentifier);
 	
+	/**
+	 * Checks which of the given patient identifiers are already assigned to a patient other than
+	 * their own, using one query per batch of identifiers instead of one per identifier
+	 * 
+	 * @param patientIdentifiers the patient identifiers to look for in other patients
+	 * @return the given patient identifiers that are in use by another patient, in the given order
+	 * @since 2.4.0
+	 * @see #isIdentifierInUseByAnotherPatient(PatientIdentifier)
+	 * @should return the identifiers that are in use by another patient
+	 * @should not return identifiers only in use by their own patient
+	 * @should return an empty list for an empty collection
+	 * @should match the identifiers like the database compares them
+	 */
+	@Authorized(PrivilegeConstants.GET_PATIENTS)
+	public List<PatientIdentifier> getIdentifiersInUseByAnotherPatient(Collection<PatientIdentifier> patientIdentifiers);
+	
 	/**
 	 * Returns a patient identifier that matches the given patientIndentifier id
 	 * 
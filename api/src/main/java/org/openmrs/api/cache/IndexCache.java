@@ -0,0 +1,112 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.cache;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.openmrs.api.context.Context;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps an index that is built from whole tables, such as the membership of all concept sets, in
+ * the {@value #CACHE_NAME} api cache. Services call {@link #invalidate()} when they change the
+ * indexed data.
+ * <p>
+ * The transaction that made the change gets an index that is built for it alone, so the uncommitted
+ * data is neither shared with other threads nor kept after a rollback. The cached index is dropped
+ * when that transaction completes, and an index that another thread built before then is never
+ * used again.
+ *
+ * @param <T> the type of the index
+ * @since 2.4.0
+ */
+public class IndexCache<T extends Serializable> {
+	
+	public static final String CACHE_NAME = "indexes";
+	
+	private final String name;
+	
+	private final Supplier<T> loader;
+	
+	private final AtomicLong generation = new AtomicLong();
+	
+	/**
+	 * @param name the key of the index in the cache
+	 * @param loader builds the index from the database
+	 */
+	public IndexCache(String name, Supplier<T> loader) {
+		this.name = name;
+		this.loader = loader;
+	}
+	
+	/**
+	 * @return the cached index, or a new one if it is not cached or the current transaction changed
+	 *         the indexed data
+	 */
+	@SuppressWarnings("unchecked")
+	public T get() {
+		if (TransactionSynchronizationManager.hasResource(this)) {
+			return loader.get();
+		}
+		long current = generation.get();
+		Cache.ValueWrapper cached = getCache().get(name);
+		if (cached != null && ((Entry<T>) cached.get()).generation == current) {
+			return ((Entry<T>) cached.get()).index;
+		}
+		T index = loader.get();
+		getCache().put(name, new Entry<>(current, index));
+		return index;
+	}
+	
+	/**
+	 * Drops the cached index. Inside a transaction it is dropped again once the transaction has
+	 * completed, and the transaction stops using the cache until then.
+	 */
+	public void invalidate() {
+		generation.incrementAndGet();
+		getCache().evict(name);
+		if (TransactionSynchronizationManager.isSynchronizationActive()
+		        && !TransactionSynchronizationManager.hasResource(this)) {
+			TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(IndexCache.this);
+					generation.incrementAndGet();
+					getCache().evict(name);
+				}
+			});
+		}
+	}
+	
+	private Cache getCache() {
+		return Context.getRegisteredComponent("apiCacheManager", CacheManager.class).getCache(CACHE_NAME);
+	}
+	
+	private static class Entry<T extends Serializable> implements Serializable {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final long generation;
+		
+		private final T index;
+		
+		Entry(long generation, T index) {
+			this.generation = generation;
+			this.index = index;
+		}
+	}
+}
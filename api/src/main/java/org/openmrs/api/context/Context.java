@@ -54,6 +54,9 @@ import org.openmrs.api.SerializationService;
 import org.openmrs.api.UserService;
 import org.openmrs.api.VisitService;
 import org.openmrs.api.db.ContextDAO;
+import org.openmrs.api.db.hibernate.search.SearchIndexProgress;
+import org.openmrs.api.impl.EncounterServiceImpl;
+import org.openmrs.api.impl.ObsServiceImpl;
 import org.openmrs.hl7.HL7Service;
 import org.openmrs.logic.LogicService;
 import org.openmrs.messagesource.MessageSourceService;
@@ -72,6 +75,7 @@ import org.openmrs.util.DatabaseUpdateException;
 import org.openmrs.util.DatabaseUpdater;
 import org.openmrs.util.InputRequiredException;
 import org.openmrs.util.LocaleUtility;
+import org.openmrs.util.LocalizedDateFormat;
 import org.openmrs.util.OpenmrsClassLoader;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
@@ -1146,6 +1150,11 @@ public class Context {
 
 		Allergen.setOtherNonCodedConceptUuid(Context.getAdministrationService().getGlobalProperty(
 				OpenmrsConstants.GP_ALLERGEN_OTHER_NON_CODED_UUID));
+
+		ObsServiceImpl.setVoidEditedObsWithDirectUpdate(as.getGlobalPropertyValue(
+				OpenmrsConstants.GP_OBS_VOID_EDITED_OBS_WITH_DIRECT_UPDATE, Boolean.FALSE));
+		EncounterServiceImpl.setSaveNewObsInOnePass(as.getGlobalPropertyValue(
+				OpenmrsConstants.GP_ENCOUNTER_SAVE_NEW_OBS_IN_ONE_PASS, Boolean.FALSE));
 	}
 
 	/**
@@ -1232,6 +1241,18 @@ public class Context {
 		return OpenmrsUtil.getDateTimeFormat(getLocale());
 	}
 
+	/**
+	 * Gets the date, time and datetime formats for the current user's locale. Unlike
+	 * {@link #getDateFormat()}, these are shared and thread-safe, so nothing is created per call.
+	 *
+	 * @return the formats for the user's current locale
+	 * @see org.openmrs.util.LocalizedDateFormat#getInstance(Locale)
+	 * @since 2.4.0
+	 */
+	public static LocalizedDateFormat getLocalizedDateFormat() {
+		return LocalizedDateFormat.getInstance(getLocale());
+	}
+
 	/**
 	 * @return true/false whether the service context is currently being refreshed
 	 * @see org.openmrs.api.context.ServiceContext#isRefreshingContext()
@@ -1351,7 +1372,48 @@ public class Context {
 	}
 
 	/**
-	 * Updates the search index for objects of the given type.
+	 * Updates the search index without purging it first, so that searches keep returning results
+	 * while the update is running. It is a blocking operation, which is slower than
+	 * {@link #updateSearchIndex()}, but it can be run on a live system. Entities are loaded with the
+	 * same number of threads and batch size as {@link #updateSearchIndex()}, and only committed
+	 * entities are indexed.
+	 *
+	 * @see #getSearchIndexProgress()
+	 * @since 2.4.0
+	 */
+	public static void updateSearchIndexInPlace() {
+		getContextDAO().updateSearchIndexInPlace();
+	}
+
+	/**
+	 * Updates the search index for entities created, changed, voided or retired since the search
+	 * index of their type was last updated. Use it to catch up with changes made directly in the
+	 * database, e.g. by SQL imports. Types which have never been updated since watermarks are
+	 * recorded are updated completely.
+	 * <p>
+	 * Only rows with timestamps set by the change are picked up, and documents of deleted rows are
+	 * not purged. Use {@link #updateSearchIndexInPlace()} for these.
+	 *
+	 * @see org.openmrs.scheduler.tasks.UpdateSearchIndexTask
+	 * @since 2.4.0
+	 */
+	public static void updateSearchIndexIncrementally() {
+		getContextDAO().updateSearchIndexIncrementally();
+	}
+
+	/**
+	 * Gets the progress of the running or most recently finished search index update.
+	 *
+	 * @return the progress or null if the search index has not been updated since startup
+	 * @since 2.4.0
+	 */
+	public static SearchIndexProgress getSearchIndexProgress() {
+		return getContextDAO().getSearchIndexProgress();
+	}
+
+	/**
+	 * Updates the search index for objects of the given type. Existing documents are replaced in
+	 * place, so searches keep returning results while the update is running.
 	 *
 	 * @see #updateSearchIndex()
 	 * @param type
@@ -10,6 +10,7 @@
 package org.openmrs.api.db;
 
 import java.util.List;
+import java.util.Map;
 
 import org.openmrs.GlobalProperty;
 import org.openmrs.OpenmrsObject;
@@ -71,6 +72,11 @@ public interface AdministrationDAO {
 	 */
 	public int getMaximumPropertyLength(Class<? extends OpenmrsObject> aClass, String fieldName);
 	
+	/**
+	 * @see org.openmrs.api.AdministrationService#getMaximumStringPropertyLengths(Class)
+	 */
+	public Map<String, Integer> getMaximumStringPropertyLengths(Class<?> aClass);
+	
 	/**
 	 * @see org.openmrs.api.AdministrationService#validate(Object, Errors)
 	 */
@@ -40,6 +40,7 @@ import org.openmrs.Drug;
 import org.openmrs.DrugIngredient;
 import org.openmrs.api.APIException;
 import org.openmrs.api.ConceptService;
+import org.openmrs.api.ConceptSetIndex;
 
 /**
  * Concept-related database functions
@@ -218,6 +219,11 @@ public interface ConceptDAO {
 	 */
 	public List<ConceptSet> getSetsContainingConcept(Concept concept) throws DAOException;
 	
+	/**
+	 * @see org.openmrs.api.ConceptService#getConceptSetIndex()
+	 */
+	public ConceptSetIndex getConceptSetIndex() throws DAOException;
+	
 	/**
 	 * @see org.openmrs.api.ConceptService#getConceptNumeric(java.lang.Integer)
 	 */
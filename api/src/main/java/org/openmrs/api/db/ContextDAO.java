@@ -15,6 +15,7 @@ import java.util.concurrent.Future;
 
 import org.openmrs.User;
 import org.openmrs.api.context.Context;
+import org.openmrs.api.db.hibernate.search.SearchIndexProgress;
 import org.openmrs.api.context.ContextAuthenticationException;
 import org.openmrs.util.OpenmrsConstants;
 
@@ -48,6 +49,7 @@ public interface ContextDAO {
 	 * @should authenticateWithIncorrectHashedPassword
 	 * @should set uuid on user property when authentication fails with valid user
 	 * @should pass regression test for 1580
+	 * @should load the user with its credentials and properties in one query
 	 * @should throw a ContextAuthenticationException if username is an empty string
 	 * @should throw a ContextAuthenticationException if username is white space
 	 */
@@ -177,4 +179,22 @@ public interface ContextDAO {
 	 * @see Context#updateSearchIndexForType(Class)
 	 */
 	public void updateSearchIndexForType(Class<?> type);
+	
+	/**
+	 * @see Context#updateSearchIndexInPlace()
+	 * @since 2.4.0
+	 */
+	public void updateSearchIndexInPlace();
+	
+	/**
+	 * @see Context#updateSearchIndexIncrementally()
+	 * @since 2.4.0
+	 */
+	public void updateSearchIndexIncrementally();
+	
+	/**
+	 * @see Context#getSearchIndexProgress()
+	 * @since 2.4.0
+	 */
+	public SearchIndexProgress getSearchIndexProgress();
 }
@@ -9,6 +9,7 @@
  */
 package org.openmrs.api.db;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -155,6 +156,22 @@ public interface EncounterDAO {
 	 */
 	List<Encounter> getEncounters(String query, Integer patientId, Integer start, Integer length, boolean includeVoided);
 	
+	/**
+	 * Get a list of {@link Encounter} by Patient name or identifier based on batch settings,
+	 * excluding encounters of the given types in the query itself so that batches are full
+	 * 
+	 * @param query patient name or identifier
+	 * @param patientId the patient id
+	 * @param start beginning index for the batch
+	 * @param length number of encounters to return in the batch
+	 * @param includeVoided Specifies whether voided encounters should be included
+	 * @param excludedEncounterTypeIds ids of the encounter types to exclude, may be null or empty
+	 * @return list of {@link Encounter} based on batch settings
+	 * @since 2.4.0
+	 */
+	List<Encounter> getEncounters(String query, Integer patientId, Integer start, Integer length, boolean includeVoided,
+	        Collection<Integer> excludedEncounterTypeIds);
+	
 	/**
 	 * Gets the location of the encounter
 	 * 
@@ -179,6 +196,20 @@ public interface EncounterDAO {
 	 */
 	public Long getCountOfEncounters(String query, Integer patientId, boolean includeVoided);
 	
+	/**
+	 * Return the number of encounters matching a patient name or patient identifier, not counting
+	 * encounters of the given types
+	 * 
+	 * @param query patient name or identifier
+	 * @param patientId the patient id
+	 * @param includeVoided Specifies whether voided encounters should be included
+	 * @param excludedEncounterTypeIds ids of the encounter types to exclude, may be null or empty
+	 * @return the number of encounters matching the given search phrase
+	 * @since 2.4.0
+	 */
+	public Long getCountOfEncounters(String query, Integer patientId, boolean includeVoided,
+	        Collection<Integer> excludedEncounterTypeIds);
+	
 	/**
 	 * @see EncounterService#getEncountersByVisit(Visit, boolean)
 	 */
@@ -242,11 +273,29 @@ public interface EncounterDAO {
 	List<Encounter> getEncountersByVisitsAndPatient(Patient patient, boolean includeVoided, String query, Integer start,
 	        Integer length);
 	
+	/**
+	 * Same as {@link #getEncountersByVisitsAndPatient(Patient, boolean, String, Integer, Integer)}
+	 * but excludes encounters of the given types before the batch is taken
+	 * 
+	 * @since 2.4.0
+	 */
+	List<Encounter> getEncountersByVisitsAndPatient(Patient patient, boolean includeVoided, String query, Integer start,
+	        Integer length, Collection<Integer> excludedEncounterTypeIds);
+	
 	/**
 	 * @see EncounterService#getEncountersByVisitsAndPatientCount(Patient, boolean, String)
 	 */
 	Integer getEncountersByVisitsAndPatientCount(Patient patient, boolean includeVoided, String query);
 	
+	/**
+	 * Same as {@link #getEncountersByVisitsAndPatientCount(Patient, boolean, String)} but does not
+	 * count encounters of the given types
+	 * 
+	 * @since 2.4.0
+	 */
+	Integer getEncountersByVisitsAndPatientCount(Patient patient, boolean includeVoided, String query,
+	        Collection<Integer> excludedEncounterTypeIds);
+	
 	/**
 	 * Get encounter roles by name
 	 * 
@@ -17,6 +17,7 @@ import org.openmrs.Location;
 import org.openmrs.LocationAttribute;
 import org.openmrs.LocationAttributeType;
 import org.openmrs.LocationTag;
+import org.openmrs.api.LocationHierarchyIndex;
 import org.openmrs.api.LocationService;
 
 /**
@@ -201,4 +202,9 @@ public interface LocationDAO {
 	 * @should ignore null values in location tag list
 	 */
 	List<Location> getLocationsHavingAllTags(List<LocationTag> locationTagIdList);
+	
+	/**
+	 * @see LocationService#getLocationHierarchyIndex()
+	 */
+	public LocationHierarchyIndex getLocationHierarchyIndex();
 }
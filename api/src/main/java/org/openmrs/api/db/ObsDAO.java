@@ -11,13 +11,16 @@ package org.openmrs.api.db;
 
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
+import org.openmrs.Cohort;
 import org.openmrs.Concept;
 import org.openmrs.ConceptName;
 import org.openmrs.Encounter;
 import org.openmrs.Location;
 import org.openmrs.Obs;
 import org.openmrs.Person;
+import org.openmrs.User;
 import org.openmrs.api.ObsService;
 import org.openmrs.util.OpenmrsConstants.PERSON_TYPE;
 
@@ -65,6 +68,19 @@ public interface ObsDAO {
 	        Date fromDate, Date toDate, List<ConceptName> valueCodedNameAnswers, boolean includeVoidedObs,
 	        String accessionNumber) throws DAOException;
 	
+	/**
+	 * @see org.openmrs.api.ObsService#getMostRecentObservations(List, List, Integer, Date)
+	 */
+	public List<Obs> getMostRecentObservations(List<Person> whom, List<Concept> questions, int mostRecentN,
+	        Date toDate) throws DAOException;
+	
+	/**
+	 * @see org.openmrs.api.ObsService#forEachMostRecentObservation(Cohort, List, Integer, Date,
+	 *      Consumer)
+	 */
+	public void forEachMostRecentObservation(Cohort cohort, List<Concept> questions, int mostRecentN, Date toDate,
+	        Consumer<Obs> action) throws DAOException;
+	
 	/**
 	 * @param uuid
 	 * @return obs or null
@@ -87,4 +103,25 @@ public interface ObsDAO {
 	 */
 	public Obs.Status getSavedStatus(Obs obs);
 	
+	/**
+	 * Voids the saved obs and the saved members of its group, and of their groups, with a direct
+	 * update. Obs that are already voided by someone keep their void details, like
+	 * {@link org.openmrs.api.handler.BaseVoidHandler} does. The same void details are set on the given
+	 * instances, which are then evicted from the session, so any changes made to them are never
+	 * written.
+	 * <p>
+	 * Nothing that {@link ObsService#voidObs(org.openmrs.Obs, String)} triggers runs for these obs:
+	 * no AOP advice around voidObs, no {@link org.openmrs.api.handler.VoidHandler}s and no Hibernate
+	 * interceptors of the {@link org.openmrs.api.db.hibernate.ChainingInterceptor}, since the obs are
+	 * never flushed.
+	 * 
+	 * @param obs the obs to void
+	 * @param voidedBy the user voiding the obs
+	 * @param dateVoided the date the obs are voided
+	 * @param voidReason the reason the obs are voided
+	 * @return the number of obs that were voided
+	 * @since 2.4.0
+	 */
+	public int voidSavedObsAndGroupMembers(Obs obs, User voidedBy, Date dateVoided, String voidReason);
+	
 }
@@ -9,11 +9,13 @@
  */
 package org.openmrs.api.db;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.openmrs.Allergies;
 import org.openmrs.Allergy;
 import org.openmrs.Location;
+import org.openmrs.OrderType;
 import org.openmrs.Patient;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
@@ -32,6 +34,29 @@ public interface PatientDAO {
 	 */
 	public Patient savePatient(Patient patient) throws DAOException;
 	
+	/**
+	 * Inserts a new patient with its names, addresses, attributes and identifiers directly, without
+	 * going through the hibernate session. If an insert fails, none of the rows of the patient are
+	 * kept.
+	 * 
+	 * @param patient the new patient to insert
+	 * @throws DAOException if the patient could not be inserted
+	 * @since 2.4.0
+	 * @see org.openmrs.api.PatientService#importPatients(java.util.Iterator)
+	 */
+	public void insertPatient(Patient patient) throws DAOException;
+	
+	/**
+	 * Updates the search index for the names, attributes and identifiers of the given patients. It
+	 * uses a session and transaction of its own, so it can be called from any thread once the
+	 * patients have been committed.
+	 * 
+	 * @param patientIds the ids of the patients to index
+	 * @since 2.4.0
+	 * @see org.openmrs.api.PatientService#importPatients(java.util.Iterator)
+	 */
+	public void updateSearchIndexForPatients(Collection<Integer> patientIds);
+	
 	/**
 	 * @see org.openmrs.api.PatientService#getPatient(Integer)
 	 */
@@ -190,6 +215,11 @@ public interface PatientDAO {
 	 */
 	public boolean isIdentifierInUseByAnotherPatient(PatientIdentifier patientIdentifier);
 	
+	/**
+	 * @see org.openmrs.api.PatientService#getIdentifiersInUseByAnotherPatient(Collection)
+	 */
+	public List<PatientIdentifier> getIdentifiersInUseByAnotherPatient(Collection<PatientIdentifier> patientIdentifiers);
+	
 	/**
 	 * @param uuid
 	 * @return patient or null
@@ -297,4 +327,53 @@ public interface PatientDAO {
 	 */
 	public Allergy saveAllergy(Allergy allergy);
 	
+	/**
+	 * Gets the order types of which both patients have an active order, using a single query
+	 * 
+	 * @param patient1 the first patient
+	 * @param patient2 the second patient
+	 * @return the order types both patients have active orders of
+	 * @since 2.4.0
+	 * @should return the order types both patients have active orders of
+	 * @should ignore voided, discontinued and expired orders
+	 */
+	public List<OrderType> getActiveOrderTypesInCommon(Patient patient1, Patient patient2);
+	
+	/**
+	 * Moves all visits of a patient, including voided ones, to another patient with a bulk update
+	 * 
+	 * @param from the patient to move the visits from
+	 * @param to the patient to move the visits to
+	 * @return the uuids of the moved visits
+	 * @since 2.4.0
+	 * @should move all visits to the other patient
+	 */
+	public List<String> moveVisits(Patient from, Patient to);
+	
+	/**
+	 * Moves all encounters of a patient, including voided ones, to another patient with bulk updates.
+	 * The obs and orders contained in the encounters are moved along.
+	 * 
+	 * @param from the patient to move the encounters from
+	 * @param to the patient to move the encounters to
+	 * @return the uuids of the moved encounters
+	 * @since 2.4.0
+	 * @should move all encounters with their obs and orders to the other patient
+	 */
+	public List<String> moveEncounters(Patient from, Patient to);
+	
+	/**
+	 * Copies the non voided obs of a patient that are not contained in an encounter to another
+	 * patient and voids the originals, like saving each of them with the other patient would, but
+	 * without running the save handlers for each obs
+	 * 
+	 * @param from the patient to copy the obs from
+	 * @param to the patient to copy the obs to
+	 * @param voidReason the reason the original obs are voided with
+	 * @return the uuids of the non voided copies, including those of group members
+	 * @since 2.4.0
+	 * @should copy non voided obs not contained in encounters to the other patient and void them
+	 */
+	public List<String> copyObservationsNotContainedInEncounters(Patient from, Patient to, String voidReason);
+	
 }
@@ -280,6 +280,27 @@ public interface ProgramWorkflowDAO {
 	 * @return - A List of ProgramWorkflowStates
 	 */
 	public List<ProgramWorkflowState> getProgramWorkflowStatesByConcept(Concept concept);
+	
+	/**
+	 * Returns the ids of the concepts of all program workflow states, these are the concepts that
+	 * can trigger a state conversion.
+	 * 
+	 * @return the ids of the concepts used by program workflow states
+	 * @since 2.4.0
+	 */
+	public List<Integer> getProgramWorkflowStateConceptIds();
+	
+	/**
+	 * Returns the enrollments of a patient that are neither voided nor completed, in the programs
+	 * that have a workflow with a state for the given concept.
+	 * 
+	 * @param patient the enrolled patient
+	 * @param stateConcept the concept of a program workflow state
+	 * @return the active patient programs that can transition to a state for the concept
+	 * @since 2.4.0
+	 */
+	public List<PatientProgram> getActivePatientProgramsWithStateConcept(Patient patient, Concept stateConcept);
+	
         public List getAllProgramAttributeTypes();
 
         public ProgramAttributeType getProgramAttributeType(Integer var1);
@@ -184,12 +184,16 @@ public interface SerializedObjectDAO {
 	        throws DAOException;
 	
 	/**
-	 * Converts a raw SerializedObject to an OpenmrsObject, using the appropriate Serializer
+	 * Converts a raw SerializedObject to an OpenmrsObject, using the appropriate Serializer. As long
+	 * as the SerializedObject is unchanged, implementations may return a copy of the object that was
+	 * deserialized on a previous call rather than parsing the serialized data again.
 	 * 
 	 * @param clazz the OpenmrsObject class to retrieve
 	 * @param serializedObject the raw SerializedObject to deserialize into an OpenmrsObject
 	 * @return an OpenmrsObject of the passed clazz from the passed SerializedObject
 	 * @throws DAOException
+	 * @should return a copy of the deserialized object if the serialized object is unchanged
+	 * @should deserialize again if the serialized object changed
 	 */
 	public <T extends OpenmrsObject> T convertSerializedObject(Class<T> clazz, SerializedObject serializedObject)
 	        throws DAOException;
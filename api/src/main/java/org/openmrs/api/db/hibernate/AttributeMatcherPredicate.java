@@ -19,7 +19,10 @@ import org.openmrs.customdatatype.Customizable;
 /**
  * Used in conjunction with commons-collections filter to find attributes with values in the given map.
  * @since 1.9
+ * @deprecated as of 2.4.0, the visit and provider DAOs match attribute values in the database with
+ *             {@link HibernateUtil#addAttributeCriteria(org.hibernate.Criteria, Class, Map, boolean)}
  */
+@Deprecated
 public class AttributeMatcherPredicate<T extends Customizable, AT extends AttributeType> implements Predicate {
 	
 	private final Map<AT, String> serializedAttributeValues;
@@ -10,7 +10,12 @@
 package org.openmrs.api.db.hibernate;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.hibernate.Criteria;
 import org.hibernate.FlushMode;
@@ -22,7 +27,10 @@ import org.hibernate.criterion.Restrictions;
 import org.hibernate.engine.spi.SessionImplementor;
 import org.hibernate.mapping.Column;
 import org.hibernate.mapping.PersistentClass;
+import org.hibernate.mapping.Property;
 import org.hibernate.metadata.ClassMetadata;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.tuple.entity.EntityTuplizer;
 import org.hibernate.type.StringType;
 import org.hibernate.type.TextType;
 import org.hibernate.type.Type;
@@ -63,6 +71,17 @@ public class HibernateAdministrationDAO implements AdministrationDAO, Applicatio
 	
 	private ApplicationContext applicationContext;
 	
+	/**
+	 * The column lengths of the properties of the mapped classes, by class name and property name
+	 */
+	private final Map<String, Map<String, Integer>> maximumPropertyLengths = new ConcurrentHashMap<>();
+	
+	/**
+	 * The string properties of the mapped classes that {@link #validate(Object, Errors)} checks, by
+	 * class
+	 */
+	private final Map<Class<?>, StringProperties> stringProperties = new ConcurrentHashMap<>();
+	
 	public HibernateAdministrationDAO() {
 	}
 	
@@ -183,26 +202,85 @@ public class HibernateAdministrationDAO implements AdministrationDAO, Applicatio
 	
 	@Override
 	public int getMaximumPropertyLength(Class<? extends OpenmrsObject> aClass, String fieldName) {
-		if (configuration == null) {
-			HibernateSessionFactoryBean sessionFactoryBean = (HibernateSessionFactoryBean) applicationContext
-			        .getBean("&sessionFactory");
-			configuration = sessionFactoryBean.getConfiguration();
+		String className = aClass.getName().split("_")[0];
+		Map<String, Integer> lengths = maximumPropertyLengths.get(className);
+		if (lengths == null) {
+			PersistentClass persistentClass = getConfiguration().getClassMapping(className);
+			if (persistentClass == null) {
+				throw new APIException("Couldn't find a class in the hibernate configuration named: " + aClass.getName());
+			}
+			lengths = getColumnLengths(persistentClass);
+			maximumPropertyLengths.put(className, lengths);
 		}
-		
-		PersistentClass persistentClass = configuration.getClassMapping(aClass.getName().split("_")[0]);
-		if (persistentClass == null) {
-			throw new APIException("Couldn't find a class in the hibernate configuration named: " + aClass.getName());
-		} else {
-			int fieldLength;
+		// paths into components and properties without a column are looked up, and remembered, one by one
+		return lengths.computeIfAbsent(fieldName, name -> {
 			try {
-				fieldLength = ((Column) persistentClass.getProperty(fieldName).getColumnIterator().next()).getLength();
+				PersistentClass persistentClass = getConfiguration().getClassMapping(className);
+				return ((Column) persistentClass.getProperty(name).getColumnIterator().next()).getLength();
 			}
 			catch (Exception e) {
 				log.debug("Could not determine maximum length", e);
 				return -1;
 			}
-			return fieldLength;
+		});
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.AdministrationDAO#getMaximumStringPropertyLengths(Class)
+	 */
+	@Override
+	public Map<String, Integer> getMaximumStringPropertyLengths(Class<?> aClass) {
+		StringProperties properties = getStringProperties(aClass);
+		return properties != null ? properties.lengthsByName : Collections.emptyMap();
+	}
+	
+	/**
+	 * @return the string properties of the class, null if it is not mapped
+	 */
+	private StringProperties getStringProperties(Class<?> entityClass) {
+		StringProperties properties = stringProperties.get(entityClass);
+		if (properties == null) {
+			ClassMetadata metadata = sessionFactory.getClassMetadata(entityClass);
+			if (metadata == null) {
+				return null;
+			}
+			properties = new StringProperties(metadata, entityClass);
+			stringProperties.put(entityClass, properties);
+		}
+		return properties;
+	}
+	
+	private Configuration getConfiguration() {
+		if (configuration == null) {
+			HibernateSessionFactoryBean sessionFactoryBean = (HibernateSessionFactoryBean) applicationContext
+			        .getBean("&sessionFactory");
+			configuration = sessionFactoryBean.getConfiguration();
+		}
+		return configuration;
+	}
+	
+	/**
+	 * @return the length of the first column of each property of the class, properties without a
+	 *         column are left out
+	 */
+	private Map<String, Integer> getColumnLengths(PersistentClass persistentClass) {
+		Map<String, Integer> lengths = new ConcurrentHashMap<>();
+		List<Property> properties = new ArrayList<>();
+		if (persistentClass.getIdentifierProperty() != null) {
+			properties.add(persistentClass.getIdentifierProperty());
+		}
+		Iterator<?> propertyIterator = persistentClass.getPropertyClosureIterator();
+		while (propertyIterator.hasNext()) {
+			properties.add((Property) propertyIterator.next());
+		}
+		for (Property property : properties) {
+			Iterator<?> columnIterator = property.getColumnIterator();
+			Object column = columnIterator.hasNext() ? columnIterator.next() : null;
+			if (column instanceof Column) {
+				lengths.put(property.getName(), ((Column) column).getLength());
+			}
 		}
+		return lengths;
 	}
 	
 	@Override
@@ -221,39 +299,9 @@ public class HibernateAdministrationDAO implements AdministrationDAO, Applicatio
 	//@SuppressWarnings({ "deprecation", "unchecked", "rawtypes" })
 	@Override
 	public void validate(Object object, Errors errors) throws DAOException {
-		Class entityClass = object.getClass();
-		ClassMetadata metadata = sessionFactory.getClassMetadata(entityClass);
-		if (metadata != null) {
-			String[] propNames = metadata.getPropertyNames();
-			Object identifierType = metadata.getIdentifierType();
-			String identifierName = metadata.getIdentifierPropertyName();
-			if (identifierType instanceof StringType || identifierType instanceof TextType) {
-				int maxLength = getMaximumPropertyLength(entityClass, identifierName);
-				String identifierValue = (String) metadata.getIdentifier(object,
-				    (SessionImplementor) sessionFactory.getCurrentSession());
-				if (identifierValue != null) {
-					int identifierLength = identifierValue.length();
-					if (identifierLength > maxLength) {
-						
-						errors.rejectValue(identifierName, "error.exceededMaxLengthOfField", new Object[] { maxLength },
-						    null);
-					}
-				}
-			}
-			for (String propName : propNames) {
-				Type propType = metadata.getPropertyType(propName);
-				if (propType instanceof StringType || propType instanceof TextType) {
-					String propertyValue = (String) metadata.getPropertyValue(object, propName);
-					if (propertyValue != null) {
-						int maxLength = getMaximumPropertyLength(entityClass, propName);
-						int propertyValueLength = propertyValue.length();
-						if (propertyValueLength > maxLength) {
-							errors.rejectValue(propName, "error.exceededMaxLengthOfField", new Object[] { maxLength },
-									null);
-						}
-					}
-				}
-			}
+		StringProperties properties = getStringProperties(object.getClass());
+		if (properties != null) {
+			properties.validateLengths(object, errors);
 		}
 		FlushMode previousFlushMode = sessionFactory.getCurrentSession().getFlushMode();
 		sessionFactory.getCurrentSession().setFlushMode(FlushMode.MANUAL);
@@ -300,4 +348,84 @@ public class HibernateAdministrationDAO implements AdministrationDAO, Applicatio
 			return true;
 		}
 	}
+	/**
+	 * The string properties of a mapped class with their column lengths, worked out once from the
+	 * Hibernate metadata. Values are read by property index through the getters Hibernate built for
+	 * the class instead of being looked up by name.
+	 */
+	private final class StringProperties {
+		
+		private final ClassMetadata metadata;
+		
+		private final String identifierName;
+		
+		private final int identifierLength;
+		
+		private final EntityTuplizer tuplizer;
+		
+		private final int[] indexes;
+		
+		private final String[] names;
+		
+		private final int[] lengths;
+		
+		private final Map<String, Integer> lengthsByName;
+		
+		@SuppressWarnings("unchecked")
+		private StringProperties(ClassMetadata metadata, Class<?> entityClass) {
+			this.metadata = metadata;
+			Type identifierType = metadata.getIdentifierType();
+			if (identifierType instanceof StringType || identifierType instanceof TextType) {
+				identifierName = metadata.getIdentifierPropertyName();
+				identifierLength = getMaximumPropertyLength((Class<? extends OpenmrsObject>) entityClass, identifierName);
+			} else {
+				identifierName = null;
+				identifierLength = -1;
+			}
+			tuplizer = ((EntityPersister) metadata).getEntityTuplizer();
+			
+			List<Integer> stringIndexes = new ArrayList<>();
+			String[] propertyNames = metadata.getPropertyNames();
+			Type[] propertyTypes = metadata.getPropertyTypes();
+			for (int i = 0; i < propertyNames.length; i++) {
+				if (propertyTypes[i] instanceof StringType || propertyTypes[i] instanceof TextType) {
+					stringIndexes.add(i);
+				}
+			}
+			indexes = new int[stringIndexes.size()];
+			names = new String[indexes.length];
+			lengths = new int[indexes.length];
+			for (int i = 0; i < indexes.length; i++) {
+				indexes[i] = stringIndexes.get(i);
+				names[i] = propertyNames[indexes[i]];
+				lengths[i] = getMaximumPropertyLength((Class<? extends OpenmrsObject>) entityClass, names[i]);
+			}
+			
+			Map<String, Integer> byName = new HashMap<>();
+			if (identifierName != null) {
+				byName.put(identifierName, identifierLength);
+			}
+			for (int i = 0; i < indexes.length; i++) {
+				byName.put(names[i], lengths[i]);
+			}
+			lengthsByName = Collections.unmodifiableMap(byName);
+		}
+		
+		private void validateLengths(Object object, Errors errors) {
+			if (identifierName != null) {
+				String identifierValue = (String) metadata.getIdentifier(object,
+				    (SessionImplementor) sessionFactory.getCurrentSession());
+				if (identifierValue != null && identifierValue.length() > identifierLength) {
+					errors.rejectValue(identifierName, "error.exceededMaxLengthOfField", new Object[] { identifierLength },
+					    null);
+				}
+			}
+			for (int i = 0; i < indexes.length; i++) {
+				String propertyValue = (String) tuplizer.getPropertyValue(object, indexes[i]);
+				if (propertyValue != null && propertyValue.length() > lengths[i]) {
+					errors.rejectValue(names[i], "error.exceededMaxLengthOfField", new Object[] { lengths[i] }, null);
+				}
+			}
+		}
+	}
 }
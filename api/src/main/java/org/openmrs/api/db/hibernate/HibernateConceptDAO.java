@@ -61,6 +61,7 @@ import org.openmrs.DrugIngredient;
 import org.openmrs.OpenmrsObject;
 import org.openmrs.api.APIException;
 import org.openmrs.api.ConceptService;
+import org.openmrs.api.ConceptSetIndex;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.ConceptDAO;
 import org.openmrs.api.db.DAOException;
@@ -815,31 +816,24 @@ public class HibernateConceptDAO implements ConceptDAO {
 	}
 	
 	/**
-	 * returns a list of n-generations of parents of a concept in a concept set
-	 * 
-	 * @param Concept current
-	 * @return List&lt;Concept&gt;
-	 * @throws DAOException
+	 * @see org.openmrs.api.db.ConceptDAO#getConceptSetIndex()
 	 */
-	@SuppressWarnings("unchecked")
-	private List<Concept> getParents(Concept current) throws DAOException {
-		List<Concept> parents = new ArrayList<>();
-		if (current != null) {
-			Query query = sessionFactory.getCurrentSession().createQuery(
-			    "from Concept c join c.conceptSets sets where sets.concept = ?").setEntity(0, current);
-			List<Concept> immedParents = query.list();
-			for (Concept c : immedParents) {
-				parents.addAll(getParents(c));
-			}
-			parents.add(current);
-			if (log.isDebugEnabled()) {
-				log.debug("parents found: ");
-				for (Concept c : parents) {
-					log.debug("id: " + c.getConceptId());
-				}
-			}
+	@Override
+	public ConceptSetIndex getConceptSetIndex() {
+		List<?> rows = sessionFactory.getCurrentSession().createQuery(
+		    "select cs.conceptSet.conceptId, cs.concept.conceptId from ConceptSet cs order by cs.sortWeight").list();
+		Map<Integer, List<Integer>> membersBySet = new HashMap<>();
+		for (Object row : rows) {
+			Object[] ids = (Object[]) row;
+			membersBySet.computeIfAbsent((Integer) ids[0], id -> new ArrayList<>()).add((Integer) ids[1]);
+		}
+		List<?> sets = sessionFactory.getCurrentSession().createCriteria(Concept.class).add(Restrictions.eq("set", true))
+		        .setProjection(Projections.property("conceptId")).list();
+		Set<Integer> setIds = new HashSet<>();
+		for (Object id : sets) {
+			setIds.add((Integer) id);
 		}
-		return parents;
+		return new ConceptSetIndex(membersBySet, setIds);
 	}
 	
 	/**
@@ -10,35 +10,66 @@
 package org.openmrs.api.db.hibernate;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
 import java.net.URL;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.index.DocsEnum;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
 import org.hibernate.CacheMode;
 import org.hibernate.FlushMode;
 import org.hibernate.HibernateException;
+import org.hibernate.NonUniqueResultException;
 import org.hibernate.ScrollMode;
 import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.criterion.Disjunction;
+import org.hibernate.criterion.Projections;
+import org.hibernate.criterion.Restrictions;
+import org.hibernate.metadata.ClassMetadata;
 import org.hibernate.search.FullTextSession;
+import org.hibernate.search.MassIndexer;
+import org.hibernate.search.Search;
+import org.hibernate.search.indexes.IndexReaderAccessor;
 import org.hibernate.stat.QueryStatistics;
 import org.hibernate.stat.Statistics;
-import org.hibernate.type.StandardBasicTypes;
 import org.openmrs.api.db.FullTextSessionFactory;
 import org.openmrs.GlobalProperty;
 import org.openmrs.User;
+import org.openmrs.api.APIException;
+import org.openmrs.api.AdministrationService;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.context.ContextAuthenticationException;
 import org.openmrs.api.context.Daemon;
 import org.openmrs.api.db.ContextDAO;
 import org.openmrs.api.db.UserDAO;
+import org.openmrs.api.db.hibernate.search.SearchIndexProgress;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
+import org.openmrs.util.PrivilegeConstants;
 import org.openmrs.util.Security;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -69,6 +100,28 @@ public class HibernateContextDAO implements ContextDAO {
 	
 	private UserDAO userDao;
 	
+	private volatile SearchIndexProgress searchIndexProgress;
+	
+	/**
+	 * Properties that are compared against the search index watermark of a type to find entities
+	 * that need to be reindexed
+	 */
+	private static final String[] WATERMARK_PROPERTIES = { "dateCreated", "dateChanged", "dateVoided", "dateRetired" };
+	
+	private static final String WATERMARK_FORMAT = "yyyy-MM-dd HH:mm:ss.SSS";
+	
+	/**
+	 * How far before the watermark of a type entities are reindexed again. An entity saved by a
+	 * transaction that was still running when the last update started has a date before the
+	 * watermark, but was not visible to that update yet.
+	 */
+	private static final long WATERMARK_OVERLAP_MILLIS = 10 * 60 * 1000L;
+	
+	/**
+	 * How long a user stays locked out after too many failed login attempts, in milliseconds
+	 */
+	private static final long LOCKOUT_DURATION = 300000;
+	
 	/**
 	 * Session factory to use for this DAO. This is usually injected by spring and its application
 	 * context.
@@ -96,6 +149,10 @@ public class HibernateContextDAO implements ContextDAO {
 		
 		User candidateUser = null;
 		
+		String passwordOnRecord = null;
+		
+		String saltOnRecord = null;
+		
 		if (login != null) {
 			//if username is blank or white space character(s)
 			if (StringUtils.isEmpty(login) || StringUtils.isWhitespace(login)) {
@@ -109,9 +166,25 @@ public class HibernateContextDAO implements ContextDAO {
 			}
 			
 			try {
-				candidateUser = (User) session.createQuery(
-				    "from User u where (u.username = ? or u.systemId = ? or u.systemId = ?) and u.retired = '0'").setString(
-				    0, login).setString(1, login).setString(2, loginWithDash).uniqueResult();
+				// fetch the user together with its credentials, they are stored in the same row, and the
+				// user properties that hold the lockout state, so that a login takes a single query
+				List<?> rows = session.createQuery(
+				    "select u, c.hashedPassword, c.salt from User u left join fetch u.userProperties, LoginCredential c"
+				            + " where c.userId = u.userId and (u.username = ? or u.systemId = ? or u.systemId = ?)"
+				            + " and u.retired = '0'").setString(0, login).setString(1, login).setString(2, loginWithDash)
+				        .list();
+				// the fetched properties repeat the row of the user for each property
+				for (Object result : rows) {
+					if (((Object[]) result)[0] != ((Object[]) rows.get(0))[0]) {
+						throw new NonUniqueResultException(rows.size());
+					}
+				}
+				if (!rows.isEmpty()) {
+					Object[] row = (Object[]) rows.get(0);
+					candidateUser = (User) row[0];
+					passwordOnRecord = (String) row[1];
+					saltOnRecord = (String) row[2];
+				}
 			}
 			catch (HibernateException he) {
 				log.error("Got hibernate exception while logging in: '" + login + "'", he);
@@ -144,7 +217,7 @@ public class HibernateContextDAO implements ContextDAO {
 			if (lockoutTime != null) {
 				// unlock them after 5 mins, otherwise reset the timestamp
 				// to now and make them wait another 5 mins
-				if (System.currentTimeMillis() - lockoutTime > 300000) {
+				if (System.currentTimeMillis() - lockoutTime > LOCKOUT_DURATION) {
 					candidateUser.setUserProperty(OpenmrsConstants.USER_PROPERTY_LOGIN_ATTEMPTS, "0");
 					candidateUser.removeUserProperty(OpenmrsConstants.USER_PROPERTY_LOCKOUT_TIMESTAMP);
 					saveUserProperties(candidateUser);
@@ -156,19 +229,10 @@ public class HibernateContextDAO implements ContextDAO {
 				}
 			}
 			
-			String passwordOnRecord = (String) session.createSQLQuery("select password from users where user_id = ?")
-			        .addScalar("password", StandardBasicTypes.STRING).setInteger(0, candidateUser.getUserId())
-			        .uniqueResult();
-			
-			String saltOnRecord = (String) session.createSQLQuery("select salt from users where user_id = ?").addScalar(
-			    "salt", StandardBasicTypes.STRING).setInteger(0, candidateUser.getUserId()).uniqueResult();
-			
 			// if the username and password match, hydrate the user and return it
 			if (passwordOnRecord != null && Security.hashMatches(passwordOnRecord, password + saltOnRecord)) {
-				// hydrate the user object
-				candidateUser.getAllRoles().size();
-				candidateUser.getUserProperties().size();
-				candidateUser.getPrivileges().size();
+				// the user object is already hydrated, the roles and their privileges are mapped eagerly and
+				// the properties were fetched with the user
 				
 				// only clean up if the were some login failures, otherwise all should be clean
 				Integer attempts = getUsersLoginAttempts(candidateUser);
@@ -462,17 +526,33 @@ public class HibernateContextDAO implements ContextDAO {
 		}
 	}
 	
+	/**
+	 * Updates the index documents of the given type in place instead of purging them first, so that
+	 * searches keep returning results while the update is running. Documents of entities which no
+	 * longer exist are purged at the end. The entities are loaded in the current session, so changes
+	 * the current transaction has not committed yet are indexed too.
+	 * 
+	 * @see org.openmrs.api.db.ContextDAO#updateSearchIndexForType(java.lang.Class)
+	 */
 	@Override
 	@Transactional
 	public void updateSearchIndexForType(Class<?> type) {
+		SearchIndexProgress progress = new SearchIndexProgress();
+		searchIndexProgress = progress;
+		updateSearchIndexForType(fullTextSessionFactory.getFullTextSession(), type, progress);
+		progress.indexingCompleted();
+	}
+	
+	private void updateSearchIndexForType(FullTextSession session, Class<?> type, SearchIndexProgress progress) {
+		Date startTime = new Date();
 		//From http://docs.jboss.org/hibernate/search/3.3/reference/en-US/html/manual-index-changes.html#search-batchindex-flushtoindexes
-		FullTextSession session = fullTextSessionFactory.getFullTextSession();
-		session.purgeAll(type);
-		
 		//Prepare session for batch work
 		session.flush();
 		session.clear();
 		
+		progress.addToTotalCount((Long) session.createCriteria(type).setProjection(Projections.rowCount()).uniqueResult());
+		
+		int fetchSize = getSearchIndexerProperty(OpenmrsConstants.GP_SEARCH_INDEXER_FETCH_SIZE, 1000);
 		FlushMode flushMode = session.getFlushMode();
 		CacheMode cacheMode = session.getCacheMode();
 		try {
@@ -480,26 +560,343 @@ public class HibernateContextDAO implements ContextDAO {
 			session.setCacheMode(CacheMode.IGNORE);
 			
 			//Scrollable results will avoid loading too many objects in memory
-			ScrollableResults results = session.createCriteria(type).setFetchSize(1000).scroll(ScrollMode.FORWARD_ONLY);
+			ScrollableResults results = session.createCriteria(type).setFetchSize(fetchSize).scroll(ScrollMode.FORWARD_ONLY);
 			int index = 0;
 			while (results.next()) {
 				index++;
-				//index each element
-				session.index(results.get(0));
-				if (index % 1000 == 0) {
+				//index each element, replacing its existing document
+				Object entity = results.get(0);
+				session.index(entity);
+				if (index % fetchSize == 0) {
 					//apply changes to indexes
 					session.flushToIndexes();
 					//free memory since the queue is processed
 					session.clear();
+					progress.documentsAdded(fetchSize);
 				}
 			}
+			
 			session.flushToIndexes();
 			session.clear();
+			progress.documentsAdded(index % fetchSize);
+			
+			for (Serializable staleId : getStaleIndexedIds(session, type, fetchSize)) {
+				session.purge(type, staleId);
+			}
+			session.flushToIndexes();
+		}
+		finally {
+			session.setFlushMode(flushMode);
+			session.setCacheMode(cacheMode);
+		}
+		setSearchIndexWatermark(type, startTime);
+	}
+	
+	/**
+	 * Updates the index documents of the given type in place like
+	 * {@link #updateSearchIndexForType(FullTextSession, Class, SearchIndexProgress)}, but loads and
+	 * indexes the entities on {@link OpenmrsConstants#GP_SEARCH_INDEXER_THREADS_TO_LOAD_OBJECTS}
+	 * threads in batches of {@link OpenmrsConstants#GP_SEARCH_INDEXER_BATCH_SIZE_TO_LOAD_OBJECTS},
+	 * the settings the mass indexer uses. Each batch is read in a session of its own, so only
+	 * committed entities are indexed. The ids are read from the given session, which also purges the
+	 * documents of entities which no longer exist.
+	 */
+	private void updateSearchIndexForTypeInParallel(FullTextSession session, Class<?> type, SearchIndexProgress progress) {
+		Date startTime = new Date();
+		session.flush();
+		session.clear();
+		
+		progress.addToTotalCount((Long) session.createCriteria(type).setProjection(Projections.rowCount()).uniqueResult());
+		
+		int threads = getSearchIndexerProperty(OpenmrsConstants.GP_SEARCH_INDEXER_THREADS_TO_LOAD_OBJECTS, 4);
+		int batchSize = getSearchIndexerProperty(OpenmrsConstants.GP_SEARCH_INDEXER_BATCH_SIZE_TO_LOAD_OBJECTS, 25);
+		int fetchSize = getSearchIndexerProperty(OpenmrsConstants.GP_SEARCH_INDEXER_FETCH_SIZE, 1000);
+		String idProperty = sessionFactory.getClassMetadata(type).getIdentifierPropertyName();
+		AtomicReference<RuntimeException> failure = new AtomicReference<>();
+		// the calling thread loads a batch itself when all threads are busy, so that ids are not read ahead
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+		        new ArrayBlockingQueue<>(threads), runnable -> new Thread(runnable, "Search indexer " + type.getSimpleName()),
+		        new ThreadPoolExecutor.CallerRunsPolicy());
+		ScrollableResults ids = session.createCriteria(type).setProjection(Projections.id()).setFetchSize(fetchSize).scroll(
+		    ScrollMode.FORWARD_ONLY);
+		try {
+			List<Serializable> batch = new ArrayList<>(batchSize);
+			while (failure.get() == null && ids.next()) {
+				batch.add((Serializable) ids.get(0));
+				if (batch.size() == batchSize) {
+					executor.execute(new IndexBatch(type, idProperty, batch, progress, failure));
+					batch = new ArrayList<>(batchSize);
+				}
+			}
+			if (failure.get() == null && !batch.isEmpty()) {
+				executor.execute(new IndexBatch(type, idProperty, batch, progress, failure));
+			}
+		}
+		finally {
+			ids.close();
+			executor.shutdown();
+			try {
+				executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			}
+			catch (InterruptedException e) {
+				executor.shutdownNow();
+				Thread.currentThread().interrupt();
+				throw new APIException("Interrupted while updating the search index of " + type.getName(), e);
+			}
+		}
+		if (failure.get() != null) {
+			throw new APIException("Unable to update the search index of " + type.getName(), failure.get());
+		}
+		
+		for (Serializable staleId : getStaleIndexedIds(session, type, fetchSize)) {
+			session.purge(type, staleId);
+		}
+		session.flushToIndexes();
+		setSearchIndexWatermark(type, startTime);
+	}
+	
+	/**
+	 * Loads the entities with the given ids in a new session and replaces their index documents
+	 */
+	private class IndexBatch implements Runnable {
+		
+		private final Class<?> type;
+		
+		private final String idProperty;
+		
+		private final List<Serializable> ids;
+		
+		private final SearchIndexProgress progress;
+		
+		private final AtomicReference<RuntimeException> failure;
+		
+		IndexBatch(Class<?> type, String idProperty, List<Serializable> ids, SearchIndexProgress progress,
+		    AtomicReference<RuntimeException> failure) {
+			this.type = type;
+			this.idProperty = idProperty;
+			this.ids = ids;
+			this.progress = progress;
+			this.failure = failure;
+		}
+		
+		@Override
+		public void run() {
+			if (failure.get() != null) {
+				return;
+			}
+			FullTextSession session = Search.getFullTextSession(sessionFactory.openSession());
+			try {
+				session.setFlushMode(FlushMode.MANUAL);
+				session.setCacheMode(CacheMode.IGNORE);
+				Transaction transaction = session.beginTransaction();
+				try {
+					List<?> entities = session.createCriteria(type).add(Restrictions.in(idProperty, ids)).list();
+					for (Object entity : entities) {
+						session.index(entity);
+					}
+					session.flushToIndexes();
+					transaction.commit();
+					progress.documentsAdded(entities.size());
+				}
+				catch (RuntimeException e) {
+					transaction.rollback();
+					throw e;
+				}
+			}
+			catch (RuntimeException e) {
+				failure.compareAndSet(null, e);
+			}
+			finally {
+				session.close();
+			}
+		}
+	}
+	
+	/**
+	 * Reindexes the entities of the given type which were created, changed, voided or retired since
+	 * {@link #WATERMARK_OVERLAP_MILLIS} before the given watermark. Types without any of these
+	 * properties are reindexed completely.
+	 */
+	@SuppressWarnings("unchecked")
+	private void updateSearchIndexForTypeSince(FullTextSession session, Class<?> type, Date watermark,
+	        SearchIndexProgress progress) {
+		ClassMetadata metadata = sessionFactory.getClassMetadata(type);
+		List<String> propertyNames = Arrays.asList(metadata.getPropertyNames());
+		Date changedSince = new Date(watermark.getTime() - WATERMARK_OVERLAP_MILLIS);
+		Disjunction changedSinceWatermark = Restrictions.disjunction();
+		boolean hasWatermarkProperty = false;
+		for (String property : WATERMARK_PROPERTIES) {
+			if (propertyNames.contains(property)) {
+				changedSinceWatermark.add(Restrictions.ge(property, changedSince));
+				hasWatermarkProperty = true;
+			}
+		}
+		if (!hasWatermarkProperty) {
+			updateSearchIndexForTypeInParallel(session, type, progress);
+			return;
+		}
+		
+		Date startTime = new Date();
+		session.flush();
+		session.clear();
+		List<Serializable> ids = session.createCriteria(type).add(changedSinceWatermark).setProjection(Projections.id())
+		        .list();
+		progress.addToTotalCount(ids.size());
+		
+		int fetchSize = getSearchIndexerProperty(OpenmrsConstants.GP_SEARCH_INDEXER_FETCH_SIZE, 1000);
+		FlushMode flushMode = session.getFlushMode();
+		CacheMode cacheMode = session.getCacheMode();
+		try {
+			session.setFlushMode(FlushMode.MANUAL);
+			session.setCacheMode(CacheMode.IGNORE);
+			
+			for (int i = 0; i < ids.size(); i += fetchSize) {
+				List<Serializable> batch = ids.subList(i, Math.min(i + fetchSize, ids.size()));
+				List<Object> entities = session.createCriteria(type).add(
+				    Restrictions.in(metadata.getIdentifierPropertyName(), batch)).list();
+				for (Object entity : entities) {
+					session.index(entity);
+				}
+				session.flushToIndexes();
+				session.clear();
+				progress.documentsAdded(entities.size());
+			}
 		}
 		finally {
 			session.setFlushMode(flushMode);
 			session.setCacheMode(cacheMode);
 		}
+		setSearchIndexWatermark(type, startTime);
+	}
+	
+	/**
+	 * @return the time of the last update of the search index for the given type or null if the
+	 *         index has not been updated since watermarks are recorded
+	 */
+	private Date getSearchIndexWatermark(Class<?> type) {
+		GlobalProperty gp = (GlobalProperty) sessionFactory.getCurrentSession().get(GlobalProperty.class,
+		    OpenmrsConstants.GP_SEARCH_INDEX_WATERMARK_PREFIX + type.getName());
+		String value = gp == null ? null : gp.getPropertyValue();
+		if (StringUtils.isNotBlank(value)) {
+			try {
+				return new SimpleDateFormat(WATERMARK_FORMAT).parse(value);
+			}
+			catch (ParseException e) {
+				log.warn("Ignoring invalid search index watermark '{}' for {}", value, type.getName());
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Saves the watermark with the proxy privilege to manage global properties, since index updates
+	 * may run without an authenticated user, e.g. at startup or while tests reset the database
+	 */
+	private void setSearchIndexWatermark(Class<?> type, Date watermark) {
+		String property = OpenmrsConstants.GP_SEARCH_INDEX_WATERMARK_PREFIX + type.getName();
+		try {
+			Context.addProxyPrivilege(PrivilegeConstants.GET_GLOBAL_PROPERTIES);
+			Context.addProxyPrivilege(PrivilegeConstants.MANAGE_GLOBAL_PROPERTIES);
+			AdministrationService administrationService = Context.getAdministrationService();
+			GlobalProperty gp = administrationService.getGlobalPropertyObject(property);
+			if (gp == null) {
+				gp = new GlobalProperty(property, null, "The time the search index of " + type.getSimpleName()
+				        + " was last updated");
+			}
+			gp.setPropertyValue(new SimpleDateFormat(WATERMARK_FORMAT).format(watermark));
+			administrationService.saveGlobalProperty(gp);
+		}
+		finally {
+			Context.removeProxyPrivilege(PrivilegeConstants.MANAGE_GLOBAL_PROPERTIES);
+			Context.removeProxyPrivilege(PrivilegeConstants.GET_GLOBAL_PROPERTIES);
+		}
+	}
+	
+	/**
+	 * Gets the ids of the documents of the given type in the search index whose entities no longer
+	 * exist. The ids are read from the terms of the id field of the index in batches, which are
+	 * checked against the database, so only the stale ids are held in memory.
+	 */
+	private List<Serializable> getStaleIndexedIds(FullTextSession session, Class<?> type, int batchSize) {
+		ClassMetadata metadata = sessionFactory.getClassMetadata(type);
+		String idProperty = metadata.getIdentifierPropertyName();
+		boolean integerIds = Integer.class.equals(metadata.getIdentifierType().getReturnedClass());
+		
+		List<Serializable> staleIds = new ArrayList<>();
+		IndexReaderAccessor readerAccessor = session.getSearchFactory().getIndexReaderAccessor();
+		IndexReader reader = readerAccessor.open(type);
+		try {
+			Terms terms = MultiFields.getTerms(reader, idProperty);
+			if (terms == null) {
+				return staleIds;
+			}
+			Bits liveDocs = MultiFields.getLiveDocs(reader);
+			TermsEnum termsEnum = terms.iterator(null);
+			DocsEnum docs = null;
+			List<Serializable> batch = new ArrayList<>(batchSize);
+			BytesRef term;
+			while ((term = termsEnum.next()) != null) {
+				//the terms of deleted documents stay in the index until its segments are merged
+				docs = termsEnum.docs(liveDocs, docs, DocsEnum.FLAG_NONE);
+				if (docs.nextDoc() == DocIdSetIterator.NO_MORE_DOCS) {
+					continue;
+				}
+				String id = term.utf8ToString();
+				batch.add(integerIds ? Integer.valueOf(id) : id);
+				if (batch.size() == batchSize) {
+					staleIds.addAll(getMissingIds(session, type, idProperty, batch));
+					batch.clear();
+				}
+			}
+			if (!batch.isEmpty()) {
+				staleIds.addAll(getMissingIds(session, type, idProperty, batch));
+			}
+		}
+		catch (IOException e) {
+			throw new APIException("Unable to read the search index of " + type.getName(), e);
+		}
+		finally {
+			readerAccessor.close(reader);
+		}
+		return staleIds;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private List<Serializable> getMissingIds(Session session, Class<?> type, String idProperty, List<Serializable> ids) {
+		List<Serializable> missingIds = new ArrayList<>(ids);
+		missingIds.removeAll(session.createCriteria(type).add(Restrictions.in(idProperty, ids)).setProjection(
+		    Projections.id()).list());
+		return missingIds;
+	}
+	
+	private int getSearchIndexerProperty(String property, int defaultValue) {
+		String value = Context.getAdministrationService().getGlobalProperty(property);
+		if (StringUtils.isNotBlank(value)) {
+			try {
+				int intValue = Integer.parseInt(value.trim());
+				if (intValue > 0) {
+					return intValue;
+				}
+			}
+			catch (NumberFormatException e) {
+				log.warn("Ignoring invalid value '{}' of the global property {}", value, property);
+			}
+		}
+		return defaultValue;
+	}
+	
+	/**
+	 * Creates a mass indexer configured with the search indexer global properties, reporting its
+	 * progress to a new {@link SearchIndexProgress}
+	 */
+	private MassIndexer createIndexer() {
+		SearchIndexProgress progress = new SearchIndexProgress();
+		searchIndexProgress = progress;
+		int fetchSize = getSearchIndexerProperty(OpenmrsConstants.GP_SEARCH_INDEXER_FETCH_SIZE, 1000);
+		return fullTextSessionFactory.getFullTextSession().createIndexer().threadsToLoadObjects(
+		    getSearchIndexerProperty(OpenmrsConstants.GP_SEARCH_INDEXER_THREADS_TO_LOAD_OBJECTS, 4)).batchSizeToLoadObjects(
+		    getSearchIndexerProperty(OpenmrsConstants.GP_SEARCH_INDEXER_BATCH_SIZE_TO_LOAD_OBJECTS, 25)).idFetchSize(
+		    fetchSize).progressMonitor(progress);
 	}
 	
 	/**
@@ -521,7 +918,10 @@ public class HibernateContextDAO implements ContextDAO {
 		String gp = Context.getAdministrationService().getGlobalProperty(OpenmrsConstants.GP_SEARCH_INDEX_VERSION, "");
 		
 		if (!OpenmrsConstants.SEARCH_INDEX_VERSION.toString().equals(gp)) {
-			updateSearchIndex();
+			Context.updateSearchIndex();
+		} else if (Boolean.parseBoolean(Context.getAdministrationService().getGlobalProperty(
+		    OpenmrsConstants.GP_SEARCH_INDEX_UPDATE_ON_STARTUP, "false"))) {
+			Context.updateSearchIndexIncrementally();
 		}
 	}
 	
@@ -529,23 +929,80 @@ public class HibernateContextDAO implements ContextDAO {
 	 * @see ContextDAO#updateSearchIndex()
 	 */
 	@Override
+	@Transactional
 	public void updateSearchIndex() {
 		try {
 			log.info("Updating the search index... It may take a few minutes.");
-			fullTextSessionFactory.getFullTextSession().createIndexer().startAndWait();
-			GlobalProperty gp = Context.getAdministrationService().getGlobalPropertyObject(
-			    OpenmrsConstants.GP_SEARCH_INDEX_VERSION);
-			if (gp == null) {
-				gp = new GlobalProperty(OpenmrsConstants.GP_SEARCH_INDEX_VERSION);
+			Date startTime = new Date();
+			createIndexer().startAndWait();
+			updateSearchIndexVersion();
+			for (Class<?> type : fullTextSessionFactory.getFullTextSession().getSearchFactory().getIndexedTypes()) {
+				setSearchIndexWatermark(type, startTime);
 			}
-			gp.setPropertyValue(OpenmrsConstants.SEARCH_INDEX_VERSION.toString());
-			Context.getAdministrationService().saveGlobalProperty(gp);
 			log.info("Finished updating the search index");
 		}
 		catch (Exception e) {
 			throw new RuntimeException("Failed to update the search index", e);
 		}
 	}
+	
+	/**
+	 * @see ContextDAO#updateSearchIndexInPlace()
+	 */
+	@Override
+	@Transactional
+	public void updateSearchIndexInPlace() {
+		log.info("Updating the search index in place... It may take a few minutes.");
+		FullTextSession session = fullTextSessionFactory.getFullTextSession();
+		SearchIndexProgress progress = new SearchIndexProgress();
+		searchIndexProgress = progress;
+		for (Class<?> type : session.getSearchFactory().getIndexedTypes()) {
+			updateSearchIndexForTypeInParallel(session, type, progress);
+		}
+		progress.indexingCompleted();
+		updateSearchIndexVersion();
+		log.info("Finished updating the search index in place: {}", progress);
+	}
+	
+	/**
+	 * @see ContextDAO#updateSearchIndexIncrementally()
+	 */
+	@Override
+	@Transactional
+	public void updateSearchIndexIncrementally() {
+		log.info("Updating the search index for entities changed since the last update...");
+		FullTextSession session = fullTextSessionFactory.getFullTextSession();
+		SearchIndexProgress progress = new SearchIndexProgress();
+		searchIndexProgress = progress;
+		for (Class<?> type : session.getSearchFactory().getIndexedTypes()) {
+			Date watermark = getSearchIndexWatermark(type);
+			if (watermark == null) {
+				updateSearchIndexForTypeInParallel(session, type, progress);
+			} else {
+				updateSearchIndexForTypeSince(session, type, watermark, progress);
+			}
+		}
+		progress.indexingCompleted();
+		log.info("Finished updating the search index for changed entities: {}", progress);
+	}
+	
+	/**
+	 * @see ContextDAO#getSearchIndexProgress()
+	 */
+	@Override
+	public SearchIndexProgress getSearchIndexProgress() {
+		return searchIndexProgress;
+	}
+	
+	private void updateSearchIndexVersion() {
+		GlobalProperty gp = Context.getAdministrationService().getGlobalPropertyObject(
+		    OpenmrsConstants.GP_SEARCH_INDEX_VERSION);
+		if (gp == null) {
+			gp = new GlobalProperty(OpenmrsConstants.GP_SEARCH_INDEX_VERSION);
+		}
+		gp.setPropertyValue(OpenmrsConstants.SEARCH_INDEX_VERSION.toString());
+		Context.getAdministrationService().saveGlobalProperty(gp);
+	}
 
 	/**
 	 * @see ContextDAO#updateSearchIndexAsync()
@@ -554,7 +1011,7 @@ public class HibernateContextDAO implements ContextDAO {
 	public Future<?> updateSearchIndexAsync() {
 		try {
 			log.info("Started asynchronously updating the search index...");
-			return fullTextSessionFactory.getFullTextSession().createIndexer().start();
+			return createIndexer().start();
 		}
 		catch (Exception e) {
 			throw new RuntimeException("Failed to start asynchronous search index update", e);
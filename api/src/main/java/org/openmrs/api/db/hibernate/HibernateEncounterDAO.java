@@ -10,12 +10,14 @@
 package org.openmrs.api.db.hibernate;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.Criteria;
 import org.hibernate.FlushMode;
@@ -271,11 +273,23 @@ public class HibernateEncounterDAO implements EncounterDAO {
 	@SuppressWarnings("unchecked")
 	public List<Encounter> getEncounters(String query, Integer patientId, Integer start, Integer length,
 	        boolean includeVoided) {
+		return getEncounters(query, patientId, start, length, includeVoided, null);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.EncounterDAO#getEncounters(String, Integer, Integer, Integer, boolean,
+	 *      Collection)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<Encounter> getEncounters(String query, Integer patientId, Integer start, Integer length,
+	        boolean includeVoided, Collection<Integer> excludedEncounterTypeIds) {
 		if (StringUtils.isBlank(query) && patientId == null) {
 			return Collections.emptyList();
 		}
 		
 		Criteria criteria = createEncounterByQueryCriteria(query, patientId, includeVoided, true);
+		addExcludedEncounterTypesCriteria(criteria, "enc.encounterType", excludedEncounterTypeIds);
 		
 		if (start != null) {
 			criteria.setFirstResult(start);
@@ -362,12 +376,38 @@ public class HibernateEncounterDAO implements EncounterDAO {
 	 */
 	@Override
 	public Long getCountOfEncounters(String query, Integer patientId, boolean includeVoided) {
+		return getCountOfEncounters(query, patientId, includeVoided, null);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.EncounterDAO#getCountOfEncounters(String, Integer, boolean, Collection)
+	 */
+	@Override
+	public Long getCountOfEncounters(String query, Integer patientId, boolean includeVoided,
+	        Collection<Integer> excludedEncounterTypeIds) {
 		Criteria criteria = createEncounterByQueryCriteria(query, patientId, includeVoided, false);
+		addExcludedEncounterTypesCriteria(criteria, "enc.encounterType", excludedEncounterTypeIds);
 		
 		criteria.setProjection(Projections.countDistinct("enc.encounterId"));
 		return (Long) criteria.uniqueResult();
 	}
 	
+	/**
+	 * Restricts the given criteria to encounters whose type is not one of the given ones, e.g. the
+	 * types the authenticated user is not allowed to view
+	 *
+	 * @param criteria the criteria to restrict
+	 * @param encounterTypeProperty the path to the encounter type of the encounter
+	 * @param excludedEncounterTypeIds ids of the encounter types to exclude, may be null or empty
+	 */
+	private void addExcludedEncounterTypesCriteria(Criteria criteria, String encounterTypeProperty,
+	        Collection<Integer> excludedEncounterTypeIds) {
+		if (CollectionUtils.isNotEmpty(excludedEncounterTypeIds)) {
+			criteria.add(Restrictions.not(Restrictions.in(encounterTypeProperty + ".encounterTypeId",
+			    excludedEncounterTypeIds)));
+		}
+	}
+	
 	/**
 	 * Utility method that returns a criteria for searching for patient encounters that match the
 	 * specified search phrase
@@ -539,8 +579,19 @@ public class HibernateEncounterDAO implements EncounterDAO {
 	@Override
 	public List<Encounter> getEncountersByVisitsAndPatient(Patient patient, boolean includeVoided, String query,
 	        Integer start, Integer length) {
+		return getEncountersByVisitsAndPatient(patient, includeVoided, query, start, length, null);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.EncounterDAO#getEncountersByVisitsAndPatient(org.openmrs.Patient,
+	 *      boolean, java.lang.String, java.lang.Integer, java.lang.Integer, java.util.Collection)
+	 */
+	@Override
+	public List<Encounter> getEncountersByVisitsAndPatient(Patient patient, boolean includeVoided, String query,
+	        Integer start, Integer length, Collection<Integer> excludedEncounterTypeIds) {
 		Criteria criteria = sessionFactory.getCurrentSession().createCriteria(Encounter.class);
 		addEncountersByPatientCriteria(criteria, patient, includeVoided, query);
+		addExcludedEncounterTypesCriteria(criteria, "encounterType", excludedEncounterTypeIds);
 		
 		@SuppressWarnings("unchecked")
 		List<Encounter> encounters = criteria.list();
@@ -585,6 +636,16 @@ public class HibernateEncounterDAO implements EncounterDAO {
 	 */
 	@Override
 	public Integer getEncountersByVisitsAndPatientCount(Patient patient, boolean includeVoided, String query) {
+		return getEncountersByVisitsAndPatientCount(patient, includeVoided, query, null);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.EncounterDAO#getEncountersByVisitsAndPatientCount(org.openmrs.Patient,
+	 *      boolean, java.lang.String, java.util.Collection)
+	 */
+	@Override
+	public Integer getEncountersByVisitsAndPatientCount(Patient patient, boolean includeVoided, String query,
+	        Collection<Integer> excludedEncounterTypeIds) {
 		Criteria criteria = sessionFactory.getCurrentSession().createCriteria(Visit.class);
 		addEmptyVisitsByPatientCriteria(criteria, patient, includeVoided, query);
 		
@@ -593,6 +654,7 @@ public class HibernateEncounterDAO implements EncounterDAO {
 		
 		criteria = sessionFactory.getCurrentSession().createCriteria(Encounter.class);
 		addEncountersByPatientCriteria(criteria, patient, includeVoided, query);
+		addExcludedEncounterTypesCriteria(criteria, "encounterType", excludedEncounterTypeIds);
 		
 		criteria.setProjection(Projections.rowCount());
 		count = count + ((Number) criteria.uniqueResult()).intValue();
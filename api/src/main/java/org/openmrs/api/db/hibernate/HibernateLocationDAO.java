@@ -11,8 +11,11 @@ package org.openmrs.api.db.hibernate;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.Criteria;
@@ -27,6 +30,7 @@ import org.openmrs.Location;
 import org.openmrs.LocationAttribute;
 import org.openmrs.LocationAttributeType;
 import org.openmrs.LocationTag;
+import org.openmrs.api.LocationHierarchyIndex;
 import org.openmrs.api.db.DAOException;
 import org.openmrs.api.db.LocationDAO;
 
@@ -361,4 +365,23 @@ public class HibernateLocationDAO implements LocationDAO {
 		}
 		return locationTagIds;
 	}
+	
+	/**
+	 * @see LocationDAO#getLocationHierarchyIndex()
+	 */
+	@Override
+	public LocationHierarchyIndex getLocationHierarchyIndex() {
+		List<?> rows = sessionFactory.getCurrentSession().createQuery(
+		    "select l.locationId, p.locationId, l.retired from Location l left join l.parentLocation p").list();
+		Map<Integer, Integer> parents = new HashMap<>(rows.size());
+		Set<Integer> retired = new HashSet<>();
+		for (Object row : rows) {
+			Object[] values = (Object[]) row;
+			parents.put((Integer) values[0], (Integer) values[1]);
+			if (Boolean.TRUE.equals(values[2])) {
+				retired.add((Integer) values[0]);
+			}
+		}
+		return new LocationHierarchyIndex(parents, retired);
+	}
 }
@@ -9,13 +9,21 @@
  */
 package org.openmrs.api.db.hibernate;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.Criteria;
 import org.hibernate.FlushMode;
+import org.hibernate.Query;
 import org.hibernate.SQLQuery;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
@@ -25,6 +33,10 @@ import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Property;
 import org.hibernate.criterion.Restrictions;
 import org.hibernate.criterion.Subqueries;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.openmrs.Cohort;
+import org.openmrs.CohortMembership;
 import org.openmrs.Concept;
 import org.openmrs.ConceptName;
 import org.openmrs.Encounter;
@@ -46,6 +58,12 @@ import org.openmrs.util.OpenmrsConstants.PERSON_TYPE;
  */
 public class HibernateObsDAO implements ObsDAO {
 	
+	/**
+	 * The number of persons whose most recent obs are queried at once when streaming them for a
+	 * cohort, and of obs that are loaded at once
+	 */
+	private static final int MOST_RECENT_OBS_BATCH_SIZE = 1000;
+	
 	protected SessionFactory sessionFactory;
 	
 	/**
@@ -125,6 +143,174 @@ public class HibernateObsDAO implements ObsDAO {
 		return (Long) criteria.list().get(0);
 	}
 	
+	/**
+	 * @see org.openmrs.api.db.ObsDAO#getMostRecentObservations(List, List, int, Date)
+	 */
+	@Override
+	public List<Obs> getMostRecentObservations(List<Person> whom, List<Concept> questions, int mostRecentN,
+	        Date toDate) throws DAOException {
+		List<Integer> personIds = null;
+		if (CollectionUtils.isNotEmpty(whom)) {
+			personIds = new ArrayList<>();
+			for (Person person : whom) {
+				personIds.add(person.getPersonId());
+			}
+		}
+		
+		List<Integer> obsIds = getMostRecentObsIds(personIds, questions, mostRecentN, toDate);
+		List<Obs> obs = new ArrayList<>(obsIds.size());
+		for (int i = 0; i < obsIds.size(); i += MOST_RECENT_OBS_BATCH_SIZE) {
+			obs.addAll(getObsInOrder(obsIds.subList(i, Math.min(i + MOST_RECENT_OBS_BATCH_SIZE, obsIds.size())), false));
+		}
+		return obs;
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.ObsDAO#forEachMostRecentObservation(Cohort, List, int, Date, Consumer)
+	 */
+	@Override
+	public void forEachMostRecentObservation(Cohort cohort, List<Concept> questions, int mostRecentN, Date toDate,
+	        Consumer<Obs> action) throws DAOException {
+		if (cohort == null) {
+			// page over the persons that have obs for the questions, so that only one page of ids is held
+			Integer lastPersonId = 0;
+			List<Integer> personIds;
+			while (!(personIds = getPersonIdsWithObs(questions, toDate, lastPersonId)).isEmpty()) {
+				forEachObs(getMostRecentObsIds(personIds, questions, mostRecentN, toDate), action);
+				lastPersonId = personIds.get(personIds.size() - 1);
+			}
+			return;
+		}
+		
+		// query the members in chunks of sorted ids, so that the obs are still ordered by person overall
+		Set<Integer> memberIds = new TreeSet<>();
+		for (CohortMembership membership : cohort.getActiveMemberships()) {
+			memberIds.add(membership.getPatientId());
+		}
+		List<Integer> patientIds = new ArrayList<>(memberIds);
+		for (int i = 0; i < patientIds.size(); i += MOST_RECENT_OBS_BATCH_SIZE) {
+			List<Integer> batch = patientIds.subList(i, Math.min(i + MOST_RECENT_OBS_BATCH_SIZE, patientIds.size()));
+			forEachObs(getMostRecentObsIds(batch, questions, mostRecentN, toDate), action);
+		}
+	}
+	
+	/**
+	 * Gets the next page of the ids of the persons that have non voided obs for the given questions
+	 * 
+	 * @param questions the question concepts
+	 * @param toDate ignore obs after this date (optional)
+	 * @param afterPersonId the last person id of the previous page
+	 * @return at most {@value #MOST_RECENT_OBS_BATCH_SIZE} person ids greater than afterPersonId, in
+	 *         ascending order
+	 */
+	@SuppressWarnings("unchecked")
+	private List<Integer> getPersonIdsWithObs(List<Concept> questions, Date toDate, Integer afterPersonId) {
+		StringBuilder hql = new StringBuilder(
+		        "select distinct o.personId from Obs o where o.voided = false and o.concept in (:questions) and o.personId > :afterPersonId");
+		if (toDate != null) {
+			hql.append(" and o.obsDatetime <= :toDate");
+		}
+		hql.append(" order by o.personId");
+		
+		Query query = sessionFactory.getCurrentSession().createQuery(hql.toString());
+		query.setParameterList("questions", questions);
+		query.setInteger("afterPersonId", afterPersonId);
+		if (toDate != null) {
+			query.setTimestamp("toDate", toDate);
+		}
+		return query.setMaxResults(MOST_RECENT_OBS_BATCH_SIZE).list();
+	}
+	
+	/**
+	 * Loads the given obs in batches and passes them to the action in the given order. The obs that
+	 * were not in the session yet are evicted once the action returns, so that memory use does not
+	 * grow with the number of obs.
+	 */
+	private void forEachObs(List<Integer> obsIds, Consumer<Obs> action) {
+		Session session = sessionFactory.getCurrentSession();
+		for (int i = 0; i < obsIds.size(); i += MOST_RECENT_OBS_BATCH_SIZE) {
+			List<Integer> batch = obsIds.subList(i, Math.min(i + MOST_RECENT_OBS_BATCH_SIZE, obsIds.size()));
+			Set<Integer> alreadyLoaded = getObsIdsInSession(batch);
+			for (Obs obs : getObsInOrder(batch, true)) {
+				action.accept(obs);
+				if (!alreadyLoaded.contains(obs.getObsId())) {
+					session.evict(obs);
+				}
+			}
+		}
+	}
+	
+	private Set<Integer> getObsIdsInSession(List<Integer> obsIds) {
+		SessionImplementor session = (SessionImplementor) sessionFactory.getCurrentSession();
+		EntityPersister persister = session.getFactory().getEntityPersister(Obs.class.getName());
+		Set<Integer> inSession = new HashSet<>();
+		for (Integer obsId : obsIds) {
+			if (session.getPersistenceContext().containsEntity(session.generateEntityKey(obsId, persister))) {
+				inSession.add(obsId);
+			}
+		}
+		return inSession;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private List<Obs> getObsInOrder(List<Integer> obsIds, boolean readOnly) {
+		List<Obs> loaded = sessionFactory.getCurrentSession().createQuery("from Obs where obsId in (:obsIds)")
+		        .setParameterList("obsIds", obsIds).setReadOnly(readOnly).list();
+		Map<Integer, Obs> obsById = new HashMap<>();
+		for (Obs obs : loaded) {
+			obsById.put(obs.getObsId(), obs);
+		}
+		List<Obs> ordered = new ArrayList<>(obsIds.size());
+		for (Integer obsId : obsIds) {
+			ordered.add(obsById.get(obsId));
+		}
+		return ordered;
+	}
+	
+	/**
+	 * Gets the ids of the most recent N obs of each person and question concept. Window functions
+	 * are not available on all supported databases, so each obs is ranked with a correlated subquery
+	 * that counts the more recent obs of the same person and concept, which can be answered from the
+	 * index on person, concept and datetime. Only the obs ranked below N are returned by the
+	 * database.
+	 *
+	 * @param personIds the ids of the persons to restrict to, all persons if null
+	 * @param questions the question concepts
+	 * @param mostRecentN the number of obs per person and concept
+	 * @param toDate ignore obs after this date (optional)
+	 * @return the obs ids, ordered by person, concept and then most recent first
+	 */
+	@SuppressWarnings("unchecked")
+	private List<Integer> getMostRecentObsIds(List<Integer> personIds, List<Concept> questions, int mostRecentN,
+	        Date toDate) {
+		StringBuilder hql = new StringBuilder("select o.obsId from Obs o where o.voided = false and o.concept in (:questions)");
+		if (personIds != null) {
+			hql.append(" and o.personId in (:personIds)");
+		}
+		if (toDate != null) {
+			hql.append(" and o.obsDatetime <= :toDate");
+		}
+		hql.append(" and (select count(*) from Obs newer where newer.voided = false and newer.personId = o.personId")
+		        .append(" and newer.concept = o.concept and (newer.obsDatetime > o.obsDatetime")
+		        .append(" or (newer.obsDatetime = o.obsDatetime and newer.obsId > o.obsId))");
+		if (toDate != null) {
+			hql.append(" and newer.obsDatetime <= :toDate");
+		}
+		hql.append(") < :mostRecentN");
+		hql.append(" order by o.personId, o.concept.conceptId, o.obsDatetime desc, o.obsId desc");
+		
+		Query query = sessionFactory.getCurrentSession().createQuery(hql.toString());
+		query.setParameterList("questions", questions);
+		if (personIds != null) {
+			query.setParameterList("personIds", personIds);
+		}
+		if (toDate != null) {
+			query.setTimestamp("toDate", toDate);
+		}
+		query.setLong("mostRecentN", mostRecentN);
+		return query.list();
+	}
+	
 	/**
 	 * A utility method for creating a criteria based on parameters (which are optional)
 	 *
@@ -284,4 +470,64 @@ public class HibernateObsDAO implements ObsDAO {
 		}
 	}
 	
+	/**
+	 * @see org.openmrs.api.db.ObsDAO#voidSavedObsAndGroupMembers(Obs, User, Date, String)
+	 */
+	@Override
+	public int voidSavedObsAndGroupMembers(Obs obs, User voidedBy, Date dateVoided, String voidReason) {
+		Session session = sessionFactory.getCurrentSession();
+		List<Integer> obsIds = new ArrayList<>();
+		voidAndEvictSavedObs(session, obs, voidedBy, dateVoided, voidReason, obsIds);
+		
+		// other edited obs, e.g. of the same encounter, may still be dirty in the session and must not be flushed
+		FlushMode flushMode = session.getFlushMode();
+		session.setFlushMode(FlushMode.MANUAL);
+		try {
+			// the members of the group are matched too, in case one was removed from the group before saving
+			SQLQuery sql = session.createSQLQuery("update obs set voided = :voided, void_reason = :voidReason, "
+			        + "voided_by = coalesce(voided_by, :voidedBy), date_voided = coalesce(date_voided, :dateVoided) "
+			        + "where (obs_id in (:obsIds) or obs_group_id in (:obsIds)) and (voided = :notVoided or voided_by is null)");
+			// only obs are updated, this keeps the other entities in the second level cache
+			sql.addSynchronizedEntityClass(Obs.class);
+			sql.setBoolean("voided", true);
+			sql.setString("voidReason", voidReason);
+			sql.setInteger("voidedBy", voidedBy.getUserId());
+			sql.setTimestamp("dateVoided", dateVoided);
+			sql.setParameterList("obsIds", obsIds);
+			sql.setBoolean("notVoided", false);
+			return sql.executeUpdate();
+		}
+		finally {
+			session.setFlushMode(flushMode);
+		}
+	}
+	
+	/**
+	 * Sets the values the update writes on the saved obs of the group and evicts them, so their edited
+	 * values are never flushed
+	 */
+	private void voidAndEvictSavedObs(Session session, Obs obs, User voidedBy, Date dateVoided, String voidReason,
+	        List<Integer> obsIds) {
+		if (obs.getObsId() == null) {
+			return;
+		}
+		obsIds.add(obs.getObsId());
+		if (!obs.getVoided() || obs.getVoidedBy() == null) {
+			obs.setVoided(true);
+			obs.setVoidReason(voidReason);
+			if (obs.getVoidedBy() == null) {
+				obs.setVoidedBy(voidedBy);
+			}
+			if (obs.getDateVoided() == null) {
+				obs.setDateVoided(dateVoided);
+			}
+		}
+		if (obs.hasGroupMembers(true)) {
+			for (Obs member : obs.getGroupMembers(true)) {
+				voidAndEvictSavedObs(session, member, voidedBy, dateVoided, voidReason, obsIds);
+			}
+		}
+		session.evict(obs);
+	}
+	
 }
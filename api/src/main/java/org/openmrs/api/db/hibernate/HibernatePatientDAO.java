@@ -9,11 +9,15 @@
  */
 package org.openmrs.api.db.hibernate;
 
+import java.io.Serializable;
+import java.sql.Savepoint;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -22,23 +26,40 @@ import java.util.regex.Pattern;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.CacheMode;
 import org.hibernate.Criteria;
+import org.hibernate.FlushMode;
+import org.hibernate.HibernateException;
 import org.hibernate.Query;
 import org.hibernate.SQLQuery;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
 import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.search.FullTextSession;
+import org.hibernate.search.Search;
 import org.openmrs.Allergies;
+import org.openmrs.BaseOpenmrsData;
 import org.openmrs.Allergy;
+import org.openmrs.Encounter;
 import org.openmrs.Location;
+import org.openmrs.Obs;
+import org.openmrs.OrderType;
 import org.openmrs.Patient;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
 import org.openmrs.PatientIdentifierType.UniquenessBehavior;
 import org.openmrs.Person;
+import org.openmrs.PersonAddress;
 import org.openmrs.PersonAttribute;
 import org.openmrs.PersonName;
+import org.openmrs.User;
+import org.openmrs.Visit;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.DAOException;
 import org.openmrs.api.db.PatientDAO;
@@ -60,6 +81,11 @@ public class HibernatePatientDAO implements PatientDAO {
 	
 	private static final Logger log = LoggerFactory.getLogger(HibernatePatientDAO.class);
 	
+	/**
+	 * The number of identifiers that are checked against the database with one query
+	 */
+	private static final int IDENTIFIER_BATCH_SIZE = 500;
+	
 	/**
 	 * Hibernate session factory
 	 */
@@ -117,6 +143,108 @@ public class HibernatePatientDAO implements PatientDAO {
 		}
 	}
 	
+	/**
+	 * The rows are inserted with a {@link StatelessSession} on the connection of the current
+	 * session, so they are part of the current transaction but are neither kept in the session nor
+	 * indexed. A savepoint drops the rows already inserted for the patient if one of them fails.
+	 * 
+	 * @see org.openmrs.api.db.PatientDAO#insertPatient(org.openmrs.Patient)
+	 */
+	@Override
+	public void insertPatient(Patient patient) throws DAOException {
+		sessionFactory.getCurrentSession().doWork(connection -> {
+			Savepoint savepoint = connection.setSavepoint();
+			StatelessSession statelessSession = sessionFactory.openStatelessSession(connection);
+			boolean inserted = false;
+			try {
+				if (patient.getPersonCreator() == null) {
+					patient.setPersonCreator(Context.getAuthenticatedUser());
+				}
+				if (patient.getPersonDateCreated() == null) {
+					patient.setPersonDateCreated(new Date());
+				}
+				insert(statelessSession, patient);
+				for (PersonName name : patient.getNames()) {
+					name.setPerson(patient);
+					insert(statelessSession, name);
+				}
+				for (PersonAddress address : patient.getAddresses()) {
+					address.setPerson(patient);
+					insert(statelessSession, address);
+				}
+				for (PersonAttribute attribute : patient.getAttributes()) {
+					attribute.setPerson(patient);
+					insert(statelessSession, attribute);
+				}
+				for (PatientIdentifier identifier : patient.getIdentifiers()) {
+					identifier.setPatient(patient);
+					insert(statelessSession, identifier);
+				}
+				connection.releaseSavepoint(savepoint);
+				inserted = true;
+			}
+			catch (HibernateException e) {
+				throw new DAOException("Unable to insert patient " + patient.getUuid(), e);
+			}
+			finally {
+				if (!inserted) {
+					connection.rollback(savepoint);
+				}
+				statelessSession.close();
+			}
+		});
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#updateSearchIndexForPatients(Collection)
+	 */
+	@Override
+	public void updateSearchIndexForPatients(Collection<Integer> patientIds) {
+		List<Integer> ids = new ArrayList<>(patientIds);
+		FullTextSession session = Search.getFullTextSession(sessionFactory.openSession());
+		try {
+			session.setFlushMode(FlushMode.MANUAL);
+			session.setCacheMode(CacheMode.IGNORE);
+			Transaction transaction = session.beginTransaction();
+			try {
+				for (int i = 0; i < ids.size(); i += IDENTIFIER_BATCH_SIZE) {
+					List<Integer> batch = ids.subList(i, Math.min(ids.size(), i + IDENTIFIER_BATCH_SIZE));
+					for (String query : new String[] { "from PersonName n where n.person.personId in (:ids)",
+					        "from PersonAttribute a where a.person.personId in (:ids)",
+					        "from PatientIdentifier pi where pi.patient.patientId in (:ids)" }) {
+						for (Object indexed : session.createQuery(query).setParameterList("ids", batch).list()) {
+							session.index(indexed);
+						}
+					}
+					session.flushToIndexes();
+					session.clear();
+				}
+				transaction.commit();
+			}
+			catch (RuntimeException e) {
+				transaction.rollback();
+				throw e;
+			}
+		}
+		finally {
+			session.close();
+		}
+	}
+	
+	/**
+	 * A stateless session bypasses the {@link AuditableInterceptor}, so the creator and date created
+	 * are set here the way the interceptor would set them.
+	 */
+	private void insert(StatelessSession statelessSession, BaseOpenmrsData data) {
+		if (data.getCreator() == null) {
+			data.setCreator(Context.getAuthenticatedUser());
+		}
+		if (data.getDateCreated() == null) {
+			data.setDateCreated(new Date());
+		}
+		statelessSession.insert(data);
+	}
+	
 	/**
 	 * Inserts a row into the patient table This avoids hibernate's bunging of our
 	 * person/patient/user inheritance
@@ -630,6 +758,88 @@ public class HibernatePatientDAO implements PatientDAO {
 		return !"0".equals(query.uniqueResult().toString());
 	}
 	
+	/**
+	 * Like {@link #isIdentifierInUseByAnotherPatient(PatientIdentifier)} this does not load anything
+	 * into the hibernate session. The database matches the candidates of a batch with one query, using
+	 * its own collation. A candidate is matched to the given identifier it is equal to. A candidate
+	 * that is equal to none of them was only matched by the collation, e.g. in another case, and the
+	 * identifiers of its type are then checked one by one.
+	 * 
+	 * @see org.openmrs.api.db.PatientDAO#getIdentifiersInUseByAnotherPatient(Collection)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<PatientIdentifier> getIdentifiersInUseByAnotherPatient(Collection<PatientIdentifier> patientIdentifiers) {
+		List<PatientIdentifier> identifiers = new ArrayList<>(patientIdentifiers);
+		List<PatientIdentifier> inUse = new ArrayList<>();
+		
+		for (int i = 0; i < identifiers.size(); i += IDENTIFIER_BATCH_SIZE) {
+			List<PatientIdentifier> batch = identifiers.subList(i, Math.min(identifiers.size(), i + IDENTIFIER_BATCH_SIZE));
+			Set<String> values = new HashSet<>();
+			Set<Integer> typeIds = new HashSet<>();
+			for (PatientIdentifier pi : batch) {
+				if (pi.getIdentifier() != null && pi.getIdentifierType() != null) {
+					values.add(pi.getIdentifier());
+					typeIds.add(pi.getIdentifierType().getPatientIdentifierTypeId());
+				}
+			}
+			if (values.isEmpty()) {
+				continue;
+			}
+			
+			List<Object[]> rows = sessionFactory.getCurrentSession().createQuery(
+			    "select pi.identifier, pi.identifierType.patientIdentifierTypeId, l.locationId, p.patientId "
+			            + "from PatientIdentifier pi left join pi.location l, Patient p "
+			            + "where pi.patient.patientId = p.patientId and p.voided = false and pi.voided = false "
+			            + "and pi.identifier in (:identifiers) and pi.identifierType.patientIdentifierTypeId in (:idTypes)")
+			        .setParameterList("identifiers", values).setParameterList("idTypes", typeIds).list();
+			
+			Map<String, List<Object[]>> rowsByIdentifier = new HashMap<>();
+			Set<Integer> typeIdsMatchedByCollation = new HashSet<>();
+			for (Object[] row : rows) {
+				if (values.contains(row[0])) {
+					rowsByIdentifier.computeIfAbsent(row[1] + ":" + row[0], key -> new ArrayList<>()).add(row);
+				} else {
+					typeIdsMatchedByCollation.add((Integer) row[1]);
+				}
+			}
+			for (PatientIdentifier pi : batch) {
+				if (pi.getIdentifier() == null || pi.getIdentifierType() == null) {
+					continue;
+				}
+				Integer typeId = pi.getIdentifierType().getPatientIdentifierTypeId();
+				if (typeIdsMatchedByCollation.contains(typeId) ? isIdentifierInUseByAnotherPatient(pi)
+				        : isInUseByAnotherPatient(pi, rowsByIdentifier.get(typeId + ":" + pi.getIdentifier()))) {
+					inUse.add(pi);
+				}
+			}
+		}
+		return inUse;
+	}
+	
+	/**
+	 * Applies the same patient and location rules as
+	 * {@link #isIdentifierInUseByAnotherPatient(PatientIdentifier)} to the candidate rows
+	 */
+	private boolean isInUseByAnotherPatient(PatientIdentifier patientIdentifier, List<Object[]> candidates) {
+		if (candidates == null) {
+			return false;
+		}
+		Integer patientId = patientIdentifier.getPatient() != null ? patientIdentifier.getPatient().getPatientId() : null;
+		boolean checkLocation = patientIdentifier.getLocation() != null
+		        && patientIdentifier.getIdentifierType().getUniquenessBehavior() == UniquenessBehavior.LOCATION;
+		for (Object[] candidate : candidates) {
+			if (patientId != null && patientId.equals(candidate[3])) {
+				continue;
+			}
+			if (checkLocation && !patientIdentifier.getLocation().getLocationId().equals(candidate[2])) {
+				continue;
+			}
+			return true;
+		}
+		return false;
+	}
+	
 	/**
      * @param patientIdentifierId  the patientIdentifier id
      * @return                     the patientIdentifier matching the Id
@@ -995,4 +1205,167 @@ public class HibernatePatientDAO implements PatientDAO {
     	sessionFactory.getCurrentSession().save(allergy);
     	return allergy;
     }
+	
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#getActiveOrderTypesInCommon(Patient, Patient)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<OrderType> getActiveOrderTypesInCommon(Patient patient1, Patient patient2) {
+		return sessionFactory.getCurrentSession().createQuery(
+		    "select distinct o1.orderType from org.openmrs.Order o1, org.openmrs.Order o2 where o1.patient = :patient1"
+		            + " and o2.patient = :patient2 and o1.orderType = o2.orderType and " + getActiveOrderRestriction("o1")
+		            + " and " + getActiveOrderRestriction("o2")).setParameter("patient1", patient1).setParameter(
+		    "patient2", patient2).setParameter("discontinue", org.openmrs.Order.Action.DISCONTINUE).setTimestamp("now",
+		    new Date()).list();
+	}
+	
+	/**
+	 * Mirrors {@link org.openmrs.Order#isActive()} for the order with the given alias
+	 */
+	private String getActiveOrderRestriction(String alias) {
+		return "(" + alias + ".voided = false and " + alias + ".action <> :discontinue and " + alias
+		        + ".dateActivated <= :now and (" + alias + ".dateStopped is null or " + alias + ".dateStopped >= :now) and ("
+		        + alias + ".autoExpireDate is null or " + alias + ".autoExpireDate >= :now))";
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#moveVisits(Patient, Patient)
+	 */
+	@Override
+	public List<String> moveVisits(Patient from, Patient to) {
+		Session session = sessionFactory.getCurrentSession();
+		session.flush();
+		
+		List<Object[]> visits = getRows("select v.visitId, v.uuid from Visit v where v.patient = :from", from);
+		if (!visits.isEmpty()) {
+			session.createQuery(
+			    "update Visit set patient = :to, changedBy = :changedBy, dateChanged = :dateChanged where patient = :from")
+			        .setParameter("to", to).setParameter("changedBy", Context.getAuthenticatedUser()).setTimestamp(
+			            "dateChanged", new Date()).setParameter("from", from).executeUpdate();
+			refreshLoadedEntities(Visit.class, getColumn(visits, 0));
+		}
+		return getColumn(visits, 1);
+	}
+	
+	/**
+	 * The orders of the encounters only get their patient changed, which is one of the properties
+	 * {@link ImmutableOrderInterceptor} allows to change, just like saving the encounter does.
+	 * 
+	 * @see org.openmrs.api.db.PatientDAO#moveEncounters(Patient, Patient)
+	 */
+	@Override
+	public List<String> moveEncounters(Patient from, Patient to) {
+		Session session = sessionFactory.getCurrentSession();
+		session.flush();
+		
+		List<Object[]> encounters = getRows("select e.encounterId, e.uuid from Encounter e where e.patient = :from", from);
+		if (!encounters.isEmpty()) {
+			List<Object> obsIds = getRows("select o.obsId from Obs o where o.encounter.patient = :from", from);
+			List<Object> orderIds = getRows("select o.orderId from org.openmrs.Order o where o.encounter.patient = :from",
+			    from);
+			
+			// the obs and orders duplicate the patient of their encounter, so they have to be moved first
+			String encountersOfPatient = "(select e from Encounter e where e.patient = :from)";
+			session.createQuery("update Obs set person = :to where encounter in " + encountersOfPatient).setParameter(
+			    "to", to).setParameter("from", from).executeUpdate();
+			session.createQuery("update org.openmrs.Order set patient = :to where encounter in " + encountersOfPatient)
+			        .setParameter("to", to).setParameter("from", from).executeUpdate();
+			session.createQuery(
+			    "update Encounter set patient = :to, changedBy = :changedBy, dateChanged = :dateChanged where patient = :from")
+			        .setParameter("to", to).setParameter("changedBy", Context.getAuthenticatedUser()).setTimestamp(
+			            "dateChanged", new Date()).setParameter("from", from).executeUpdate();
+			
+			refreshLoadedEntities(Encounter.class, getColumn(encounters, 0));
+			refreshLoadedEntities(Obs.class, obsIds);
+			refreshLoadedEntities(org.openmrs.Order.class, orderIds);
+		}
+		return getColumn(encounters, 1);
+	}
+	
+	/**
+	 * The copies and the voided originals are saved directly in the session, without the save
+	 * handlers ObsService runs for each obs.
+	 * 
+	 * @see org.openmrs.api.db.PatientDAO#copyObservationsNotContainedInEncounters(Patient, Patient, String)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<String> copyObservationsNotContainedInEncounters(Patient from, Patient to, String voidReason) {
+		Session session = sessionFactory.getCurrentSession();
+		List<Obs> topLevelObs = session.createQuery(
+		    "from Obs o where o.person = :from and o.encounter is null and o.voided = false and o.obsGroup is null")
+		        .setParameter("from", from).list();
+		
+		User user = Context.getAuthenticatedUser();
+		Date now = new Date();
+		List<String> copyUuids = new ArrayList<>();
+		for (Obs obs : topLevelObs) {
+			// copies the group members too, each pointing to its original as the previous version
+			Obs copy = Obs.newInstance(obs);
+			copy.setPreviousVersion(obs);
+			saveObsCopy(copy, to, user, now, copyUuids);
+			voidObsAndGroupMembers(obs, user, now, voidReason);
+		}
+		return copyUuids;
+	}
+	
+	private void saveObsCopy(Obs copy, Patient to, User user, Date now, List<String> copyUuids) {
+		copy.setPerson(to);
+		copy.setCreator(user);
+		copy.setDateCreated(now);
+		sessionFactory.getCurrentSession().save(copy);
+		if (!copy.getVoided()) {
+			copyUuids.add(copy.getUuid());
+		}
+		if (copy.hasGroupMembers(true)) {
+			for (Obs member : copy.getGroupMembers(true)) {
+				saveObsCopy(member, to, user, now, copyUuids);
+			}
+		}
+	}
+	
+	private void voidObsAndGroupMembers(Obs obs, User user, Date now, String voidReason) {
+		if (!obs.getVoided()) {
+			obs.setVoided(true);
+			obs.setVoidedBy(user);
+			obs.setDateVoided(now);
+			obs.setVoidReason(voidReason);
+		}
+		if (obs.hasGroupMembers(true)) {
+			for (Obs member : obs.getGroupMembers(true)) {
+				voidObsAndGroupMembers(member, user, now, voidReason);
+			}
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private <T> List<T> getRows(String query, Patient from) {
+		return sessionFactory.getCurrentSession().createQuery(query).setParameter("from", from).list();
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <T> List<T> getColumn(List<Object[]> rows, int index) {
+		List<T> column = new ArrayList<>(rows.size());
+		for (Object[] row : rows) {
+			column.add((T) row[index]);
+		}
+		return column;
+	}
+	
+	/**
+	 * Bulk updates bypass the session, so the instances with the given ids it already holds are
+	 * reloaded to reflect the new state
+	 */
+	private void refreshLoadedEntities(Class<?> type, List<?> ids) {
+		SessionImplementor session = (SessionImplementor) sessionFactory.getCurrentSession();
+		EntityPersister persister = session.getFactory().getEntityPersister(type.getName());
+		for (Object id : ids) {
+			Object entity = session.getPersistenceContext().getEntity(
+			    session.generateEntityKey((Serializable) id, persister));
+			if (entity != null) {
+				sessionFactory.getCurrentSession().refresh(entity);
+			}
+		}
+	}
 }
@@ -393,6 +393,32 @@ public class HibernateProgramWorkflowDAO implements ProgramWorkflowDAO {
 		squery.setEntity("concept", concept);
 		return squery.list();
 	}
+	
+	/**
+	 * @see org.openmrs.api.db.ProgramWorkflowDAO#getProgramWorkflowStateConceptIds()
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<Integer> getProgramWorkflowStateConceptIds() {
+		return sessionFactory.getCurrentSession().createQuery(
+		    "select distinct s.concept.conceptId from ProgramWorkflowState s").list();
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.ProgramWorkflowDAO#getActivePatientProgramsWithStateConcept(org.openmrs.Patient,
+	 *      org.openmrs.Concept)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<PatientProgram> getActivePatientProgramsWithStateConcept(Patient patient, Concept stateConcept) {
+		String hql = "select pp from PatientProgram pp where pp.patient = :patient and pp.voided = false "
+		        + "and pp.dateCompleted is null and pp.program in (select s.programWorkflow.program "
+		        + "from ProgramWorkflowState s where s.concept = :concept)";
+		Query query = sessionFactory.getCurrentSession().createQuery(hql);
+		query.setEntity("patient", patient);
+		query.setEntity("concept", stateConcept);
+		return query.list();
+	}
         
         @Override
         public List<ProgramAttributeType> getAllProgramAttributeTypes() {
@@ -9,11 +9,11 @@
  */
 package org.openmrs.api.db.hibernate;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.Criteria;
 import org.hibernate.Session;
@@ -134,9 +134,18 @@ public class HibernateProviderDAO implements ProviderDAO {
 	 * @see org.openmrs.api.db.ProviderDAO#getProviders(String, Map, Integer, Integer, boolean)
 	 */
 	@Override
+	@SuppressWarnings("unchecked")
 	public List<Provider> getProviders(String name, Map<ProviderAttributeType, String> serializedAttributeValues,
 	        Integer start, Integer length, boolean includeRetired) {
+		if (serializedAttributeValues != null && serializedAttributeValues.isEmpty()) {
+			// no attribute can match an empty set of attribute values
+			return new ArrayList<>();
+		}
+		
 		Criteria criteria = prepareProviderCriteria(name, includeRetired);
+		if (serializedAttributeValues != null) {
+			HibernateUtil.addAttributeCriteria(criteria, Provider.class, serializedAttributeValues, false);
+		}
 		if (start != null) {
 			criteria.setFirstResult(start);
 		}
@@ -150,10 +159,6 @@ public class HibernateProviderDAO implements ProviderDAO {
 		}
 		
 		List<Provider> providers = criteria.list();
-		if (serializedAttributeValues != null) {
-			CollectionUtils.filter(providers, new AttributeMatcherPredicate<Provider, ProviderAttributeType>(
-			        serializedAttributeValues));
-		}
 		return providers;
 	}
 	
@@ -9,14 +9,35 @@
  */
 package org.openmrs.api.db.hibernate;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 import org.hibernate.Criteria;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.criterion.MatchMode;
+import org.hibernate.collection.spi.PersistentCollection;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
 import org.openmrs.Auditable;
 import org.openmrs.OpenmrsData;
 import org.openmrs.OpenmrsMetadata;
@@ -28,12 +49,16 @@ import org.openmrs.api.db.SerializedObjectDAO;
 import org.openmrs.serialization.OpenmrsSerializer;
 import org.openmrs.serialization.SerializationException;
 import org.openmrs.util.ExceptionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Hibernate specific database access methods for serialized objects
  */
 public class HibernateSerializedObjectDAO implements SerializedObjectDAO {
 	
+	private static final Logger log = LoggerFactory.getLogger(HibernateSerializedObjectDAO.class);
+	
 	private static HibernateSerializedObjectDAO instance;
 	
 	//********* PROPERTIES **********
@@ -42,6 +67,25 @@ public class HibernateSerializedObjectDAO implements SerializedObjectDAO {
 	
 	private List<Class<? extends OpenmrsObject>> supportedTypes;
 	
+	/**
+	 * The maximum number of deserialized objects kept in {@link #deserializedObjects}
+	 */
+	private static final int MAX_DESERIALIZED_OBJECTS = 500;
+	
+	/**
+	 * Deserialized objects keyed by uuid, so that reading the same unchanged serialized object again
+	 * does not need to parse its serialized data. Each read gets its own copy of the object, so a
+	 * caller that changes the object without saving it does not affect other callers.
+	 */
+	private final Map<String, DeserializedObject> deserializedObjects = Collections
+	        .synchronizedMap(new LinkedHashMap<String, DeserializedObject>(16, 0.75f, true) {
+		        
+		        @Override
+		        protected boolean removeEldestEntry(Map.Entry<String, DeserializedObject> eldest) {
+			        return size() > MAX_DESERIALIZED_OBJECTS;
+		        }
+	        });
+	
 	/**
 	 * Private Constructor to support a singleton instance
 	 */
@@ -248,6 +292,7 @@ public class HibernateSerializedObjectDAO implements SerializedObjectDAO {
 		}
 		
 		sessionFactory.getCurrentSession().saveOrUpdate(serializedObject);
+		evictDeserializedObject(serializedObject.getUuid());
 		
 		object.setId(serializedObject.getId());
 		return object;
@@ -260,6 +305,9 @@ public class HibernateSerializedObjectDAO implements SerializedObjectDAO {
 	public void purgeObject(Integer id) throws DAOException {
 		SerializedObject o = getSerializedObject(id);
 		sessionFactory.getCurrentSession().delete(o);
+		if (o != null) {
+			evictDeserializedObject(o.getUuid());
+		}
 	}
 	
 	/**
@@ -303,6 +351,14 @@ public class HibernateSerializedObjectDAO implements SerializedObjectDAO {
 		if (serializedObject == null) {
 			return null;
 		}
+		DeserializedObject cached = serializedObject.getUuid() == null ? null : deserializedObjects.get(serializedObject
+		        .getUuid());
+		if (cached != null && cached.isDeserializationOf(serializedObject)) {
+			OpenmrsObject copy = cached.copyObject(sessionFactory.getCurrentSession());
+			if (clazz.isInstance(copy)) {
+				return (T) copy;
+			}
+		}
 		OpenmrsSerializer serializer = getSerializer(serializedObject);
 		T obj;
 		try {
@@ -319,9 +375,48 @@ public class HibernateSerializedObjectDAO implements SerializedObjectDAO {
 		}
 		obj.setId(serializedObject.getId());
 		obj.setUuid(serializedObject.getUuid());
+		if (serializedObject.getUuid() != null) {
+			byte[] objectData = toByteArray(obj);
+			if (objectData != null) {
+				deserializedObjects.put(serializedObject.getUuid(), new DeserializedObject(serializedObject, objectData));
+			} else {
+				evictDeserializedObject(serializedObject.getUuid());
+			}
+		}
 		return obj;
 	}
 	
+	/**
+	 * Java serializes the given object, so that copies of it can be made without parsing its
+	 * serialized data again. Entities and proxies it refers to are written as references, which are
+	 * loaded from the session that reads the copy. Objects that are not serializable or that refer to
+	 * persistent collections are not copied.
+	 *
+	 * @return the serialized object or null if it cannot be copied
+	 */
+	private byte[] toByteArray(OpenmrsObject object) {
+		PersistenceContext persistenceContext = ((SessionImplementor) sessionFactory.getCurrentSession())
+		        .getPersistenceContext();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new DetachedObjectOutputStream(bytes, persistenceContext)) {
+			out.writeObject(object);
+		}
+		catch (IOException e) {
+			log.debug("Not caching deserialized object {}", object.getUuid(), e);
+			return null;
+		}
+		return bytes.toByteArray();
+	}
+	
+	/**
+	 * Removes the deserialized object with the given uuid from the cache, if present
+	 */
+	private void evictDeserializedObject(String uuid) {
+		if (uuid != null) {
+			deserializedObjects.remove(uuid);
+		}
+	}
+	
 	/**
 	 * Private method for retrieving the Serializer that should be used for the passed
 	 * SerializedObject, defaulting to the default system serializer if none is explicitly set on
@@ -368,4 +463,136 @@ public class HibernateSerializedObjectDAO implements SerializedObjectDAO {
 		}
 		
 	}
+	
+	/**
+	 * An object deserialized from a {@link SerializedObject}, kept Java serialized, along with the
+	 * state of the serialized object it was read from. The object is only reused while the serialized
+	 * object has the same date changed and serialized data, so changes made by other nodes or
+	 * directly in the database are picked up on the next read.
+	 */
+	private static class DeserializedObject {
+		
+		private final Long dateChanged;
+		
+		private final String serializationClass;
+		
+		private final String serializedData;
+		
+		private final byte[] objectData;
+		
+		DeserializedObject(SerializedObject serializedObject, byte[] objectData) {
+			this.dateChanged = getTime(serializedObject.getDateChanged());
+			this.serializationClass = serializedObject.getSerializationClass() == null ? null : serializedObject
+			        .getSerializationClass().getName();
+			this.serializedData = serializedObject.getSerializedData();
+			this.objectData = objectData;
+		}
+		
+		/**
+		 * @param session the session to load the entities the object refers to from
+		 * @return a new copy of the object or null if it could not be read
+		 */
+		OpenmrsObject copyObject(Session session) {
+			try (ObjectInputStream in = new OpenmrsObjectInputStream(new ByteArrayInputStream(objectData), session)) {
+				return (OpenmrsObject) in.readObject();
+			}
+			catch (IOException | ClassNotFoundException e) {
+				log.debug("Unable to copy the cached deserialized object", e);
+				return null;
+			}
+		}
+		
+		boolean isDeserializationOf(SerializedObject serializedObject) {
+			Class<?> otherSerializationClass = serializedObject.getSerializationClass();
+			return Objects.equals(dateChanged, getTime(serializedObject.getDateChanged()))
+			        && Objects.equals(serializationClass, otherSerializationClass == null ? null : otherSerializationClass
+			                .getName()) && Objects.equals(serializedData, serializedObject.getSerializedData());
+		}
+		
+		private static Long getTime(Date date) {
+			return date == null ? null : date.getTime();
+		}
+	}
+	
+	/**
+	 * Writes entities that are attached to the session and proxies as {@link EntityReference}s, and
+	 * fails on persistent collections
+	 */
+	private static class DetachedObjectOutputStream extends ObjectOutputStream {
+		
+		private final PersistenceContext persistenceContext;
+		
+		DetachedObjectOutputStream(OutputStream out, PersistenceContext persistenceContext) throws IOException {
+			super(out);
+			this.persistenceContext = persistenceContext;
+			enableReplaceObject(true);
+		}
+		
+		@Override
+		protected Object replaceObject(Object obj) throws IOException {
+			if (obj instanceof HibernateProxy) {
+				LazyInitializer initializer = ((HibernateProxy) obj).getHibernateLazyInitializer();
+				return new EntityReference(initializer.getEntityName(), initializer.getIdentifier());
+			}
+			if (obj instanceof PersistentCollection) {
+				throw new NotSerializableException(obj.getClass().getName() + " is attached to the session");
+			}
+			EntityEntry entry = persistenceContext.getEntry(obj);
+			if (entry != null) {
+				return new EntityReference(entry.getEntityName(), entry.getId());
+			}
+			return obj;
+		}
+	}
+	
+	/**
+	 * Stands in for an entity in the Java serialized form of a deserialized object
+	 */
+	private static class EntityReference implements Serializable {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final String entityName;
+		
+		private final Serializable id;
+		
+		EntityReference(String entityName, Serializable id) {
+			this.entityName = entityName;
+			this.id = id;
+		}
+	}
+	
+	/**
+	 * Resolves classes with the OpenMRS class loader, so that objects of module classes can be read,
+	 * and loads the entities of {@link EntityReference}s from the given session
+	 */
+	private static class OpenmrsObjectInputStream extends ObjectInputStream {
+		
+		private final Session session;
+		
+		OpenmrsObjectInputStream(InputStream in, Session session) throws IOException {
+			super(in);
+			this.session = session;
+			enableResolveObject(true);
+		}
+		
+		@Override
+		protected Object resolveObject(Object obj) {
+			if (obj instanceof EntityReference) {
+				EntityReference reference = (EntityReference) obj;
+				return session.load(reference.entityName, reference.id);
+			}
+			return obj;
+		}
+		
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+			try {
+				return Context.loadClass(desc.getName());
+			}
+			catch (ClassNotFoundException e) {
+				return super.resolveClass(desc);
+			}
+		}
+	}
 }
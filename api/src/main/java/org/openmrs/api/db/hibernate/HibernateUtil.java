@@ -17,8 +17,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.hibernate.Criteria;
 import org.hibernate.Hibernate;
 import org.hibernate.SessionFactory;
-import org.hibernate.criterion.Conjunction;
 import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.Junction;
 import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Property;
 import org.hibernate.criterion.Restrictions;
@@ -130,23 +130,41 @@ public class HibernateUtil {
 	 * @param serializedAttributeValues the serialized attribute values
 	 * @param <AT> the attribute type
 	 */
-	public static <AT extends AttributeType> void addAttributeCriteria(Criteria criteria,
+	public static <AT extends AttributeType<?>> void addAttributeCriteria(Criteria criteria,
 	        Map<AT, String> serializedAttributeValues) {
-		Conjunction conjunction = Restrictions.conjunction();
+		addAttributeCriteria(criteria, Location.class, serializedAttributeValues, true);
+	}
+	
+	/**
+	 * Adds a restriction to the given criteria query that only matches instances of the given
+	 * customizable class having a non voided attribute with the serialized value for each (or any)
+	 * of the given attribute types. Each attribute type is matched with an id subquery against the
+	 * attribute table, so no rows are loaded just to be filtered out in memory.
+	 * 
+	 * @param criteria the criteria whose root entity is of the given customizable class
+	 * @param customizableClass the class owning the attributes
+	 * @param serializedAttributeValues the serialized attribute values
+	 * @param matchAll whether all of the given attribute values must match or just any of them
+	 * @since 2.4.0
+	 */
+	public static void addAttributeCriteria(Criteria criteria, Class<?> customizableClass,
+	        Map<? extends AttributeType<?>, String> serializedAttributeValues, boolean matchAll) {
+		Junction junction = matchAll ? Restrictions.conjunction() : Restrictions.disjunction();
 		int a = 0;
 		
-		for (Map.Entry<AT, String> entry : serializedAttributeValues.entrySet()) {
+		for (Map.Entry<? extends AttributeType<?>, String> entry : serializedAttributeValues.entrySet()) {
 			String alias = "attributes" + (a++);
-			DetachedCriteria detachedCriteria = DetachedCriteria.forClass(Location.class).setProjection(Projections.id());
+			DetachedCriteria detachedCriteria = DetachedCriteria.forClass(customizableClass).setProjection(
+			    Projections.id());
 			detachedCriteria.createAlias("attributes", alias);
 			detachedCriteria.add(Restrictions.eq(alias + ".attributeType", entry.getKey()));
 			detachedCriteria.add(Restrictions.eq(alias + ".valueReference", entry.getValue()));
 			detachedCriteria.add(Restrictions.eq(alias + ".voided", false));
 			
-			conjunction.add(Property.forName("id").in(detachedCriteria));
+			junction.add(Property.forName("id").in(detachedCriteria));
 		}
 		
-		criteria.add(conjunction);
+		criteria.add(junction);
 	}
 	
 	/**
@@ -9,6 +9,7 @@
  */
 package org.openmrs.api.db.hibernate;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
@@ -172,6 +173,11 @@ public class HibernateVisitDAO implements VisitDAO {
 	        Date minEndDatetime, Date maxEndDatetime, final Map<VisitAttributeType, String> serializedAttributeValues,
 	        boolean includeInactive, boolean includeVoided) throws DAOException {
 		
+		if (serializedAttributeValues != null && serializedAttributeValues.isEmpty()) {
+			// no attribute can match an empty set of attribute values
+			return new ArrayList<>();
+		}
+		
 		Criteria criteria = getCurrentSession().createCriteria(Visit.class);
 		
 		if (visitTypes != null) {
@@ -212,17 +218,14 @@ public class HibernateVisitDAO implements VisitDAO {
 			criteria.add(Restrictions.eq("voided", false));
 		}
 		
-		criteria.addOrder(Order.desc("startDatetime"));
-		criteria.addOrder(Order.desc("visitId"));
-		
-		List<Visit> visits = criteria.list();
-		
 		if (serializedAttributeValues != null) {
-			CollectionUtils.filter(visits, new AttributeMatcherPredicate<Visit, VisitAttributeType>(
-			        serializedAttributeValues));
+			HibernateUtil.addAttributeCriteria(criteria, Visit.class, serializedAttributeValues, false);
 		}
 		
-		return visits;
+		criteria.addOrder(Order.desc("startDatetime"));
+		criteria.addOrder(Order.desc("visitId"));
+		
+		return criteria.list();
 	}
 	
 	/**
@@ -0,0 +1,138 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.search.batchindexing.MassIndexerProgressMonitor;
+
+/**
+ * Tracks the progress of a search index update, so that it can be reported while the update is
+ * running.
+ *
+ * @since 2.4.0
+ */
+public class SearchIndexProgress implements MassIndexerProgressMonitor {
+	
+	private final long startTime = System.currentTimeMillis();
+	
+	private final AtomicLong totalCount = new AtomicLong();
+	
+	private final AtomicLong indexedCount = new AtomicLong();
+	
+	private volatile long endTime = 0;
+	
+	/**
+	 * @see org.hibernate.search.backend.IndexingMonitor#documentsAdded(long)
+	 */
+	@Override
+	public void documentsAdded(long increment) {
+		indexedCount.addAndGet(increment);
+	}
+	
+	/**
+	 * @see MassIndexerProgressMonitor#documentsBuilt(int)
+	 */
+	@Override
+	public void documentsBuilt(int number) {
+	}
+	
+	/**
+	 * @see MassIndexerProgressMonitor#entitiesLoaded(int)
+	 */
+	@Override
+	public void entitiesLoaded(int size) {
+	}
+	
+	/**
+	 * @see MassIndexerProgressMonitor#addToTotalCount(long)
+	 */
+	@Override
+	public void addToTotalCount(long count) {
+		totalCount.addAndGet(count);
+	}
+	
+	/**
+	 * @see MassIndexerProgressMonitor#indexingCompleted()
+	 */
+	@Override
+	public void indexingCompleted() {
+		endTime = System.currentTimeMillis();
+	}
+	
+	/**
+	 * @return the number of entities to be indexed, as far as it is known yet
+	 */
+	public long getTotalCount() {
+		return totalCount.get();
+	}
+	
+	/**
+	 * @return the number of entities indexed so far
+	 */
+	public long getIndexedCount() {
+		return indexedCount.get();
+	}
+	
+	/**
+	 * @return true if the update has finished
+	 */
+	public boolean isCompleted() {
+		return endTime != 0;
+	}
+	
+	/**
+	 * @return the time the update was started at in milliseconds
+	 */
+	public long getStartTime() {
+		return startTime;
+	}
+	
+	/**
+	 * @return the time the update has been running for, or took if it has finished, in
+	 *         milliseconds
+	 */
+	public long getElapsedTime() {
+		return (isCompleted() ? endTime : System.currentTimeMillis()) - startTime;
+	}
+	
+	/**
+	 * @return the average number of entities indexed per second
+	 */
+	public double getEntitiesPerSecond() {
+		long elapsed = getElapsedTime();
+		if (elapsed <= 0) {
+			return 0;
+		}
+		return getIndexedCount() * 1000.0 / elapsed;
+	}
+	
+	/**
+	 * @return the estimated time until the update finishes in milliseconds, or null if it cannot be
+	 *         estimated yet
+	 */
+	public Long getEstimatedTimeRemaining() {
+		if (isCompleted()) {
+			return 0L;
+		}
+		double entitiesPerSecond = getEntitiesPerSecond();
+		if (entitiesPerSecond <= 0) {
+			return null;
+		}
+		long remaining = Math.max(0, getTotalCount() - getIndexedCount());
+		return (long) (remaining * 1000 / entitiesPerSecond);
+	}
+	
+	@Override
+	public String toString() {
+		return "SearchIndexProgress[indexed=" + getIndexedCount() + ", total=" + getTotalCount() + ", entitiesPerSecond="
+		        + String.format("%.1f", getEntitiesPerSecond()) + ", completed=" + isCompleted() + "]";
+	}
+}
@@ -787,6 +787,15 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 		return dao.getMaximumPropertyLength(aClass, fieldName);
 	}
 	
+	/**
+	 * @see AdministrationService#getMaximumStringPropertyLengths(Class)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public Map<String, Integer> getMaximumStringPropertyLengths(Class<?> aClass) {
+		return dao.getMaximumStringPropertyLengths(aClass);
+	}
+	
 	/**
 	 * @see org.openmrs.api.AdministrationService#validate(java.lang.Object, Errors)
 	 */
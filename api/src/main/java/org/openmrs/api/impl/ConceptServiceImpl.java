@@ -55,8 +55,10 @@ import org.openmrs.api.AdministrationService;
 import org.openmrs.api.ConceptInUseException;
 import org.openmrs.api.ConceptNameInUseException;
 import org.openmrs.api.ConceptService;
+import org.openmrs.api.ConceptSetIndex;
 import org.openmrs.api.ConceptStopWordException;
 import org.openmrs.api.ConceptsLockedException;
+import org.openmrs.api.cache.IndexCache;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.ConceptDAO;
 import org.openmrs.api.db.DAOException;
@@ -81,6 +83,9 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	
 	private ConceptDAO dao;
 	
+	private final IndexCache<ConceptSetIndex> conceptSetIndex = new IndexCache<>("conceptSetIndex",
+	        () -> dao.getConceptSetIndex());
+	
 	private static Concept trueConcept;
 	
 	private static Concept falseConcept;
@@ -108,6 +113,7 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	 */
 	@Override
 	public Concept saveConcept(Concept concept) throws APIException {
+		conceptSetIndex.invalidate();
 		ensureConceptMapTypeIsSet(concept);
 
 		CustomDatatypeUtil.saveAttributesIfNecessary(concept);
@@ -260,6 +266,7 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	 */
 	@Override
 	public void purgeConcept(Concept concept) throws APIException {
+		conceptSetIndex.invalidate();
 		checkIfLocked();
 		
 		if (concept.getConceptId() != null) {
@@ -676,9 +683,11 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	@Override
 	@Transactional(readOnly = true)
 	public List<Concept> getConceptsByConceptSet(Concept c) {
-		Set<Integer> alreadySeen = new HashSet<>();
 		List<Concept> ret = new ArrayList<>();
-		explodeConceptSetHelper(c, ret, alreadySeen);
+		for (Integer conceptId : Context.getConceptService().getConceptSetIndex().getConceptIds(c.getConceptId())) {
+			// concepts are in the second level cache, so this rarely hits the database
+			ret.add(dao.getConcept(conceptId));
+		}
 		return ret;
 	}
 	
@@ -695,6 +704,25 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 		return dao.getSetsContainingConcept(concept);
 	}
 	
+	/**
+	 * @see org.openmrs.api.ConceptService#getConceptSetIndex()
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public ConceptSetIndex getConceptSetIndex() throws APIException {
+		return conceptSetIndex.get();
+	}
+	
+	/**
+	 * @see org.openmrs.api.ConceptService#isConceptInSet(org.openmrs.Concept, org.openmrs.Concept)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public boolean isConceptInSet(Concept concept, Concept conceptSet) throws APIException {
+		return Context.getConceptService().getConceptSetIndex().contains(concept.getConceptId(),
+		    conceptSet.getConceptId());
+	}
+	
 	/**
 	 * @see org.openmrs.api.ConceptService#getConceptProposal(java.lang.Integer)
 	 */
@@ -884,30 +912,6 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 		return dao.getMaxConceptId();
 	}
 	
-	/**
-	 * Utility method used by getConceptsInSet(Concept concept)
-	 * 
-	 * @param concept
-	 * @param ret
-	 * @param alreadySeen
-	 */
-	private void explodeConceptSetHelper(Concept concept, Collection<Concept> ret, Collection<Integer> alreadySeen) {
-		if (alreadySeen.contains(concept.getConceptId())) {
-			return;
-		}
-		alreadySeen.add(concept.getConceptId());
-		List<ConceptSet> cs = getConceptSetsByConcept(concept);
-		for (ConceptSet set : cs) {
-			Concept c = set.getConcept();
-			if (c.getSet()) {
-				ret.add(c);
-				explodeConceptSetHelper(c, ret, alreadySeen);
-			} else {
-				ret.add(c);
-			}
-		}
-	}
-	
 	/**
 	 * @see org.openmrs.api.ConceptService#getConceptNameTagByName(java.lang.String)
 	 */
@@ -11,7 +11,10 @@ package org.openmrs.api.impl;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -24,6 +27,7 @@ import org.openmrs.Encounter;
 import org.openmrs.EncounterRole;
 import org.openmrs.EncounterType;
 import org.openmrs.Form;
+import org.openmrs.GlobalProperty;
 import org.openmrs.Location;
 import org.openmrs.Obs;
 import org.openmrs.Order;
@@ -37,8 +41,10 @@ import org.openmrs.VisitType;
 import org.openmrs.api.APIException;
 import org.openmrs.api.EncounterService;
 import org.openmrs.api.EncounterTypeLockedException;
+import org.openmrs.api.GlobalPropertyListener;
 import org.openmrs.api.ObsService;
 import org.openmrs.api.OrderService;
+import org.openmrs.api.cache.IndexCache;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.EncounterDAO;
 import org.openmrs.api.handler.EncounterVisitHandler;
@@ -61,10 +67,15 @@ import org.springframework.transaction.annotation.Transactional;
  * @see org.openmrs.api.EncounterService
  */
 @Transactional
-public class EncounterServiceImpl extends BaseOpenmrsService implements EncounterService {
+public class EncounterServiceImpl extends BaseOpenmrsService implements EncounterService, GlobalPropertyListener {
+	
+	private static boolean saveNewObsInOnePass;
 	
 	private EncounterDAO dao;
 	
+	private final IndexCache<HashMap<Integer, String>> encounterTypeViewPrivileges = new IndexCache<>(
+	        "encounterTypeViewPrivileges", this::getEncounterTypeViewPrivileges);
+	
 	/**
 	 * @see org.openmrs.api.EncounterService#setEncounterDAO(org.openmrs.api.db.EncounterDAO)
 	 */
@@ -178,11 +189,15 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 		// save the Obs
 		String changeMessage = Context.getMessageSourceService().getMessage("Obs.void.reason.default");
 		ObsService os = Context.getObsService();
+		// the setting is cached, reading it here could flush the edited obs before they are replaced
+		boolean saveNewObsInOnePass = EncounterServiceImpl.saveNewObsInOnePass;
 		List<Obs> obsToRemove = new ArrayList<>();
 		List<Obs> obsToAdd = new ArrayList<>();
 		for (Obs o : encounter.getObsAtTopLevel(true)) {
 			if (o.getId() == null) {
-				os.saveObs(o, null);
+				if (!saveNewObsInOnePass) {
+					os.saveObs(o, null);
+				}
 			} else {
 				Obs newObs = os.saveObs(o, changeMessage);
 				//The logic in saveObs evicts the old obs instance, so we need to update the collection
@@ -193,6 +208,9 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 				obsToAdd.add(newObs);
 			}
 		}
+		if (saveNewObsInOnePass) {
+			os.saveNewEncounterObs(encounter);
+		}
 
 		removeGivenObsAndTheirGroupMembersFromEncounter(obsToRemove, encounter);
 		addGivenObsAndTheirGroupMembersToEncounter(obsToAdd, encounter);
@@ -521,6 +539,7 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 		Context.getEncounterService().checkIfEncounterTypesAreLocked();
 		
 		dao.saveEncounterType(encounterType);
+		encounterTypeViewPrivileges.invalidate();
 		return encounterType;
 	}
 	
@@ -606,6 +625,7 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 		Context.getEncounterService().checkIfEncounterTypesAreLocked();
 		
 		dao.deleteEncounterType(encounterType);
+		encounterTypeViewPrivileges.invalidate();
 	}
 	
 	/**
@@ -643,8 +663,7 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 	@Transactional(readOnly = true)
 	public List<Encounter> getEncounters(String query, Integer start, Integer length, boolean includeVoided)
 	    throws APIException {
-		return Context.getEncounterService().filterEncountersByViewPermissions(
-		    dao.getEncounters(query, null, start, length, includeVoided), null);
+		return dao.getEncounters(query, null, start, length, includeVoided, getEncounterTypeIdsNotViewable());
 	}
 	
 	/**
@@ -655,8 +674,7 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 	@Transactional(readOnly = true)
 	public List<Encounter> getEncounters(String query, Integer patientId, Integer start, Integer length,
 	                                     boolean includeVoided) throws APIException {
-		return Context.getEncounterService().filterEncountersByViewPermissions(
-		    dao.getEncounters(query, patientId, start, length, includeVoided), null);
+		return dao.getEncounters(query, patientId, start, length, includeVoided, getEncounterTypeIdsNotViewable());
 	}
 	
 	/**
@@ -665,7 +683,8 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 	@Override
 	@Transactional(readOnly = true)
 	public Integer getCountOfEncounters(String query, boolean includeVoided) {
-		return OpenmrsUtil.convertToInteger(dao.getCountOfEncounters(query, null, includeVoided));
+		return OpenmrsUtil.convertToInteger(dao.getCountOfEncounters(query, null, includeVoided,
+		    getEncounterTypeIdsNotViewable()));
 	}
 	
 	/**
@@ -817,8 +836,8 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 	@Transactional(readOnly = true)
 	public List<Encounter> getEncountersByVisitsAndPatient(Patient patient, boolean includeVoided, String query,
 	                                                       Integer start, Integer length) throws APIException {
-		return Context.getEncounterService().filterEncountersByViewPermissions(
-		    dao.getEncountersByVisitsAndPatient(patient, includeVoided, query, start, length), null);
+		return dao.getEncountersByVisitsAndPatient(patient, includeVoided, query, start, length,
+		    getEncounterTypeIdsNotViewable());
 	}
 	
 	/**
@@ -829,7 +848,7 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 	@Transactional(readOnly = true)
 	public Integer getEncountersByVisitsAndPatientCount(Patient patient, boolean includeVoided, String query)
 	    throws APIException {
-		return dao.getEncountersByVisitsAndPatientCount(patient, includeVoided, query);
+		return dao.getEncountersByVisitsAndPatientCount(patient, includeVoided, query, getEncounterTypeIdsNotViewable());
 	}
 	
 	/**
@@ -858,6 +877,53 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 		return encounters;
 	}
 	
+	/**
+	 * @see org.openmrs.api.EncounterService#getEncounterTypeIdsNotViewableBy(org.openmrs.User)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public Set<Integer> getEncounterTypeIdsNotViewableBy(User user) {
+		// if user is not specified then use authenticated user from context by default
+		if (user == null) {
+			user = Context.getAuthenticatedUser();
+		}
+		Set<Integer> encounterTypeIds = new HashSet<>();
+		// the privileges of the user are checked on each call, so changes to users, roles and
+		// privileges apply at once and only changes to the encounter types invalidate the index
+		for (Map.Entry<Integer, String> entry : encounterTypeViewPrivileges.get().entrySet()) {
+			if (entry.getValue() != null && !user.hasPrivilege(entry.getValue())) {
+				encounterTypeIds.add(entry.getKey());
+			}
+		}
+		return Collections.unmodifiableSet(encounterTypeIds);
+	}
+	
+	/**
+	 * Convenience method to map the ids of all encounter types to the names of their view
+	 * privileges, null for the types that everyone may view
+	 * 
+	 * @return the view privilege names by encounter type id
+	 */
+	private HashMap<Integer, String> getEncounterTypeViewPrivileges() {
+		HashMap<Integer, String> viewPrivileges = new HashMap<>();
+		// read through the dao since viewing encounters does not require the privilege to get encounter types
+		for (EncounterType et : dao.getAllEncounterTypes(true)) {
+			Privilege viewPrivilege = et.getViewPrivilege();
+			viewPrivileges.put(et.getEncounterTypeId(), viewPrivilege == null ? null : viewPrivilege.getPrivilege());
+		}
+		return viewPrivileges;
+	}
+	
+	/**
+	 * Convenience method to get the ids of the encounter types the authenticated user may
+	 * not view, so that DAO queries can exclude them
+	 * 
+	 * @return the ids of the encounter types the authenticated user may not view
+	 */
+	private Set<Integer> getEncounterTypeIdsNotViewable() {
+		return Context.getEncounterService().getEncounterTypeIdsNotViewableBy(Context.getAuthenticatedUser());
+	}
+	
 	/**
 	 * @see org.openmrs.api.EncounterService#canViewAllEncounterTypes(org.openmrs.User)
 	 */
@@ -986,4 +1052,41 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 		
 		return saveEncounter(encounterCopy);
 	}
+	
+	/**
+	 * @see GlobalPropertyListener#supportsPropertyName(String)
+	 */
+	@Override
+	public boolean supportsPropertyName(String propertyName) {
+		return OpenmrsConstants.GP_ENCOUNTER_SAVE_NEW_OBS_IN_ONE_PASS.equals(propertyName);
+	}
+	
+	/**
+	 * @see GlobalPropertyListener#globalPropertyChanged(GlobalProperty)
+	 */
+	@Override
+	public void globalPropertyChanged(GlobalProperty newValue) {
+		setSaveNewObsInOnePass(Boolean.parseBoolean(StringUtils.trim(newValue.getPropertyValue())));
+	}
+	
+	/**
+	 * @see GlobalPropertyListener#globalPropertyDeleted(String)
+	 */
+	@Override
+	public void globalPropertyDeleted(String propertyName) {
+		setSaveNewObsInOnePass(false);
+	}
+	
+	/**
+	 * Sets whether {@link #saveEncounter(Encounter)} saves the new obs in one pass. This is set in
+	 * {@link Context#checkCoreDataset()} and kept up to date by this service as a global property
+	 * listener.
+	 * 
+	 * @param saveNewObsInOnePass the value of
+	 *            {@link OpenmrsConstants#GP_ENCOUNTER_SAVE_NEW_OBS_IN_ONE_PASS}
+	 * @since 2.4.0
+	 */
+	public static void setSaveNewObsInOnePass(boolean saveNewObsInOnePass) {
+		EncounterServiceImpl.saveNewObsInOnePass = saveNewObsInOnePass;
+	}
 }
@@ -11,8 +11,10 @@ package org.openmrs.api.impl;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.openmrs.Address;
@@ -21,7 +23,9 @@ import org.openmrs.LocationAttribute;
 import org.openmrs.LocationAttributeType;
 import org.openmrs.LocationTag;
 import org.openmrs.api.APIException;
+import org.openmrs.api.LocationHierarchyIndex;
 import org.openmrs.api.LocationService;
+import org.openmrs.api.cache.IndexCache;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.LocationDAO;
 import org.openmrs.customdatatype.CustomDatatypeUtil;
@@ -45,6 +49,9 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 	
 	private LocationDAO dao;
 	
+	private final IndexCache<LocationHierarchyIndex> locationHierarchyIndex = new IndexCache<>("locationHierarchyIndex",
+	        () -> dao.getLocationHierarchyIndex());
+	
 	/**
 	 * @see org.openmrs.api.LocationService#setLocationDAO(org.openmrs.api.db.LocationDAO)
 	 */
@@ -85,6 +92,7 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 		
 		CustomDatatypeUtil.saveAttributesIfNecessary(location);
 		
+		locationHierarchyIndex.invalidate();
 		return dao.saveLocation(location);
 	}
 	
@@ -267,6 +275,7 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 	 */
 	@Override
 	public void purgeLocation(Location location) throws APIException {
+		locationHierarchyIndex.invalidate();
 		dao.deleteLocation(location);
 	}
 	
@@ -398,6 +407,45 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 		return dao.getRootLocations(includeRetired);
 	}
 	
+	/**
+	 * @see LocationService#getLocationHierarchyIndex()
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public LocationHierarchyIndex getLocationHierarchyIndex() throws APIException {
+		return locationHierarchyIndex.get();
+	}
+	
+	/**
+	 * @see LocationService#getDescendantLocations(Location, boolean)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public Set<Location> getDescendantLocations(Location location, boolean includeRetired) throws APIException {
+		Set<Location> descendants = new LinkedHashSet<>();
+		if (location.getLocationId() == null) {
+			return descendants;
+		}
+		LocationHierarchyIndex index = Context.getLocationService().getLocationHierarchyIndex();
+		for (Integer locationId : index.getDescendantIds(location.getLocationId(), includeRetired)) {
+			descendants.add(dao.getLocation(locationId));
+		}
+		return descendants;
+	}
+	
+	/**
+	 * @see LocationService#isInHierarchy(Location, Location)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public boolean isInHierarchy(Location location, Location root) throws APIException {
+		if (location == null || root == null || location.getLocationId() == null || root.getLocationId() == null) {
+			return Location.isInHierarchy(location, root);
+		}
+		return Context.getLocationService().getLocationHierarchyIndex().isInHierarchy(location.getLocationId(),
+		    root.getLocationId());
+	}
+	
 	/**
 	 * @see org.openmrs.api.LocationService#getPossibleAddressValues(Address, String)
 	 */
@@ -15,10 +15,15 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
+import java.util.function.Consumer;
 
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.openmrs.Cohort;
 import org.openmrs.Concept;
 import org.openmrs.ConceptName;
 import org.openmrs.Encounter;
+import org.openmrs.GlobalProperty;
 import org.openmrs.Location;
 import org.openmrs.Obs;
 import org.openmrs.Patient;
@@ -26,6 +31,7 @@ import org.openmrs.Person;
 import org.openmrs.aop.RequiredDataAdvice;
 import org.openmrs.api.APIException;
 import org.openmrs.api.EncounterService;
+import org.openmrs.api.GlobalPropertyListener;
 import org.openmrs.api.ObsService;
 import org.openmrs.api.PatientService;
 import org.openmrs.api.context.Context;
@@ -35,9 +41,11 @@ import org.openmrs.obs.ComplexData;
 import org.openmrs.obs.ComplexObsHandler;
 import org.openmrs.obs.handler.AbstractHandler;
 import org.openmrs.util.OpenmrsClassLoader;
+import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsConstants.PERSON_TYPE;
 import org.openmrs.util.OpenmrsUtil;
 import org.openmrs.util.PrivilegeConstants;
+import org.openmrs.validator.ValidateUtil;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -46,7 +54,7 @@ import org.springframework.transaction.annotation.Transactional;
  * @see org.openmrs.api.ObsService
  */
 @Transactional
-public class ObsServiceImpl extends BaseOpenmrsService implements ObsService {
+public class ObsServiceImpl extends BaseOpenmrsService implements ObsService, GlobalPropertyListener {
 	
 	/**
 	 * The data access object for the obs service
@@ -59,6 +67,13 @@ public class ObsServiceImpl extends BaseOpenmrsService implements ObsService {
 	 */
 	private static Map<String, ComplexObsHandler> handlers = null;
 	
+	/**
+	 * Whether the original of an edited obs is voided with a direct update. This is set in
+	 * {@link Context#checkCoreDataset()} and kept up to date by this service as a global property
+	 * listener.
+	 */
+	private static boolean voidEditedObsWithDirectUpdate;
+	
 	/**
 	 * Default empty constructor for this obs service
 	 */
@@ -110,10 +125,45 @@ public class ObsServiceImpl extends BaseOpenmrsService implements ObsService {
 			return saveObsNotDirty(obs, changeMessage);
 		} else {
 			setPersonFromEncounter(obs);
-			return saveExistingObs(obs,changeMessage);
+			// the setting is cached, reading it here could flush the edited obs
+			return saveExistingObs(obs, changeMessage, voidEditedObsWithDirectUpdate);
 		}
 	}
 
+	/**
+	 * @see org.openmrs.api.ObsService#saveNewEncounterObs(org.openmrs.Encounter)
+	 */
+	@Override
+	public List<Obs> saveNewEncounterObs(Encounter encounter) throws APIException {
+		List<Obs> newObs = new ArrayList<>();
+		for (Obs obs : encounter.getObsAtTopLevel(true)) {
+			if (obs.getObsId() == null) {
+				newObs.add(obs);
+			}
+		}
+		for (Obs obs : newObs) {
+			// what the AOP advice does for saveObs, the validator and the handlers cover the group members
+			ValidateUtil.validate(obs);
+			RequiredDataAdvice.recursivelyHandle(SaveHandler.class, obs, null);
+			saveNewObsAndGroupMembers(obs);
+		}
+		return newObs;
+	}
+	
+	private void saveNewObsAndGroupMembers(Obs obs) {
+		handleExistingObsWithComplexConcept(obs);
+		dao.saveObs(obs);
+		if (obs.isObsGrouping()) {
+			for (Obs member : obs.getGroupMembers(true)) {
+				if (member.getObsId() == null) {
+					saveNewObsAndGroupMembers(member);
+				} else {
+					Context.getObsService().saveObs(member, null);
+				}
+			}
+		}
+	}
+	
 	private void setPersonFromEncounter(Obs obs) {
 		Encounter encounter = obs.getEncounter();
 		if (encounter != null) {
@@ -121,9 +171,18 @@ public class ObsServiceImpl extends BaseOpenmrsService implements ObsService {
 		}
 	}
 
-	private void voidExistingObs(Obs obs, String changeMessage, Obs newObs) {
+	private void voidExistingObs(Obs obs, String changeMessage, Obs newObs, boolean voidWithDirectUpdate) {
 		// void out the original observation to keep it around for
 		// historical purposes
+		if (voidWithDirectUpdate && !obs.isComplex()) {
+			// only a complex obs needs its saved values to clean up after it, the others are voided
+			// together with their group members without going through voidObs
+			if (StringUtils.isBlank(changeMessage)) {
+				throw new IllegalArgumentException("The 'reason' argument is required");
+			}
+			dao.voidSavedObsAndGroupMembers(obs, Context.getAuthenticatedUser(), new Date(), changeMessage);
+			return;
+		}
 		try {
 			Context.addProxyPrivilege(PrivilegeConstants.DELETE_OBS);
 
@@ -146,7 +205,7 @@ public class ObsServiceImpl extends BaseOpenmrsService implements ObsService {
 		}
 	}
 
-	private Obs saveExistingObs(Obs obs, String changeMessage) {
+	private Obs saveExistingObs(Obs obs, String changeMessage, boolean voidWithDirectUpdate) {
 		// get a copy of the passed in obs and save it to the
 		// database. This allows us to create a new row and new obs_id
 		// this method doesn't copy the obs_id
@@ -165,7 +224,7 @@ public class ObsServiceImpl extends BaseOpenmrsService implements ObsService {
 
 		saveObsGroup(newObs,null);
 
-		voidExistingObs(obs, changeMessage, newObs);
+		voidExistingObs(obs, changeMessage, newObs, voidWithDirectUpdate);
 
 		return newObs;
 
@@ -372,6 +431,35 @@ public class ObsServiceImpl extends BaseOpenmrsService implements ObsService {
 		    obsGroupId, fromDate, toDate, includeVoidedObs, accessionNumber);
 	}
 	
+	/**
+	 * @see org.openmrs.api.ObsService#getMostRecentObservations(List, List, Integer, Date)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<Obs> getMostRecentObservations(List<Person> whom, List<Concept> questions, Integer mostRecentN,
+	        Date toDate) throws APIException {
+		if (CollectionUtils.isEmpty(questions)) {
+			throw new IllegalArgumentException("At least one question concept is required");
+		}
+		
+		return dao.getMostRecentObservations(whom, questions, mostRecentN == null ? 1 : mostRecentN, toDate);
+	}
+	
+	/**
+	 * @see org.openmrs.api.ObsService#forEachMostRecentObservation(Cohort, List, Integer, Date,
+	 *      Consumer)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public void forEachMostRecentObservation(Cohort cohort, List<Concept> questions, Integer mostRecentN, Date toDate,
+	        Consumer<Obs> action) throws APIException {
+		if (CollectionUtils.isEmpty(questions)) {
+			throw new IllegalArgumentException("At least one question concept is required");
+		}
+		
+		dao.forEachMostRecentObservation(cohort, questions, mostRecentN == null ? 1 : mostRecentN, toDate, action);
+	}
+	
 	/**
 	 * @see org.openmrs.api.ObsService#getObservationCount(java.util.List, java.util.List,
 	 *      java.util.List, java.util.List, java.util.List, java.util.List, java.lang.Integer,
@@ -643,4 +731,37 @@ public class ObsServiceImpl extends BaseOpenmrsService implements ObsService {
 		handlers.remove(key);
 	}
 	
+	/**
+	 * @see GlobalPropertyListener#supportsPropertyName(String)
+	 */
+	@Override
+	public boolean supportsPropertyName(String propertyName) {
+		return OpenmrsConstants.GP_OBS_VOID_EDITED_OBS_WITH_DIRECT_UPDATE.equals(propertyName);
+	}
+	
+	/**
+	 * @see GlobalPropertyListener#globalPropertyChanged(GlobalProperty)
+	 */
+	@Override
+	public void globalPropertyChanged(GlobalProperty newValue) {
+		setVoidEditedObsWithDirectUpdate(Boolean.parseBoolean(StringUtils.trim(newValue.getPropertyValue())));
+	}
+	
+	/**
+	 * @see GlobalPropertyListener#globalPropertyDeleted(String)
+	 */
+	@Override
+	public void globalPropertyDeleted(String propertyName) {
+		setVoidEditedObsWithDirectUpdate(false);
+	}
+	
+	/**
+	 * @param voidEditedObsWithDirectUpdate the value of
+	 *            {@link OpenmrsConstants#GP_OBS_VOID_EDITED_OBS_WITH_DIRECT_UPDATE}
+	 * @since 2.4.0
+	 */
+	public static void setVoidEditedObsWithDirectUpdate(boolean voidEditedObsWithDirectUpdate) {
+		ObsServiceImpl.voidEditedObsWithDirectUpdate = voidEditedObsWithDirectUpdate;
+	}
+	
 }
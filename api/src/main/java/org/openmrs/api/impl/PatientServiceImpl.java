@@ -18,7 +18,7 @@ import org.openmrs.Concept;
 import org.openmrs.Encounter;
 import org.openmrs.Location;
 import org.openmrs.Obs;
-import org.openmrs.Order;
+import org.openmrs.OrderType;
 import org.openmrs.Patient;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
@@ -30,6 +30,7 @@ import org.openmrs.PersonName;
 import org.openmrs.Relationship;
 import org.openmrs.User;
 import org.openmrs.Visit;
+import org.openmrs.aop.RequiredDataAdvice;
 import org.openmrs.api.APIException;
 import org.openmrs.api.BlankIdentifierException;
 import org.openmrs.api.DuplicateIdentifierException;
@@ -39,6 +40,8 @@ import org.openmrs.api.MissingRequiredIdentifierException;
 import org.openmrs.api.ObsService;
 import org.openmrs.api.PatientIdentifierException;
 import org.openmrs.api.PatientIdentifierTypeLockedException;
+import org.openmrs.api.PatientImportChunkResult;
+import org.openmrs.api.PatientImportResult;
 import org.openmrs.api.PatientService;
 import org.openmrs.api.PersonService;
 import org.openmrs.api.ProgramWorkflowService;
@@ -46,6 +49,7 @@ import org.openmrs.api.UserService;
 import org.openmrs.api.VisitService;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.PatientDAO;
+import org.openmrs.api.handler.SaveHandler;
 import org.openmrs.parameter.EncounterSearchCriteria;
 import org.openmrs.parameter.EncounterSearchCriteriaBuilder;
 import org.openmrs.patient.IdentifierValidator;
@@ -57,8 +61,10 @@ import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import org.openmrs.util.PrivilegeConstants;
 import org.openmrs.validator.PatientIdentifierValidator;
+import org.openmrs.validator.ValidateUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
@@ -66,11 +72,16 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -87,6 +98,11 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 	
 	private static final Logger log = LoggerFactory.getLogger(PatientServiceImpl.class);
 	
+	/**
+	 * How many imported patients are committed in one transaction
+	 */
+	private static final int IMPORT_CHUNK_SIZE = 1000;
+	
 	private PatientDAO dao;
 	
 	/**
@@ -94,6 +110,11 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 	 */
 	private static Map<Class<? extends IdentifierValidator>, IdentifierValidator> identifierValidators = null;
 	
+	/**
+	 * Updates the search index for the chunks of imported patients in the order they were committed
+	 */
+	private ExecutorService importedPatientsIndexer;
+	
 	/**
 	 * @see org.openmrs.api.PatientService#setPatientDAO(org.openmrs.api.db.PatientDAO)
 	 */
@@ -111,6 +132,12 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 	@Override
 	public void onShutdown() {
 		setIdentifierValidators(null);
+		synchronized (this) {
+			if (importedPatientsIndexer != null) {
+				importedPatientsIndexer.shutdown();
+				importedPatientsIndexer = null;
+			}
+		}
 	}
 	
 	/**
@@ -135,6 +162,111 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 		return dao.savePatient(patient);
 	}
 
+	/**
+	 * @see org.openmrs.api.PatientService#importPatients(java.util.Iterator)
+	 */
+	@Override
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public PatientImportResult importPatients(Iterator<Patient> patients) throws APIException {
+		PatientImportResult result = new PatientImportResult();
+		List<Patient> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+		int index = 0;
+		while (patients.hasNext()) {
+			chunk.add(patients.next());
+			if (chunk.size() == IMPORT_CHUNK_SIZE || !patients.hasNext()) {
+				PatientImportChunkResult chunkResult = Context.getPatientService().importPatientChunk(chunk);
+				List<Integer> patientIds = chunkResult.getImportedPatientIds();
+				for (int i = 0; i < patientIds.size(); i++) {
+					result.addImported();
+				}
+				for (Map.Entry<Integer, String> error : chunkResult.getErrors().entrySet()) {
+					result.addError(index + error.getKey(), error.getValue());
+				}
+				index += chunk.size();
+				chunk.clear();
+				
+				// the inserted rows bypassed the search index, they are indexed once they have been committed
+				if (!patientIds.isEmpty()) {
+					result.setSearchIndexUpdate(getImportedPatientsIndexer().submit(() -> {
+						try {
+							dao.updateSearchIndexForPatients(patientIds);
+						}
+						catch (RuntimeException e) {
+							log.error("Unable to update the search index for imported patients " + patientIds, e);
+						}
+					}));
+				}
+				log.info("Importing patients: {}", result);
+			}
+		}
+		result.finish();
+		log.info("Imported patients: {}", result);
+		return result;
+	}
+	
+	/**
+	 * @see org.openmrs.api.PatientService#importPatientChunk(List)
+	 */
+	@Override
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public PatientImportChunkResult importPatientChunk(List<Patient> patients) throws APIException {
+		List<Integer> patientIds = new ArrayList<>(patients.size());
+		Map<Integer, String> errors = new LinkedHashMap<>();
+		for (int i = 0; i < patients.size(); i++) {
+			Patient patient = patients.get(i);
+			try {
+				importPatient(patient);
+				patientIds.add(patient.getPatientId());
+			}
+			catch (APIException e) {
+				log.debug("Unable to import patient #{} of the chunk", i, e);
+				errors.put(i, e.getMessage());
+			}
+		}
+		return new PatientImportChunkResult(patientIds, errors);
+	}
+	
+	private synchronized ExecutorService getImportedPatientsIndexer() {
+		if (importedPatientsIndexer == null) {
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+			        runnable -> {
+				        Thread thread = new Thread(runnable, "Imported patients search index updater");
+				        thread.setDaemon(true);
+				        return thread;
+			        });
+			executor.allowCoreThreadTimeOut(true);
+			importedPatientsIndexer = executor;
+		}
+		return importedPatientsIndexer;
+	}
+	
+	/**
+	 * Does what the AOP advice and {@link #savePatient(Patient)} do for a new patient before
+	 * inserting it
+	 */
+	private void importPatient(Patient patient) throws APIException {
+		if (patient == null || patient.getPatientId() != null) {
+			throw new APIException("Only new patients can be imported");
+		}
+		
+		ValidateUtil.validate(patient);
+		RequiredDataAdvice.recursivelyHandle(SaveHandler.class, patient, null);
+		
+		if (!patient.getVoided() && patient.getIdentifiers().size() == 1) {
+			patient.getPatientIdentifier().setPreferred(true);
+		}
+		if (!patient.getVoided()) {
+			// unless validation is disabled, the patient validator already checked that no other patient has
+			// the identifiers, including the patients imported before it
+			checkPatientIdentifiers(patient, ValidateUtil.getDisableValidation());
+		}
+		setPreferredPatientIdentifier(patient);
+		setPreferredPatientName(patient);
+		setPreferredPatientAddress(patient);
+		
+		dao.insertPatient(patient);
+	}
+	
 	private void requireAppropriatePatientModificationPrivilege(Patient patient) {
 		if (patient.getPatientId() == null) {
 			Context.requirePrivilege(PrivilegeConstants.ADD_PATIENTS);
@@ -273,6 +405,10 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 	@Override
 	@Transactional(readOnly = true)
 	public void checkPatientIdentifiers(Patient patient) throws PatientIdentifierException {
+		checkPatientIdentifiers(patient, true);
+	}
+	
+	private void checkPatientIdentifiers(Patient patient, boolean checkInUse) throws PatientIdentifierException {
 		// check patient has at least one identifier
 		if (!patient.getVoided() && patient.getActiveIdentifiers().isEmpty()) {
 			throw new InsufficientIdentifiersException("At least one nonvoided Patient Identifier is required");
@@ -286,7 +422,8 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 			.filter(pi -> !pi.getVoided())
 			.forEach(pi -> {
 				try {
-					PatientIdentifierValidator.validateIdentifier(pi);
+					// whether the identifiers are in use by other patients is checked for all of them at once below
+					PatientIdentifierValidator.validateIdentifier(pi, false);
 				}
 				catch (BlankIdentifierException bie) {
 					patient.removeIdentifier(pi);
@@ -301,6 +438,10 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 				}
 			});
 
+		if (checkInUse) {
+			PatientIdentifierValidator.validateIdentifiersNotInUse(patientIdentifiers);
+		}
+
 		checkForMissingRequiredIdentifiers(patientIdentifiers);
 
 	}
@@ -576,11 +717,24 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 		}
 		requireNoActiveOrderOfSameType(preferred,notPreferred);
 		PersonMergeLogData mergedData = new PersonMergeLogData();
-		mergeVisits(preferred, notPreferred, mergedData);
-		mergeEncounters(preferred, notPreferred, mergedData);
+		// bulk updates move the rows as they are, without running the save handlers on each of them
+		boolean useBulkUpdates = Context.getAdministrationService().getGlobalPropertyValue(
+		    OpenmrsConstants.GP_PATIENT_MERGE_USE_BULK_UPDATES, Boolean.FALSE);
+		if (useBulkUpdates) {
+			dao.moveVisits(notPreferred, preferred).forEach(mergedData::addMovedVisit);
+			dao.moveEncounters(notPreferred, preferred).forEach(mergedData::addMovedEncounter);
+		} else {
+			mergeVisits(preferred, notPreferred, mergedData);
+			mergeEncounters(preferred, notPreferred, mergedData);
+		}
 		mergeProgramEnrolments(preferred, notPreferred, mergedData);
 		mergeRelationships(preferred, notPreferred, mergedData);
-		mergeObservationsNotContainedInEncounters(preferred, notPreferred, mergedData);
+		if (useBulkUpdates) {
+			dao.copyObservationsNotContainedInEncounters(notPreferred, preferred,
+			    "Merged from patient #" + notPreferred.getPatientId()).forEach(mergedData::addMovedIndependentObservation);
+		} else {
+			mergeObservationsNotContainedInEncounters(preferred, notPreferred, mergedData);
+		}
 		mergeIdentifiers(preferred, notPreferred, mergedData);
 		
 		mergeNames(preferred, notPreferred, mergedData);
@@ -615,17 +769,14 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 	
 	private void requireNoActiveOrderOfSameType(Patient patient1, Patient patient2) {
 		String messageKey = "Patient.merge.cannotHaveSameTypeActiveOrders";
-		List<Order> ordersByPatient1 = Context.getOrderService().getAllOrdersByPatient(patient1);
-		List<Order> ordersByPatient2 = Context.getOrderService().getAllOrdersByPatient(patient2);
-		ordersByPatient1.forEach((Order order1) -> ordersByPatient2.forEach((Order order2) -> {
-			if (order1.isActive() && order2.isActive() && order1.getOrderType().equals(order2.getOrderType())) {
-				Object[] parameters = { patient1.getPatientId(), patient2.getPatientId(), order1.getOrderType() };
-				String message = Context.getMessageSourceService().getMessage(messageKey, parameters,
-						Context.getLocale());
-				log.debug(message);
-				throw new APIException(message);
-			}
-		}));
+		List<OrderType> orderTypes = dao.getActiveOrderTypesInCommon(patient1, patient2);
+		if (!orderTypes.isEmpty()) {
+			Object[] parameters = { patient1.getPatientId(), patient2.getPatientId(), orderTypes.get(0) };
+			String message = Context.getMessageSourceService().getMessage(messageKey, parameters,
+					Context.getLocale());
+			log.debug(message);
+			throw new APIException(message);
+		}
 	}
 
 	private void mergeProgramEnrolments(Patient preferred, Patient notPreferred, PersonMergeLogData mergedData) {
@@ -1337,6 +1488,18 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 		return dao.isIdentifierInUseByAnotherPatient(patientIdentifier);
 	}
 	
+	/**
+	 * @see org.openmrs.api.PatientService#getIdentifiersInUseByAnotherPatient(Collection)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<PatientIdentifier> getIdentifiersInUseByAnotherPatient(Collection<PatientIdentifier> patientIdentifiers) {
+		if (patientIdentifiers.isEmpty()) {
+			return new ArrayList<>();
+		}
+		return dao.getIdentifiersInUseByAnotherPatient(patientIdentifiers);
+	}
+	
 	/**
 	 * @see org.openmrs.api.PatientService#getPatientIdentifier(java.lang.Integer)
 	 */
@@ -13,6 +13,7 @@ import java.util.ArrayList;
 import java.util.Set;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import org.openmrs.Cohort;
@@ -30,6 +31,7 @@ import org.openmrs.ProgramWorkflowState;
 import org.openmrs.api.APIException;
 import org.openmrs.api.ProgramNameDuplicatedException;
 import org.openmrs.api.ProgramWorkflowService;
+import org.openmrs.api.cache.IndexCache;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.ProgramWorkflowDAO;
 import org.slf4j.Logger;
@@ -50,6 +52,13 @@ public class ProgramWorkflowServiceImpl extends BaseOpenmrsService implements Pr
 	private static final Logger log = LoggerFactory.getLogger(ProgramWorkflowServiceImpl.class);
 	
 	protected ProgramWorkflowDAO dao;
+	
+	/**
+	 * The ids of the concepts that can trigger a state conversion, see
+	 * {@link #triggerStateConversion(Patient, Concept, Date)}
+	 */
+	private final IndexCache<HashSet<Integer>> stateConceptIds = new IndexCache<>("programWorkflowStateConceptIds",
+	        () -> new HashSet<>(dao.getProgramWorkflowStateConceptIds()));
         
 	public ProgramWorkflowServiceImpl() {
 	}
@@ -89,6 +98,7 @@ public class ProgramWorkflowServiceImpl extends BaseOpenmrsService implements Pr
 				ensureProgramWorkflowIsSet(state, workflow);
 			}
 		}
+		stateConceptIds.invalidate();
 		return dao.saveProgram(program);
 	}
 	 
@@ -192,6 +202,7 @@ public class ProgramWorkflowServiceImpl extends BaseOpenmrsService implements Pr
 		    null, null, null, true)) {
 			purgePatientProgram(patientProgram);
 		}
+		stateConceptIds.invalidate();
 		dao.deleteProgram(program);
 	}
 	
@@ -400,6 +411,7 @@ public class ProgramWorkflowServiceImpl extends BaseOpenmrsService implements Pr
 		if (csc.getConcept() == null || csc.getProgramWorkflow() == null || csc.getProgramWorkflowState() == null) {
 			throw new APIException("ConceptStateConversion.requires", (Object[]) null);
 		}
+		stateConceptIds.invalidate();
 		return dao.saveConceptStateConversion(csc);
 	}
 	
@@ -436,6 +448,7 @@ public class ProgramWorkflowServiceImpl extends BaseOpenmrsService implements Pr
 	@Override
 	public void purgeConceptStateConversion(ConceptStateConversion conceptStateConversion, boolean cascade)
 	        throws APIException {
+		stateConceptIds.invalidate();
 		dao.deleteConceptStateConversion(conceptStateConversion);
 	}
 	
@@ -456,38 +469,40 @@ public class ProgramWorkflowServiceImpl extends BaseOpenmrsService implements Pr
 			throw new APIException("convert.state.invalid.date", (Object[]) null);
 		}
 		
-		for (PatientProgram patientProgram : getPatientPrograms(patient, null, null, null, null, null, false)) {
-			//skip past patient programs that already completed
-			if (patientProgram.getDateCompleted() == null) {
-				Set<ProgramWorkflow> workflows = patientProgram.getProgram().getWorkflows();
-				for (ProgramWorkflow workflow : workflows) {
-					// (getWorkflows() is only returning over nonretired workflows)
-					PatientState patientState = patientProgram.getCurrentState(workflow);
-					
-					// #1080 cannot exit patient from care  
-					// Should allow a transition from a null state to a terminal state
-					// Or we should require a user to ALWAYS add an initial workflow/state when a patient is added to a program
-					ProgramWorkflowState currentState = (patientState != null) ? patientState.getState() : null;
-					ProgramWorkflowState transitionState = workflow.getState(trigger);
-					
-					log.debug("Transitioning from current state [" + currentState + "]");
-					log.debug("|---> Transitioning to final state [" + transitionState + "]");
-					
-					if (transitionState != null && workflow.isLegalTransition(currentState, transitionState)) {
-						patientProgram.transitionToState(transitionState, dateConverted);
-						log.debug("State Conversion Triggered: patientProgram=" + patientProgram + " transition from "
-						        + currentState + " to " + transitionState + " on " + dateConverted);
-					}
-				}
+		// most concepts are not the concept of any state, only look up the programs for those that are
+		if (!stateConceptIds.get().contains(trigger.getConceptId())) {
+			return;
+		}
+		
+		for (PatientProgram patientProgram : dao.getActivePatientProgramsWithStateConcept(patient, trigger)) {
+			Set<ProgramWorkflow> workflows = patientProgram.getProgram().getWorkflows();
+			for (ProgramWorkflow workflow : workflows) {
+				// (getWorkflows() is only returning over nonretired workflows)
+				PatientState patientState = patientProgram.getCurrentState(workflow);
+				
+				// #1080 cannot exit patient from care  
+				// Should allow a transition from a null state to a terminal state
+				// Or we should require a user to ALWAYS add an initial workflow/state when a patient is added to a program
+				ProgramWorkflowState currentState = (patientState != null) ? patientState.getState() : null;
+				ProgramWorkflowState transitionState = workflow.getState(trigger);
 				
-				// #1068 - Exiting a patient from care causes "not-null property references
-				// a null or transient value: org.openmrs.PatientState.dateCreated". Explicitly
-				// calling the savePatientProgram() method will populate the metadata properties.
-				// 
-				// #1067 - We should explicitly save the patient program rather than let 
-				// Hibernate do so when it flushes the session.
-				Context.getProgramWorkflowService().savePatientProgram(patientProgram);
+				log.debug("Transitioning from current state [" + currentState + "]");
+				log.debug("|---> Transitioning to final state [" + transitionState + "]");
+				
+				if (transitionState != null && workflow.isLegalTransition(currentState, transitionState)) {
+					patientProgram.transitionToState(transitionState, dateConverted);
+					log.debug("State Conversion Triggered: patientProgram=" + patientProgram + " transition from "
+					        + currentState + " to " + transitionState + " on " + dateConverted);
+				}
 			}
+			
+			// #1068 - Exiting a patient from care causes "not-null property references
+			// a null or transient value: org.openmrs.PatientState.dateCreated". Explicitly
+			// calling the savePatientProgram() method will populate the metadata properties.
+			// 
+			// #1067 - We should explicitly save the patient program rather than let 
+			// Hibernate do so when it flushes the session.
+			Context.getProgramWorkflowService().savePatientProgram(patientProgram);
 		}
 	}
 	
@@ -33,7 +33,7 @@ public class DateDatatype extends SerializingCustomDatatype<Date> {
 	 */
 	@Override
 	public CustomDatatype.Summary doGetTextSummary(Date typedValue) {
-		return new CustomDatatype.Summary(Context.getDateFormat().format(typedValue), true);
+		return new CustomDatatype.Summary(Context.getLocalizedDateFormat().formatDate(typedValue), true);
 	}
 	
 	/**
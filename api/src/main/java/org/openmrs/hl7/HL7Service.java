@@ -457,6 +457,24 @@ public interface HL7Service extends OpenmrsService {
 			PrivilegeConstants.PRIV_ADD_HL7_IN_QUEUE })
 	public void migrateHl7InArchivesToFileSystem(Map<String, Integer> progressStatusMap) throws APIException;
 	
+	/**
+	 * Migrates the next chunk of hl7 in archives to the file system in a transaction of its own, so
+	 * that each chunk is committed as soon as it is done. This is what
+	 * {@link #migrateHl7InArchivesToFileSystem(Map)} calls for each chunk.
+	 * 
+	 * @param lastArchiveId the id of the last archive of the previous chunk, null for the first chunk
+	 * @param progressStatusMap the map holding the number of archives transferred and failed
+	 *            transfers, the counts of the chunk are added to it
+	 * @return the id of the last archive of the chunk, null if there were no archives left to migrate
+	 * @throws APIException
+	 * @since 2.4.0
+	 * @should write the archives to files and mark them migrated
+	 */
+	@Authorized(requireAll = true, value = { PrivilegeConstants.GET_HL7_IN_ARCHIVE, PrivilegeConstants.PRIV_PURGE_HL7_IN_ARCHIVE,
+			PrivilegeConstants.PRIV_ADD_HL7_IN_QUEUE })
+	public Integer migrateHl7InArchivesChunkToFileSystem(Integer lastArchiveId, Map<String, Integer> progressStatusMap)
+	        throws APIException;
+	
 	/**
 	 * finds a UUID from an array of identifiers
 	 * 
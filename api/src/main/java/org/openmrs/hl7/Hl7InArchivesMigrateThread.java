@@ -122,9 +122,13 @@ public class Hl7InArchivesMigrateThread extends Thread {
 		
 		while (isActive() && transferStatus == Status.RUNNING) {
 			try {
-				// migrate the archives
+				// migrate the archives, each chunk is committed on its own
 				if (isActive()) {
-					Context.getHL7Service().migrateHl7InArchivesToFileSystem(progressStatusMap);
+					Integer lastArchiveId = null;
+					do {
+						lastArchiveId = Context.getHL7Service().migrateHl7InArchivesChunkToFileSystem(lastArchiveId,
+						    progressStatusMap);
+					} while (lastArchiveId != null && isActive() && transferStatus == Status.RUNNING);
 				}
 				
 				//if transfer is done when user didn't just stop it
@@ -10,6 +10,7 @@
 package org.openmrs.hl7.db;
 
 import java.util.List;
+import java.util.Map;
 
 import org.openmrs.api.db.DAOException;
 import org.openmrs.hl7.HL7InArchive;
@@ -155,9 +156,26 @@ public interface HL7DAO {
 	public void deleteHL7InArchive(HL7InArchive hl7InArchive) throws DAOException;
 	
 	/**
-	 * provides a list of archives to be migrated
+	 * Gets the next archives to be migrated, in the order of their ids. The archives are not kept in
+	 * the session, so they are not dirty checked or flushed and updating their rows directly leaves
+	 * nothing stale behind.
+	 * 
+	 * @param afterArchiveId only archives with a greater id are returned, null to start with the first
+	 *            archive
+	 * @param maxResults the maximum number of archives to return
+	 * @return the archives to be migrated
+	 * @since 2.4.0
+	 */
+	public List<HL7InArchive> getHL7InArchivesToMigrate(Integer afterArchiveId, int maxResults);
+	
+	/**
+	 * Marks archives as migrated and replaces their data with the location of the file they were
+	 * written to, with a JDBC batch update that bypasses the session
+	 * 
+	 * @param fileLocations the location of the file of each archive, by archive id
+	 * @since 2.4.0
 	 */
-	public List<HL7InArchive> getHL7InArchivesToMigrate();
+	public void markHL7InArchivesMigrated(Map<Integer, String> fileLocations) throws DAOException;
 	
 	/* HL7InError */
 
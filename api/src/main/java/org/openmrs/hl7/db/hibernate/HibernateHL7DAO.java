@@ -9,12 +9,18 @@
  */
 package org.openmrs.hl7.db.hibernate;
 
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
+import java.util.Map;
 
 import org.hibernate.Criteria;
 import org.hibernate.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
 import org.hibernate.criterion.MatchMode;
 import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Projections;
@@ -353,20 +359,69 @@ public class HibernateHL7DAO implements HL7DAO {
 	}
 	
 	/**
-	 * @see org.openmrs.hl7.db.HL7DAO#getHL7InArchivesToMigrate()
+	 * The archives are paged over by id and read with a {@link StatelessSession} on the connection of
+	 * the current session, so they are part of the current transaction but are not kept in the
+	 * session.
+	 * 
+	 * @see org.openmrs.hl7.db.HL7DAO#getHL7InArchivesToMigrate(Integer, int)
 	 */
 	@Override
-	@SuppressWarnings("unchecked")
-	public List<HL7InArchive> getHL7InArchivesToMigrate() {
+	public List<HL7InArchive> getHL7InArchivesToMigrate(Integer afterArchiveId, int maxResults) {
 		Integer daysToKeep = Hl7InArchivesMigrateThread.getDaysKept();
-		Criteria crit = getHL7SearchCriteria(HL7InArchive.class, HL7Constants.HL7_STATUS_PROCESSED, null);
-		crit.setMaxResults(HL7Constants.MIGRATION_MAX_BATCH_SIZE);
-		if (daysToKeep != null) {
-			Calendar cal = Calendar.getInstance();
-			cal.add(Calendar.DATE, -1 * daysToKeep);
-			crit.add(Restrictions.lt("dateCreated", cal.getTime()));
+		return sessionFactory.getCurrentSession().doReturningWork(connection -> {
+			StatelessSession statelessSession = sessionFactory.openStatelessSession(connection);
+			try {
+				Criteria crit = statelessSession.createCriteria(HL7InArchive.class);
+				crit.add(Restrictions.eq("messageState", HL7Constants.HL7_STATUS_PROCESSED));
+				if (afterArchiveId != null) {
+					crit.add(Restrictions.gt("HL7InArchiveId", afterArchiveId));
+				}
+				if (daysToKeep != null) {
+					Calendar cal = Calendar.getInstance();
+					cal.add(Calendar.DATE, -1 * daysToKeep);
+					crit.add(Restrictions.lt("dateCreated", cal.getTime()));
+				}
+				crit.addOrder(Order.asc("HL7InArchiveId"));
+				crit.setMaxResults(maxResults);
+				
+				List<HL7InArchive> archives = new ArrayList<>();
+				ScrollableResults results = crit.scroll(ScrollMode.FORWARD_ONLY);
+				try {
+					while (results.next()) {
+						archives.add((HL7InArchive) results.get(0));
+					}
+				}
+				finally {
+					results.close();
+				}
+				return archives;
+			}
+			finally {
+				statelessSession.close();
+			}
+		});
+	}
+	
+	/**
+	 * @see org.openmrs.hl7.db.HL7DAO#markHL7InArchivesMigrated(Map)
+	 */
+	@Override
+	public void markHL7InArchivesMigrated(Map<Integer, String> fileLocations) throws DAOException {
+		if (fileLocations.isEmpty()) {
+			return;
 		}
-		return crit.list();
+		sessionFactory.getCurrentSession().doWork(connection -> {
+			try (PreparedStatement update = connection
+			        .prepareStatement("update hl7_in_archive set hl7_data = ?, message_state = ? where hl7_in_archive_id = ?")) {
+				for (Map.Entry<Integer, String> entry : fileLocations.entrySet()) {
+					update.setString(1, entry.getValue());
+					update.setInt(2, HL7Constants.HL7_STATUS_MIGRATED);
+					update.setInt(3, entry.getKey());
+					update.addBatch();
+				}
+				update.executeBatch();
+			}
+		});
 	}
 	
 }
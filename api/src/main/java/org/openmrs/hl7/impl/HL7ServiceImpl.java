@@ -9,23 +9,23 @@
  */
 package org.openmrs.hl7.impl;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
-import java.text.DecimalFormat;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
@@ -39,7 +39,6 @@ import org.openmrs.User;
 import org.openmrs.api.APIException;
 import org.openmrs.api.PatientIdentifierException;
 import org.openmrs.api.context.Context;
-import org.openmrs.api.db.DAOException;
 import org.openmrs.api.impl.BaseOpenmrsService;
 import org.openmrs.hl7.HL7Constants;
 import org.openmrs.hl7.HL7InArchive;
@@ -58,6 +57,7 @@ import org.openmrs.util.PrivilegeConstants;
 import org.openmrs.validator.PatientIdentifierValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import ca.uhn.hl7v2.HL7Exception;
@@ -368,13 +368,6 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 		return dao.getHL7InArchive(hl7InArchiveId);
 	}
 	
-	/**
-	 * get a list of archives to be migrated to the filesystem
-	 */
-	private List<HL7InArchive> getHL7InArchivesToMigrate() {
-		return dao.getHL7InArchivesToMigrate();
-	}
-	
 	/**
 	 * @see org.openmrs.hl7.HL7Service#getAllHL7InErrors()
 	 */
@@ -1043,7 +1036,9 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 		}
 		
 		try {
-			archive.setHL7Data(OpenmrsUtil.getFileAsString(new File(new URI(archive.getHL7Data()))));
+			// read the file in one go, sized to the file, rather than in small chunks
+			archive.setHL7Data(new String(Files.readAllBytes(Paths.get(new URI(archive.getHL7Data()))),
+			        StandardCharsets.UTF_8));
 			archive.setLoaded(true);
 		}
 		catch (URISyntaxException e) {
@@ -1058,35 +1053,14 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 	 * @see org.openmrs.hl7.HL7Service#migrateHl7InArchivesToFileSystem(Map)
 	 */
 	@Override
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
 	public void migrateHl7InArchivesToFileSystem(Map<String, Integer> progressStatusMap) throws APIException {
-		int numberTransferred = 0;
-		int numberOfFailedTransfers = 0;
-		
-		// HL7Constants.HL7_STATUS_ARCHIVED indicates the HL7 has been archived to the filesystem
-		List<HL7InArchive> hl7InArchives = getHL7InArchivesToMigrate();
-		
-		// while we still we have any archives to be processed, process them
-		while (Hl7InArchivesMigrateThread.isActive() && Hl7InArchivesMigrateThread.getTransferStatus() == Status.RUNNING
-		        && hl7InArchives != null && !hl7InArchives.isEmpty()) {
-			
-			Iterator<HL7InArchive> iterator = hl7InArchives.iterator();
-			
-			while (Hl7InArchivesMigrateThread.isActive() && Hl7InArchivesMigrateThread.getTransferStatus() == Status.RUNNING
-			        && iterator.hasNext()) {
-				HL7InArchive archive = iterator.next();
-				
-				try {
-					migrateHL7InArchive(archive);
-					progressStatusMap.put(HL7Constants.NUMBER_TRANSFERRED_KEY, numberTransferred++);
-				}
-				catch (DAOException e) {
-					progressStatusMap.put(HL7Constants.NUMBER_OF_FAILED_TRANSFERS_KEY, numberOfFailedTransfers++);
-				}
-			}
-			
-			// fetch more archives to be processed
-			hl7InArchives = getHL7InArchivesToMigrate();
-		}
+		Integer lastArchiveId = null;
+		do {
+			lastArchiveId = Context.getHL7Service().migrateHl7InArchivesChunkToFileSystem(lastArchiveId,
+			    progressStatusMap);
+		} while (lastArchiveId != null && Hl7InArchivesMigrateThread.isActive()
+		        && Hl7InArchivesMigrateThread.getTransferStatus() == Status.RUNNING);
 		
 		if (log.isDebugEnabled()) {
 			log.debug("Transfer of HL7 archives has completed or has been stopped");
@@ -1094,100 +1068,81 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 	}
 	
 	/**
-	 * moves data to the filesystem from an HL7InArchive
+	 * The files of the chunk are written in parallel and the archives that were written are then
+	 * marked as migrated with one batch update. An archive that could not be written is left
+	 * processed, so it is skipped for the rest of the run and tried again, along with the archives
+	 * that were not reached, when the migration is restarted.
 	 *
-	 * @param archive
-	 * @throws APIException
+	 * @see org.openmrs.hl7.HL7Service#migrateHl7InArchivesChunkToFileSystem(Integer, Map)
 	 */
-	private void migrateHL7InArchive(HL7InArchive archive) throws APIException {
-		if (archive == null) {
-			throw new APIException("Hl7Service.migrate.null.archive", (Object[]) null);
-		}
-		
-		if (!OpenmrsUtil.nullSafeEquals(archive.getMessageState(), HL7Constants.HL7_STATUS_PROCESSED)) {
-			throw new APIException("Hl7Service.migrate.archive.state", (Object[]) null);
+	@Override
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public Integer migrateHl7InArchivesChunkToFileSystem(Integer lastArchiveId, Map<String, Integer> progressStatusMap)
+	        throws APIException {
+		// HL7Constants.HL7_STATUS_ARCHIVED indicates the HL7 has been archived to the filesystem
+		List<HL7InArchive> hl7InArchives = dao.getHL7InArchivesToMigrate(lastArchiveId,
+		    HL7Constants.MIGRATION_MAX_BATCH_SIZE);
+		if (hl7InArchives.isEmpty()) {
+			return null;
 		}
 		
-		try {
-			URI uri = writeHL7InArchiveToFileSystem(archive);
-			archive.setHL7Data(uri.toString());
-			archive.setMessageState(HL7Constants.HL7_STATUS_MIGRATED);
-			saveHL7InArchive(archive);
-		}
-		catch (APIException e) {
-			throw new APIException("Hl7Service.migrate.archive", null, e);
+		File destinationDir = HL7Util.getHl7ArchivesDirectory();
+		Locale locale = Context.getLocale();
+		Map<Integer, String> fileLocations = new ConcurrentHashMap<>();
+		Map<Integer, IOException> failures = new ConcurrentHashMap<>();
+		hl7InArchives.parallelStream().forEach(archive -> {
+			try {
+				URI uri = writeHL7InArchiveToFileSystem(archive, destinationDir, locale);
+				fileLocations.put(archive.getHL7InArchiveId(), uri.toString());
+			}
+			catch (IOException e) {
+				failures.put(archive.getHL7InArchiveId(), e);
+			}
+		});
+		for (Map.Entry<Integer, IOException> failure : failures.entrySet()) {
+			log.warn("Failed to write hl7 archive with id '" + failure.getKey() + "' to the file system ",
+			    new APIException("Hl7Service.write.error", null, failure.getValue()));
 		}
+		dao.markHL7InArchivesMigrated(fileLocations);
 		
+		progressStatusMap.merge(HL7Constants.NUMBER_TRANSFERRED_KEY, fileLocations.size(), Integer::sum);
+		progressStatusMap.merge(HL7Constants.NUMBER_OF_FAILED_TRANSFERS_KEY, failures.size(), Integer::sum);
+		return hl7InArchives.get(hl7InArchives.size() - 1).getHL7InArchiveId();
 	}
 	
 	/**
-	 * writes a given hl7 archive to the file system
+	 * writes a given hl7 archive to the file system, it is called for several archives at once so it
+	 * must not use the context of the current thread
 	 *
 	 * @param hl7InArchive the hl7 archive to write to the file system
+	 * @param destinationDir the root directory of the hl7 archives
+	 * @param locale the locale of the calendar used to group the archives by date
 	 */
-	private URI writeHL7InArchiveToFileSystem(HL7InArchive hl7InArchive) throws APIException {
+	private URI writeHL7InArchiveToFileSystem(HL7InArchive hl7InArchive, File destinationDir, Locale locale)
+	        throws IOException {
+		//write the archive to a separate file while grouping them according to
+		//the year, month and date of month when they were stored in the archives table
+		Calendar calendar = Calendar.getInstance(locale);
+		calendar.setTime(hl7InArchive.getDateCreated());
 		
-		PrintWriter writer = null;
-		File destinationDir = HL7Util.getHl7ArchivesDirectory();
-		try {
-			// number formatter used to format month and day with zero padding
-			DecimalFormat df = new DecimalFormat("00");
-			
-			//write the archive to a separate file while grouping them according to
-			//the year, month and date of month when they were stored in the archives table
-			Calendar calendar = Calendar.getInstance(Context.getLocale());
-			calendar.setTime(hl7InArchive.getDateCreated());
-			
-			//resolve the year folder from the date of creation of the archive
-			File yearDir = new File(destinationDir, Integer.toString(calendar.get(Calendar.YEAR)));
-			if (!yearDir.isDirectory()) {
-				yearDir.mkdirs();
-			}
-			
-			//resolve the appropriate month folder
-			File monthDir = new File(yearDir, df.format(calendar.get(Calendar.MONTH) + 1));
-			if (!monthDir.isDirectory()) {
-				monthDir.mkdirs();
-			}
-			
-			//resolve the appropriate day of month folder
-			File dayDir = new File(monthDir, df.format(calendar.get(Calendar.DAY_OF_MONTH)));
-			if (!dayDir.isDirectory()) {
-				dayDir.mkdirs();
-			}
-			
-			//use the uuid, source id and source key(if present) to generate the file name
-			File fileToWriteTo = new File(dayDir, hl7InArchive.getUuid()
-			        + (StringUtils.isBlank(hl7InArchive.getHL7SourceKey()) ? "" : "_" + hl7InArchive.getHL7SourceKey())
-			        + ".txt");
-			
-			//write the hl7 data to the file
-			writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(fileToWriteTo), StandardCharsets.UTF_8));
+		//resolve the year, month and day of month folders, with month and day zero padded
+		Path dayDir = destinationDir.toPath().resolve(Integer.toString(calendar.get(Calendar.YEAR))).resolve(
+		    String.format("%02d", calendar.get(Calendar.MONTH) + 1)).resolve(
+		    String.format("%02d", calendar.get(Calendar.DAY_OF_MONTH)));
+		Files.createDirectories(dayDir);
+		
+		//use the uuid, source id and source key(if present) to generate the file name
+		Path fileToWriteTo = dayDir.resolve(hl7InArchive.getUuid()
+		        + (StringUtils.isBlank(hl7InArchive.getHL7SourceKey()) ? "" : "_" + hl7InArchive.getHL7SourceKey())
+		        + ".txt");
+		
+		//write the hl7 data to the file
+		try (BufferedWriter writer = Files.newBufferedWriter(fileToWriteTo, StandardCharsets.UTF_8)) {
 			writer.write(hl7InArchive.getHL7Data());
-			
-			//check if there was an error while writing to the current file
-			if (writer.checkError()) {
-				log.warn("An Error occured while writing hl7 archive with id '" + hl7InArchive.getHL7InArchiveId()
-				        + "' to the file system");
-				throw new APIException("Hl7Service.write.no.error", (Object[]) null);
-			}
-			
-			// hand back the URI for the file
-			return fileToWriteTo.toURI();
-			
-		}
-		catch (FileNotFoundException e) {
-			log
-			        .warn("Failed to write hl7 archive with id '" + hl7InArchive.getHL7InArchiveId()
-			                + "' to the file system ", e);
-			throw new APIException("Hl7Service.write.error", null, e);
-			
-		}
-		finally {
-			if (writer != null) {
-				writer.close();
-			}
 		}
+		
+		// hand back the URI for the file
+		return fileToWriteTo.toFile().toURI();
 	}
 	
 	@Override
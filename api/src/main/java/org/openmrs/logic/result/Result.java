@@ -539,7 +539,7 @@ public class Result extends ArrayList<Result> {
 			}
 			if (datatype == Datatype.TEXT && valueText != null) {
 				try {
-					return Context.getDateFormat().parse(valueText);
+					return Context.getLocalizedDateFormat().parseDate(valueText);
 				}
 				catch (Exception e) {}
 			}
@@ -626,7 +626,7 @@ public class Result extends ArrayList<Result> {
 				case CODED:
 					return (valueCoded == null ? "" : valueCoded.getName(Context.getLocale()).getName());
 				case DATETIME:
-					return (valueDatetime == null ? "" : Context.getDateFormat().format(valueDatetime));
+					return (valueDatetime == null ? "" : Context.getLocalizedDateFormat().formatDate(valueDatetime));
 				case NUMERIC:
 					return (valueNumeric == null ? "" : String.valueOf(valueNumeric));
 				case TEXT:
@@ -10,10 +10,10 @@
 package org.openmrs.messagesource;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A mapped collection of PresentationMessages, all of which are enforced to be in the same locale.
@@ -22,7 +22,7 @@ public class PresentationMessageMap implements Map<String, PresentationMessage>
 	
 	private Locale locale;
 	
-	private Map<String, PresentationMessage> internalMap = new HashMap<>();
+	private Map<String, PresentationMessage> internalMap = new ConcurrentHashMap<>();
 	
 	/**
 	 * Create a new PresentationMessageMap for the given locale.
@@ -11,10 +11,10 @@ package org.openmrs.messagesource.impl;
 
 import java.text.MessageFormat;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.openmrs.messagesource.MutableMessageSource;
 import org.openmrs.messagesource.PresentationMessage;
@@ -28,7 +28,7 @@ import org.springframework.context.support.AbstractMessageSource;
  */
 public class CachedMessageSource extends AbstractMessageSource implements MutableMessageSource {
 	
-	Map<Locale, PresentationMessageMap> localizedMap = new HashMap<>();
+	Map<Locale, PresentationMessageMap> localizedMap = new ConcurrentHashMap<>();
 	
 	/* (non-Javadoc)
 	 * @see org.openmrs.messagesource.MutableMessageSource#addPresentation(org.openmrs.api.PresentationMessage)
@@ -90,7 +90,7 @@ public class CachedMessageSource extends AbstractMessageSource implements Mutabl
 	public PresentationMessage getPresentation(String key, Locale forLocale) {
 		PresentationMessage foundPM = null;
 		PresentationMessageMap codeMessageMap = localizedMap.get(forLocale);
-		if ((codeMessageMap != null) && codeMessageMap.containsKey(key)) {
+		if (codeMessageMap != null) {
 			foundPM = codeMessageMap.get(key);
 		}
 		return foundPM;
@@ -10,10 +10,10 @@
 package org.openmrs.messagesource.impl;
 
 import java.io.IOException;
+import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -21,11 +21,12 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import org.openmrs.messagesource.MutableMessageSource;
 import org.openmrs.messagesource.PresentationMessage;
 import org.openmrs.module.Module;
-import org.openmrs.module.ModuleClassLoader;
 import org.openmrs.module.ModuleFactory;
 import org.openmrs.util.LocaleUtility;
 import org.openmrs.util.OpenmrsClassLoader;
@@ -35,7 +36,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.context.support.ReloadableResourceBundleMessageSource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
-import org.springframework.core.io.support.ResourcePatternResolver;
 
 /**
  * ResourceBundleMessageSource extends ReloadableResourceBundleMessageSource to provide the
@@ -57,6 +57,12 @@ public class MutableResourceBundleMessageSource extends ReloadableResourceBundle
 	/** Cached list of available locales. */
 	private Collection<Locale> locales;
 	
+	/** The messages properties files found on the classpath, scanned once until the cache is cleared. */
+	private volatile Resource[] propertiesFiles;
+	
+	/** The merged messages of each locale, replaced as a whole when the cache is cleared. */
+	private volatile Map<Locale, LocaleMessages> messagesByLocale = new ConcurrentHashMap<>();
+	
 	/**
 	 * @see org.openmrs.messagesource.MessageSourceService#getLocales()
 	 */
@@ -77,6 +83,130 @@ public class MutableResourceBundleMessageSource extends ReloadableResourceBundle
 		super.setCacheSeconds(cacheSeconds);
 	}
 	
+	/**
+	 * Looks the code up in the merged messages of the locale instead of in each properties file in
+	 * turn
+	 *
+	 * @see org.springframework.context.support.ReloadableResourceBundleMessageSource#resolveCodeWithoutArguments(java.lang.String,
+	 *      java.util.Locale)
+	 * @should fall back to the messages of less specific locales
+	 * @should prefer a message of an earlier basename to one of a more specific locale
+	 */
+	@Override
+	protected String resolveCodeWithoutArguments(String code, Locale locale) {
+		return getLocaleMessages(locale).messages.get(code);
+	}
+	
+	/**
+	 * @see org.springframework.context.support.ReloadableResourceBundleMessageSource#resolveCode(java.lang.String,
+	 *      java.util.Locale)
+	 * @should format a message with arguments
+	 */
+	@Override
+	protected MessageFormat resolveCode(String code, Locale locale) {
+		LocaleMessages localeMessages = getLocaleMessages(locale);
+		String message = localeMessages.messages.get(code);
+		if (message == null) {
+			return null;
+		}
+		return localeMessages.messageFormats.computeIfAbsent(code, c -> createMessageFormat(message, locale));
+	}
+	
+	/**
+	 * @see org.springframework.context.support.ReloadableResourceBundleMessageSource#clearCache()
+	 */
+	@Override
+	public void clearCache() {
+		super.clearCache();
+		propertiesFiles = null;
+		messagesByLocale = new ConcurrentHashMap<>();
+	}
+	
+	/**
+	 * Gets the merged messages of a locale, a message of a more specific locale and of an earlier
+	 * basename wins like it does for {@link ReloadableResourceBundleMessageSource}. The properties
+	 * files are checked for changes as often as the cache seconds allow and the messages are merged
+	 * again only if one of them was reloaded.
+	 *
+	 * @param locale the locale to get the messages of
+	 * @return the messages of the locale and of the locales it falls back to
+	 */
+	private LocaleMessages getLocaleMessages(Locale locale) {
+		if (locale == null) {
+			locale = Locale.getDefault();
+		}
+		Map<Locale, LocaleMessages> messages = messagesByLocale;
+		LocaleMessages current = messages.get(locale);
+		long now = System.currentTimeMillis();
+		if (current != null && (cacheMilliseconds < 0 || now - current.checkedAt < cacheMilliseconds)) {
+			return current;
+		}
+		
+		List<PropertiesHolder> holders = getPropertiesHolders(locale);
+		if (current != null && current.isMergedFrom(holders)) {
+			current.checkedAt = now;
+			return current;
+		}
+		LocaleMessages merged = new LocaleMessages(holders, now);
+		messages.put(locale, merged);
+		return merged;
+	}
+	
+	/**
+	 * Loads the properties files of all the basenames, the core ones and one for each started module,
+	 * in parallel
+	 */
+	private List<PropertiesHolder> getPropertiesHolders(Locale locale) {
+		return getBasenameSet().parallelStream().flatMap(
+		    basename -> calculateAllFilenames(basename, locale).stream().map(this::getProperties)).collect(
+		    Collectors.toList());
+	}
+	
+	/**
+	 * The messages of a locale, merged from the properties files of the locale and of the locales it
+	 * falls back to
+	 */
+	private static final class LocaleMessages {
+		
+		private final List<PropertiesHolder> holders;
+		
+		private final Map<String, String> messages;
+		
+		private final Map<String, MessageFormat> messageFormats = new ConcurrentHashMap<>();
+		
+		private volatile long checkedAt;
+		
+		LocaleMessages(List<PropertiesHolder> holders, long checkedAt) {
+			this.holders = holders;
+			this.checkedAt = checkedAt;
+			Map<String, String> merged = new HashMap<>();
+			for (PropertiesHolder holder : holders) {
+				Properties properties = holder.getProperties();
+				if (properties != null) {
+					for (String code : properties.stringPropertyNames()) {
+						merged.putIfAbsent(code, properties.getProperty(code));
+					}
+				}
+			}
+			this.messages = merged;
+		}
+		
+		/**
+		 * The holder of a properties file is replaced when the file is reloaded
+		 */
+		boolean isMergedFrom(List<PropertiesHolder> otherHolders) {
+			if (holders.size() != otherHolders.size()) {
+				return false;
+			}
+			for (int i = 0; i < holders.size(); i++) {
+				if (holders.get(i) != otherHolders.get(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+	
 	/**
 	 * This method looks at the current property files and deduces what locales are available from
 	 * those
@@ -164,6 +294,7 @@ public class MutableResourceBundleMessageSource extends ReloadableResourceBundle
 	public void setBasename(String basename) {
 		super.setBasename(basename);
 		this.basenames = new String[] { basename };
+		clearCache();
 	}
 	
 	/**
@@ -194,6 +325,7 @@ public class MutableResourceBundleMessageSource extends ReloadableResourceBundle
 		}
 		
 		super.setBasenames(basenames);
+		clearCache();
 	}
 	
 	/**
@@ -268,32 +400,38 @@ public class MutableResourceBundleMessageSource extends ReloadableResourceBundle
 	}
 	
 	/**
-	 * Searches the filesystem for message properties files. ABKTODO: consider caching this, rather
-	 * than searching every time
+	 * Searches the core and module classloaders for message properties files. The search is done in
+	 * parallel, once until the cache is cleared.
 	 *
 	 * @return an array of property file names
 	 */
 	private Resource[] findPropertiesFiles() {
-		Set<Resource> resourceSet = new HashSet<>();
+		Resource[] files = propertiesFiles;
+		if (files != null) {
+			return files;
+		}
+		
+		List<ClassLoader> classLoaders = new ArrayList<>();
+		classLoaders.add(OpenmrsClassLoader.getInstance());
+		classLoaders.addAll(ModuleFactory.getModuleClassLoaders());
+		Set<Resource> resourceSet = classLoaders.parallelStream().flatMap(
+		    classLoader -> Arrays.stream(findPropertiesFiles(classLoader))).collect(Collectors.toSet());
+		if (log.isWarnEnabled() && (resourceSet.isEmpty())) {
+			log.warn("No properties files found.");
+		}
+		files = resourceSet.toArray(new Resource[resourceSet.size()]);
+		propertiesFiles = files;
+		return files;
+	}
+	
+	private Resource[] findPropertiesFiles(ClassLoader classLoader) {
 		try {
-			String pattern = "classpath*:messages*.properties";
-			ResourcePatternResolver resourceResolver = new PathMatchingResourcePatternResolver(OpenmrsClassLoader.getInstance());
-			Resource[] propertiesFiles = resourceResolver.getResources(pattern);
-			Collections.addAll(resourceSet, propertiesFiles);
-			
-			for (ModuleClassLoader moduleClassLoader : ModuleFactory.getModuleClassLoaders()) {
-				resourceResolver = new PathMatchingResourcePatternResolver(moduleClassLoader);
-				propertiesFiles = resourceResolver.getResources(pattern);
-				Collections.addAll(resourceSet, propertiesFiles);
-			}
+			return new PathMatchingResourcePatternResolver(classLoader).getResources("classpath*:messages*.properties");
 		}
 		catch (IOException e) {
 			log.error("Error generated", e);
+			return new Resource[0];
 		}
-		if (log.isWarnEnabled() && (resourceSet.isEmpty())) {
-			log.warn("No properties files found.");
-		}
-		return resourceSet.toArray(new Resource[resourceSet.size()]);
 	}
 	
 	/**
@@ -16,13 +16,17 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.math.BigInteger;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.net.URLStreamHandlerFactory;
+import java.nio.charset.StandardCharsets;
 import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.ProtectionDomain;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -56,6 +60,12 @@ public class ModuleClassLoader extends URLClassLoader {
 	
 	private static final Logger log = LoggerFactory.getLogger(ModuleClassLoader.class);
 	
+	/**
+	 * Name of the file in the library cache folder of a module which holds the version and checksum
+	 * of the module file the folder was filled from
+	 */
+	private static final String LIB_CACHE_CHECKSUM_FILE = ".checksum";
+	
 	private final Module module;
 	
 	private Module[] requiredModules;
@@ -228,41 +238,18 @@ public class ModuleClassLoader extends URLClassLoader {
 		
 		File tmpModuleDir = getLibCacheFolderForModule(module);
 		
+		// copy the module jar and expand its /lib folder into the library cache, unless that was done before
+		try {
+			prepareLibCacheFolder(module, tmpModuleDir, devDir == null);
+		}
+		catch (IOException io) {
+			log.warn("Unable to prepare the library cache folder for module: " + module.getModuleId(), io);
+		}
+		
 		//add module jar to classpath only if we are not in dev mode
 		if (devDir == null) {
 			File tmpModuleJar = new File(tmpModuleDir, module.getModuleId() + ".jar");
 			
-			if (!tmpModuleJar.exists()) {
-				try {
-					tmpModuleJar.createNewFile();
-				}
-				catch (IOException io) {
-					log.warn("Unable to create tmpModuleFile", io);
-				}
-			}
-			
-			// copy the module jar into that temporary folder
-			FileInputStream in = null;
-			FileOutputStream out = null;
-			try {
-				in = new FileInputStream(module.getFile());
-				out = new FileOutputStream(tmpModuleJar);
-				OpenmrsUtil.copyFile(in, out);
-			}
-			catch (IOException io) {
-				log.warn("Unable to copy tmpModuleFile", io);
-			}
-			finally {
-				try {
-					in.close();
-				}
-				catch (Exception e) { /* pass */}
-				try {
-					out.close();
-				}
-				catch (Exception e) { /* pass */}
-			}
-			
 			// add the module jar as a url in the classpath of the classloader
 			URL moduleFileURL;
 			try {
@@ -276,11 +263,6 @@ public class ModuleClassLoader extends URLClassLoader {
 		
 		// add each defined jar in the /lib folder, add as a url in the classpath of the classloader
 		try {
-			if (log.isDebugEnabled()) {
-				log.debug("Expanding /lib folder in module");
-			}
-			
-			ModuleUtil.expandJar(module.getFile(), tmpModuleDir, "lib", true);
 			File libdir = new File(tmpModuleDir, "lib");
 			
 			if (libdir != null && libdir.exists()) {
@@ -334,9 +316,6 @@ public class ModuleClassLoader extends URLClassLoader {
 		catch (MalformedURLException e) {
 			log.warn("Error while adding module 'lib' folder to URL result list");
 		}
-		catch (IOException io) {
-			log.warn("Error while expanding lib folder", io);
-		}
 		
 		// add each xml document to the url list
 		
@@ -424,11 +403,80 @@ public class ModuleClassLoader extends URLClassLoader {
 		// each module gets its own folder named /moduleId/
 		if (!tmpModuleDir.exists()) {
 			tmpModuleDir.mkdir();
-			tmpModuleDir.deleteOnExit();
 		}
 		return tmpModuleDir;
 	}
 	
+	/**
+	 * Copies the module jar and expands its /lib folder into the given library cache folder. The
+	 * folder is kept across restarts and only refilled if the module file has changed, which is
+	 * detected by comparing the module version and the checksum of the module file with the ones
+	 * stored in {@link #LIB_CACHE_CHECKSUM_FILE}.
+	 *
+	 * @param module the module whose files to cache
+	 * @param tmpModuleDir the library cache folder of the module
+	 * @param copyModuleJar whether the module jar itself needs to be copied
+	 * @throws IOException if the module file cannot be read or the folder cannot be written
+	 * @should expand the module into an empty folder
+	 * @should reuse the folder if the module file has not changed
+	 * @should refill the folder if the module file has changed
+	 */
+	static void prepareLibCacheFolder(Module module, File tmpModuleDir, boolean copyModuleJar) throws IOException {
+		long startTime = System.currentTimeMillis();
+		String cacheKey = module.getVersion() + ":" + (copyModuleJar ? "jar" : "dev") + ":"
+		        + getChecksum(module.getFile());
+		File checksumFile = new File(tmpModuleDir, LIB_CACHE_CHECKSUM_FILE);
+		if (checksumFile.exists() && cacheKey.equals(FileUtils.readFileToString(checksumFile, StandardCharsets.UTF_8))) {
+			log.info("Reusing the library cache of module {} (checked in {} ms)", module.getModuleId(),
+			    System.currentTimeMillis() - startTime);
+			return;
+		}
+		
+		FileUtils.cleanDirectory(tmpModuleDir);
+		if (copyModuleJar) {
+			FileUtils.copyFile(module.getFile(), new File(tmpModuleDir, module.getModuleId() + ".jar"));
+		}
+		log.debug("Expanding /lib folder in module");
+		ModuleUtil.expandJar(module.getFile(), tmpModuleDir, "lib", true);
+		
+		// written last, so that a partially filled folder is never reused
+		FileUtils.writeStringToFile(checksumFile, cacheKey, StandardCharsets.UTF_8);
+		log.info("Expanded module {} into the library cache in {} ms", module.getModuleId(), System.currentTimeMillis()
+		        - startTime);
+	}
+	
+	/**
+	 * @return the hex encoded SHA-1 checksum of the given file
+	 */
+	private static String getChecksum(File file) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new APIException("SHA-1 is not supported", e);
+		}
+		try (InputStream in = new FileInputStream(file)) {
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+			}
+		}
+		return String.format("%040x", new BigInteger(1, digest.digest()));
+	}
+	
+	/**
+	 * Checks whether the given folder is a completely filled library cache folder of a module
+	 *
+	 * @param folder the folder to check
+	 * @return true if the folder can be reused
+	 * @since 2.4.0
+	 */
+	public static boolean isLibCacheFolderComplete(File folder) {
+		return new File(folder, LIB_CACHE_CHECKSUM_FILE).isFile();
+	}
+	
 	/**
 	 * Get all urls for the given <code>module</code> that are not already in the
 	 * <code>existingUrls</code>
@@ -30,6 +30,10 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.aopalliance.aop.Advice;
 import org.openmrs.GlobalProperty;
@@ -38,6 +42,7 @@ import org.openmrs.api.AdministrationService;
 import org.openmrs.api.OpenmrsService;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.context.Daemon;
+import org.openmrs.messagesource.MessageSourceService;
 import org.openmrs.module.Extension.MEDIA_TYPE;
 import org.openmrs.util.CycleException;
 import org.openmrs.util.DatabaseUpdater;
@@ -77,6 +82,9 @@ public class ModuleFactory {
 	// the name of the file within a module file
 	private static final String MODULE_CHANGELOG_FILENAME = "liquibase.xml";
 	
+	// the maximum number of threads used to parse and expand module files in parallel
+	private static final int MAX_MODULE_LOADER_THREADS = 8;
+	
 	private static final Map<String, DaemonToken> daemonTokens = new WeakHashMap<>();
 	
 	private static volatile Set<String> actualStartupOrder;
@@ -103,10 +111,12 @@ public class ModuleFactory {
 	 * @return Module
 	 */
 	public static Module loadModule(File moduleFile, Boolean replaceIfExists) throws ModuleException {
+		long startTime = System.currentTimeMillis();
 		Module module = new ModuleFileParser(Context.getMessageSourceService()).parse(moduleFile);
 		
 		if (module != null) {
 			loadModule(module, replaceIfExists);
+			log.info("Loaded module {} in {} ms", module.getModuleId(), System.currentTimeMillis() - startTime);
 		}
 		
 		return module;
@@ -177,32 +187,64 @@ public class ModuleFactory {
 	}
 	
 	/**
-	 * Attempt to load the given files as OpenMRS modules
+	 * Attempt to load the given files as OpenMRS modules. The module files are parsed in parallel,
+	 * the modules are added in the order of the given files.
 	 * 
 	 * @param modulesToLoad the list of files to try and load
 	 * @should not crash when file is not found or broken
 	 * @should setup requirement mappings for every module
 	 * @should not start the loaded modules
+	 * @should keep the newest version of a module regardless of the file order
 	 */
 	public static void loadModules(List<File> modulesToLoad) {
-		// loop over the modules and load all the modules that we can
+		List<File> moduleFiles = new ArrayList<>();
 		for (File f : modulesToLoad) {
 			if (f.exists()) {
 				// ignore .svn folder and the like
 				if (!f.getName().startsWith(".")) {
-					try {
-						// last module loaded wins
-						Module mod = loadModule(f, true);
-						log.debug("Loaded module: " + mod + " successfully");
-					} catch (Exception e) {
-						log.debug("Unable to load file in module directory: " + f + ". Skipping file.", e);
-					}
+					moduleFiles.add(f);
 				}
 			} else {
 				log.debug("Could not find file in module directory: " + f);
 			}
 		}
 		
+		// parse the config files in parallel, but add the modules in the given order since the last module loaded wins
+		MessageSourceService messageSourceService = Context.getMessageSourceService();
+		ExecutorService executor = newModuleLoaderExecutor(moduleFiles.size());
+		try {
+			List<Future<Module>> parsedModules = new ArrayList<>();
+			for (File f : moduleFiles) {
+				parsedModules.add(executor.submit(() -> {
+					long startTime = System.currentTimeMillis();
+					Module module = new ModuleFileParser(messageSourceService).parse(f);
+					log.info("Parsed module file {} in {} ms", f.getName(), System.currentTimeMillis() - startTime);
+					return module;
+				}));
+			}
+			
+			for (int i = 0; i < moduleFiles.size(); i++) {
+				File f = moduleFiles.get(i);
+				try {
+					Module mod = parsedModules.get(i).get();
+					if (mod != null) {
+						mod = loadModule(mod, true);
+					}
+					log.debug("Loaded module: " + mod + " successfully");
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new ModuleException("Interrupted while loading modules", e);
+				}
+				catch (Exception e) {
+					log.debug("Unable to load file in module directory: " + f + ". Skipping file.", e);
+				}
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		
 		//inform modules, that they can't start before other modules
 		
 		Map<String, Module> loadedModulesMap = getLoadedModulesMapPackage();
@@ -242,6 +284,8 @@ public class ModuleFactory {
 				modules = (List<Module>)ex.getExtraData();
 			}
 			
+			prepareLibCacheFolders(modules);
+			
 			// try and start the modules that should be started
 			for (Module mod : modules) {
 				
@@ -274,6 +318,63 @@ public class ModuleFactory {
 		}
 	}
 	
+	private static Map<String, String> getGlobalPropertyValues(List<GlobalProperty> globalProperties) {
+		Map<String, String> values = new HashMap<>();
+		for (GlobalProperty gp : globalProperties) {
+			values.put(gp.getProperty(), gp.getPropertyValue());
+		}
+		return values;
+	}
+	
+	/**
+	 * Creates an executor for the parallel parts of loading and starting modules, using at most one
+	 * thread per module and per processor
+	 */
+	private static ExecutorService newModuleLoaderExecutor(int moduleCount) {
+		int threads = Math.max(1, Math.min(moduleCount, Math.min(MAX_MODULE_LOADER_THREADS, Runtime.getRuntime()
+		        .availableProcessors())));
+		return Executors.newFixedThreadPool(threads);
+	}
+	
+	/**
+	 * Copies and expands the files of the given modules into the library cache in parallel, so that
+	 * creating their class loaders while starting them one after another only needs to read the
+	 * cache
+	 */
+	private static void prepareLibCacheFolders(List<Module> modules) {
+		ExecutorService executor = newModuleLoaderExecutor(modules.size());
+		try {
+			List<Future<?>> prepared = new ArrayList<>();
+			for (Module mod : modules) {
+				if (mod.isStarted() || mod.getFile() == null) {
+					continue;
+				}
+				boolean inDevelopmentMode = ModuleUtil.getDevelopmentDirectory(mod.getModuleId()) != null;
+				File tmpModuleDir = ModuleClassLoader.getLibCacheFolderForModule(mod);
+				prepared.add(executor.submit(() -> {
+					ModuleClassLoader.prepareLibCacheFolder(mod, tmpModuleDir, !inDevelopmentMode);
+					return null;
+				}));
+			}
+			for (Future<?> future : prepared) {
+				try {
+					future.get();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				catch (ExecutionException e) {
+					// the module class loader tries again and reports the error when the module is started
+					log.debug("Unable to prepare the library cache folder of a module", e.getCause());
+				}
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+	
 	/**
 	 * Obtain the list of modules that should be started
 	 * 
@@ -284,11 +385,16 @@ public class ModuleFactory {
 		
 		AdministrationService adminService = Context.getAdministrationService();
 		
+		// read the properties of all modules at once instead of two queries per module
+		Map<String, String> startedProps = getGlobalPropertyValues(adminService.getGlobalPropertiesBySuffix(".started"));
+		Map<String, String> mandatoryProps = getGlobalPropertyValues(adminService
+		        .getGlobalPropertiesBySuffix(".mandatory"));
+		
 		for (Module mod : getLoadedModulesCoreFirst()) {
 			
 			String key = mod.getModuleId() + ".started";
-			String startedProp = adminService.getGlobalProperty(key, null);
-			String mandatoryProp = adminService.getGlobalProperty(mod.getModuleId() + ".mandatory", null);
+			String startedProp = startedProps.get(key);
+			String mandatoryProp = mandatoryProps.get(mod.getModuleId() + ".mandatory");
 			
 			boolean isCoreToOpenmrs = mod.isCore() && !ModuleUtil.ignoreCoreModules();
 			
@@ -644,6 +750,7 @@ public class ModuleFactory {
 		
 		if (module != null) {
 			String moduleId = module.getModuleId();
+			long startTime = System.currentTimeMillis();
 			
 			try {
 				
@@ -781,6 +888,7 @@ public class ModuleFactory {
 				
 				// erase any previous startup error
 				module.clearStartupError();
+				log.info("Started module {} in {} ms", moduleId, System.currentTimeMillis() - startTime);
 			}
 			catch (Exception e) {
 				log.warn("Error while trying to start module: " + moduleId, e);
@@ -1171,16 +1279,8 @@ public class ModuleFactory {
 			
 			ModuleClassLoader cl = removeClassLoader(mod);
 			if (cl != null) {
+				// the files in the lib cache are kept, they are reused when the unchanged module is started again
 				cl.dispose();
-				// remove files from lib cache
-				File folder = OpenmrsClassLoader.getLibCacheFolder();
-				File tmpModuleDir = new File(folder, moduleId);
-				try {
-					OpenmrsUtil.deleteDirectory(tmpModuleDir);
-				}
-				catch (IOException e) {
-					log.warn("Unable to delete libcachefolder for " + moduleId);
-				}
 			}
 		}
 		
@@ -1231,6 +1331,15 @@ public class ModuleFactory {
 				file.deleteOnExit();
 				log.warn("Could not delete " + file.getAbsolutePath());
 			}
+			
+			// remove files from lib cache
+			File tmpModuleDir = new File(OpenmrsClassLoader.getLibCacheFolder(), mod.getModuleId());
+			try {
+				OpenmrsUtil.deleteDirectory(tmpModuleDir);
+			}
+			catch (IOException e) {
+				log.warn("Unable to delete libcachefolder for " + mod.getModuleId());
+			}
 
 		}
 	}
@@ -42,6 +42,11 @@ public interface ComplexObsHandler {
 	
 	public static final String PREVIEW_VIEW = "PREVIEW_VIEW";
 	
+	/**
+	 * @since 2.4.0
+	 */
+	public static final String THUMBNAIL_VIEW = "THUMBNAIL_VIEW";
+	
 	public static final String URI_VIEW = "URI_VIEW";
 	
 	/**
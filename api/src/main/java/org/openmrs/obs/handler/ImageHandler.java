@@ -9,20 +9,35 @@
  */
 package org.openmrs.obs.handler;
 
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.imageio.ImageIO;
 import javax.imageio.ImageReader;
 import javax.imageio.stream.FileImageInputStream;
 
+import org.apache.commons.io.FilenameUtils;
 import org.openmrs.Obs;
 import org.openmrs.api.APIException;
 import org.openmrs.obs.ComplexData;
@@ -30,25 +45,66 @@ import org.openmrs.obs.ComplexObsHandler;
 import org.openmrs.util.OpenmrsUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 
 /**
  * Handler for storing basic images for complex obs to the file system. The image mime type used is
  * taken from the image name. if the .* image name suffix matches
  * {@link javax.imageio.ImageIO#getWriterFormatNames()} then that mime type will be used to save the
  * image. Images are stored in the location specified by the global property: "obs.complex_obs_dir"
- * 
+ * <br>
+ * <br>
+ * Besides the raw image, this handler supports the {@link ComplexObsHandler#THUMBNAIL_VIEW} and
+ * {@link ComplexObsHandler#PREVIEW_VIEW} views. These scaled down copies are written to the
+ * <code>thumbnails</code> and <code>previews</code> directories next to the original, in the
+ * background after the obs is saved or on first request if they do not exist yet. Recently used ones
+ * are kept in a bounded in-memory cache, so that lists of images can be rendered without decoding the
+ * full size originals. The background writer is stopped when the handler is destroyed, and purging
+ * an image cancels the writes still queued for it.
+ *
  * @see org.openmrs.util.OpenmrsConstants#GLOBAL_PROPERTY_COMPLEX_OBS_DIR
  * @since 1.5
  */
-public class ImageHandler extends AbstractHandler implements ComplexObsHandler {
+public class ImageHandler extends AbstractHandler implements ComplexObsHandler, DisposableBean {
 	
 	/** Views supported by this handler */
-	private static final String[] supportedViews = { ComplexObsHandler.RAW_VIEW };
+	private static final String[] supportedViews = { ComplexObsHandler.RAW_VIEW, ComplexObsHandler.THUMBNAIL_VIEW,
+	        ComplexObsHandler.PREVIEW_VIEW };
+	
+	/** Maximum width and height of the image returned for the thumbnail view */
+	public static final int THUMBNAIL_MAX_SIZE = 200;
+	
+	/** Maximum width and height of the image returned for the preview view */
+	public static final int PREVIEW_MAX_SIZE = 800;
+	
+	/** Maximum number of pixels held by the derivative image cache, roughly 16MB of RGBA data */
+	private static final long MAX_CACHED_PIXELS = 4000000L;
+	
+	/**
+	 * Maximum number of saved images waiting for their scaled down copies to be written. Images saved
+	 * while the queue is full get theirs on first request instead.
+	 */
+	private static final int MAX_QUEUED_DERIVATIVES = 50;
 	
 	private static final Logger log = LoggerFactory.getLogger(ImageHandler.class);
 	
 	private Set<String> extensions;
 	
+	private final DerivativeCache derivativeCache = new DerivativeCache(MAX_CACHED_PIXELS);
+	
+	private final ExecutorService derivativeWriter = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+	        new ArrayBlockingQueue<>(MAX_QUEUED_DERIVATIVES), runnable -> {
+		        Thread thread = new Thread(runnable, "ImageHandler derivative writer");
+		        thread.setDaemon(true);
+		        return thread;
+	        });
+	
+	/** The background writes that have not finished yet, by the path of the original image */
+	private final Map<String, Future<?>> pendingDerivatives = new ConcurrentHashMap<>();
+	
+	/** Held while a derivative is moved into place and while an image is purged */
+	private final Object derivativeFilesLock = new Object();
+	
 	/**
 	 * Constructor initializes formats for alternative file names to protect from unintentionally
 	 * overwriting existing files.
@@ -62,8 +118,9 @@ public class ImageHandler extends AbstractHandler implements ComplexObsHandler {
 	}
 	
 	/**
-	 * Currently supports all views and puts the Image file data into the ComplexData object
-	 * 
+	 * Currently supports the raw, thumbnail and preview views and puts the Image file data into the
+	 * ComplexData object
+	 *
 	 * @see org.openmrs.obs.ComplexObsHandler#getObs(org.openmrs.Obs, java.lang.String)
 	 */
 	@Override
@@ -81,31 +138,14 @@ public class ImageHandler extends AbstractHandler implements ComplexObsHandler {
 			}
 			
 			ComplexData complexData = new ComplexData(file.getName(), img);
+			complexData.setMimeType(getMimeType(file));
 			
-			String mimeType = null;
-			
-			// Image MIME type
-			try {
-				FileImageInputStream imgStream = new FileImageInputStream(file);
-				Iterator<ImageReader> imgReader = ImageIO.getImageReaders(imgStream);
-				imgStream.close();
-				if (imgReader.hasNext()) {
-					mimeType = "image/" + imgReader.next().getFormatName().toLowerCase();
-				} else {
-					log.warn("MIME type of " + file.getAbsolutePath() + " is not known");
-				}
-			}
-			catch (FileNotFoundException e) {
-				log.error("Image " + file.getAbsolutePath() + " was not found", e);
-			}
-			catch (IOException e) {
-				log.error("Trying to determine MIME type of " + file.getAbsolutePath(), e);
-			}
-					
-			// If the mimetype is still null, determine it via getFileMimeType()
-			mimeType = mimeType != null ? mimeType : OpenmrsUtil.getFileMimeType(file);
+			obs.setComplexData(complexData);
+		} else if (ComplexObsHandler.THUMBNAIL_VIEW.equals(view) || ComplexObsHandler.PREVIEW_VIEW.equals(view)) {
+			BufferedImage img = getDerivativeImage(file, view);
 			
-			complexData.setMimeType(mimeType);	
+			ComplexData complexData = new ComplexData(file.getName(), img);
+			complexData.setMimeType(getMimeType(file));
 			
 			obs.setComplexData(complexData);
 		} else {
@@ -177,7 +217,318 @@ public class ImageHandler extends AbstractHandler implements ComplexObsHandler {
 			throw new APIException("Obs.error.trying.write.complex", null, ioe);
 		}
 		
+		// The image is already decoded, so scale it now rather than decoding it again on first view
+		BufferedImage original = img;
+		File originalFile = outfile;
+		String key = originalFile.getAbsolutePath();
+		FutureTask<Void> task = new FutureTask<>(() -> {
+			writeDerivativeImage(original, originalFile, ComplexObsHandler.THUMBNAIL_VIEW);
+			writeDerivativeImage(original, originalFile, ComplexObsHandler.PREVIEW_VIEW);
+		}, null);
+		pendingDerivatives.put(key, task);
+		try {
+			derivativeWriter.execute(() -> {
+				try {
+					task.run();
+				}
+				finally {
+					pendingDerivatives.remove(key, task);
+				}
+			});
+		}
+		catch (RejectedExecutionException e) {
+			// the queue is full or the handler was destroyed, the derivatives are written on first request
+			pendingDerivatives.remove(key, task);
+		}
+		
 		return obs;
 	}
 	
+	/**
+	 * Stops the background writer. Derivatives that were not written yet are generated on first
+	 * request instead.
+	 *
+	 * @see org.springframework.beans.factory.DisposableBean#destroy()
+	 * @should stop writing derivatives in the background
+	 */
+	@Override
+	public void destroy() throws InterruptedException {
+		derivativeWriter.shutdownNow();
+		pendingDerivatives.clear();
+		if (!derivativeWriter.awaitTermination(5, TimeUnit.SECONDS)) {
+			log.warn("The image derivative writer did not stop in time");
+		}
+	}
+	
+	/**
+	 * Removes the original image along with any scaled down copies of it. Background writes still
+	 * queued for the image are cancelled, and one that is running does not move its copy into place
+	 * once the original is gone.
+	 *
+	 * @see org.openmrs.obs.handler.AbstractHandler#purgeComplexData(org.openmrs.Obs)
+	 * @should not leave behind derivatives that were still being written
+	 */
+	@Override
+	public boolean purgeComplexData(Obs obs) {
+		File file = getComplexDataFile(obs);
+		Future<?> pending = pendingDerivatives.remove(file.getAbsolutePath());
+		if (pending != null) {
+			pending.cancel(false);
+		}
+		
+		synchronized (derivativeFilesLock) {
+			for (String view : new String[] { ComplexObsHandler.THUMBNAIL_VIEW, ComplexObsHandler.PREVIEW_VIEW }) {
+				File derivative = getDerivativeFile(file, view);
+				derivativeCache.remove(derivative.getAbsolutePath());
+				if (derivative.exists() && !derivative.delete()) {
+					log.warn("Could not delete " + view + " image located at " + derivative.getAbsolutePath());
+				}
+			}
+			
+			return super.purgeComplexData(obs);
+		}
+	}
+	
+	/**
+	 * Returns the file in which the scaled down copy of the given image for the given view is
+	 * stored, e.g. for the thumbnail view of <code>scan_1234.png</code> this is
+	 * <code>thumbnails/scan_1234.png</code> in the directory of the original. Saved complex obs
+	 * files always have an extension, so they cannot collide with these directories.
+	 *
+	 * @param file the original image file
+	 * @param view either {@link ComplexObsHandler#THUMBNAIL_VIEW} or
+	 *            {@link ComplexObsHandler#PREVIEW_VIEW}
+	 * @return the file holding the derivative image, which may not exist yet
+	 * @since 2.4.0
+	 */
+	public static File getDerivativeFile(File file, String view) {
+		String directory = ComplexObsHandler.THUMBNAIL_VIEW.equals(view) ? "thumbnails" : "previews";
+		return new File(new File(file.getParentFile(), directory), file.getName());
+	}
+	
+	/**
+	 * Scales the given image down so that neither its width nor its height exceed the given size,
+	 * keeping its aspect ratio. Images that already fit are returned as they are.
+	 *
+	 * @param img the image to scale
+	 * @param maxSize the maximum width and height of the returned image
+	 * @return the scaled image
+	 * @since 2.4.0
+	 */
+	public static BufferedImage scaleImage(BufferedImage img, int maxSize) {
+		int width = img.getWidth();
+		int height = img.getHeight();
+		if (width <= maxSize && height <= maxSize) {
+			return img;
+		}
+		
+		double scale = Math.min((double) maxSize / width, (double) maxSize / height);
+		int scaledWidth = Math.max(1, (int) Math.round(width * scale));
+		int scaledHeight = Math.max(1, (int) Math.round(height * scale));
+		
+		// jpeg and bmp writers cannot encode an alpha channel
+		int type = img.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+		BufferedImage scaled = new BufferedImage(scaledWidth, scaledHeight, type);
+		Graphics2D graphics = scaled.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			graphics.drawImage(img, 0, 0, scaledWidth, scaledHeight, null);
+		}
+		finally {
+			graphics.dispose();
+		}
+		
+		return scaled;
+	}
+	
+	/**
+	 * Gets the scaled down copy of the given image for the given view, from the cache if possible,
+	 * else from its file. If that file does not exist yet it is generated from the original.
+	 *
+	 * @param file the original image file
+	 * @param view either {@link ComplexObsHandler#THUMBNAIL_VIEW} or
+	 *            {@link ComplexObsHandler#PREVIEW_VIEW}
+	 * @return the derivative image or null if it could not be read or generated
+	 */
+	private BufferedImage getDerivativeImage(File file, String view) {
+		File derivative = getDerivativeFile(file, view);
+		String key = derivative.getAbsolutePath();
+		
+		BufferedImage img = derivativeCache.get(key, derivative.lastModified());
+		if (img != null) {
+			return img;
+		}
+		
+		try {
+			if (derivative.exists()) {
+				img = ImageIO.read(derivative);
+			}
+			if (img == null) {
+				BufferedImage original = ImageIO.read(file);
+				if (original == null) {
+					log.warn("Unable to decode image " + file.getAbsolutePath());
+					return null;
+				}
+				img = writeDerivativeImage(original, file, view);
+			}
+		}
+		catch (IOException e) {
+			log.error("Trying to read file: " + derivative.getAbsolutePath(), e);
+			return null;
+		}
+		
+		if (derivative.exists()) {
+			derivativeCache.put(key, derivative.lastModified(), img);
+		}
+		
+		return img;
+	}
+	
+	/**
+	 * Scales the given image for the given view and writes it to its derivative file. The file is
+	 * written under a temporary name and then moved, so that it is never read half written, and it is
+	 * only moved while the original still exists. Failures are only logged since the derivative can be
+	 * regenerated from the original on first request.
+	 *
+	 * @param img the decoded original image
+	 * @param file the file the original image is stored in
+	 * @param view either {@link ComplexObsHandler#THUMBNAIL_VIEW} or
+	 *            {@link ComplexObsHandler#PREVIEW_VIEW}
+	 * @return the scaled image
+	 */
+	private BufferedImage writeDerivativeImage(BufferedImage img, File file, String view) {
+		int maxSize = ComplexObsHandler.THUMBNAIL_VIEW.equals(view) ? THUMBNAIL_MAX_SIZE : PREVIEW_MAX_SIZE;
+		BufferedImage scaled = scaleImage(img, maxSize);
+		
+		File derivative = getDerivativeFile(file, view);
+		File temporary = null;
+		try {
+			Files.createDirectories(derivative.getParentFile().toPath());
+			String extension = FilenameUtils.getExtension(file.getName());
+			temporary = File.createTempFile("derivative", "." + extension, derivative.getParentFile());
+			if (ImageIO.write(scaled, extension, temporary)) {
+				synchronized (derivativeFilesLock) {
+					if (file.exists()) {
+						Files.move(temporary.toPath(), derivative.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						    StandardCopyOption.ATOMIC_MOVE);
+					}
+				}
+			} else {
+				log.warn("No image writer found for " + derivative.getAbsolutePath());
+			}
+		}
+		catch (IOException e) {
+			log.warn("Unable to write " + view + " image to " + derivative.getAbsolutePath(), e);
+		}
+		finally {
+			if (temporary != null && temporary.exists()) {
+				temporary.delete();
+			}
+		}
+		
+		return scaled;
+	}
+	
+	/**
+	 * Determines the MIME type of the given image file, first from the image readers available for it
+	 * and then from its file name
+	 *
+	 * @param file the image file
+	 * @return the MIME type
+	 */
+	private String getMimeType(File file) {
+		String mimeType = null;
+		
+		// Image MIME type
+		try {
+			FileImageInputStream imgStream = new FileImageInputStream(file);
+			Iterator<ImageReader> imgReader = ImageIO.getImageReaders(imgStream);
+			imgStream.close();
+			if (imgReader.hasNext()) {
+				mimeType = "image/" + imgReader.next().getFormatName().toLowerCase();
+			} else {
+				log.warn("MIME type of " + file.getAbsolutePath() + " is not known");
+			}
+		}
+		catch (FileNotFoundException e) {
+			log.error("Image " + file.getAbsolutePath() + " was not found", e);
+		}
+		catch (IOException e) {
+			log.error("Trying to determine MIME type of " + file.getAbsolutePath(), e);
+		}
+		
+		// If the mimetype is still null, determine it via getFileMimeType()
+		return mimeType != null ? mimeType : OpenmrsUtil.getFileMimeType(file);
+	}
+	
+	/**
+	 * Least recently used cache of derivative images, bounded by the total number of pixels it holds
+	 * rather than by the number of entries since previews are much larger than thumbnails. Entries
+	 * are only returned while the file they were read from has not been modified since.
+	 */
+	private static class DerivativeCache {
+		
+		private final long maxPixels;
+		
+		private long pixels = 0;
+		
+		private final Map<String, CachedImage> images = new LinkedHashMap<>(16, 0.75f, true);
+		
+		DerivativeCache(long maxPixels) {
+			this.maxPixels = maxPixels;
+		}
+		
+		synchronized BufferedImage get(String key, long lastModified) {
+			CachedImage cached = images.get(key);
+			if (cached == null) {
+				return null;
+			}
+			if (cached.lastModified != lastModified) {
+				remove(key);
+				return null;
+			}
+			return cached.image;
+		}
+		
+		synchronized void put(String key, long lastModified, BufferedImage image) {
+			remove(key);
+			long size = (long) image.getWidth() * image.getHeight();
+			if (size > maxPixels) {
+				return;
+			}
+			images.put(key, new CachedImage(image, lastModified));
+			pixels += size;
+			
+			Iterator<CachedImage> eldest = images.values().iterator();
+			while (pixels > maxPixels && eldest.hasNext()) {
+				pixels -= eldest.next().getPixels();
+				eldest.remove();
+			}
+		}
+		
+		synchronized void remove(String key) {
+			CachedImage removed = images.remove(key);
+			if (removed != null) {
+				pixels -= removed.getPixels();
+			}
+		}
+	}
+	
+	private static class CachedImage {
+		
+		private final BufferedImage image;
+		
+		private final long lastModified;
+		
+		CachedImage(BufferedImage image, long lastModified) {
+			this.image = image;
+			this.lastModified = lastModified;
+		}
+		
+		long getPixels() {
+			return (long) image.getWidth() * image.getHeight();
+		}
+	}
+
 }
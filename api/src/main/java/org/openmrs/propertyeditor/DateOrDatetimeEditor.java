@@ -29,6 +29,7 @@ public class DateOrDatetimeEditor extends PropertyEditorSupport {
 	 * @should handle date and time
 	 * @should fail on partial date
 	 * @should fail on partial date and time
+	 * @should roll a time past midnight over to the next day
 	 */
 	@Override
 	public void setAsText(String asString) throws IllegalArgumentException {
@@ -37,13 +38,13 @@ public class DateOrDatetimeEditor extends PropertyEditorSupport {
 			return;
 		}
 		try {
-			// first try date+time
-			setValue(Context.getDateTimeFormat().parse(asString));
+			// first try date+time, leniently like the SimpleDateFormat this editor used to parse with
+			setValue(Context.getLocalizedDateFormat().parseDateTime(asString, true));
 		}
 		catch (ParseException dateTimeEx) {
 			// next try just date
 			try {
-				setValue(Context.getDateFormat().parse(asString));
+				setValue(Context.getLocalizedDateFormat().parseDate(asString));
 			}
 			catch (ParseException dateEx) {
 				// those were the only two options, so we fail
@@ -64,9 +65,9 @@ public class DateOrDatetimeEditor extends PropertyEditorSupport {
 			return "";
 		}
 		if ("0000".equals(new SimpleDateFormat("HmsS").format(date))) {
-			return Context.getDateFormat().format(date);
+			return Context.getLocalizedDateFormat().formatDate(date);
 		} else {
-			return Context.getDateTimeFormat().format(date);
+			return Context.getLocalizedDateFormat().formatDateTime(date);
 		}
 	}
 	
@@ -0,0 +1,47 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.tasks;
+
+import org.openmrs.api.context.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A scheduled task that reindexes the entities created or changed since the last search index
+ * update, e.g. by SQL imports.
+ *
+ * @see Context#updateSearchIndexIncrementally()
+ * @since 2.4.0
+ */
+public class UpdateSearchIndexTask extends AbstractTask {
+	
+	private static final Logger log = LoggerFactory.getLogger(UpdateSearchIndexTask.class);
+	
+	/**
+	 * @see org.openmrs.scheduler.tasks.AbstractTask#execute()
+	 */
+	@Override
+	public void execute() {
+		if (!isExecuting) {
+			log.debug("Starting Update Search Index Task...");
+			
+			startExecuting();
+			try {
+				Context.updateSearchIndexIncrementally();
+			}
+			catch (Exception e) {
+				log.error("Error while updating the search index:", e);
+			}
+			finally {
+				stopExecuting();
+			}
+		}
+	}
+}
@@ -38,10 +38,23 @@ import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
  *   ...
  * &lt;/patient&gt;
  * </code>
+ * <br>
+ * The default xstream instance only deserializes OpenMRS classes (including module classes) and the
+ * standard java types allowed by xstream's default security framework. Modules that need to
+ * deserialize other types should allow them via {@link #getXstream()}. The configured instance is
+ * thread-safe and shared by all callers.
  *
  */
 public class SimpleXStreamSerializer implements OpenmrsSerializer {
 	
+	/**
+	 * Type patterns that the default xstream instance is allowed to deserialize, in addition to the
+	 * types allowed by xstream's default security framework
+	 *
+	 * @since 2.4.0
+	 */
+	public static final String[] ALLOWED_TYPES = { "org.openmrs.**" };
+	
 	// cached xstream object
 	public XStream xstream = null;
 	
@@ -63,6 +76,8 @@ public class SimpleXStreamSerializer implements OpenmrsSerializer {
 		if (customXstream == null) {
 			
 			xstream = new XStream();
+			XStream.setupDefaultSecurity(xstream);
+			xstream.allowTypesByWildcard(ALLOWED_TYPES);
 			
 		} else {
 			this.xstream = customXstream;
@@ -98,6 +113,7 @@ public class SimpleXStreamSerializer implements OpenmrsSerializer {
 	 * @see OpenmrsSerializer#deserialize(String, Class)
 	 * @should not deserialize proxies
 	 * @should ignore entities
+	 * @should not deserialize types that are not allowed
 	 */
 	@Override
 	@SuppressWarnings("unchecked")
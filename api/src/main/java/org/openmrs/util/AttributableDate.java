@@ -93,7 +93,7 @@ public class AttributableDate extends Date implements Attributable<AttributableD
 		
 		try {
 			// try to parse as the current user (
-			return new AttributableDate(((Date) Context.getDateFormat().parseObject(s)).getTime());
+			return new AttributableDate(Context.getLocalizedDateFormat().parseDate(s).getTime());
 		}
 		catch (ParseException e) {
 			try {
@@ -0,0 +1,264 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Remembers the changelogs that were fully applied to the database, so Liquibase does not have to
+ * parse them and compare them with the liquibasechangelog table on every startup. The fingerprint
+ * of a changelog is a hash of the changelog and of the files it includes, together with a hash of
+ * all the changesets recorded in the liquibasechangelog table. If either changes, the changelog is
+ * run by Liquibase as usual.
+ * <p>
+ * The fingerprints are kept in {@link #FINGERPRINTS_FILE_NAME} in the application data directory,
+ * deleting that file makes every changelog be checked by Liquibase again.
+ *
+ * @since 2.4.0
+ */
+public class ChangeLogFingerprints {
+	
+	public static final String FINGERPRINTS_FILE_NAME = "liquibase-fingerprints.properties";
+	
+	private static final Pattern INCLUDE = Pattern.compile("<include\\s[^>]*>");
+	
+	private static final Pattern FILE_ATTRIBUTE = Pattern.compile("\\sfile\\s*=\\s*\"([^\"]+)\"");
+	
+	private static final Pattern RELATIVE_ATTRIBUTE = Pattern.compile("\\srelativeToChangelogFile\\s*=\\s*\"true\"");
+	
+	/**
+	 * Instances are created for each use, so the file is guarded by a lock they share
+	 */
+	private static final Object LOCK = new Object();
+	
+	private final File file;
+	
+	/**
+	 * @param file the file the fingerprints are kept in
+	 */
+	public ChangeLogFingerprints(File file) {
+		this.file = file;
+	}
+	
+	/**
+	 * @return the fingerprints kept in the application data directory
+	 */
+	public static ChangeLogFingerprints getInstance() {
+		return new ChangeLogFingerprints(new File(OpenmrsUtil.getApplicationDataDirectory(), FINGERPRINTS_FILE_NAME));
+	}
+	
+	/**
+	 * @param changeLogFile the name of the changelog on the classpath or filesystem
+	 * @param contexts the contexts the changelog is run with
+	 * @param cl the {@link ClassLoader} to find the changelog with
+	 * @param connection a connection to the database the changelog is run against
+	 * @return true if the changelog was fully applied and neither the changelog nor the applied
+	 *         changesets have changed since
+	 * @throws IOException
+	 * @throws SQLException
+	 * @should return true for a changelog that was marked up to date
+	 * @should return false if the changelog has changed
+	 * @should return false if a changeset was applied since
+	 * @should return false for a changelog that cannot be found
+	 */
+	public boolean isUpToDate(String changeLogFile, String contexts, ClassLoader cl, Connection connection)
+	        throws IOException, SQLException {
+		String fingerprint = getFingerprint(changeLogFile, cl, connection);
+		return fingerprint != null && fingerprint.equals(load().getProperty(getKey(changeLogFile, contexts, cl)));
+	}
+	
+	/**
+	 * Records that all the changesets of a changelog that should run were applied to the database
+	 *
+	 * @param changeLogFile the name of the changelog on the classpath or filesystem
+	 * @param contexts the contexts the changelog was run with
+	 * @param cl the {@link ClassLoader} to find the changelog with
+	 * @param connection a connection to the database the changelog was run against
+	 * @throws IOException
+	 * @throws SQLException
+	 */
+	public void markUpToDate(String changeLogFile, String contexts, ClassLoader cl, Connection connection)
+	        throws IOException, SQLException {
+		String fingerprint = getFingerprint(changeLogFile, cl, connection);
+		String key = getKey(changeLogFile, contexts, cl);
+		synchronized (LOCK) {
+			Properties fingerprints = load();
+			if (fingerprint == null) {
+				fingerprints.remove(key);
+			} else {
+				fingerprints.setProperty(key, fingerprint);
+			}
+			store(fingerprints);
+		}
+	}
+	
+	/**
+	 * Writes the fingerprints to a temporary file that then replaces the file, so the file is never
+	 * left half written
+	 */
+	private void store(Properties fingerprints) throws IOException {
+		Path target = file.getAbsoluteFile().toPath();
+		Path temp = Files.createTempFile(target.getParent(), file.getName(), ".tmp");
+		try {
+			try (OutputStream out = Files.newOutputStream(temp)) {
+				fingerprints.store(out, "Fingerprints of the Liquibase changelogs that were fully applied");
+			}
+			try {
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+	
+	private Properties load() throws IOException {
+		Properties fingerprints = new Properties();
+		if (file.isFile()) {
+			try (InputStream in = new FileInputStream(file)) {
+				fingerprints.load(in);
+			}
+		}
+		return fingerprints;
+	}
+	
+	/**
+	 * Modules all have a changelog with the same name, so the location of the changelog is used
+	 */
+	private String getKey(String changeLogFile, String contexts, ClassLoader cl) {
+		URL url = findChangeLog(changeLogFile, cl);
+		return (url != null ? url.toString() : changeLogFile) + (contexts != null ? "|" + contexts : "");
+	}
+	
+	private String getFingerprint(String changeLogFile, ClassLoader cl, Connection connection) throws IOException,
+	        SQLException {
+		MessageDigest changeLogDigest = newDigest();
+		if (!addChangeLog(changeLogFile, cl, changeLogDigest, new HashSet<>())) {
+			return null;
+		}
+		
+		MessageDigest changeSetDigest = newDigest();
+		try (Statement statement = connection.createStatement();
+		        ResultSet rs = statement
+		                .executeQuery("select id, author, filename, md5sum from liquibasechangelog order by id, author, filename")) {
+			while (rs.next()) {
+				for (int i = 1; i <= 4; i++) {
+					String value = rs.getString(i);
+					changeSetDigest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+					changeSetDigest.update((byte) 0);
+				}
+			}
+		}
+		return toHex(changeLogDigest.digest()) + ":" + toHex(changeSetDigest.digest());
+	}
+	
+	/**
+	 * Adds a changelog and the changelogs it includes to the digest
+	 *
+	 * @return false if the changelog or one of the changelogs it includes cannot be found, or if it
+	 *         includes a whole directory
+	 */
+	private boolean addChangeLog(String changeLogFile, ClassLoader cl, MessageDigest digest, Set<String> added)
+	        throws IOException {
+		if (!added.add(changeLogFile)) {
+			return true;
+		}
+		URL url = findChangeLog(changeLogFile, cl);
+		if (url == null) {
+			return false;
+		}
+		byte[] contents;
+		try (InputStream in = url.openStream()) {
+			contents = IOUtils.toByteArray(in);
+		}
+		digest.update(changeLogFile.getBytes(StandardCharsets.UTF_8));
+		digest.update(contents);
+		
+		String changeLog = new String(contents, StandardCharsets.UTF_8);
+		if (changeLog.contains("<includeAll")) {
+			return false;
+		}
+		Matcher include = INCLUDE.matcher(changeLog);
+		while (include.find()) {
+			Matcher fileAttribute = FILE_ATTRIBUTE.matcher(include.group());
+			if (!fileAttribute.find()) {
+				return false;
+			}
+			String includedFile = fileAttribute.group(1);
+			if (RELATIVE_ATTRIBUTE.matcher(include.group()).find()) {
+				includedFile = changeLogFile.substring(0, changeLogFile.lastIndexOf('/') + 1) + includedFile;
+			}
+			if (!addChangeLog(includedFile, cl, digest, added)) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Looks for the changelog the way Liquibase does, on the classpath first and then on the
+	 * filesystem
+	 */
+	private URL findChangeLog(String changeLogFile, ClassLoader cl) {
+		URL url = cl.getResource(changeLogFile);
+		if (url == null) {
+			File changeLog = new File(changeLogFile);
+			if (changeLog.isFile()) {
+				try {
+					url = changeLog.toURI().toURL();
+				}
+				catch (IOException e) {
+					// treat it as not found
+				}
+			}
+		}
+		return url;
+	}
+	
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not supported", e);
+		}
+	}
+	
+	private static String toHex(byte[] bytes) {
+		return String.format("%064x", new BigInteger(1, bytes));
+	}
+}
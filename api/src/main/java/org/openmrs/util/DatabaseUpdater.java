@@ -167,6 +167,8 @@ public class DatabaseUpdater {
 	 *            {@link OpenmrsClassLoader})
 	 * @return A list of messages or warnings generated by the executed changesets
 	 * @throws Exception
+	 * @should run liquibase if the changelog changed since it was fully applied
+	 * @should skip liquibase if the changelog is unchanged since it was fully applied
 	 */
 	public static List<String> executeChangelog(String changeLogFile, String contexts, Map<String, Object> userInput,
 	        ChangeSetExecutorCallback callback, ClassLoader cl) throws Exception {
@@ -196,6 +198,15 @@ public class DatabaseUpdater {
 			cl = OpenmrsClassLoader.getInstance();
 		}
 		
+		if (changeLogFile == null) {
+			changeLogFile = CHANGE_LOG_FILE;
+		}
+		
+		if (isUpToDate(changeLogFile, contexts, cl)) {
+			log.debug("Skipping changelog " + changeLogFile + ", it is unchanged since it was last fully applied");
+			return updateWarnings;
+		}
+		
 		log.debug("Setting up liquibase object to run changelog: " + changeLogFile);
 		Liquibase liquibase = getLiquibase(changeLogFile, cl);
 		int numChangeSetsToRun = liquibase.listUnrunChangeSets(contexts).size();
@@ -237,9 +248,63 @@ public class DatabaseUpdater {
 			}
 		}
 		
+		markUpToDateIfFullyApplied(changeLogFile, contexts, cl, numChangeSetsToRun == 0);
+		
 		return updateWarnings;
 	}
 	
+	/**
+	 * @return true if the changelog is unchanged since it was last fully applied to the database, in
+	 *         which case Liquibase would find nothing to run
+	 * @see ChangeLogFingerprints#isUpToDate(String, String, ClassLoader, Connection)
+	 */
+	private static boolean isUpToDate(String changeLogFile, String contexts, ClassLoader cl) {
+		try (Connection connection = getConnection()) {
+			return ChangeLogFingerprints.getInstance().isUpToDate(changeLogFile, contexts, cl, connection);
+		}
+		catch (Exception e) {
+			log.debug("Unable to check the fingerprint of changelog " + changeLogFile, e);
+			return false;
+		}
+	}
+	
+	/**
+	 * Records the fingerprint of a changelog if no changesets of it are left to run
+	 *
+	 * @param knownToBeFullyApplied true if the caller already found that there is nothing left to
+	 *            run, so the changelog does not need to be parsed again
+	 */
+	private static void markUpToDateIfFullyApplied(String changeLogFile, String contexts, ClassLoader cl,
+	        boolean knownToBeFullyApplied) {
+		Database database = null;
+		try {
+			if (!knownToBeFullyApplied) {
+				Liquibase liquibase = getLiquibase(changeLogFile, cl);
+				database = liquibase.getDatabase();
+				if (!liquibase.listUnrunChangeSets(contexts).isEmpty()) {
+					// changesets skipped by a precondition or set to always run are checked again next time
+					return;
+				}
+			}
+			try (Connection connection = getConnection()) {
+				ChangeLogFingerprints.getInstance().markUpToDate(changeLogFile, contexts, cl, connection);
+			}
+		}
+		catch (Exception e) {
+			log.warn("Unable to record the fingerprint of changelog " + changeLogFile, e);
+		}
+		finally {
+			try {
+				if (database != null) {
+					database.getConnection().close();
+				}
+			}
+			catch (Exception e) {
+				//pass
+			}
+		}
+	}
+	
 	/**
 	 * Ask Liquibase if it needs to do any updates. Only looks at the {@link #CHANGE_LOG_FILE}
 	 *
@@ -611,10 +676,18 @@ public class DatabaseUpdater {
 			}
 			
 			List<OpenMRSChangeSet> results = new ArrayList<>();
+			ClassLoader cl = OpenmrsClassLoader.getInstance();
 			for (String changelogFile : changeLogFilenames) {
-				Liquibase liquibase = getLiquibase(changelogFile, null);
+				if (isUpToDate(changelogFile, CONTEXT, cl)) {
+					continue;
+				}
+				
+				Liquibase liquibase = getLiquibase(changelogFile, cl);
 				database = liquibase.getDatabase();
 				List<ChangeSet> changeSets = liquibase.listUnrunChangeSets(CONTEXT);
+				if (changeSets.isEmpty()) {
+					markUpToDateIfFullyApplied(changelogFile, CONTEXT, cl, true);
+				}
 				
 				for (ChangeSet changeSet : changeSets) {
 					OpenMRSChangeSet omrschangeset = new OpenMRSChangeSet(changeSet, database);
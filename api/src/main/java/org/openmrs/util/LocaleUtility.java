@@ -9,11 +9,14 @@
  */
 package org.openmrs.util;
 
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.openmrs.GlobalProperty;
 import org.openmrs.api.GlobalPropertyListener;
@@ -41,6 +44,12 @@ public class LocaleUtility implements GlobalPropertyListener {
 	 */
 	private static List<Locale> localesAllowedListCache = null;
 	
+	/**
+	 * Cached orderings returned by {@link #getSharedLocalesInOrder()}, by the locale of the user. These are
+	 * dropped whenever the default locale or the localeAllowedList change
+	 */
+	private static final Map<Locale, Set<Locale>> localesInOrderCache = new ConcurrentHashMap<>();
+	
 	/**
 	 * Gets the default locale specified as a global property.
 	 *
@@ -158,12 +167,38 @@ public class LocaleUtility implements GlobalPropertyListener {
 	 * @should have default locale as the second element if user has a preferred locale
 	 * @should always have english included in the returned collection
 	 * @should always have default locale default value included in the returned collection
+	 * @should return a set that can be modified
 	 * @since 1.7
 	 */
 	public static Set<Locale> getLocalesInOrder() {
-		
+		return new LinkedHashSet<>(getSharedLocalesInOrder());
+	}
+	
+	/**
+	 * Gets the same locales as {@link #getLocalesInOrder()} without copying them. The set is shared by
+	 * all the callers with the same locale until the locale global properties change, so it cannot be
+	 * modified, and callers can tell from its identity whether the order has changed.
+	 *
+	 * @return the shared, unmodifiable set of all specified and allowed locales
+	 * @should return the same set until the allowed locales change
+	 * @since 2.4.0
+	 */
+	public static Set<Locale> getSharedLocalesInOrder() {
+		Locale userLocale = Context.getLocale();
+		Set<Locale> locales = userLocale == null ? null : localesInOrderCache.get(userLocale);
+		if (locales == null) {
+			locales = buildLocalesInOrder(userLocale);
+			// the default locale is not cached while there is no session, neither is an ordering built from it
+			if (userLocale != null && defaultLocaleCache != null && localesAllowedListCache != null) {
+				localesInOrderCache.put(userLocale, locales);
+			}
+		}
+		return locales;
+	}
+	
+	private static Set<Locale> buildLocalesInOrder(Locale userLocale) {
 		Set<Locale> locales = new LinkedHashSet<>();
-		locales.add(Context.getLocale());
+		locales.add(userLocale);
 		locales.add(getDefaultLocale());
 		if (localesAllowedListCache == null) {
 			localesAllowedListCache = Context.getAdministrationService().getAllowedLocales();
@@ -176,15 +211,17 @@ public class LocaleUtility implements GlobalPropertyListener {
 		locales.add(Locale.ENGLISH);
 		locales.add(fromSpecification(OpenmrsConstants.GLOBAL_PROPERTY_DEFAULT_LOCALE_DEFAULT_VALUE));
 		
-		return locales;
+		return Collections.unmodifiableSet(locales);
 	}
 	
 	public static void setDefaultLocaleCache(Locale defaultLocaleCache) {
 		LocaleUtility.defaultLocaleCache = defaultLocaleCache;
+		localesInOrderCache.clear();
 	}
 	
 	public static void setLocalesAllowedListCache(List<Locale> localesAllowedListCache) {
 		LocaleUtility.localesAllowedListCache = localesAllowedListCache;
+		localesInOrderCache.clear();
 	}
 	
 	@Override
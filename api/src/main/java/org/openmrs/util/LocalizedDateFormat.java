@@ -0,0 +1,279 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.util;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.ResolverStyle;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQuery;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * The date, time and datetime formats of a locale, as returned by
+ * {@link OpenmrsUtil#getDateFormat(Locale)}, {@link OpenmrsUtil#getTimeFormat(Locale)} and
+ * {@link OpenmrsUtil#getDateTimeFormat(Locale)}. Instances are immutable and thread-safe, so one
+ * instance per locale is shared instead of cloning a {@link SimpleDateFormat} for every use. Dates
+ * are parsed as strictly as {@link OpenmrsDateFormat} parses them.
+ *
+ * @since 2.4.0
+ */
+public final class LocalizedDateFormat {
+	
+	private static final Map<Locale, LocalizedDateFormat> cache = new ConcurrentHashMap<>();
+	
+	private static final Pattern FOUR_DIGIT_YEAR_PATTERN = Pattern.compile("\\Wyyyy$");
+	
+	private static final Pattern FOUR_DIGIT_YEAR = Pattern.compile("\\W\\d{4}$");
+	
+	private final Locale locale;
+	
+	private final String datePattern;
+	
+	private final String timePattern;
+	
+	private final String dateTimePattern;
+	
+	private final DateTimeFormatter dateFormatter;
+	
+	private final DateTimeFormatter timeFormatter;
+	
+	private final DateTimeFormatter dateTimeFormatter;
+	
+	private final DateTimeFormatter lenientDateTimeFormatter;
+	
+	private LocalizedDateFormat(Locale locale) {
+		this.locale = locale;
+		this.datePattern = buildDatePattern(locale);
+		this.timePattern = buildTimePattern(locale);
+		this.dateTimePattern = datePattern + " " + timePattern;
+		this.dateFormatter = buildFormatter(datePattern, locale);
+		this.timeFormatter = buildFormatter(timePattern, locale);
+		this.dateTimeFormatter = buildFormatter(dateTimePattern, locale);
+		this.lenientDateTimeFormatter = dateTimeFormatter.withResolverStyle(ResolverStyle.LENIENT);
+	}
+	
+	/**
+	 * @param locale the locale to get the formats of
+	 * @return the shared formats of the given locale
+	 * @should return the same instance for the same locale
+	 */
+	public static LocalizedDateFormat getInstance(Locale locale) {
+		return cache.computeIfAbsent(locale, LocalizedDateFormat::new);
+	}
+	
+	/**
+	 * @return the locale of these formats
+	 */
+	public Locale getLocale() {
+		return locale;
+	}
+	
+	/**
+	 * @return the {@link SimpleDateFormat} pattern of the date format, similar to "MM/dd/yyyy"
+	 * @should return a pattern with four y characters in it
+	 */
+	public String getDatePattern() {
+		return datePattern;
+	}
+	
+	/**
+	 * @return the {@link SimpleDateFormat} pattern of the time format, similar to "hh:mm a"
+	 * @should return a pattern with two h characters in it
+	 */
+	public String getTimePattern() {
+		return timePattern;
+	}
+	
+	/**
+	 * @return the {@link SimpleDateFormat} pattern of the datetime format, similar to
+	 *         "MM/dd/yyyy hh:mm a"
+	 */
+	public String getDateTimePattern() {
+		return dateTimePattern;
+	}
+	
+	/**
+	 * @param date the date to format
+	 * @return the date part of the given date in the date format
+	 * @should format a date like the date format of OpenmrsUtil
+	 */
+	public String formatDate(Date date) {
+		return dateFormatter.format(toLocalDateTime(date));
+	}
+	
+	/**
+	 * @param date the date to format
+	 * @return the time part of the given date in the time format
+	 */
+	public String formatTime(Date date) {
+		return timeFormatter.format(toLocalDateTime(date));
+	}
+	
+	/**
+	 * @param date the date to format
+	 * @return the given date in the datetime format
+	 * @should format a date like the datetime format of OpenmrsUtil
+	 */
+	public String formatDateTime(Date date) {
+		return dateTimeFormatter.format(toLocalDateTime(date));
+	}
+	
+	/**
+	 * Parses a date the way {@link OpenmrsDateFormat} does: days and months may have a single digit,
+	 * but the year must have four digits, and invalid days or months are rejected.
+	 *
+	 * @param text the text to parse
+	 * @return the start of the parsed day
+	 * @throws ParseException if the text is not a valid date in the date format
+	 * @should parse a valid date
+	 * @should allow single digit days and months
+	 * @should not allow dates with invalid days or months
+	 * @should not allow two digit years
+	 */
+	public Date parseDate(String text) throws ParseException {
+		if (FOUR_DIGIT_YEAR_PATTERN.matcher(datePattern).find()) {
+			if (!FOUR_DIGIT_YEAR.matcher(text).find()) {
+				throw new ParseException("Unparseable date \"" + text + "\" - year must have 4 digits", 0);
+			}
+		} else if (datePattern.length() != text.length()) {
+			throw new ParseException("Unparseable date \"" + text
+			        + "\" - length of date string doesn't match length of date pattern", 0);
+		}
+		return toDate(parse(dateFormatter, text, LocalDate::from).atStartOfDay());
+	}
+	
+	/**
+	 * @param text the text to parse
+	 * @return the parsed time on January 1, 1970
+	 * @throws ParseException if the text is not a valid time in the time format
+	 */
+	public Date parseTime(String text) throws ParseException {
+		return toDate(parse(timeFormatter, text, LocalTime::from).atDate(LocalDate.of(1970, 1, 1)));
+	}
+	
+	/**
+	 * @param text the text to parse
+	 * @return the parsed date and time
+	 * @throws ParseException if the text is not a valid date and time in the datetime format
+	 * @should parse a valid date and time
+	 * @should not parse a date without a time
+	 */
+	public Date parseDateTime(String text) throws ParseException {
+		return parseDateTime(text, false);
+	}
+	
+	/**
+	 * Parses a date and time, either strictly or the way a lenient {@link SimpleDateFormat} does:
+	 * out of range fields are then rolled over, e.g. 24:30 is half past midnight on the next day.
+	 *
+	 * @param text the text to parse
+	 * @param lenient whether out of range fields are rolled over instead of rejected
+	 * @return the parsed date and time
+	 * @throws ParseException if the text is not a date and time in the datetime format
+	 * @should roll out of range fields over if lenient
+	 * @should reject out of range fields if not lenient
+	 */
+	public Date parseDateTime(String text, boolean lenient) throws ParseException {
+		return toDate(parse(lenient ? lenientDateTimeFormatter : dateTimeFormatter, text, LocalDateTime::from));
+	}
+	
+	/**
+	 * Like {@link DateFormat#parse(String)}, text after the parsed value is ignored
+	 */
+	private static <T> T parse(DateTimeFormatter formatter, String text, TemporalQuery<T> query) throws ParseException {
+		try {
+			TemporalAccessor parsed = formatter.parse(text, new ParsePosition(0));
+			return query.queryFrom(parsed);
+		}
+		catch (RuntimeException e) {
+			ParseException parseException = new ParseException("Unparseable date: \"" + text + "\"", 0);
+			parseException.initCause(e);
+			throw parseException;
+		}
+	}
+	
+	/**
+	 * Avoids {@link Date#toInstant()}, which java.sql.Date does not support
+	 */
+	private static LocalDateTime toLocalDateTime(Date date) {
+		return LocalDateTime.ofInstant(Instant.ofEpochMilli(date.getTime()), ZoneId.systemDefault());
+	}
+	
+	private static Date toDate(LocalDateTime localDateTime) {
+		return Date.from(localDateTime.atZone(ZoneId.systemDefault()).toInstant());
+	}
+	
+	private static String buildDatePattern(Locale locale) {
+		String pattern = ((SimpleDateFormat) DateFormat.getDateInstance(DateFormat.SHORT, locale)).toPattern();
+		if (!pattern.contains("yyyy")) {
+			// change the pattern to be a four digit year, Java 11 has dd/MM/y instead of dd/MM/yy
+			pattern = pattern.replaceFirst(pattern.contains("yy") ? "yy" : "y", "yyyy");
+		}
+		if (!pattern.contains("MM")) {
+			// change the pattern to be a two digit month
+			pattern = pattern.replaceFirst("M", "MM");
+		}
+		if (!pattern.contains("dd")) {
+			// change the pattern to be a two digit day
+			pattern = pattern.replaceFirst("d", "dd");
+		}
+		return pattern;
+	}
+	
+	private static String buildTimePattern(Locale locale) {
+		String pattern = ((SimpleDateFormat) DateFormat.getTimeInstance(DateFormat.SHORT, locale)).toPattern();
+		if (!(pattern.contains("hh") || pattern.contains("HH"))) {
+			// change the pattern to be a two digit hour
+			pattern = pattern.replaceFirst("h", "hh").replaceFirst("H", "HH");
+		}
+		return pattern;
+	}
+	
+	/**
+	 * Builds a formatter that parses like a non-lenient {@link SimpleDateFormat}: numbers may have
+	 * fewer digits than the pattern, text is matched case insensitively and invalid dates are
+	 * rejected
+	 */
+	private static DateTimeFormatter buildFormatter(String simpleDateFormatPattern, Locale locale) {
+		return new DateTimeFormatterBuilder().parseCaseInsensitive().parseLenient()
+		        .appendPattern(toDateTimeFormatterPattern(simpleDateFormatPattern)).toFormatter(locale)
+		        .withResolverStyle(ResolverStyle.STRICT);
+	}
+	
+	/**
+	 * A strict formatter needs the proleptic year (u) rather than the year of era (y), the other
+	 * letters used by the short patterns of {@link DateFormat} mean the same in both formats
+	 */
+	private static String toDateTimeFormatterPattern(String simpleDateFormatPattern) {
+		StringBuilder pattern = new StringBuilder(simpleDateFormatPattern.length());
+		boolean quoted = false;
+		for (char c : simpleDateFormatPattern.toCharArray()) {
+			if (c == '\'') {
+				quoted = !quoted;
+			}
+			pattern.append(!quoted && c == 'y' ? 'u' : c);
+		}
+		return pattern.toString();
+	}
+}
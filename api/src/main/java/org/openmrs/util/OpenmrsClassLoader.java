@@ -694,9 +694,11 @@ public class OpenmrsClassLoader extends URLClassLoader {
 	}
 	
 	/**
-	 * Get the temporary "work" directory for expanded jar files
+	 * Get the "work" directory for expanded jar files. The completely filled library cache folders
+	 * of modules are kept across restarts, everything else in it is deleted the first time this is
+	 * called.
 	 *
-	 * @return temporary location for storing the libraries
+	 * @return location for storing the libraries
 	 */
 	public static File getLibCacheFolder() {
 		// cache the location for all calls until OpenMRS is restarted
@@ -709,24 +711,29 @@ public class OpenmrsClassLoader extends URLClassLoader {
 			
 			log.debug("libraries cache folder is {}", libCacheFolder);
 			
-			if (libCacheFolder.exists()) {
-				// clean up and empty the folder if it exists (and is not locked)
-				try {
-					OpenmrsUtil.deleteDirectory(libCacheFolder);
-					
-					libCacheFolder.mkdirs();
-				}
-				catch (IOException io) {
-					log.warn("Unable to delete: {}", libCacheFolder.getName());
+			File[] cachedFiles = libCacheFolder.listFiles();
+			if (cachedFiles != null) {
+				// clean up everything except the module folders that can be reused (and is not locked)
+				for (File cachedFile : cachedFiles) {
+					if (cachedFile.isDirectory() && ModuleClassLoader.isLibCacheFolderComplete(cachedFile)) {
+						continue;
+					}
+					try {
+						if (cachedFile.isDirectory()) {
+							OpenmrsUtil.deleteDirectory(cachedFile);
+						} else if (!cachedFile.delete()) {
+							log.warn("Unable to delete: {}", cachedFile.getName());
+						}
+					}
+					catch (IOException io) {
+						log.warn("Unable to delete: {}", cachedFile.getName());
+					}
 				}
 			} else {
 				// otherwise just create the dir structure
 				libCacheFolder.mkdirs();
 			}
 			
-			// mark the lock and entire library cache to be deleted when the jvm exits
-			libCacheFolder.deleteOnExit();
-			
 			// mark the lib cache folder as ready
 			libCacheFolderInitialized = true;
 		}
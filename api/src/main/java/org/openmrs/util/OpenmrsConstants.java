@@ -602,6 +602,66 @@ public final class OpenmrsConstants {
 	 * @since 1.11
 	 */
 	public static final Integer SEARCH_INDEX_VERSION = 7;
+	
+	/**
+	 * The number of threads used to load entities when the whole search index is rebuilt
+	 * 
+	 * @since 2.4.0
+	 */
+	public static final String GP_SEARCH_INDEXER_THREADS_TO_LOAD_OBJECTS = "search.indexer.threadsToLoadObjects";
+	
+	/**
+	 * The number of entities loaded per batch when the whole search index is rebuilt
+	 * 
+	 * @since 2.4.0
+	 */
+	public static final String GP_SEARCH_INDEXER_BATCH_SIZE_TO_LOAD_OBJECTS = "search.indexer.batchSizeToLoadObjects";
+	
+	/**
+	 * The JDBC fetch size used to read entity ids and entities when the search index is rebuilt
+	 * 
+	 * @since 2.4.0
+	 */
+	public static final String GP_SEARCH_INDEXER_FETCH_SIZE = "search.indexer.fetchSize";
+	
+	/**
+	 * Prefix of the global properties which hold the time the search index of a type was last
+	 * updated, followed by the class name of the type
+	 * 
+	 * @since 2.4.0
+	 */
+	public static final String GP_SEARCH_INDEX_WATERMARK_PREFIX = "search.indexWatermark.";
+	
+	/**
+	 * Whether entities changed since the last search index update are reindexed at startup
+	 * 
+	 * @since 2.4.0
+	 */
+	public static final String GP_SEARCH_INDEX_UPDATE_ON_STARTUP = "search.indexer.updateOnStartup";
+	
+	/**
+	 * Whether patient merges move visits, encounters and obs with bulk updates instead of saving them
+	 * one by one
+	 * 
+	 * @since 2.4.0
+	 */
+	public static final String GP_PATIENT_MERGE_USE_BULK_UPDATES = "patient.merge.useBulkUpdates";
+	
+	/**
+	 * Whether saving an encounter saves its new obs in one pass instead of one by one through the obs
+	 * service
+	 * 
+	 * @since 2.4.0
+	 */
+	public static final String GP_ENCOUNTER_SAVE_NEW_OBS_IN_ONE_PASS = "encounter.saveNewObsInOnePass";
+	
+	/**
+	 * Whether editing an obs voids the original obs and its group members with a direct update instead
+	 * of through {@link org.openmrs.api.ObsService#voidObs(org.openmrs.Obs, String)}
+	 * 
+	 * @since 2.4.0
+	 */
+	public static final String GP_OBS_VOID_EDITED_OBS_WITH_DIRECT_UPDATE = "obs.voidEditedObsWithDirectUpdate";
 
 	/**
 	 * @since 1.12
@@ -1026,6 +1086,36 @@ public final class OpenmrsConstants {
 		props.add(new GlobalProperty(GP_SEARCH_INDEX_VERSION, "",
 		        "Indicates the index version. If it is blank, the index needs to be rebuilt."));
 		
+		props.add(new GlobalProperty(GP_SEARCH_INDEXER_THREADS_TO_LOAD_OBJECTS, "4",
+		        "The number of threads used to load entities when the whole search index is rebuilt"));
+		
+		props.add(new GlobalProperty(GP_SEARCH_INDEXER_BATCH_SIZE_TO_LOAD_OBJECTS, "25",
+		        "The number of entities loaded per batch when the whole search index is rebuilt"));
+		
+		props.add(new GlobalProperty(GP_SEARCH_INDEXER_FETCH_SIZE, "1000",
+		        "The JDBC fetch size used to read entity ids and entities when the search index is rebuilt"));
+		
+		props.add(new GlobalProperty(GP_SEARCH_INDEX_UPDATE_ON_STARTUP, "false",
+		        "true/false whether entities created or changed since the last search index update are reindexed at startup",
+		        BooleanDatatype.class, null));
+		
+		props.add(new GlobalProperty(GP_PATIENT_MERGE_USE_BULK_UPDATES, "false",
+		        "true/false whether merging patients moves their visits, encounters and obs with bulk updates. The obs of "
+		                + "encounters are then moved as they are instead of being voided and copied, and no save handlers are run "
+		                + "for the obs",
+		        BooleanDatatype.class, null));
+		
+		props.add(new GlobalProperty(GP_ENCOUNTER_SAVE_NEW_OBS_IN_ONE_PASS, "false",
+		        "true/false whether saving an encounter validates and saves its new obs in one pass. Module advice around "
+		                + "ObsService.saveObs is then not called for these obs",
+		        BooleanDatatype.class, null));
+		
+		props.add(new GlobalProperty(GP_OBS_VOID_EDITED_OBS_WITH_DIRECT_UPDATE, "false",
+		        "true/false whether editing an obs voids the original obs and its group members with a direct database "
+		                + "update. AOP advice around ObsService.voidObs, void handlers and Hibernate interceptors are then "
+		                + "not called for them",
+		        BooleanDatatype.class, null));
+		
 		props.add(new GlobalProperty(GLOBAL_PROPERTY_ALLOW_OVERLAPPING_VISITS, "true",
 		        "true/false whether or not to allow visits of a given patient to overlap", BooleanDatatype.class, null));
 		
@@ -49,6 +49,7 @@ import java.util.Properties;
 import java.util.Random;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.JarFile;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -130,9 +131,11 @@ public class OpenmrsUtil {
 	
 	private static org.slf4j.Logger log = LoggerFactory.getLogger(OpenmrsUtil.class);
 	
-	private static Map<Locale, SimpleDateFormat> dateFormatCache = new HashMap<>();
+	private static Map<Locale, SimpleDateFormat> dateFormatCache = new ConcurrentHashMap<>();
 	
-	private static Map<Locale, SimpleDateFormat> timeFormatCache = new HashMap<>();
+	private static Map<Locale, SimpleDateFormat> timeFormatCache = new ConcurrentHashMap<>();
+	
+	private static Map<Locale, SimpleDateFormat> dateTimeFormatCache = new ConcurrentHashMap<>();
 	
 	/**
 	 * Compares origList to newList returning map of differences
@@ -1366,38 +1369,9 @@ public class OpenmrsUtil {
 	 * @since 1.5
 	 */
 	public static SimpleDateFormat getDateFormat(Locale locale) {
-		if (dateFormatCache.containsKey(locale)) {
-			return (SimpleDateFormat) dateFormatCache.get(locale).clone();
-		}
-		
 		// note that we are using the custom OpenmrsDateFormat class here which prevents erroneous parsing of 2-digit years
-		SimpleDateFormat sdf = new OpenmrsDateFormat((SimpleDateFormat) DateFormat.getDateInstance(DateFormat.SHORT, locale),
-		        locale);
-		String pattern = sdf.toPattern();
-		
-		if (!pattern.contains("yyyy")) {
-			// otherwise, change the pattern to be a four digit year
-			String regex = "yy";
-			if (!pattern.contains("yy")) {
-				//Java 11 has dd/MM/y instead of dd/MM/yy
-				regex = "y";
-			}
-			pattern = pattern.replaceFirst(regex, "yyyy");
-			sdf.applyPattern(pattern);
-		}
-		if (!pattern.contains("MM")) {
-			// change the pattern to be a two digit month
-			pattern = pattern.replaceFirst("M", "MM");
-			sdf.applyPattern(pattern);
-		}
-		if (!pattern.contains("dd")) {
-			// change the pattern to be a two digit day
-			pattern = pattern.replaceFirst("d", "dd");
-			sdf.applyPattern(pattern);
-		}
-		
-		dateFormatCache.put(locale, sdf);
-		
+		SimpleDateFormat sdf = dateFormatCache.computeIfAbsent(locale, l -> new OpenmrsDateFormat(
+		        new SimpleDateFormat(LocalizedDateFormat.getInstance(l).getDatePattern(), l), l));
 		return (SimpleDateFormat) sdf.clone();
 	}
 	
@@ -1410,21 +1384,8 @@ public class OpenmrsUtil {
 	 * @since 1.9
 	 */
 	public static SimpleDateFormat getTimeFormat(Locale locale) {
-		if (timeFormatCache.containsKey(locale)) {
-			return (SimpleDateFormat) timeFormatCache.get(locale).clone();
-		}
-		
-		SimpleDateFormat sdf = (SimpleDateFormat) DateFormat.getTimeInstance(DateFormat.SHORT, locale);
-		String pattern = sdf.toPattern();
-		
-		if (!(pattern.contains("hh") || pattern.contains("HH"))) {
-			// otherwise, change the pattern to be a two digit hour
-			pattern = pattern.replaceFirst("h", "hh").replaceFirst("H", "HH");
-			sdf.applyPattern(pattern);
-		}
-		
-		timeFormatCache.put(locale, sdf);
-		
+		SimpleDateFormat sdf = timeFormatCache.computeIfAbsent(locale,
+		    l -> new SimpleDateFormat(LocalizedDateFormat.getInstance(l).getTimePattern(), l));
 		return (SimpleDateFormat) sdf.clone();
 	}
 	
@@ -1438,16 +1399,9 @@ public class OpenmrsUtil {
 	 * @since 1.9
 	 */
 	public static SimpleDateFormat getDateTimeFormat(Locale locale) {
-		SimpleDateFormat dateFormat;
-		SimpleDateFormat timeFormat;
-		
-		dateFormat = getDateFormat(locale);
-		timeFormat = getTimeFormat(locale);
-		
-		String pattern = dateFormat.toPattern() + " " + timeFormat.toPattern();
-		SimpleDateFormat sdf = new SimpleDateFormat();
-		sdf.applyPattern(pattern);
-		return sdf;
+		SimpleDateFormat sdf = dateTimeFormatCache.computeIfAbsent(locale,
+		    l -> new SimpleDateFormat(LocalizedDateFormat.getInstance(l).getDateTimePattern()));
+		return (SimpleDateFormat) sdf.clone();
 	}
 	
 	/**
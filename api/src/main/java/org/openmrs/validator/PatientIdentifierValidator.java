@@ -9,6 +9,10 @@
  */
 package org.openmrs.validator;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 import org.apache.commons.lang3.StringUtils;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
@@ -54,10 +58,22 @@ public class PatientIdentifierValidator implements Validator {
 	 */
 	@Override
 	public void validate(Object obj, Errors errors) {
-		PatientIdentifier pi = (PatientIdentifier) obj;
+		validate((PatientIdentifier) obj, errors, true);
+	}
+	
+	/**
+	 * Validates a PatientIdentifier, optionally skipping the check that no other patient has it
+	 * 
+	 * @param pi the patient identifier to validate
+	 * @param errors the errors to report to
+	 * @param checkInUse whether to check that no other patient has the identifier
+	 * @since 2.4.0
+	 * @see #validateIdentifier(PatientIdentifier, boolean)
+	 */
+	public void validate(PatientIdentifier pi, Errors errors, boolean checkInUse) {
 		try {
-			validateIdentifier(pi);
-			ValidateUtil.validateFieldLengths(errors, obj.getClass(), "identifier", "voidReason");
+			validateIdentifier(pi, checkInUse);
+			ValidateUtil.validateFieldLengths(errors, PatientIdentifier.class, "identifier", "voidReason");
 		}
 		catch (Exception e) {
 			errors.reject(e.getMessage());
@@ -76,6 +92,21 @@ public class PatientIdentifierValidator implements Validator {
 	 * @see #validateIdentifier(String, PatientIdentifierType)
 	 */
 	public static void validateIdentifier(PatientIdentifier pi) throws PatientIdentifierException {
+		validateIdentifier(pi, true);
+	}
+	
+	/**
+	 * Checks that the given {@link PatientIdentifier} is valid, optionally skipping the check that no
+	 * other patient has it. Callers validating many identifiers can skip it and check them all at
+	 * once with {@link #validateIdentifiersNotInUse(Collection)}.
+	 * 
+	 * @param pi - the {@link PatientIdentifier} to validate
+	 * @param checkInUse - whether to check that no other patient has the identifier
+	 * @throws PatientIdentifierException if the {@link PatientIdentifier} is invalid
+	 * @since 2.4.0
+	 * @should not check if another patient has the identifier if checkInUse is false
+	 */
+	public static void validateIdentifier(PatientIdentifier pi, boolean checkInUse) throws PatientIdentifierException {
 		
 		// Validate that the identifier is non-null
 		if (pi == null) {
@@ -96,16 +127,60 @@ public class PatientIdentifierValidator implements Validator {
 				    "PatientIdentifier.location.null", new Object[] { identifierString }, Context.getLocale()));
 			}
 			
-			if (pi.getIdentifierType().getUniquenessBehavior() != UniquenessBehavior.NON_UNIQUE
+			if (checkInUse && pi.getIdentifierType().getUniquenessBehavior() != UniquenessBehavior.NON_UNIQUE
 			        && Context.getPatientService().isIdentifierInUseByAnotherPatient(pi)) {
 				// Check is already in use by another patient
-				throw new IdentifierNotUniqueException(Context.getMessageSourceService().getMessage(
-				    "PatientIdentifier.error.notUniqueWithParameter", new Object[] { pi.getIdentifier() },
-				    Context.getLocale()), pi);
+				throw newIdentifierNotUniqueException(pi);
 			}
 		}
 	}
 	
+	/**
+	 * Checks that none of the given non voided {@link PatientIdentifier}s of a unique type is in use
+	 * by another patient, with one query per batch of identifiers
+	 * 
+	 * @param identifiers - the {@link PatientIdentifier}s to check
+	 * @throws IdentifierNotUniqueException for the first identifier that is in use by another patient
+	 * @since 2.4.0
+	 * @should fail validation if another patient has a matching identifier of the same type
+	 * @should pass if in use and id type uniqueness is set to non unique
+	 * @should pass if the identifier in use is voided
+	 */
+	public static void validateIdentifiersNotInUse(Collection<PatientIdentifier> identifiers)
+	        throws IdentifierNotUniqueException {
+		List<PatientIdentifier> inUse = getIdentifiersInUseByAnotherPatient(identifiers);
+		if (!inUse.isEmpty()) {
+			throw newIdentifierNotUniqueException(inUse.get(0));
+		}
+	}
+	
+	/**
+	 * Gets the non voided {@link PatientIdentifier}s of a unique type that are in use by another
+	 * patient, with one query per batch of identifiers
+	 * 
+	 * @param identifiers - the {@link PatientIdentifier}s to check
+	 * @return the identifiers in use by another patient, in the given order
+	 * @since 2.4.0
+	 */
+	public static List<PatientIdentifier> getIdentifiersInUseByAnotherPatient(Collection<PatientIdentifier> identifiers) {
+		List<PatientIdentifier> identifiersToCheck = new ArrayList<>();
+		for (PatientIdentifier pi : identifiers) {
+			if (!pi.getVoided() && pi.getIdentifierType() != null
+			        && pi.getIdentifierType().getUniquenessBehavior() != UniquenessBehavior.NON_UNIQUE) {
+				identifiersToCheck.add(pi);
+			}
+		}
+		if (identifiersToCheck.isEmpty()) {
+			return identifiersToCheck;
+		}
+		return Context.getPatientService().getIdentifiersInUseByAnotherPatient(identifiersToCheck);
+	}
+	
+	static IdentifierNotUniqueException newIdentifierNotUniqueException(PatientIdentifier pi) {
+		return new IdentifierNotUniqueException(Context.getMessageSourceService().getMessage(
+		    "PatientIdentifier.error.notUniqueWithParameter", new Object[] { pi.getIdentifier() }, Context.getLocale()), pi);
+	}
+	
 	/**
 	 * Validates that a given identifier string is valid for a given {@link PatientIdentifierType}
 	 * Checks for things like blank identifiers, invalid check digits, and invalid format.
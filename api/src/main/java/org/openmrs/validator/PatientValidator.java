@@ -10,6 +10,7 @@
 package org.openmrs.validator;
 
 import java.util.Collection;
+import java.util.List;
 
 import org.openmrs.Patient;
 import org.openmrs.PatientIdentifier;
@@ -92,10 +93,17 @@ public class PatientValidator extends PersonValidator {
 		}
 		int index = 0;
 		if (!errors.hasErrors() && patient.getIdentifiers() != null) {
+			// check whether the identifiers are in use by other patients all at once instead of one by one
+			List<PatientIdentifier> identifiersInUse = PatientIdentifierValidator.getIdentifiersInUseByAnotherPatient(patient
+			        .getIdentifiers());
 			// Validate PatientIdentifers
 			for (PatientIdentifier identifier : patient.getIdentifiers()) {
 				errors.pushNestedPath("identifiers[" + index + "]");
-				patientIdentifierValidator.validate(identifier, errors);
+				int errorCount = errors.getErrorCount();
+				patientIdentifierValidator.validate(identifier, errors, false);
+				if (errors.getErrorCount() == errorCount && identifiersInUse.contains(identifier)) {
+					errors.reject(PatientIdentifierValidator.newIdentifierNotUniqueException(identifier).getMessage());
+				}
 				errors.popNestedPath();
 				index++;
 			}
@@ -10,10 +10,10 @@
 package org.openmrs.validator;
 
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
-import org.openmrs.OpenmrsObject;
 import org.openmrs.api.ValidationException;
 import org.openmrs.api.context.Context;
 import org.springframework.util.Assert;
@@ -118,13 +118,17 @@ public class ValidateUtil {
 		}
 
 		Assert.notNull(errors, "Errors object must not be null");
+		Map<String, Integer> lengths = null;
 		for (String field : fields) {
 			Object value = errors.getFieldValue(field);
 			if (value == null || !(value instanceof String)) {
 				continue;
 			}
-			int length = Context.getAdministrationService().getMaximumPropertyLength((Class<? extends OpenmrsObject>) aClass, field);
-			if (length == -1) {
+			if (lengths == null) {
+				lengths = Context.getAdministrationService().getMaximumStringPropertyLengths(aClass);
+			}
+			Integer length = lengths.get(field);
+			if (length == null || length == -1) {
 				return;
 			}
 			if (((String) value).length() > length) {
@@ -957,6 +957,52 @@ public class ConceptTest extends BaseContextSensitiveTest {
 		Assert.assertEquals(preferredName.getName(), testConcept.getPreferredName(Locale.US).getName());
 	}
 	
+	/**
+	 * @see Concept#getPreferredName(Locale)
+	 */
+	@Test
+	public void getPreferredName_shouldReturnTheNewPreferredNameAfterTheNamesChange() {
+		Concept testConcept = createConcept(1, Locale.US);
+		ConceptName synonym = createConceptName(3, "Aspirin", Locale.US, null, false);
+		testConcept.addName(synonym);
+		Assert.assertEquals("intravenous", testConcept.getPreferredName(Locale.US).getName());
+		
+		synonym.setLocalePreferred(true);
+		Assert.assertEquals(synonym, testConcept.getPreferredName(Locale.US));
+		
+		synonym.setVoided(true);
+		Assert.assertEquals("intravenous", testConcept.getPreferredName(Locale.US).getName());
+	}
+	
+	/**
+	 * @see Concept#getName()
+	 */
+	@Test
+	public void getName_shouldReturnTheNewNameAfterTheNamesChange() {
+		Concept testConcept = createConcept(1, Context.getLocale());
+		Assert.assertEquals("intravenous", testConcept.getName().getName());
+		
+		ConceptName preferredName = createConceptName(3, "Aspirin", Context.getLocale(), null, true);
+		testConcept.addName(preferredName);
+		Assert.assertEquals(preferredName, testConcept.getName());
+		
+		testConcept.removeName(preferredName);
+		Assert.assertEquals("intravenous", testConcept.getName().getName());
+	}
+	
+	/**
+	 * @see Concept#getShortNameInLocale(Locale)
+	 */
+	@Test
+	public void getShortNameInLocale_shouldReturnTheNewShortNameAfterTheNamesChange() {
+		Concept testConcept = createConcept(1, Locale.US);
+		Assert.assertEquals("IV", testConcept.getShortNameInLocale(Locale.US).getName());
+		
+		ConceptName shortName = createConceptName(3, "I.V.", Locale.US, ConceptNameType.SHORT, false);
+		testConcept.setShortName(shortName);
+		Assert.assertEquals(shortName, testConcept.getShortNameInLocale(Locale.US));
+	}
+	
 	/**
 	 * Convenient factory method to create a populated Concept with a one fully specified name and
 	 * one short name
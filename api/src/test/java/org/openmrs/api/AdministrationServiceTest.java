@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import org.junit.Before;
@@ -36,6 +37,7 @@ import org.junit.rules.ExpectedException;
 import org.mockito.Mockito;
 import org.openmrs.GlobalProperty;
 import org.openmrs.ImplementationId;
+import org.openmrs.Location;
 import org.openmrs.User;
 import org.openmrs.api.context.Context;
 import org.openmrs.customdatatype.datatype.BooleanDatatype;
@@ -639,6 +641,27 @@ public class AdministrationServiceTest extends BaseContextSensitiveTest {
 		adminService.validate(null, errors);
 	}
 	
+	/**
+	 * @see AdministrationService#getMaximumStringPropertyLengths(Class)
+	 */
+	@Test
+	public void getMaximumStringPropertyLengths_shouldReturnTheLengthsOfTheStringProperties() {
+		Map<String, Integer> lengths = adminService.getMaximumStringPropertyLengths(Location.class);
+		assertEquals(Integer.valueOf(255), lengths.get("name"));
+		assertEquals(Integer.valueOf(255), lengths.get("address1"));
+		assertFalse(lengths.containsKey("retired"));
+		assertEquals(Integer.valueOf(255), adminService.getMaximumStringPropertyLengths(GlobalProperty.class).get(
+		    "property"));
+	}
+	
+	/**
+	 * @see AdministrationService#getMaximumStringPropertyLengths(Class)
+	 */
+	@Test
+	public void getMaximumStringPropertyLengths_shouldReturnAnEmptyMapForAClassThatIsNotMapped() {
+		assertTrue(adminService.getMaximumStringPropertyLengths(Object.class).isEmpty());
+	}
+	
 	@Test
 	public void getPresentationLocales_shouldReturnOnlyCountryLocaleIfBothCountryLocaleAndLanguageLocaleAreSpecifiedInAllowedList()
 	        {
@@ -81,6 +81,10 @@ import org.openmrs.util.ConceptMapTypeComparator;
 import org.openmrs.util.DateUtil;
 import org.openmrs.util.LocaleUtility;
 import org.openmrs.util.OpenmrsConstants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.validation.Errors;
 
 /**
@@ -104,6 +108,9 @@ public class ConceptServiceTest extends BaseContextSensitiveTest {
 	@Rule
 	public ExpectedException expectedException = ExpectedException.none();
 	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	
 	/**
 	 * Run this before each unit test in this class. The "@Before" method in
 	 * {@link BaseContextSensitiveTest} is run right before this method.
@@ -1539,6 +1546,63 @@ public class ConceptServiceTest extends BaseContextSensitiveTest {
 		assertThat(conceptSet, containsInAnyOrder(hasId(2), hasId(3), hasId(4), hasId(5), hasId(6)));
 	}
 	
+	/**
+	 * @see ConceptService#isConceptInSet(Concept, Concept)
+	 */
+	@Test
+	public void isConceptInSet_shouldReturnTrueIfTheConceptIsInANestedSet() {
+		executeDataSet(GET_CONCEPTS_BY_SET_XML);
+		
+		assertTrue(conceptService.isConceptInSet(conceptService.getConcept(6), conceptService.getConcept(1)));
+		assertTrue(conceptService.isConceptInSet(conceptService.getConcept(4), conceptService.getConcept(3)));
+	}
+	
+	/**
+	 * @see ConceptService#isConceptInSet(Concept, Concept)
+	 */
+	@Test
+	public void isConceptInSet_shouldReturnFalseIfTheConceptIsNotInTheSet() {
+		executeDataSet(GET_CONCEPTS_BY_SET_XML);
+		
+		assertFalse(conceptService.isConceptInSet(conceptService.getConcept(2), conceptService.getConcept(3)));
+		assertFalse(conceptService.isConceptInSet(conceptService.getConcept(1), conceptService.getConcept(1)));
+	}
+	
+	/**
+	 * @see ConceptService#getConceptSetIndex()
+	 */
+	@Test
+	public void getConceptSetIndex_shouldReflectSetMembersAddedBySavingAConcept() {
+		Concept set = conceptService.getConcept(23);
+		Concept member = conceptService.getConcept(5089);
+		assertFalse(conceptService.getConceptSetIndex().contains(member.getConceptId(), set.getConceptId()));
+		
+		set.addSetMember(member);
+		conceptService.saveConcept(set);
+		
+		assertTrue(conceptService.getConceptSetIndex().contains(member.getConceptId(), set.getConceptId()));
+		assertThat(conceptService.getConceptsByConceptSet(set), hasItem(member));
+	}
+	
+	/**
+	 * @see ConceptService#getConceptSetIndex()
+	 */
+	@Test
+	public void getConceptSetIndex_shouldNotKeepSetMembersOfARolledBackTransaction() {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		transaction.execute(status -> {
+			Concept set = conceptService.getConcept(23);
+			set.addSetMember(conceptService.getConcept(5089));
+			conceptService.saveConcept(set);
+			assertTrue(conceptService.getConceptSetIndex().contains(5089, 23));
+			status.setRollbackOnly();
+			return null;
+		});
+		
+		assertFalse(conceptService.getConceptSetIndex().contains(5089, 23));
+	}
+	
 	/**
 	 * @see ConceptService#saveConceptStopWord(org.openmrs.ConceptStopWord)
 	 */
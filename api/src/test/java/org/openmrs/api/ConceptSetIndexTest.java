@@ -0,0 +1,86 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ConceptSetIndexTest {
+	
+	/**
+	 * @see ConceptSetIndex#getConceptIds(Integer)
+	 */
+	@Test
+	public void getConceptIds_shouldReturnTheMembersOfNestedSetsAfterTheNestedSet() {
+		Map<Integer, List<Integer>> members = new HashMap<>();
+		members.put(1, Arrays.asList(2, 3, 4));
+		members.put(3, Arrays.asList(5, 6));
+		members.put(6, Arrays.asList(7));
+		ConceptSetIndex index = new ConceptSetIndex(members, new HashSet<>(Arrays.asList(1, 3, 6)));
+		
+		assertEquals(Arrays.asList(2, 3, 5, 6, 7, 4), index.getConceptIds(1));
+		assertEquals(Arrays.asList(5, 6, 7), index.getConceptIds(3));
+		assertTrue(index.getConceptIds(2).isEmpty());
+	}
+	
+	/**
+	 * @see ConceptSetIndex#getConceptIds(Integer)
+	 */
+	@Test
+	public void getConceptIds_shouldNotLoopOnSetsThatContainEachOther() {
+		Map<Integer, List<Integer>> members = new HashMap<>();
+		members.put(1, Arrays.asList(2));
+		members.put(2, Arrays.asList(1, 3));
+		ConceptSetIndex index = new ConceptSetIndex(members, new HashSet<>(Arrays.asList(1, 2)));
+		
+		assertEquals(Arrays.asList(2, 1, 3), index.getConceptIds(1));
+	}
+	
+	/**
+	 * @see ConceptSetIndex#contains(Integer, Integer)
+	 */
+	@Test
+	public void contains_shouldReturnTrueForMembersOfNestedSets() {
+		Map<Integer, List<Integer>> members = new HashMap<>();
+		members.put(1, Arrays.asList(2));
+		members.put(2, Arrays.asList(3));
+		ConceptSetIndex index = new ConceptSetIndex(members, new HashSet<>(Arrays.asList(1, 2)));
+		
+		assertTrue(index.contains(3, 1));
+		assertTrue(index.contains(2, 1));
+	}
+	
+	/**
+	 * @see ConceptSetIndex#contains(Integer, Integer)
+	 */
+	@Test
+	public void contains_shouldReturnFalseForConceptsThatAreNotInTheSet() {
+		Map<Integer, List<Integer>> members = new HashMap<>();
+		members.put(1, Arrays.asList(2));
+		members.put(4, Arrays.asList(3));
+		// 2 is not a set, so its members are not members of 1
+		members.put(2, Arrays.asList(5));
+		ConceptSetIndex index = new ConceptSetIndex(members, new HashSet<>(Arrays.asList(1, 4)));
+		
+		assertFalse(index.contains(3, 1));
+		assertFalse(index.contains(5, 1));
+		assertFalse(index.contains(1, 1));
+		assertFalse(index.contains(null, 1));
+	}
+}
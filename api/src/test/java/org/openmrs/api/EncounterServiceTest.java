@@ -9,6 +9,10 @@
  */
 package org.openmrs.api;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Ignore;
@@ -41,6 +45,7 @@ import org.openmrs.api.handler.EncounterVisitHandler;
 import org.openmrs.api.handler.ExistingOrNewVisitAssignmentHandler;
 import org.openmrs.api.handler.ExistingVisitAssignmentHandler;
 import org.openmrs.api.handler.NoVisitAssignmentHandler;
+import org.openmrs.api.impl.EncounterServiceImpl;
 import org.openmrs.parameter.EncounterSearchCriteria;
 import org.openmrs.parameter.EncounterSearchCriteriaBuilder;
 import org.openmrs.test.BaseContextSensitiveTest;
@@ -55,6 +60,7 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -64,6 +70,7 @@ import java.util.TreeSet;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
@@ -98,6 +105,14 @@ public class EncounterServiceTest extends BaseContextSensitiveTest {
 	public void runBeforeEachTest() {
 		executeDataSet(ENC_INITIAL_DATA_XML);
 	}
+	
+	/**
+	 * The cached one pass setting outlives the rolled back global property
+	 */
+	@After
+	public void resetSaveNewObsInOnePass() {
+		EncounterServiceImpl.setSaveNewObsInOnePass(false);
+	}
 
 	@Test
 	public void saveEncounter_shouldUpdateExistingEncounterWhenAChildObsIsEdited() {
@@ -2181,6 +2196,107 @@ public class EncounterServiceTest extends BaseContextSensitiveTest {
 		Assert.assertEquals(1, encounter.getAllObs().size());
 	}
 	
+	/**
+	 * @see EncounterService#saveEncounter(Encounter)
+	 */
+	@Test
+	public void saveEncounter_shouldNotFlushTheSessionWhileSavingNewObsInOnePass() {
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(OpenmrsConstants.GP_ENCOUNTER_SAVE_NEW_OBS_IN_ONE_PASS, "true"));
+		EncounterService es = Context.getEncounterService();
+		Encounter encounter = buildEncounter();
+		Concept concept = Context.getConceptService().getConcept(1);
+		Obs editedObs = new Obs();
+		editedObs.setConcept(concept);
+		editedObs.setValueNumeric(50d);
+		encounter.addObs(editedObs);
+		es.saveEncounter(encounter);
+		Context.flushSession();
+		
+		editedObs.setValueNumeric(100d);
+		for (int i = 0; i < 3; i++) {
+			Obs newObs = new Obs();
+			newObs.setConcept(concept);
+			newObs.setValueNumeric((double) i);
+			encounter.addObs(newObs);
+		}
+		Statistics statistics = ((SessionFactory) applicationContext.getBean("sessionFactory")).getStatistics();
+		boolean statisticsEnabled = statistics.isStatisticsEnabled();
+		statistics.setStatisticsEnabled(true);
+		statistics.clear();
+		try {
+			es.saveEncounter(encounter);
+			
+			// the copy of the edited obs and the new obs are inserted without flushing the session
+			EntityStatistics obsStatistics = statistics.getEntityStatistics(Obs.class.getName());
+			assertEquals(0, statistics.getFlushCount());
+			assertEquals(4, obsStatistics.getInsertCount());
+			assertEquals(0, obsStatistics.getUpdateCount());
+			
+			// voiding the edited obs is written by the one flush
+			Context.flushSession();
+			assertEquals(1, statistics.getFlushCount());
+			assertEquals(1, obsStatistics.getUpdateCount());
+		}
+		finally {
+			statistics.setStatisticsEnabled(statisticsEnabled);
+		}
+	}
+	
+	/**
+	 * @see EncounterService#saveEncounter(Encounter)
+	 */
+	@Test
+	public void saveEncounter_shouldSaveNewObsInOnePassAndStillVoidEditedObsWhenEnabled() {
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(OpenmrsConstants.GP_ENCOUNTER_SAVE_NEW_OBS_IN_ONE_PASS, "true"));
+		EncounterService es = Context.getEncounterService();
+		Encounter encounter = buildEncounter();
+		Concept concept = Context.getConceptService().getConcept(1);
+		Obs obs = new Obs();
+		obs.setConcept(concept);
+		obs.setValueNumeric(50d);
+		encounter.addObs(obs);
+		Obs groupObs = new Obs();
+		groupObs.setConcept(concept);
+		Obs childObs = new Obs();
+		childObs.setConcept(concept);
+		childObs.setValueNumeric(60d);
+		groupObs.addGroupMember(childObs);
+		encounter.addObs(groupObs);
+		
+		es.saveEncounter(encounter);
+		
+		assertNotNull(obs.getObsId());
+		assertNotNull(groupObs.getObsId());
+		assertNotNull(childObs.getObsId());
+		assertEquals(groupObs, childObs.getObsGroup());
+		assertEquals(encounter.getEncounterDatetime(), childObs.getObsDatetime());
+		assertNotNull(childObs.getCreator());
+		
+		int oldObsId = obs.getObsId();
+		obs.setValueNumeric(100d);
+		Obs newObs = new Obs();
+		newObs.setConcept(concept);
+		newObs.setValueNumeric(70d);
+		encounter.addObs(newObs);
+		es.saveEncounter(encounter);
+		Context.flushSession();
+		Context.clearSession();
+		
+		Obs oldObs = Context.getObsService().getObs(oldObsId);
+		assertTrue(oldObs.getVoided());
+		encounter = es.getEncounter(encounter.getEncounterId());
+		assertEquals(4, encounter.getAllObs().size());
+		assertEquals(5, encounter.getAllObs(true).size());
+		for (Obs o : encounter.getAllObs()) {
+			if (o.getPreviousVersion() != null) {
+				assertEquals(oldObsId, o.getPreviousVersion().getObsId().intValue());
+			}
+		}
+		assertNotNull(Context.getObsService().getObsByUuid(newObs.getUuid()));
+	}
+	
 	/**
 	 * @see EncounterService#voidEncounter(Encounter, String)
 	 */
@@ -2299,6 +2415,97 @@ public class EncounterServiceTest extends BaseContextSensitiveTest {
 		assertEquals(beforeSize + 1, patientEncounters.size());
 	}
 	
+	/**
+	 * @see EncounterService#getEncounterTypeIdsNotViewableBy(User)
+	 */
+	@Test
+	public void getEncounterTypeIdsNotViewableBy_shouldReturnIdsOfEncounterTypesWhoseViewPrivilegeTheUserDoesNotHave() {
+		EncounterService encounterService = Context.getEncounterService();
+		
+		EncounterType encounterType = encounterService.getEncounterType(1);
+		encounterType.setViewPrivilege(Context.getUserService().getPrivilege("Some Privilege For View Encounter Types"));
+		encounterService.saveEncounterType(encounterType);
+		
+		User user = Context.getUserService().getUserByUsername("test_user");
+		
+		assertEquals(Collections.singleton(1), encounterService.getEncounterTypeIdsNotViewableBy(user));
+	}
+	
+	/**
+	 * @see EncounterService#getEncounterTypeIdsNotViewableBy(User)
+	 */
+	@Test
+	public void getEncounterTypeIdsNotViewableBy_shouldReturnAnEmptySetIfTheUserCanViewAllEncounterTypes() {
+		EncounterService encounterService = Context.getEncounterService();
+		
+		EncounterType encounterType = encounterService.getEncounterType(1);
+		encounterType.setViewPrivilege(Context.getUserService().getPrivilege("Some Privilege For View Encounter Types"));
+		encounterService.saveEncounterType(encounterType);
+		
+		assertTrue(encounterService.getEncounterTypeIdsNotViewableBy(Context.getAuthenticatedUser()).isEmpty());
+	}
+	
+	/**
+	 * @see EncounterService#getEncounterTypeIdsNotViewableBy(User)
+	 */
+	@Test
+	public void getEncounterTypeIdsNotViewableBy_shouldApplyTheRolesAUserIsGrantedAtOnce() {
+		EncounterService encounterService = Context.getEncounterService();
+		UserService userService = Context.getUserService();
+		
+		Privilege viewPrivilege = userService.getPrivilege("Some Privilege For View Encounter Types");
+		EncounterType encounterType = encounterService.getEncounterType(1);
+		encounterType.setViewPrivilege(viewPrivilege);
+		encounterService.saveEncounterType(encounterType);
+		
+		User user = userService.getUserByUsername("test_user");
+		assertEquals(Collections.singleton(1), encounterService.getEncounterTypeIdsNotViewableBy(user));
+		
+		Role role = new Role("Encounter Viewer");
+		role.addPrivilege(viewPrivilege);
+		userService.saveRole(role);
+		user.addRole(role);
+		userService.saveUser(user);
+		
+		assertTrue(encounterService.getEncounterTypeIdsNotViewableBy(user).isEmpty());
+	}
+	
+	/**
+	 * @see EncounterService#getEncounters(String, Integer, Integer, Integer, boolean)
+	 */
+	@Test
+	public void getEncounters_shouldNotCountOrReturnEncountersTheUserIsNotAllowedToView() {
+		EncounterService encounterService = Context.getEncounterService();
+		List<Encounter> allEncounters = encounterService.getEncounters(null, 7, null, null, false);
+		
+		EncounterType encounterType = allEncounters.get(0).getEncounterType();
+		encounterType.setViewPrivilege(Context.getUserService().getPrivilege("Some Privilege For View Encounter Types"));
+		encounterService.saveEncounterType(encounterType);
+		
+		int viewable = 0;
+		for (Encounter encounter : allEncounters) {
+			if (!encounter.getEncounterType().equals(encounterType)) {
+				viewable++;
+			}
+		}
+		
+		Context.logout();
+		Context.authenticate("test_user", "test");
+		Context.addProxyPrivilege(PrivilegeConstants.GET_ENCOUNTERS);
+		Context.addProxyPrivilege(PrivilegeConstants.GET_PATIENTS);
+		
+		List<Encounter> encounters = encounterService.getEncounters(null, 7, 0, allEncounters.size(), false);
+		
+		Context.removeProxyPrivilege(PrivilegeConstants.GET_ENCOUNTERS);
+		Context.removeProxyPrivilege(PrivilegeConstants.GET_PATIENTS);
+		Context.logout();
+		
+		assertEquals(viewable, encounters.size());
+		for (Encounter encounter : encounters) {
+			assertNotEquals(encounterType, encounter.getEncounterType());
+		}
+	}
+	
 	/**
 	 * @see EncounterService#canViewAllEncounterTypes(User)
 	 */
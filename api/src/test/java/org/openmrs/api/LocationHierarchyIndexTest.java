@@ -0,0 +1,115 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class LocationHierarchyIndexTest {
+	
+	/**
+	 * 1 has the children 2 and 3, 3 has the child 4 and 2 has the retired child 5, which has the child 6
+	 */
+	private LocationHierarchyIndex createIndex() {
+		Map<Integer, Integer> parents = new HashMap<>();
+		parents.put(1, null);
+		parents.put(2, 1);
+		parents.put(3, 1);
+		parents.put(4, 3);
+		parents.put(5, 2);
+		parents.put(6, 5);
+		parents.put(7, null);
+		return new LocationHierarchyIndex(parents, Collections.singleton(5));
+	}
+	
+	/**
+	 * @see LocationHierarchyIndex#getDescendantIds(Integer, boolean)
+	 */
+	@Test
+	public void getDescendantIds_shouldReturnTheLocationsAtAllLevelsBelowTheLocation() {
+		LocationHierarchyIndex index = createIndex();
+		
+		assertEquals(new HashSet<>(Arrays.asList(2, 3, 4)), index.getDescendantIds(1, false));
+		assertEquals(Collections.singleton(4), index.getDescendantIds(3, false));
+		assertTrue(index.getDescendantIds(7, false).isEmpty());
+		assertTrue(index.getDescendantIds(null, false).isEmpty());
+	}
+	
+	/**
+	 * @see LocationHierarchyIndex#getDescendantIds(Integer, boolean)
+	 */
+	@Test
+	public void getDescendantIds_shouldLeaveOutTheLocationsBelowARetiredLocationUnlessRetiredLocationsAreIncluded() {
+		LocationHierarchyIndex index = createIndex();
+		
+		assertTrue(index.getDescendantIds(2, false).isEmpty());
+		assertEquals(new HashSet<>(Arrays.asList(5, 6)), index.getDescendantIds(2, true));
+		assertEquals(new HashSet<>(Arrays.asList(2, 3, 4, 5, 6)), index.getDescendantIds(1, true));
+	}
+	
+	/**
+	 * @see LocationHierarchyIndex#getDescendantIds(Integer, boolean)
+	 */
+	@Test
+	public void getDescendantIds_shouldNotLoopOnLocationsThatAreTheirOwnAncestors() {
+		Map<Integer, Integer> parents = new HashMap<>();
+		parents.put(1, 2);
+		parents.put(2, 1);
+		LocationHierarchyIndex index = new LocationHierarchyIndex(parents, Collections.emptySet());
+		
+		assertEquals(Collections.singleton(2), index.getDescendantIds(1, true));
+		assertEquals(Collections.singletonList(2), index.getAncestorIds(1));
+	}
+	
+	/**
+	 * @see LocationHierarchyIndex#getAncestorIds(Integer)
+	 */
+	@Test
+	public void getAncestorIds_shouldReturnTheAncestorsStartingWithTheParent() {
+		LocationHierarchyIndex index = createIndex();
+		
+		assertEquals(Arrays.asList(5, 2, 1), index.getAncestorIds(6));
+		assertTrue(index.getAncestorIds(1).isEmpty());
+	}
+	
+	/**
+	 * @see LocationHierarchyIndex#isInHierarchy(Integer, Integer)
+	 */
+	@Test
+	public void isInHierarchy_shouldReturnTrueForTheRootLocationAndTheLocationsBelowIt() {
+		LocationHierarchyIndex index = createIndex();
+		
+		assertTrue(index.isInHierarchy(1, 1));
+		assertTrue(index.isInHierarchy(4, 1));
+		assertTrue(index.isInHierarchy(6, 2));
+	}
+	
+	/**
+	 * @see LocationHierarchyIndex#isInHierarchy(Integer, Integer)
+	 */
+	@Test
+	public void isInHierarchy_shouldReturnFalseForLocationsThatAreNotBelowTheRootLocation() {
+		LocationHierarchyIndex index = createIndex();
+		
+		assertFalse(index.isInHierarchy(1, 4));
+		assertFalse(index.isInHierarchy(4, 2));
+		assertFalse(index.isInHierarchy(7, 1));
+		assertFalse(index.isInHierarchy(null, 1));
+	}
+}
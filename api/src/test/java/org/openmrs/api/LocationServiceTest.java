@@ -17,6 +17,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -30,10 +31,13 @@ import org.openmrs.Location;
 import org.openmrs.LocationAttribute;
 import org.openmrs.LocationAttributeType;
 import org.openmrs.LocationTag;
+import org.openmrs.api.cache.IndexCache;
 import org.openmrs.api.context.Context;
 import org.openmrs.customdatatype.datatype.FreeTextDatatype;
 import org.openmrs.test.BaseContextSensitiveTest;
 import org.openmrs.util.OpenmrsConstants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
 
 /**
  * Tests all methods in the {@link LocationService}
@@ -44,6 +48,9 @@ public class LocationServiceTest extends BaseContextSensitiveTest {
 	
 	protected static final String LOC_ATTRIBUTE_DATA_XML = "org/openmrs/api/include/LocationServiceTest-attributes.xml";
 	
+	@Autowired
+	private CacheManager cacheManager;
+	
 	/**
 	 * Run this before each unit test in this class. This adds a bit more data to the base data that
 	 * is done in the "@Before" method in {@link BaseContextSensitiveTest} (which is run right
@@ -259,6 +266,83 @@ public class LocationServiceTest extends BaseContextSensitiveTest {
 		Assert.assertEquals(2, locations.size());
 	}
 	
+	/**
+	 * @see LocationService#getLocationHierarchyIndex()
+	 */
+	@Test
+	public void getLocationHierarchyIndex_shouldReflectAParentLocationChangedBySavingALocation() {
+		LocationService ls = Context.getLocationService();
+		assertFalse(ls.getLocationHierarchyIndex().isInHierarchy(6, 1));
+		
+		Location location = ls.getLocation(6);
+		location.setParentLocation(ls.getLocation(4));
+		ls.saveLocation(location);
+		
+		assertTrue(ls.getLocationHierarchyIndex().isInHierarchy(6, 1));
+		assertEquals(Arrays.asList(4, 3, 1), ls.getLocationHierarchyIndex().getAncestorIds(6));
+	}
+	
+	/**
+	 * @see LocationService#getLocationHierarchyIndex()
+	 */
+	@Test
+	public void getLocationHierarchyIndex_shouldNotShareTheIndexOfATransactionThatChangedALocation() {
+		LocationService ls = Context.getLocationService();
+		ls.getLocationHierarchyIndex();
+		assertNotNull(cacheManager.getCache(IndexCache.CACHE_NAME).get("locationHierarchyIndex"));
+		
+		Location location = ls.getLocation(6);
+		location.setParentLocation(ls.getLocation(4));
+		ls.saveLocation(location);
+		
+		assertTrue(ls.getLocationHierarchyIndex().isInHierarchy(6, 1));
+		assertNull(cacheManager.getCache(IndexCache.CACHE_NAME).get("locationHierarchyIndex"));
+	}
+	
+	/**
+	 * @see LocationService#getDescendantLocations(Location, boolean)
+	 */
+	@Test
+	public void getDescendantLocations_shouldReturnTheSameLocationsAsTheLocationItself() {
+		Location location = Context.getLocationService().getLocation(1);
+		location.getChildLocations().iterator().next().setRetired(true);
+		
+		assertEquals(location.getDescendantLocations(true), Context.getLocationService().getDescendantLocations(location,
+		    true));
+		assertEquals(3, Context.getLocationService().getDescendantLocations(location, true).size());
+		assertEquals(location.getDescendantLocations(false), Context.getLocationService().getDescendantLocations(
+		    location, false));
+	}
+	
+	/**
+	 * @see LocationService#getDescendantLocations(Location, boolean)
+	 */
+	@Test
+	public void getDescendantLocations_shouldReturnAnEmptySetForALocationThatIsNotSaved() {
+		assertTrue(Context.getLocationService().getDescendantLocations(new Location(), true).isEmpty());
+	}
+	
+	/**
+	 * @see LocationService#isInHierarchy(Location, Location)
+	 */
+	@Test
+	public void isInHierarchy_shouldReturnTrueForLocationsBelowTheRootLocation() {
+		LocationService ls = Context.getLocationService();
+		assertTrue(ls.isInHierarchy(ls.getLocation(4), ls.getLocation(1)));
+		assertTrue(ls.isInHierarchy(ls.getLocation(1), ls.getLocation(1)));
+	}
+	
+	/**
+	 * @see LocationService#isInHierarchy(Location, Location)
+	 */
+	@Test
+	public void isInHierarchy_shouldReturnFalseForLocationsThatAreNotBelowTheRootLocation() {
+		LocationService ls = Context.getLocationService();
+		assertFalse(ls.isInHierarchy(ls.getLocation(1), ls.getLocation(4)));
+		assertFalse(ls.isInHierarchy(ls.getLocation(4), ls.getLocation(2)));
+		assertFalse(ls.isInHierarchy(null, ls.getLocation(1)));
+	}
+	
 	/**
 	 * @see LocationService#getAllLocations(null)
 	 */
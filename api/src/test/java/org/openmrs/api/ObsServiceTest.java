@@ -13,7 +13,9 @@ import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -40,14 +42,20 @@ import java.util.Set;
 import javax.imageio.ImageIO;
 
 import org.apache.commons.io.FileUtils;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.openmrs.Cohort;
 import org.openmrs.Concept;
 import org.openmrs.ConceptName;
 import org.openmrs.ConceptProposal;
 import org.openmrs.Encounter;
+import org.openmrs.GlobalProperty;
 import org.openmrs.Location;
 import org.openmrs.Obs;
 import org.openmrs.Order;
@@ -82,10 +90,20 @@ public class ObsServiceTest extends BaseContextSensitiveTest {
 	
 	@Autowired
 	private ObsService obsService;
+	
+	@Autowired
+	private SessionFactory sessionFactory;
 
 	@Rule
 	public ExpectedException expectedException = ExpectedException.none();
-
+	
+	/**
+	 * The cached direct update setting outlives the rolled back global property
+	 */
+	@After
+	public void resetVoidEditedObsWithDirectUpdate() {
+		ObsServiceImpl.setVoidEditedObsWithDirectUpdate(false);
+	}
 
 	/**
 	 * This method gets the revision obs for voided obs
@@ -1541,6 +1559,41 @@ public class ObsServiceTest extends BaseContextSensitiveTest {
 		Assert.assertNotNull(groupMember.getObsId());
 	}
 	
+	/**
+	 * @see ObsService#saveNewEncounterObs(Encounter)
+	 */
+	@Test
+	public void saveNewEncounterObs_shouldSaveNewObsWithTheirGroupMembers() {
+		ObsService obsService = Context.getObsService();
+		Encounter encounter = Context.getEncounterService().getEncounter(3);
+		
+		Obs parentObs = new Obs();
+		parentObs.setConcept(Context.getConceptService().getConcept(3));
+		Obs groupMember = new Obs();
+		groupMember.setConcept(Context.getConceptService().getConcept(3));
+		groupMember.setValueNumeric(1.0);
+		parentObs.addGroupMember(groupMember);
+		encounter.addObs(parentObs);
+		
+		assertEquals(Collections.singletonList(parentObs), obsService.saveNewEncounterObs(encounter));
+		
+		Assert.assertNotNull(parentObs.getObsId());
+		Assert.assertNotNull(groupMember.getObsId());
+		Assert.assertNotNull(groupMember.getCreator());
+		assertEquals(encounter, groupMember.getEncounter());
+	}
+	
+	/**
+	 * @see ObsService#saveNewEncounterObs(Encounter)
+	 */
+	@Test
+	public void saveNewEncounterObs_shouldNotSaveObsThatWereSavedBefore() {
+		Encounter encounter = Context.getEncounterService().getEncounter(3);
+		Assert.assertFalse(encounter.getObsAtTopLevel(true).isEmpty());
+		
+		assertTrue(Context.getObsService().saveNewEncounterObs(encounter).isEmpty());
+	}
+	
 	/**
 	 * @see ObsService#saveObs(Obs,String)
 	 */
@@ -1699,6 +1752,79 @@ public class ObsServiceTest extends BaseContextSensitiveTest {
 		assertEquals(changeMessage, obs.getVoidReason());
 	}
 	
+	/**
+	 * @see ObsService#saveObs(Obs,String)
+	 */
+	@Test
+	public void saveObs_shouldVoidTheOriginalObsWithADirectUpdateIfEnabled() {
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(OpenmrsConstants.GP_OBS_VOID_EDITED_OBS_WITH_DIRECT_UPDATE, "true"));
+		Context.flushSession();
+		Obs obs = obsService.getObs(7);
+		obs.setComment("A new comment");
+		
+		Statistics statistics = sessionFactory.getStatistics();
+		boolean statisticsEnabled = statistics.isStatisticsEnabled();
+		statistics.setStatisticsEnabled(true);
+		statistics.clear();
+		Obs newObs;
+		try {
+			long statementCountBefore = statistics.getPrepareStatementCount();
+			newObs = obsService.saveObs(obs, "Testing the void");
+			// apart from lazy loading the obs, the saved status is read, the new obs is inserted and the
+			// original is voided
+			long lazyLoadCount = statistics.getEntityFetchCount() + statistics.getCollectionFetchCount();
+			assertEquals(statementCountBefore + lazyLoadCount + 3, statistics.getPrepareStatementCount());
+			Context.flushSession();
+			
+			EntityStatistics obsStatistics = statistics.getEntityStatistics(Obs.class.getName());
+			assertEquals(0, obsStatistics.getUpdateCount());
+			assertEquals(1, obsStatistics.getInsertCount());
+			assertEquals(0, obsStatistics.getLoadCount());
+		}
+		finally {
+			statistics.setStatisticsEnabled(statisticsEnabled);
+		}
+		// the instance is voided and evicted instead of being reloaded
+		assertTrue(obs.getVoided());
+		assertEquals("Testing the void", obs.getVoidReason());
+		assertFalse(sessionFactory.getCurrentSession().contains(obs));
+		
+		Context.clearSession();
+		Obs originalObs = obsService.getObs(7);
+		assertTrue(originalObs.getVoided());
+		assertEquals("Testing the void", originalObs.getVoidReason());
+		assertEquals(Context.getAuthenticatedUser(), originalObs.getVoidedBy());
+		assertNotNull(originalObs.getDateVoided());
+		assertEquals("A new comment", obsService.getObs(newObs.getObsId()).getComment());
+		assertEquals(originalObs, obsService.getObs(newObs.getObsId()).getPreviousVersion());
+	}
+	
+	/**
+	 * @see ObsService#saveObs(Obs,String)
+	 */
+	@Test
+	public void saveObs_shouldVoidTheSavedGroupMembersOfTheOriginalObsWithADirectUpdateIfEnabled() {
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(OpenmrsConstants.GP_OBS_VOID_EDITED_OBS_WITH_DIRECT_UPDATE, "true"));
+		executeDataSet(INITIAL_OBS_XML);
+		Obs obs = obsService.getObs(2);
+		obs.setComment("A new comment");
+		
+		Obs newObs = obsService.saveObs(obs, "Testing the void");
+		
+		Context.flushSession();
+		Context.clearSession();
+		assertEquals("Testing the void", obsService.getObs(2).getVoidReason());
+		for (Integer obsId : Arrays.asList(2, 9, 10)) {
+			Obs originalObs = obsService.getObs(obsId);
+			assertTrue(originalObs.getVoided());
+			assertNotNull(originalObs.getVoidedBy());
+			assertNotNull(originalObs.getDateVoided());
+		}
+		assertEquals(2, obsService.getObs(newObs.getObsId()).getGroupMembers().size());
+	}
+	
 	@Test
 	public void saveObs_shouldOverwriteObsPersonValueWithEncounterPatient() {
 		String changeMessage = "Testing TRUNK-3283";
@@ -1975,4 +2101,106 @@ public class ObsServiceTest extends BaseContextSensitiveTest {
 		assertThat(existing.getVoided(), is(true));
 		assertThat(newObs.getStatus(), is(Obs.Status.FINAL));
 	}
+	
+	private List<Integer> getObsIds(List<Obs> observations) {
+		List<Integer> obsIds = new ArrayList<>();
+		for (Obs obs : observations) {
+			obsIds.add(obs.getObsId());
+		}
+		return obsIds;
+	}
+	
+	/**
+	 * @see ObsService#getMostRecentObservations(List, List, Integer, Date)
+	 */
+	@Test
+	public void getMostRecentObservations_shouldReturnTheMostRecentObsForEachPersonAndConcept() {
+		ConceptService cs = Context.getConceptService();
+		List<Obs> obs = obsService.getMostRecentObservations(Collections.singletonList(new Person(7)), Arrays.asList(cs
+		        .getConcept(5089), cs.getConcept(5497)), null, null);
+		
+		assertEquals(Arrays.asList(16, 11), getObsIds(obs));
+	}
+	
+	/**
+	 * @see ObsService#getMostRecentObservations(List, List, Integer, Date)
+	 */
+	@Test
+	public void getMostRecentObservations_shouldReturnTheGivenNumberOfObsForEachPersonAndConcept() {
+		ConceptService cs = Context.getConceptService();
+		List<Obs> obs = obsService.getMostRecentObservations(null, Arrays.asList(cs.getConcept(5089), cs.getConcept(5497)),
+		    2, null);
+		
+		assertEquals(Arrays.asList(16, 10, 11, 9), getObsIds(obs));
+	}
+	
+	/**
+	 * @see ObsService#getMostRecentObservations(List, List, Integer, Date)
+	 */
+	@Test
+	public void getMostRecentObservations_shouldIgnoreObsAfterTheGivenDate() throws ParseException {
+		ConceptService cs = Context.getConceptService();
+		Date toDate = new SimpleDateFormat("yyyy-MM-dd").parse("2008-08-10");
+		List<Obs> obs = obsService.getMostRecentObservations(Collections.singletonList(new Person(7)), Arrays.asList(cs
+		        .getConcept(5089), cs.getConcept(5497)), 1, toDate);
+		
+		assertEquals(Arrays.asList(7, 9), getObsIds(obs));
+	}
+	
+	/**
+	 * @see ObsService#getMostRecentObservations(List, List, Integer, Date)
+	 */
+	@Test
+	public void getMostRecentObservations_shouldNotReturnVoidedObs() {
+		obsService.voidObs(obsService.getObs(16), "testing");
+		
+		List<Obs> obs = obsService.getMostRecentObservations(Collections.singletonList(new Person(7)), Collections
+		        .singletonList(Context.getConceptService().getConcept(5089)), 1, null);
+		
+		assertEquals(Collections.singletonList(10), getObsIds(obs));
+	}
+	
+	/**
+	 * @see ObsService#forEachMostRecentObservation(Cohort, List, Integer, Date, Consumer)
+	 */
+	@Test
+	public void forEachMostRecentObservation_shouldPassTheMostRecentObsForEachPatientInTheCohortToTheAction() {
+		ConceptService cs = Context.getConceptService();
+		List<Integer> obsIds = new ArrayList<>();
+		obsService.forEachMostRecentObservation(new Cohort(Arrays.asList(2, 7)), Arrays.asList(cs.getConcept(5089), cs
+		        .getConcept(5497)), 1, null, obs -> obsIds.add(obs.getObsId()));
+		
+		assertEquals(Arrays.asList(16, 11), obsIds);
+	}
+	
+	/**
+	 * @see ObsService#forEachMostRecentObservation(Cohort, List, Integer, Date, Consumer)
+	 */
+	@Test
+	public void forEachMostRecentObservation_shouldPassTheMostRecentObsOfAllPersonsToTheActionIfTheCohortIsNull() {
+		ConceptService cs = Context.getConceptService();
+		List<Integer> obsIds = new ArrayList<>();
+		obsService.forEachMostRecentObservation(null, Arrays.asList(cs.getConcept(5089), cs.getConcept(5497)), 2, null,
+		    obs -> obsIds.add(obs.getObsId()));
+		
+		assertEquals(Arrays.asList(16, 10, 11, 9), obsIds);
+	}
+	
+	/**
+	 * @see ObsService#forEachMostRecentObservation(Cohort, List, Integer, Date, Consumer)
+	 */
+	@Test
+	public void forEachMostRecentObservation_shouldNotEvictObsThatWereAlreadyInTheSession() {
+		ConceptService cs = Context.getConceptService();
+		Obs alreadyLoaded = obsService.getObs(16);
+		List<Obs> passed = new ArrayList<>();
+		obsService.forEachMostRecentObservation(new Cohort(Arrays.asList(7)), Arrays.asList(cs.getConcept(5089), cs
+		        .getConcept(5497)), 1, null, passed::add);
+		
+		assertEquals(2, passed.size());
+		assertSame(alreadyLoaded, passed.get(0));
+		assertSame(alreadyLoaded, obsService.getObs(16));
+		// the other obs was evicted, so it is loaded again
+		assertNotSame(passed.get(1), obsService.getObs(11));
+	}
 }
@@ -71,8 +71,10 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.collection.IsIterableContainingInAnyOrder.containsInAnyOrder;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -955,6 +957,54 @@ public class PatientServiceTest extends BaseContextSensitiveTest {
 		Assert.assertTrue(patientService.isIdentifierInUseByAnotherPatient(patientIdentifier));
 	}
 
+	/**
+	 * @see PatientService#getIdentifiersInUseByAnotherPatient(java.util.Collection)
+	 */
+	@Test
+	public void getIdentifiersInUseByAnotherPatient_shouldReturnTheIdentifiersThatAreInUseByAnotherPatient()
+	        throws Exception {
+		PatientIdentifierType pit = patientService.getPatientIdentifierType(1);
+		PatientIdentifier inUse = new PatientIdentifier("7TU-8", pit, null);
+		inUse.setPatient(patientService.getPatient(2));
+		PatientIdentifier notInUse = new PatientIdentifier("Nobody could possibly have this identifier", pit, null);
+		PatientIdentifier voided = new PatientIdentifier("ABC123", patientService.getPatientIdentifierType(2), null);
+		
+		List<PatientIdentifier> result = patientService.getIdentifiersInUseByAnotherPatient(Arrays.asList(notInUse,
+		    inUse, voided));
+		
+		assertEquals(1, result.size());
+		assertSame(inUse, result.get(0));
+	}
+	
+	/**
+	 * @see PatientService#getIdentifiersInUseByAnotherPatient(java.util.Collection)
+	 */
+	@Test
+	public void getIdentifiersInUseByAnotherPatient_shouldNotReturnIdentifiersOnlyInUseByTheirOwnPatient()
+	        throws Exception {
+		List<PatientIdentifier> identifiers = new ArrayList<>(patientService.getPatient(2).getActiveIdentifiers());
+		assertFalse(identifiers.isEmpty());
+		
+		assertTrue(patientService.getIdentifiersInUseByAnotherPatient(identifiers).isEmpty());
+	}
+	
+	/**
+	 * @see PatientService#getIdentifiersInUseByAnotherPatient(java.util.Collection)
+	 */
+	@Test
+	public void getIdentifiersInUseByAnotherPatient_shouldMatchTheIdentifiersLikeTheDatabaseComparesThem()
+	        throws Exception {
+		PatientIdentifierType pit = patientService.getPatientIdentifierType(1);
+		PatientIdentifier inUse = new PatientIdentifier("7TU-8", pit, null);
+		PatientIdentifier otherCase = new PatientIdentifier("7tu-8", pit, null);
+		
+		List<PatientIdentifier> result = patientService.getIdentifiersInUseByAnotherPatient(Arrays.asList(inUse,
+		    otherCase));
+		
+		assertTrue(result.contains(inUse));
+		assertEquals(patientService.isIdentifierInUseByAnotherPatient(otherCase), result.contains(otherCase));
+	}
+	
 	/**
 	 * @see PatientService#checkPatientIdentifiers(Patient)
 	 */
@@ -3323,4 +3373,111 @@ public class PatientServiceTest extends BaseContextSensitiveTest {
 		assertEquals(2, encounterService.getEncounter(57).getObsAtTopLevel(true).size());
 	}
 
+	/**
+	 * @see PatientService#mergePatients(org.openmrs.Patient, org.openmrs.Patient)
+	 */
+	@Test
+	public void mergePatients_shouldMoveEncountersWithTheirObsWithoutCopyingThemWhenBulkUpdatesAreEnabled()
+	        throws Exception {
+		executeDataSet(PATIENT_MERGE_OBS_WITH_GROUP_MEMBER);
+		adminService.saveGlobalProperty(new GlobalProperty(OpenmrsConstants.GP_PATIENT_MERGE_USE_BULK_UPDATES, "true"));
+		
+		Patient notPreferred = patientService.getPatient(11);
+		Patient preferred = patientService.getPatient(21);
+		EncounterService encounterService = Context.getEncounterService();
+		Encounter encounter = encounterService.getEncounter(57);
+		assertEquals(notPreferred, encounter.getPatient());
+		
+		PersonMergeLog audit = mergeAndRetrieveAudit(preferred, notPreferred);
+		
+		assertEquals(preferred, encounter.getPatient());
+		assertEquals(4, encounter.getAllObs(true).size());
+		assertEquals(3, encounter.getAllObs(false).size());
+		for (Obs obs : encounter.getAllObs(true)) {
+			assertEquals(preferred, obs.getPerson());
+		}
+		assertTrue(audit.getPersonMergeLogData().getMovedEncounters().contains(encounter.getUuid()));
+		assertEquals(0, encounterService.getEncountersByPatient(notPreferred).size());
+	}
+
+	/**
+	 * @see PatientService#mergePatients(org.openmrs.Patient, org.openmrs.Patient)
+	 */
+	@Test
+	public void mergePatients_shouldAuditTheCopiesOfIndependentObservationsWhenBulkUpdatesAreEnabled() throws Exception {
+		adminService.saveGlobalProperty(new GlobalProperty(OpenmrsConstants.GP_PATIENT_MERGE_USE_BULK_UPDATES, "true"));
+		Patient preferred = patientService.getPatient(999);
+		Patient notPreferred = patientService.getPatient(7);
+		voidOrders(Collections.singleton(notPreferred));
+		
+		Obs obs = Context.getObsService().getObs(7);
+		obs.setEncounter(null);
+		obs.setComment("this observation is for testing the merge");
+		obs = Context.getObsService().saveObs(obs, "Reason cannot be blank");
+		
+		PersonMergeLog audit = mergeAndRetrieveAudit(preferred, notPreferred);
+		
+		Obs copy = null;
+		for (Obs o : Context.getObsService().getObservationsByPerson(preferred)) {
+			if (obs.getComment().equals(o.getComment())) {
+				copy = o;
+			}
+		}
+		assertNotNull(copy);
+		assertNotEquals(obs.getUuid(), copy.getUuid());
+		assertEquals(obs, copy.getPreviousVersion());
+		assertTrue(obs.getVoided());
+		assertEquals(Collections.singletonList(copy.getUuid()), audit.getPersonMergeLogData()
+		        .getMovedIndependentObservations());
+	}
+	
+	/**
+	 * @see PatientService#importPatientChunk(List)
+	 */
+	@Test
+	public void importPatientChunk_shouldImportValidPatientsAndReportTheOthersByTheirPositionInTheChunk()
+	        throws Exception {
+		Patient first = createImportedPatient("Importfirst", "IMPORT-1");
+		Patient withoutIdentifier = createImportedPatient("Importnoid", null);
+		Patient duplicate = createImportedPatient("Importduplicate", "IMPORT-1");
+		Patient second = createImportedPatient("Importsecond", "IMPORT-2");
+		
+		// the service itself would import the chunk in a transaction of its own, which would be committed
+		PatientService target = applicationContext.getBean("patientServiceTarget", PatientService.class);
+		PatientImportChunkResult result = target.importPatientChunk(Arrays.asList(first, withoutIdentifier, duplicate,
+		    second));
+		
+		assertEquals(Arrays.asList(first.getPatientId(), second.getPatientId()), result.getImportedPatientIds());
+		assertEquals(new HashSet<>(Arrays.asList(1, 2)), result.getErrors().keySet());
+		
+		Context.flushSession();
+		Context.clearSession();
+		Patient imported = patientService.getPatientByUuid(second.getUuid());
+		assertNotNull(imported);
+		assertEquals("Importsecond", imported.getGivenName());
+		assertEquals("IMPORT-2", imported.getPatientIdentifier().getIdentifier());
+		assertTrue(imported.getPatientIdentifier().getPreferred());
+		assertEquals(1, imported.getAddresses().size());
+		assertNotNull(imported.getPersonDateCreated());
+		assertNull(patientService.getPatientByUuid(duplicate.getUuid()));
+		
+		updateSearchIndex();
+		assertEquals(1, patientService.getPatients("Importfirst").size());
+		assertEquals(1, patientService.getPatients("IMPORT-2").size());
+	}
+	
+	private Patient createImportedPatient(String givenName, String identifier) {
+		Patient patient = new Patient();
+		patient.setGender("F");
+		patient.addName(new PersonName(givenName, null, "Patient"));
+		PersonAddress address = new PersonAddress();
+		address.setCityVillage("Anywhere city");
+		patient.addAddress(address);
+		if (identifier != null) {
+			patient.addIdentifier(new PatientIdentifier(identifier, patientService.getPatientIdentifierType(2),
+			        Context.getLocationService().getLocation(1)));
+		}
+		return patient;
+	}
+	
 }
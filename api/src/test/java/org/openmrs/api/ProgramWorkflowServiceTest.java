@@ -22,6 +22,8 @@ import java.util.Date;
 import java.util.List;
 import java.util.Set;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -37,8 +39,14 @@ import org.openmrs.ProgramWorkflow;
 import org.openmrs.ProgramWorkflowState;
 import org.openmrs.User;
 import org.openmrs.api.context.Context;
+import org.openmrs.api.db.ProgramWorkflowDAO;
+import org.openmrs.api.impl.ProgramWorkflowServiceImpl;
 import org.openmrs.test.BaseContextSensitiveTest;
 import org.openmrs.test.TestUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * This class tests methods in the PatientService class TODO Add methods to test all methods in
@@ -60,6 +68,9 @@ public class ProgramWorkflowServiceTest extends BaseContextSensitiveTest {
 	
 	protected ConceptService cs = null;
 	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	
 	@Before
 	public void runBeforeEachTest() {
 		executeDataSet(CREATE_PATIENT_PROGRAMS_XML);
@@ -657,6 +668,84 @@ public class ProgramWorkflowServiceTest extends BaseContextSensitiveTest {
 		Assert.assertEquals(originalDateCompleted, pp.getDateCompleted());
 	}
 	
+	/**
+	 * @see ProgramWorkflowServiceImpl#triggerStateConversion(Patient,Concept,Date)
+	 */
+	@Test
+	public void triggerStateConversion_shouldTransitionActivePatientProgramsToTheStateOfTheTrigger() {
+		ProgramWorkflowServiceImpl impl = new ProgramWorkflowServiceImpl();
+		impl.setProgramWorkflowDAO(applicationContext.getBean(ProgramWorkflowDAO.class));
+		Concept trigger = cs.getConcept(14);
+		
+		impl.triggerStateConversion(new Patient(2), trigger, new Date());
+		
+		PatientProgram patientProgram = pws.getPatientProgram(1);
+		assertEquals(trigger, patientProgram.getCurrentState(patientProgram.getProgram().getWorkflow(1)).getState()
+		        .getConcept());
+	}
+	
+	/**
+	 * @see ProgramWorkflowServiceImpl#triggerStateConversion(Patient,Concept,Date)
+	 */
+	@Test
+	public void triggerStateConversion_shouldNotLookUpPatientProgramsIfTheTriggerIsNotTheConceptOfAState() {
+		ProgramWorkflowServiceImpl impl = new ProgramWorkflowServiceImpl();
+		impl.setProgramWorkflowDAO(applicationContext.getBean(ProgramWorkflowDAO.class));
+		Concept notATrigger = cs.getConcept(5089);
+		impl.triggerStateConversion(new Patient(2), notATrigger, new Date());
+		
+		Statistics statistics = ((SessionFactory) applicationContext.getBean("sessionFactory")).getStatistics();
+		boolean statisticsEnabled = statistics.isStatisticsEnabled();
+		statistics.setStatisticsEnabled(true);
+		statistics.clear();
+		try {
+			impl.triggerStateConversion(new Patient(2), notATrigger, new Date());
+			assertEquals(0, statistics.getQueryExecutionCount());
+		}
+		finally {
+			statistics.setStatisticsEnabled(statisticsEnabled);
+		}
+	}
+	
+	/**
+	 * @see ProgramWorkflowServiceImpl#triggerStateConversion(Patient,Concept,Date)
+	 */
+	@Test
+	public void triggerStateConversion_shouldNotKeepTheStatesOfARolledBackTransaction() {
+		ProgramWorkflowServiceImpl impl = new ProgramWorkflowServiceImpl();
+		impl.setProgramWorkflowDAO(applicationContext.getBean(ProgramWorkflowDAO.class));
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		transaction.execute(status -> {
+			Program program = impl.getProgram(1);
+			ProgramWorkflowState state = new ProgramWorkflowState();
+			state.setConcept(cs.getConcept(5089));
+			state.setInitial(false);
+			state.setTerminal(false);
+			state.setCreator(Context.getAuthenticatedUser());
+			state.setDateCreated(new Date());
+			program.getWorkflow(1).addState(state);
+			impl.saveProgram(program);
+			impl.triggerStateConversion(new Patient(2), cs.getConcept(5089), new Date());
+			status.setRollbackOnly();
+			return null;
+		});
+		
+		Concept notATrigger = cs.getConcept(5089);
+		impl.triggerStateConversion(new Patient(2), notATrigger, new Date());
+		Statistics statistics = ((SessionFactory) applicationContext.getBean("sessionFactory")).getStatistics();
+		boolean statisticsEnabled = statistics.isStatisticsEnabled();
+		statistics.setStatisticsEnabled(true);
+		statistics.clear();
+		try {
+			impl.triggerStateConversion(new Patient(2), notATrigger, new Date());
+			assertEquals(0, statistics.getQueryExecutionCount());
+		}
+		finally {
+			statistics.setStatisticsEnabled(statisticsEnabled);
+		}
+	}
+	
 	@Test
 	public void getProgramByName_shouldReturnProgramWhenNameMatches() {
 		Program p = pws.getProgramByName("program name");
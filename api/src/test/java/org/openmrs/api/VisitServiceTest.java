@@ -713,6 +713,31 @@ public class VisitServiceTest extends BaseContextSensitiveTest {
 		assertEquals(0, visits.size());
 	}
 	
+	@Test
+	public void getVisits_shouldGetVisitsMatchingAnyOfTheGivenAttributeValues() throws ParseException {
+		executeDataSet(VISITS_ATTRIBUTES_XML);
+		Map<VisitAttributeType, Object> attrs = new HashMap<>();
+		attrs.put(visitService.getVisitAttributeType(1), new SimpleDateFormat("yyyy-MM-dd").parse("2011-04-25"));
+		attrs.put(visitService.getVisitAttributeType(2), new SimpleDateFormat("yyyy-MM-dd").parse("1411-04-25"));
+		List<Visit> visits = visitService.getVisits(null, null, null, null, null, null, null, null, attrs, true, false);
+		assertEquals(1, visits.size());
+		assertEquals(Integer.valueOf(1), visits.get(0).getVisitId());
+	}
+	
+	@Test
+	public void getVisits_shouldNotMatchVoidedAttributes() throws ParseException {
+		executeDataSet(VISITS_ATTRIBUTES_XML);
+		Visit visit = visitService.getVisit(1);
+		visit.getActiveAttributes().iterator().next().setVoided(true);
+		visitService.saveVisit(visit);
+		Context.flushSession();
+		
+		Map<VisitAttributeType, Object> attrs = new HashMap<>();
+		attrs.put(visitService.getVisitAttributeType(1), new SimpleDateFormat("yyyy-MM-dd").parse("2011-04-25"));
+		List<Visit> visits = visitService.getVisits(null, null, null, null, null, null, null, null, attrs, true, false);
+		assertEquals(0, visits.size());
+	}
+	
 	/**
 	 * @see VisitService#saveVisit(Visit)
 	 */
@@ -9,9 +9,21 @@
  */
 package org.openmrs.api.context;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
 
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.hibernate.search.FullTextSession;
+import org.hibernate.search.engine.ProjectionConstants;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.Test;
@@ -20,8 +32,11 @@ import org.openmrs.Person;
 import org.openmrs.PersonName;
 import org.openmrs.User;
 import org.openmrs.api.APIException;
+import org.openmrs.api.AdministrationService;
 import org.openmrs.api.PatientService;
 import org.openmrs.api.UserService;
+import org.openmrs.api.db.FullTextSessionFactory;
+import org.openmrs.api.db.hibernate.search.SearchIndexProgress;
 import org.openmrs.api.handler.EncounterVisitHandler;
 import org.openmrs.api.handler.ExistingOrNewVisitAssignmentHandler;
 import org.openmrs.test.BaseContextSensitiveTest;
@@ -234,4 +249,105 @@ public class ContextTest extends BaseContextSensitiveTest {
 		
 		Context.logout();
 	}
+	
+	/**
+	 * @see Context#updateSearchIndexForType(Class)
+	 */
+	@Test
+	public void updateSearchIndexForType_shouldPurgeDocumentsOfEntitiesThatNoLongerExist() throws Exception {
+		Context.updateSearchIndexForType(PersonName.class);
+		Assert.assertTrue(getIndexedPersonNameIds().contains(22));
+		
+		try (Statement statement = getConnection().createStatement()) {
+			statement.executeUpdate("delete from person_name where person_name_id = 22");
+		}
+		Context.updateSearchIndexForType(PersonName.class);
+		
+		Set<Object> indexedIds = getIndexedPersonNameIds();
+		Assert.assertFalse(indexedIds.contains(22));
+		Assert.assertTrue(indexedIds.contains(2));
+	}
+	
+	/**
+	 * @see Context#updateSearchIndexInPlace()
+	 */
+	@Test
+	public void updateSearchIndexInPlace_shouldIndexAllEntitiesAndReportProgress() {
+		Context.updateSearchIndexInPlace();
+		
+		SearchIndexProgress progress = Context.getSearchIndexProgress();
+		Assert.assertTrue(progress.isCompleted());
+		Assert.assertTrue(progress.getTotalCount() > 0);
+		Assert.assertEquals(progress.getTotalCount(), progress.getIndexedCount());
+		Assert.assertEquals(Long.valueOf(0), progress.getEstimatedTimeRemaining());
+		Assert.assertTrue(getIndexedPersonNameIds().contains(2));
+	}
+	
+	/**
+	 * @see Context#updateSearchIndexInPlace()
+	 */
+	@Test
+	public void updateSearchIndexInPlace_shouldLoadEntitiesWithTheConfiguredThreadsAndBatchSize() {
+		AdministrationService administrationService = Context.getAdministrationService();
+		administrationService.setGlobalProperty(OpenmrsConstants.GP_SEARCH_INDEXER_THREADS_TO_LOAD_OBJECTS, "3");
+		administrationService.setGlobalProperty(OpenmrsConstants.GP_SEARCH_INDEXER_BATCH_SIZE_TO_LOAD_OBJECTS, "2");
+		
+		Context.updateSearchIndexInPlace();
+		
+		SearchIndexProgress progress = Context.getSearchIndexProgress();
+		Assert.assertEquals(progress.getTotalCount(), progress.getIndexedCount());
+		Set<Object> indexedIds = getIndexedPersonNameIds();
+		Assert.assertTrue(indexedIds.contains(2));
+		Assert.assertTrue(indexedIds.contains(22));
+	}
+	
+	/**
+	 * @see Context#updateSearchIndexIncrementally()
+	 */
+	@Test
+	public void updateSearchIndexIncrementally_shouldIndexOnlyEntitiesChangedSinceTheLastUpdate() throws Exception {
+		Context.updateSearchIndexInPlace();
+		Date watermark = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").parse(Context.getAdministrationService()
+		        .getGlobalProperty(OpenmrsConstants.GP_SEARCH_INDEX_WATERMARK_PREFIX + PersonName.class.getName()));
+		
+		// a row saved exactly at the watermark and one saved by a transaction that was still running
+		// when the last update started, so that it has an earlier date but was not indexed
+		insertPersonName(1000, new Timestamp(watermark.getTime()));
+		insertPersonName(1001, new Timestamp(watermark.getTime() - 60000));
+		Assert.assertFalse(getIndexedPersonNameIds().contains(1000));
+		Assert.assertFalse(getIndexedPersonNameIds().contains(1001));
+		
+		Context.updateSearchIndexIncrementally();
+		
+		Set<Object> indexedIds = getIndexedPersonNameIds();
+		Assert.assertTrue(indexedIds.contains(1000));
+		Assert.assertTrue(indexedIds.contains(1001));
+		SearchIndexProgress progress = Context.getSearchIndexProgress();
+		Assert.assertTrue(progress.isCompleted());
+		Assert.assertEquals(2, progress.getTotalCount());
+		Assert.assertEquals(2, progress.getIndexedCount());
+	}
+	
+	private void insertPersonName(int personNameId, Timestamp dateCreated) throws SQLException {
+		try (PreparedStatement statement = getConnection().prepareStatement(
+		    "insert into person_name (person_name_id, preferred, person_id, given_name, family_name, creator, "
+		            + "date_created, voided, uuid) values (?, false, 2, 'Sql', 'Import', 1, ?, false, ?)")) {
+			statement.setInt(1, personNameId);
+			statement.setTimestamp(2, dateCreated);
+			statement.setString(3, UUID.randomUUID().toString());
+			statement.executeUpdate();
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private Set<Object> getIndexedPersonNameIds() {
+		FullTextSession session = applicationContext.getBean(FullTextSessionFactory.class).getFullTextSession();
+		List<Object[]> rows = session.createFullTextQuery(new MatchAllDocsQuery(), PersonName.class).setProjection(
+		    ProjectionConstants.ID).list();
+		Set<Object> ids = new HashSet<>();
+		for (Object[] row : rows) {
+			ids.add(row[0]);
+		}
+		return ids;
+	}
 }
@@ -22,6 +22,8 @@ import javax.annotation.Resource;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.Before;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Test;
 import org.openmrs.User;
 import org.openmrs.UserSessionListener;
@@ -310,6 +312,29 @@ public class ContextDAOTest extends BaseContextSensitiveTest {
 		dao.authenticate("admin", "test");
 	}
 	
+	/**
+	 * @see ContextDAO#authenticate(String,String)
+	 */
+	@Test
+	public void authenticate_shouldLoadTheUserWithItsCredentialsAndPropertiesInOneQuery() {
+		Context.clearSession();
+		
+		Statistics statistics = ((SessionFactory) applicationContext.getBean("sessionFactory")).getStatistics();
+		boolean statisticsEnabled = statistics.isStatisticsEnabled();
+		statistics.setStatisticsEnabled(true);
+		statistics.clear();
+		try {
+			User user = dao.authenticate("admin", "test");
+			user.getUserProperties().size();
+			Assert.assertEquals(1, statistics.getQueryExecutionCount());
+			Assert.assertEquals(0, statistics.getCollectionStatistics(User.class.getName() + ".userProperties")
+			        .getFetchCount());
+		}
+		finally {
+			statistics.setStatisticsEnabled(statisticsEnabled);
+		}
+	}
+	
 	@Test(expected = ContextAuthenticationException.class)
 	public void authenticate_shouldThrowAContextAuthenticationExceptionIfUsernameIsAnEmptyString() {
 		//update a user with a username that is an empty string for this test
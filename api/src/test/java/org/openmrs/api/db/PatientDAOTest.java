@@ -13,6 +13,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 
 import java.io.File;
@@ -23,6 +24,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
@@ -36,6 +38,7 @@ import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.openmrs.Location;
+import org.openmrs.Obs;
 import org.openmrs.Patient;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
@@ -43,6 +46,7 @@ import org.openmrs.Person;
 import org.openmrs.PersonAttribute;
 import org.openmrs.PersonAttributeType;
 import org.openmrs.PersonName;
+import org.openmrs.Visit;
 import org.openmrs.api.AdministrationService;
 import org.openmrs.api.LocationService;
 import org.openmrs.api.PatientService;
@@ -2468,4 +2472,56 @@ public class PatientDAOTest extends BaseContextSensitiveTest {
 		time = System.currentTimeMillis() - time;
 		System.out.println("Anywhere search for 'uric' attribute limited to 15 results returned in " + time + " ms");
 	}
+	
+	/**
+	 * @see PatientDAO#moveVisits(Patient,Patient)
+	 */
+	@Test
+	public void moveVisits_shouldMoveAllVisitsToTheOtherPatient() {
+		Patient from = patientService.getPatient(2);
+		Patient to = patientService.getPatient(6);
+		Visit loadedVisit = Context.getVisitService().getVisit(1);
+		List<Visit> visits = Context.getVisitService().getVisitsByPatient(from, true, true);
+		List<String> uuids = new ArrayList<>();
+		for (Visit visit : visits) {
+			uuids.add(visit.getUuid());
+		}
+		
+		List<String> movedUuids = dao.moveVisits(from, to);
+		
+		assertThat(movedUuids, containsInAnyOrder(uuids.toArray()));
+		assertThat(Context.getVisitService().getVisitsByPatient(from, true, true), is(empty()));
+		Assert.assertEquals(to, loadedVisit.getPatient());
+		Assert.assertEquals(to, Context.getVisitService().getVisit(6).getPatient());
+	}
+	
+	/**
+	 * @see PatientDAO#copyObservationsNotContainedInEncounters(Patient,Patient,String)
+	 */
+	@Test
+	public void copyObservationsNotContainedInEncounters_shouldCopyNonVoidedObsNotContainedInEncountersToTheOtherPatientAndVoidThem() {
+		Patient from = patientService.getPatient(2);
+		Patient to = patientService.getPatient(6);
+		Obs obs = saveObsWithoutEncounter(from);
+		Obs voidedObs = Context.getObsService().voidObs(saveObsWithoutEncounter(from), "testing");
+		
+		List<String> copyUuids = dao.copyObservationsNotContainedInEncounters(from, to, "merged");
+		
+		assertThat(copyUuids, hasSize(1));
+		Obs copy = Context.getObsService().getObsByUuid(copyUuids.get(0));
+		Assert.assertEquals(to, copy.getPerson());
+		Assert.assertEquals(obs, copy.getPreviousVersion());
+		Assert.assertEquals(50.0, copy.getValueNumeric(), 0);
+		Assert.assertFalse(copy.getVoided());
+		Assert.assertEquals(from, obs.getPerson());
+		Assert.assertTrue(obs.getVoided());
+		Assert.assertEquals("merged", obs.getVoidReason());
+		Assert.assertEquals("testing", voidedObs.getVoidReason());
+	}
+	
+	private Obs saveObsWithoutEncounter(Person person) {
+		Obs obs = new Obs(person, Context.getConceptService().getConcept(5089), new Date(), null);
+		obs.setValueNumeric(50.0);
+		return Context.getObsService().saveObs(obs, null);
+	}
 }
@@ -9,10 +9,12 @@
  */
 package org.openmrs.api.db.hibernate;
 
+import org.apache.commons.lang3.StringUtils;
 import org.hibernate.SessionFactory;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.openmrs.GlobalProperty;
 import org.openmrs.Location;
 import org.openmrs.Role;
 import org.openmrs.test.BaseContextSensitiveTest;
@@ -146,4 +148,35 @@ public class HibernateAdministrationDAOTest extends BaseContextSensitiveTest {
 		dao.validate(role, errors);
 		Assert.assertFalse(errors.hasFieldErrors("role"));
 	}
+	
+	/**
+	 * @see HibernateAdministrationDAO#getMaximumPropertyLength(Class,String)
+	 */
+	@Test
+	public void getMaximumPropertyLength_shouldReturnTheLengthOfTheColumnOfTheProperty() {
+		Assert.assertEquals(255, dao.getMaximumPropertyLength(Location.class, "name"));
+		Assert.assertEquals(255, dao.getMaximumPropertyLength(Location.class, "address1"));
+		Assert.assertEquals(255, dao.getMaximumPropertyLength(GlobalProperty.class, "property"));
+	}
+	
+	/**
+	 * @see HibernateAdministrationDAO#getMaximumPropertyLength(Class,String)
+	 */
+	@Test
+	public void getMaximumPropertyLength_shouldReturnMinusOneIfThePropertyHasNoColumn() {
+		Assert.assertEquals(-1, dao.getMaximumPropertyLength(Location.class, "notAProperty"));
+		Assert.assertEquals(-1, dao.getMaximumPropertyLength(Location.class, "childLocations"));
+	}
+	
+	/**
+	 * @see HibernateAdministrationDAO#validate(Object,Errors)
+	 */
+	@Test
+	public void validate_shouldFailValidationIfTheIdentifierIsTooLong() {
+		GlobalProperty globalProperty = new GlobalProperty(StringUtils.repeat("a", 256), "value");
+		Errors errors = new BindException(globalProperty, "globalProperty");
+		dao.validate(globalProperty, errors);
+		Assert.assertTrue(errors.hasFieldErrors("property"));
+		Assert.assertFalse(errors.hasFieldErrors("propertyValue"));
+	}
 }
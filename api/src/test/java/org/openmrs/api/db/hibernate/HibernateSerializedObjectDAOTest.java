@@ -0,0 +1,128 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.thoughtworks.xstream.converters.Converter;
+import com.thoughtworks.xstream.converters.MarshallingContext;
+import com.thoughtworks.xstream.converters.UnmarshallingContext;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+import org.junit.Before;
+import org.junit.Test;
+import org.openmrs.Concept;
+import org.openmrs.Program;
+import org.openmrs.api.context.Context;
+import org.openmrs.api.db.SerializedObject;
+import org.openmrs.api.db.SerializedObjectDAO;
+import org.openmrs.serialization.SimpleXStreamSerializer;
+import org.openmrs.test.BaseContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+public class HibernateSerializedObjectDAOTest extends BaseContextSensitiveTest {
+	
+	@Autowired
+	private SerializedObjectDAO dao;
+	
+	private SerializedObject serializedObject;
+	
+	@Before
+	public void createSerializedObject() throws Exception {
+		Program program = new Program();
+		program.setName("TestProgram");
+		
+		serializedObject = new SerializedObject();
+		serializedObject.setId(1);
+		serializedObject.setUuid("c3b0bf4f-7d5e-4c9e-9ad6-6f29a1c8e7a1");
+		serializedObject.setType(Program.class.getName());
+		serializedObject.setSubtype(Program.class.getName());
+		serializedObject.setSerializationClass(SimpleXStreamSerializer.class);
+		serializedObject.setDateChanged(new Date());
+		serializedObject.setSerializedData(Context.getSerializationService().serialize(program,
+		    SimpleXStreamSerializer.class));
+	}
+	
+	/**
+	 * @see HibernateSerializedObjectDAO#convertSerializedObject(Class, SerializedObject)
+	 */
+	@Test
+	public void convertSerializedObject_shouldReturnACopyOfTheDeserializedObjectIfTheSerializedObjectIsUnchanged() {
+		Program first = dao.convertSerializedObject(Program.class, serializedObject);
+		first.setName("ChangedWithoutSaving");
+		
+		Program second = dao.convertSerializedObject(Program.class, serializedObject);
+		
+		assertNotSame(first, second);
+		assertEquals("TestProgram", second.getName());
+		assertEquals(serializedObject.getUuid(), second.getUuid());
+		assertEquals(serializedObject.getId(), second.getId());
+	}
+	
+	/**
+	 * @see HibernateSerializedObjectDAO#convertSerializedObject(Class, SerializedObject)
+	 */
+	@Test
+	public void convertSerializedObject_shouldDeserializeAgainIfTheSerializedObjectChanged() {
+		dao.convertSerializedObject(Program.class, serializedObject);
+		serializedObject.setSerializedData(serializedObject.getSerializedData().replace("TestProgram", "ChangedProgram"));
+		
+		Program second = dao.convertSerializedObject(Program.class, serializedObject);
+		
+		assertEquals("ChangedProgram", second.getName());
+	}
+	
+	/**
+	 * @see HibernateSerializedObjectDAO#convertSerializedObject(Class, SerializedObject)
+	 */
+	@Test
+	public void convertSerializedObject_shouldCopyObjectsThatReferToEntitiesOfTheSession() throws Exception {
+		// resolve the concept of a program by uuid, the way module converters refer to metadata
+		AtomicInteger conceptsRead = new AtomicInteger();
+		SimpleXStreamSerializer serializer = (SimpleXStreamSerializer) Context.getSerializationService().getSerializer(
+		    SimpleXStreamSerializer.class);
+		serializer.getXstream().registerLocalConverter(Program.class, "concept", new Converter() {
+			
+			@Override
+			public boolean canConvert(Class type) {
+				return Concept.class.isAssignableFrom(type);
+			}
+			
+			@Override
+			public void marshal(Object source, HierarchicalStreamWriter writer, MarshallingContext context) {
+				writer.setValue(((Concept) source).getUuid());
+			}
+			
+			@Override
+			public Object unmarshal(HierarchicalStreamReader reader, UnmarshallingContext context) {
+				conceptsRead.incrementAndGet();
+				return Context.getConceptService().getConceptByUuid(reader.getValue());
+			}
+		});
+		Concept concept = Context.getConceptService().getConcept(5089);
+		Program program = new Program();
+		program.setName("TestProgram");
+		program.setConcept(concept);
+		serializedObject.setUuid("0a4ac2f9-4b39-4e6e-a9a3-5c7d43a0d6b2");
+		serializedObject.setSerializedData(serializer.serialize(program));
+		
+		Program first = dao.convertSerializedObject(Program.class, serializedObject);
+		Program second = dao.convertSerializedObject(Program.class, serializedObject);
+		
+		assertNotSame(first, second);
+		assertSame(concept, second.getConcept());
+		assertEquals(1, conceptsRead.get());
+	}
+}
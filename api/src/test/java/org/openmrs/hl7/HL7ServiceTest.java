@@ -12,17 +12,24 @@ package org.openmrs.hl7;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 import org.junit.Assert;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.openmrs.Concept;
 import org.openmrs.GlobalProperty;
 import org.openmrs.Obs;
@@ -55,6 +62,9 @@ import ca.uhn.hl7v2.model.v25.segment.PV1;
  */
 public class HL7ServiceTest extends BaseContextSensitiveTest {
 	
+	@Rule
+	public TemporaryFolder archivesFolder = new TemporaryFolder();
+	
 	private static final Logger log = LoggerFactory.getLogger(HL7ServiceTest.class);
 	protected static final String XML_FILENAME = "org/openmrs/api/include/UserServiceTest.xml";
 	
@@ -801,4 +811,56 @@ public class HL7ServiceTest extends BaseContextSensitiveTest {
 		Integer userId = hl7service.resolveUserId(xcn);
 		assertThat(userId, is(502));
 	}
+	
+	/**
+	 * @see HL7Service#migrateHl7InArchivesChunkToFileSystem(Integer,Map)
+	 */
+	@Test
+	public void migrateHl7InArchivesChunkToFileSystem_shouldWriteTheArchivesToFilesAndMarkThemMigrated() throws Exception {
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_HL7_ARCHIVE_DIRECTORY, archivesFolder.newFolder()
+		            .getAbsolutePath()));
+		HL7Service hl7service = Context.getHL7Service();
+		Calendar dateCreated = Calendar.getInstance();
+		dateCreated.add(Calendar.YEAR, -2);
+		for (int i = 0; i < 3; i++) {
+			HL7InArchive archive = new HL7InArchive();
+			archive.setHL7Source(hl7service.getHL7Source(1));
+			archive.setHL7SourceKey("key" + i);
+			archive.setHL7Data("MSH|^~\\&|message " + i);
+			archive.setMessageState(HL7Constants.HL7_STATUS_PROCESSED);
+			archive.setDateCreated(dateCreated.getTime());
+			hl7service.saveHL7InArchive(archive);
+		}
+		// the archives to migrate are read on the connection, outside of the session
+		Context.flushSession();
+		Context.clearSession();
+		
+		// the service itself would migrate each chunk in a transaction of its own, which would be committed
+		Map<String, Integer> progressStatusMap = new HashMap<>();
+		Integer lastArchiveId = null;
+		int chunks = 0;
+		do {
+			lastArchiveId = HL7ServiceImpl.getInstance().migrateHl7InArchivesChunkToFileSystem(lastArchiveId,
+			    progressStatusMap);
+			chunks++;
+		} while (lastArchiveId != null);
+		
+		assertEquals(2, chunks);
+		assertEquals(3, progressStatusMap.get(HL7Constants.NUMBER_TRANSFERRED_KEY).intValue());
+		assertEquals(0, progressStatusMap.get(HL7Constants.NUMBER_OF_FAILED_TRANSFERS_KEY).intValue());
+		List<HL7InArchive> migrated = hl7service.getHL7InArchiveByState(HL7Constants.HL7_STATUS_MIGRATED);
+		assertEquals(3, migrated.size());
+		for (HL7InArchive archive : migrated) {
+			assertTrue(archive.getHL7Data().startsWith("file:"));
+		}
+		
+		hl7service.loadHL7InArchiveData(migrated);
+		Set<String> messages = new HashSet<>();
+		for (HL7InArchive archive : migrated) {
+			messages.add(archive.getHL7Data());
+		}
+		assertEquals(new HashSet<>(Arrays.asList("MSH|^~\\&|message 0", "MSH|^~\\&|message 1", "MSH|^~\\&|message 2")),
+		    messages);
+	}
 }
@@ -0,0 +1,64 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.messagesource.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Locale;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link MutableResourceBundleMessageSource}.
+ */
+public class MutableResourceBundleMessageSourceTest {
+	
+	private static final String BASENAME = "classpath:org/openmrs/messagesource/impl/";
+	
+	private MutableResourceBundleMessageSource messageSource;
+	
+	@Before
+	public void createMessageSource() {
+		messageSource = new MutableResourceBundleMessageSource();
+		messageSource.setFallbackToSystemLocale(false);
+		messageSource.setCacheSeconds(5);
+		messageSource.setBasenames(BASENAME + "custom_test_messages", BASENAME + "test_messages");
+	}
+	
+	/**
+	 * @see MutableResourceBundleMessageSource#resolveCodeWithoutArguments(String, Locale)
+	 */
+	@Test
+	public void resolveCodeWithoutArguments_shouldFallBackToTheMessagesOfLessSpecificLocales() {
+		assertEquals("Allo", messageSource.getMessage("test.greeting", null, Locale.CANADA_FRENCH));
+		assertEquals("Bonjour", messageSource.getMessage("test.greeting", null, Locale.FRANCE));
+		assertEquals("Hello", messageSource.getMessage("test.greeting", null, Locale.GERMAN));
+	}
+	
+	/**
+	 * @see MutableResourceBundleMessageSource#resolveCodeWithoutArguments(String, Locale)
+	 */
+	@Test
+	public void resolveCodeWithoutArguments_shouldPreferAMessageOfAnEarlierBasenameToOneOfAMoreSpecificLocale() {
+		assertEquals("See you later", messageSource.getMessage("test.farewell", null, Locale.CANADA_FRENCH));
+		assertEquals("See you later", messageSource.getMessage("test.farewell", null, Locale.ENGLISH));
+	}
+	
+	/**
+	 * @see MutableResourceBundleMessageSource#resolveCode(String, Locale)
+	 */
+	@Test
+	public void resolveCode_shouldFormatAMessageWithArguments() {
+		assertEquals("Il y a 3 patients", messageSource.getMessage("test.count", new Object[] { 3 }, Locale.CANADA_FRENCH));
+		assertEquals("There are 3 patients", messageSource.getMessage("test.count", new Object[] { 3 }, Locale.ENGLISH));
+		assertEquals("not.a.code", messageSource.getMessage("not.a.code", null, "not.a.code", Locale.ENGLISH));
+	}
+}
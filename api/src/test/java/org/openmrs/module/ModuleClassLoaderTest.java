@@ -10,15 +10,21 @@
 package org.openmrs.module;
 
 import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
+import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.openmrs.test.BaseContextSensitiveTest;
 
 public class ModuleClassLoaderTest extends BaseContextSensitiveTest {
@@ -27,6 +33,9 @@ public class ModuleClassLoaderTest extends BaseContextSensitiveTest {
 	
 	Map<String, String> mockModules;
 	
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+	
 	@Before
 	public void before() {
 		mockModule = new Module("mockmodule", "mockmodule", "org.openmrs.module.mockmodule", "author", "description", "1.0");
@@ -265,4 +274,55 @@ public class ModuleClassLoaderTest extends BaseContextSensitiveTest {
 		
 		assertThat(result, is(true));
 	}
+	
+	/**
+	 * @see ModuleClassLoader#prepareLibCacheFolder(Module, File, boolean)
+	 */
+	@Test
+	public void prepareLibCacheFolder_shouldExpandTheModuleIntoAnEmptyFolder() throws Exception {
+		mockModule.setFile(getModuleFile("test1-1.0-SNAPSHOT.omod"));
+		File folder = temporaryFolder.newFolder();
+		
+		ModuleClassLoader.prepareLibCacheFolder(mockModule, folder, true);
+		
+		assertTrue(new File(folder, "mockmodule.jar").exists());
+		assertTrue(new File(folder, "lib/test1-api-1.0-SNAPSHOT.jar").exists());
+		assertTrue(ModuleClassLoader.isLibCacheFolderComplete(folder));
+	}
+	
+	/**
+	 * @see ModuleClassLoader#prepareLibCacheFolder(Module, File, boolean)
+	 */
+	@Test
+	public void prepareLibCacheFolder_shouldReuseTheFolderIfTheModuleFileHasNotChanged() throws Exception {
+		mockModule.setFile(getModuleFile("test1-1.0-SNAPSHOT.omod"));
+		File folder = temporaryFolder.newFolder();
+		ModuleClassLoader.prepareLibCacheFolder(mockModule, folder, true);
+		File expandedResource = new File(folder, "expandedResource.txt");
+		assertTrue(expandedResource.createNewFile());
+		
+		ModuleClassLoader.prepareLibCacheFolder(mockModule, folder, true);
+		
+		assertTrue(expandedResource.exists());
+	}
+	
+	/**
+	 * @see ModuleClassLoader#prepareLibCacheFolder(Module, File, boolean)
+	 */
+	@Test
+	public void prepareLibCacheFolder_shouldRefillTheFolderIfTheModuleFileHasChanged() throws Exception {
+		mockModule.setFile(getModuleFile("test1-1.0-SNAPSHOT.omod"));
+		File folder = temporaryFolder.newFolder();
+		ModuleClassLoader.prepareLibCacheFolder(mockModule, folder, true);
+		
+		mockModule.setFile(getModuleFile("test1-2.0-SNAPSHOT.omod"));
+		ModuleClassLoader.prepareLibCacheFolder(mockModule, folder, true);
+		
+		assertFalse(new File(folder, "lib/test1-api-1.0-SNAPSHOT.jar").exists());
+		assertTrue(new File(folder, "lib/test1-api-2.0-SNAPSHOT.jar").exists());
+	}
+	
+	private File getModuleFile(String name) throws URISyntaxException {
+		return new File(getClass().getResource("/org/openmrs/module/include/" + name).toURI());
+	}
 }
@@ -173,6 +173,19 @@ public class ModuleFactoryTest extends BaseContextSensitiveTest {
 		Assert.assertFalse(test3.isStarted());
 	}
 	
+	@Test
+	public void loadModules_shouldKeepTheNewestVersionOfAModuleRegardlessOfTheFileOrder() {
+		ModuleFactory.unloadModule(ModuleFactory.getModuleById(MODULE1));
+		
+		List<File> modulesToLoad = new ArrayList<>();
+		modulesToLoad.add(new File(ModuleUtil.class.getClassLoader().getResource(MODULE1_UPDATE_PATH).getPath()));
+		modulesToLoad.addAll(getModuleFiles());
+		
+		ModuleFactory.loadModules(modulesToLoad);
+		Assert.assertEquals(3, ModuleFactory.getLoadedModules().size());
+		Assert.assertEquals("2.0-SNAPSHOT", ModuleFactory.getModuleById(MODULE1).getVersion());
+	}
+	
 	private Module loadModule(String location, String moduleName, boolean replace) {
 		String moduleLocation = ModuleUtil.class.getClassLoader().getResource(location).getPath();
 
@@ -12,6 +12,7 @@ package org.openmrs.obs;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
@@ -52,7 +53,8 @@ public class ImageHandlerTest {
     public void shouldReturnSupportedViews() {
         ImageHandler handler = new ImageHandler();
         String[] actualViews = handler.getSupportedViews();
-        String[] expectedViews = { ComplexObsHandler.RAW_VIEW };
+        String[] expectedViews = { ComplexObsHandler.RAW_VIEW, ComplexObsHandler.THUMBNAIL_VIEW,
+                ComplexObsHandler.PREVIEW_VIEW };
 
         assertArrayEquals(actualViews, expectedViews);
     }
@@ -64,12 +66,19 @@ public class ImageHandlerTest {
         assertTrue(handler.supportsView(ComplexObsHandler.RAW_VIEW));
     }
 
+    @Test
+    public void shouldSupportThumbnailAndPreviewViews() {
+        ImageHandler handler = new ImageHandler();
+
+        assertTrue(handler.supportsView(ComplexObsHandler.THUMBNAIL_VIEW));
+        assertTrue(handler.supportsView(ComplexObsHandler.PREVIEW_VIEW));
+    }
+
     @Test
     public void shouldNotSupportOtherViews() {
         ImageHandler handler = new ImageHandler();
 
         assertFalse(handler.supportsView(ComplexObsHandler.HTML_VIEW));
-        assertFalse(handler.supportsView(ComplexObsHandler.PREVIEW_VIEW));
         assertFalse(handler.supportsView(ComplexObsHandler.TEXT_VIEW));
         assertFalse(handler.supportsView(ComplexObsHandler.TITLE_VIEW));
         assertFalse(handler.supportsView(ComplexObsHandler.URI_VIEW));
@@ -114,4 +123,165 @@ public class ImageHandlerTest {
 		assertEquals(complexObs2.getComplexData().getMimeType(), mimetype);
 	}
 	
+	@Test
+	public void saveObs_shouldWriteThumbnailAndPreviewInTheBackground() throws Exception {
+		mockStatic(Context.class);
+		when(Context.getAdministrationService()).thenReturn(administrationService);
+		when(administrationService.getGlobalProperty(any())).thenReturn(complexObsTestFolder.newFolder().getAbsolutePath());
+		
+		Obs obs = new Obs();
+		obs.setComplexData(new ComplexData("scan.png", new BufferedImage(1000, 500, BufferedImage.TYPE_INT_RGB)));
+		
+		ImageHandler handler = new ImageHandler();
+		handler.saveObs(obs);
+		
+		File original = AbstractHandler.getComplexDataFile(obs);
+		File thumbnailFile = ImageHandler.getDerivativeFile(original, ComplexObsHandler.THUMBNAIL_VIEW);
+		File previewFile = ImageHandler.getDerivativeFile(original, ComplexObsHandler.PREVIEW_VIEW);
+		waitForFile(thumbnailFile);
+		waitForFile(previewFile);
+		BufferedImage thumbnail = ImageIO.read(thumbnailFile);
+		BufferedImage preview = ImageIO.read(previewFile);
+		
+		assertEquals(ImageHandler.THUMBNAIL_MAX_SIZE, thumbnail.getWidth());
+		assertEquals(ImageHandler.THUMBNAIL_MAX_SIZE / 2, thumbnail.getHeight());
+		assertEquals(ImageHandler.PREVIEW_MAX_SIZE, preview.getWidth());
+		assertEquals(ImageHandler.PREVIEW_MAX_SIZE / 2, preview.getHeight());
+	}
+	
+	@Test
+	public void getObs_shouldReturnScaledImageForThumbnailView() throws Exception {
+		mockStatic(Context.class);
+		when(Context.getAdministrationService()).thenReturn(administrationService);
+		when(administrationService.getGlobalProperty(any())).thenReturn(complexObsTestFolder.newFolder().getAbsolutePath());
+		
+		Obs obs = new Obs();
+		obs.setComplexData(new ComplexData("scan.png", new BufferedImage(400, 800, BufferedImage.TYPE_INT_RGB)));
+		
+		ImageHandler handler = new ImageHandler();
+		handler.saveObs(obs);
+		// the thumbnail is written before the preview
+		waitForFile(ImageHandler.getDerivativeFile(AbstractHandler.getComplexDataFile(obs), ComplexObsHandler.PREVIEW_VIEW));
+		
+		ComplexData complexData = handler.getObs(obs, ComplexObsHandler.THUMBNAIL_VIEW).getComplexData();
+		BufferedImage thumbnail = (BufferedImage) complexData.getData();
+		
+		assertEquals("image/png", complexData.getMimeType());
+		assertEquals(ImageHandler.THUMBNAIL_MAX_SIZE / 2, thumbnail.getWidth());
+		assertEquals(ImageHandler.THUMBNAIL_MAX_SIZE, thumbnail.getHeight());
+		assertSame(thumbnail, handler.getObs(obs, ComplexObsHandler.THUMBNAIL_VIEW).getComplexData().getData());
+	}
+	
+	@Test
+	public void getObs_shouldGenerateMissingPreviewFromTheOriginal() throws Exception {
+		mockStatic(Context.class);
+		when(Context.getAdministrationService()).thenReturn(administrationService);
+		when(administrationService.getGlobalProperty(any())).thenReturn(complexObsTestFolder.newFolder().getAbsolutePath());
+		
+		Obs obs = new Obs();
+		obs.setComplexData(new ComplexData("scan.png", new BufferedImage(1600, 1600, BufferedImage.TYPE_INT_RGB)));
+		
+		ImageHandler handler = new ImageHandler();
+		handler.saveObs(obs);
+		
+		File preview = ImageHandler.getDerivativeFile(AbstractHandler.getComplexDataFile(obs), ComplexObsHandler.PREVIEW_VIEW);
+		waitForFile(preview);
+		assertTrue(preview.delete());
+		
+		BufferedImage img = (BufferedImage) handler.getObs(obs, ComplexObsHandler.PREVIEW_VIEW).getComplexData().getData();
+		
+		assertEquals(ImageHandler.PREVIEW_MAX_SIZE, img.getWidth());
+		assertTrue(preview.exists());
+	}
+	
+	@Test
+	public void purgeComplexData_shouldDeleteThumbnailAndPreview() throws Exception {
+		mockStatic(Context.class);
+		when(Context.getAdministrationService()).thenReturn(administrationService);
+		when(administrationService.getGlobalProperty(any())).thenReturn(complexObsTestFolder.newFolder().getAbsolutePath());
+		
+		Obs obs = new Obs();
+		obs.setComplexData(new ComplexData("scan.png", new BufferedImage(1000, 1000, BufferedImage.TYPE_INT_RGB)));
+		
+		ImageHandler handler = new ImageHandler();
+		handler.saveObs(obs);
+		File original = AbstractHandler.getComplexDataFile(obs);
+		waitForFile(ImageHandler.getDerivativeFile(original, ComplexObsHandler.PREVIEW_VIEW));
+		
+		assertTrue(handler.purgeComplexData(obs));
+		
+		assertFalse(original.exists());
+		assertFalse(ImageHandler.getDerivativeFile(original, ComplexObsHandler.THUMBNAIL_VIEW).exists());
+		assertFalse(ImageHandler.getDerivativeFile(original, ComplexObsHandler.PREVIEW_VIEW).exists());
+	}
+	
+	@Test
+	public void purgeComplexData_shouldNotLeaveBehindDerivativesThatWereStillBeingWritten() throws Exception {
+		mockStatic(Context.class);
+		when(Context.getAdministrationService()).thenReturn(administrationService);
+		when(administrationService.getGlobalProperty(any())).thenReturn(complexObsTestFolder.newFolder().getAbsolutePath());
+		
+		ImageHandler handler = new ImageHandler();
+		Obs[] obs = new Obs[5];
+		for (int i = 0; i < obs.length; i++) {
+			obs[i] = new Obs();
+			obs[i].setComplexData(new ComplexData("scan.png", new BufferedImage(2000, 2000, BufferedImage.TYPE_INT_RGB)));
+			handler.saveObs(obs[i]);
+		}
+		for (Obs purged : obs) {
+			assertTrue(handler.purgeComplexData(purged));
+		}
+		// waits for the write that was running, if any
+		handler.destroy();
+		
+		for (Obs purged : obs) {
+			File original = AbstractHandler.getComplexDataFile(purged);
+			assertFalse(original.exists());
+			assertFalse(ImageHandler.getDerivativeFile(original, ComplexObsHandler.THUMBNAIL_VIEW).exists());
+			assertFalse(ImageHandler.getDerivativeFile(original, ComplexObsHandler.PREVIEW_VIEW).exists());
+		}
+	}
+	
+	@Test
+	public void destroy_shouldStopWritingDerivativesInTheBackground() throws Exception {
+		mockStatic(Context.class);
+		when(Context.getAdministrationService()).thenReturn(administrationService);
+		when(administrationService.getGlobalProperty(any())).thenReturn(complexObsTestFolder.newFolder().getAbsolutePath());
+		
+		ImageHandler handler = new ImageHandler();
+		handler.destroy();
+		
+		Obs obs = new Obs();
+		obs.setComplexData(new ComplexData("scan.png", new BufferedImage(1000, 500, BufferedImage.TYPE_INT_RGB)));
+		handler.saveObs(obs);
+		
+		File original = AbstractHandler.getComplexDataFile(obs);
+		assertTrue(original.exists());
+		assertFalse(ImageHandler.getDerivativeFile(original, ComplexObsHandler.THUMBNAIL_VIEW).exists());
+		BufferedImage thumbnail = (BufferedImage) handler.getObs(obs, ComplexObsHandler.THUMBNAIL_VIEW).getComplexData()
+		        .getData();
+		assertEquals(ImageHandler.THUMBNAIL_MAX_SIZE, thumbnail.getWidth());
+	}
+	
+	@Test
+	public void getDerivativeFile_shouldPutDerivativesInTheirOwnDirectory() {
+		File original = new File(complexObsTestFolder.getRoot(), "scan_1234.png");
+		
+		File thumbnail = ImageHandler.getDerivativeFile(original, ComplexObsHandler.THUMBNAIL_VIEW);
+		File preview = ImageHandler.getDerivativeFile(original, ComplexObsHandler.PREVIEW_VIEW);
+		
+		assertEquals(new File(new File(complexObsTestFolder.getRoot(), "thumbnails"), "scan_1234.png"), thumbnail);
+		assertEquals(new File(new File(complexObsTestFolder.getRoot(), "previews"), "scan_1234.png"), preview);
+	}
+	
+	/**
+	 * The scaled down copies are written in the background after the obs is saved
+	 */
+	private void waitForFile(File file) throws InterruptedException {
+		for (int i = 0; i < 100 && !file.exists(); i++) {
+			Thread.sleep(50);
+		}
+		assertTrue(file.getAbsolutePath() + " was not written", file.exists());
+	}
+	
 }
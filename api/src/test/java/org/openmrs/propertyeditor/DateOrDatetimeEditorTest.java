@@ -68,6 +68,16 @@ public class DateOrDatetimeEditorTest {
 		Assert.assertEquals(ymdhm.parse("2011-10-27 17:59"), ed.getValue());
 	}
 	
+	/**
+	 * @throws ParseException
+	 * @see DateOrDatetimeEditor#setAsText(String)
+	 */
+	@Test
+	public void setAsText_shouldRollATimePastMidnightOverToTheNextDay() throws ParseException {
+		ed.setAsText("27/10/2011 24:30");
+		Assert.assertEquals(ymdhm.parse("2011-10-28 00:30"), ed.getValue());
+	}
+	
 	/**
 	 * @see DateOrDatetimeEditor#setAsText(String)
 	 */
@@ -136,4 +136,16 @@ public class SimpleXStreamSerializerTest {
 		expectedException.expect(XStreamException.class);
 		new SimpleXStreamSerializer().serialize(proxy);
 	}
+	
+	/**
+	 * @throws SerializationException
+	 * @see SimpleXStreamSerializer#deserialize(String,Class)
+	 */
+	@Test
+	public void deserialize_shouldNotDeserializeTypesThatAreNotAllowed() throws SerializationException {
+		String xml = "<java.lang.ProcessBuilder><command><string>someApp</string></command></java.lang.ProcessBuilder>";
+		
+		expectedException.expect(SerializationException.class);
+		new SimpleXStreamSerializer().deserialize(xml, Object.class);
+	}
 }
@@ -91,6 +91,7 @@ import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestExecutionListeners;
 import org.springframework.test.context.junit4.AbstractJUnit4SpringContextTests;
@@ -887,6 +888,18 @@ public abstract class BaseContextSensitiveTest extends AbstractJUnit4SpringConte
 		sf.getCache().evictEntityRegions();
 	}
 	
+	/**
+	 * Method to clear the caches of the api cache manager, since their entries are not rolled back
+	 * together with the data of the previous test
+	 */
+	@Before
+	public void clearApiCache() {
+		CacheManager cacheManager = (CacheManager) applicationContext.getBean("apiCacheManager");
+		for (String cacheName : cacheManager.getCacheNames()) {
+			cacheManager.getCache(cacheName).clear();
+		}
+	}
+	
 	/**
 	 * This method is run before all test methods that extend this {@link BaseContextSensitiveTest}
 	 * unless you annotate your method with the "@SkipBaseSetup" annotation After running this
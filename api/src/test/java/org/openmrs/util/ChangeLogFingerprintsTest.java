@@ -0,0 +1,128 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.util;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests {@link ChangeLogFingerprints} against an H2 database
+ */
+public class ChangeLogFingerprintsTest {
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private Connection connection;
+	
+	private ChangeLogFingerprints fingerprints;
+	
+	private File changeLog;
+	
+	private File includedChangeLog;
+	
+	private final ClassLoader cl = getClass().getClassLoader();
+	
+	@Before
+	public void setUp() throws IOException, SQLException {
+		connection = DriverManager.getConnection("jdbc:h2:mem:fingerprints", "sa", "");
+		execute("create table liquibasechangelog (id varchar(255), author varchar(255), filename varchar(255), md5sum varchar(35))");
+		execute("insert into liquibasechangelog values ('1', 'test', 'liquibase.xml', '7:abc')");
+		
+		fingerprints = new ChangeLogFingerprints(folder.newFile());
+		includedChangeLog = folder.newFile("included.xml");
+		write(includedChangeLog, "<databaseChangeLog><changeSet id=\"2\" author=\"test\"/></databaseChangeLog>");
+		changeLog = folder.newFile("liquibase.xml");
+		write(changeLog, "<databaseChangeLog>\n<changeSet id=\"1\" author=\"test\"/>\n"
+		        + "<include file=\"included.xml\" relativeToChangelogFile=\"true\"/>\n</databaseChangeLog>");
+	}
+	
+	@After
+	public void tearDown() throws SQLException {
+		execute("drop table liquibasechangelog");
+		connection.close();
+	}
+	
+	/**
+	 * @see ChangeLogFingerprints#isUpToDate(String, String, ClassLoader, Connection)
+	 */
+	@Test
+	public void isUpToDate_shouldReturnTrueForAChangelogThatWasMarkedUpToDate() throws Exception {
+		String path = changeLog.getAbsolutePath();
+		assertFalse(fingerprints.isUpToDate(path, null, cl, connection));
+		
+		fingerprints.markUpToDate(path, null, cl, connection);
+		
+		assertTrue(fingerprints.isUpToDate(path, null, cl, connection));
+		assertFalse(fingerprints.isUpToDate(path, "core", cl, connection));
+	}
+	
+	/**
+	 * @see ChangeLogFingerprints#isUpToDate(String, String, ClassLoader, Connection)
+	 */
+	@Test
+	public void isUpToDate_shouldReturnFalseIfTheChangelogHasChanged() throws Exception {
+		String path = changeLog.getAbsolutePath();
+		fingerprints.markUpToDate(path, null, cl, connection);
+		
+		write(includedChangeLog, "<databaseChangeLog><changeSet id=\"3\" author=\"test\"/></databaseChangeLog>");
+		
+		assertFalse(fingerprints.isUpToDate(path, null, cl, connection));
+	}
+	
+	/**
+	 * @see ChangeLogFingerprints#isUpToDate(String, String, ClassLoader, Connection)
+	 */
+	@Test
+	public void isUpToDate_shouldReturnFalseIfAChangesetWasAppliedSince() throws Exception {
+		String path = changeLog.getAbsolutePath();
+		fingerprints.markUpToDate(path, null, cl, connection);
+		
+		execute("insert into liquibasechangelog values ('1', 'test', 'module/liquibase.xml', '7:def')");
+		
+		assertFalse(fingerprints.isUpToDate(path, null, cl, connection));
+	}
+	
+	/**
+	 * @see ChangeLogFingerprints#isUpToDate(String, String, ClassLoader, Connection)
+	 */
+	@Test
+	public void isUpToDate_shouldReturnFalseForAChangelogThatCannotBeFound() throws Exception {
+		String path = new File(folder.getRoot(), "missing.xml").getAbsolutePath();
+		fingerprints.markUpToDate(path, null, cl, connection);
+		
+		assertFalse(fingerprints.isUpToDate(path, null, cl, connection));
+	}
+	
+	private void execute(String sql) throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute(sql);
+		}
+	}
+	
+	private void write(File file, String contents) throws IOException {
+		Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+	}
+}
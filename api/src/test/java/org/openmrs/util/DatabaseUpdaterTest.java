@@ -9,8 +9,24 @@
  */
 package org.openmrs.util;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.openmrs.test.BaseContextSensitiveTest;
+import org.openmrs.util.DatabaseUpdater.ChangeSetExecutorCallback;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,6 +40,9 @@ public class DatabaseUpdaterTest extends BaseContextSensitiveTest {
 	
 	private static final Logger log = LoggerFactory.getLogger(DatabaseUpdaterTest.class);
 	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
 	/**
 	 * @throws LockException
 	 * @see DatabaseUpdater#updatesRequired()
@@ -40,4 +59,81 @@ public class DatabaseUpdaterTest extends BaseContextSensitiveTest {
 		}
 		// does not run DatabaseUpdater.update() because hsqldb doesn't like single quotes in strings
 	}
+	
+	/**
+	 * @see DatabaseUpdater#executeChangelog(String,String,java.util.Map,ChangeSetExecutorCallback,ClassLoader)
+	 */
+	@Test
+	public void executeChangelog_shouldRunLiquibaseIfTheChangelogChangedSinceItWasFullyApplied() throws Exception {
+		File changeLog = folder.newFile("fingerprinted-changelog.xml");
+		List<String> executed = new ArrayList<>();
+		try {
+			writeChangeLog(changeLog, "1");
+			executeChangelog(changeLog, executed);
+			assertEquals(Collections.singletonList("1"), executed);
+			
+			executed.clear();
+			writeChangeLog(changeLog, "1", "2");
+			executeChangelog(changeLog, executed);
+			assertEquals(Collections.singletonList("2"), executed);
+		}
+		finally {
+			deleteChangeLogRows(changeLog);
+		}
+	}
+	
+	/**
+	 * @see DatabaseUpdater#executeChangelog(String,String,java.util.Map,ChangeSetExecutorCallback,ClassLoader)
+	 */
+	@Test
+	public void executeChangelog_shouldSkipLiquibaseIfTheChangelogIsUnchangedSinceItWasFullyApplied() throws Exception {
+		File changeLog = folder.newFile("fingerprinted-changelog.xml");
+		List<String> executed = new ArrayList<>();
+		try {
+			writeChangeLog(changeLog, "1");
+			executeChangelog(changeLog, executed);
+			assertEquals(Collections.singletonList("1"), executed);
+			
+			// Liquibase would run the new changeset, so it is only skipped if the fingerprint is trusted
+			executed.clear();
+			writeChangeLog(changeLog, "1", "2");
+			try (Connection connection = DatabaseUpdater.getConnection()) {
+				ChangeLogFingerprints.getInstance().markUpToDate(changeLog.getAbsolutePath(), null, getClass()
+				        .getClassLoader(), connection);
+			}
+			executeChangelog(changeLog, executed);
+			assertTrue(executed.isEmpty());
+		}
+		finally {
+			deleteChangeLogRows(changeLog);
+		}
+	}
+	
+	private void executeChangelog(File changeLog, List<String> executed) throws Exception {
+		DatabaseUpdater.executeChangelog(changeLog.getAbsolutePath(), null, null,
+		    (changeSet, numChangeSetsToRun) -> executed.add(changeSet.getId()), getClass().getClassLoader());
+	}
+	
+	private void writeChangeLog(File changeLog, String... changeSetIds) throws Exception {
+		StringBuilder xml = new StringBuilder("<databaseChangeLog xmlns=\"http://www.liquibase.org/xml/ns/dbchangelog\" "
+		        + "xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:schemaLocation=\""
+		        + "http://www.liquibase.org/xml/ns/dbchangelog http://www.liquibase.org/xml/ns/dbchangelog/dbchangelog-2.0.xsd\">\n");
+		for (String id : changeSetIds) {
+			xml.append("<changeSet id=\"").append(id).append("\" author=\"test\"><sql>select 1</sql></changeSet>\n");
+		}
+		xml.append("</databaseChangeLog>");
+		Files.write(changeLog.toPath(), xml.toString().getBytes(StandardCharsets.UTF_8));
+	}
+	
+	/**
+	 * Liquibase runs on connections of its own, so what it records is not rolled back with the test
+	 */
+	private void deleteChangeLogRows(File changeLog) throws Exception {
+		try (Connection connection = DatabaseUpdater.getConnection();
+		        PreparedStatement statement = connection.prepareStatement("delete from liquibasechangelog where filename = ?")) {
+			statement.setString(1, changeLog.getAbsolutePath());
+			statement.executeUpdate();
+		}
+		new File(OpenmrsUtil.getApplicationDataDirectory(), ChangeLogFingerprints.FINGERPRINTS_FILE_NAME).delete();
+	}
 }
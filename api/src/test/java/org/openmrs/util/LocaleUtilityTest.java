@@ -269,6 +269,35 @@ public class LocaleUtilityTest extends BaseContextSensitiveTest {
 		    new GlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_DEFAULT_LOCALE, ""));
 	}
 	
+	/**
+	 * @see LocaleUtility#getSharedLocalesInOrder()
+	 */
+	@Test
+	public void getSharedLocalesInOrder_shouldReturnTheSameSetUntilTheAllowedLocalesChange() {
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_LOCALE_ALLOWED_LIST, "en_GB, en"));
+		Context.setLocale(Locale.UK);
+		Set<Locale> localesInOrder = LocaleUtility.getSharedLocalesInOrder();
+		Assert.assertSame(localesInOrder, LocaleUtility.getSharedLocalesInOrder());
+		Assert.assertFalse(localesInOrder.contains(new Locale("sw", "KE")));
+		
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_LOCALE_ALLOWED_LIST, "en_GB, sw_KE, en"));
+		Assert.assertTrue(LocaleUtility.getSharedLocalesInOrder().contains(new Locale("sw", "KE")));
+	}
+	
+	/**
+	 * @see LocaleUtility#getLocalesInOrder()
+	 */
+	@Test
+	public void getLocalesInOrder_shouldReturnASetThatCanBeModified() {
+		Set<Locale> localesInOrder = LocaleUtility.getLocalesInOrder();
+		localesInOrder.add(Locale.CHINESE);
+		
+		Assert.assertTrue(localesInOrder.contains(Locale.CHINESE));
+		Assert.assertFalse(LocaleUtility.getLocalesInOrder().contains(Locale.CHINESE));
+	}
+	
 	/**
 	 * This test doesn't really test anything, and it should ALWAYS be the last method in this
 	 * class. <br>
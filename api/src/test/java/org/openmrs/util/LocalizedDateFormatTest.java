@@ -0,0 +1,145 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+import org.junit.Test;
+
+public class LocalizedDateFormatTest {
+	
+	private final SimpleDateFormat ymdhm = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+	
+	/**
+	 * @see LocalizedDateFormat#getInstance(Locale)
+	 */
+	@Test
+	public void getInstance_shouldReturnTheSameInstanceForTheSameLocale() {
+		assertSame(LocalizedDateFormat.getInstance(Locale.UK), LocalizedDateFormat.getInstance(new Locale("en", "GB")));
+	}
+	
+	/**
+	 * @see LocalizedDateFormat#getDatePattern()
+	 */
+	@Test
+	public void getDatePattern_shouldReturnAPatternWithFourYCharactersInIt() {
+		assertEquals("MM/dd/yyyy", LocalizedDateFormat.getInstance(Locale.US).getDatePattern());
+		assertEquals("dd/MM/yyyy", LocalizedDateFormat.getInstance(Locale.UK).getDatePattern());
+		assertEquals("dd-MM-yyyy", LocalizedDateFormat.getInstance(new Locale("pt", "pt")).getDatePattern());
+	}
+	
+	/**
+	 * @see LocalizedDateFormat#getTimePattern()
+	 */
+	@Test
+	public void getTimePattern_shouldReturnAPatternWithTwoHCharactersInIt() {
+		assertEquals("hh:mm a", LocalizedDateFormat.getInstance(Locale.US).getTimePattern());
+		assertEquals("HH:mm", LocalizedDateFormat.getInstance(Locale.UK).getTimePattern());
+	}
+	
+	/**
+	 * @see LocalizedDateFormat#formatDate(Date)
+	 */
+	@Test
+	public void formatDate_shouldFormatADateLikeTheDateFormatOfOpenmrsUtil() throws ParseException {
+		Date date = ymdhm.parse("2011-10-07 17:59");
+		for (Locale locale : new Locale[] { Locale.US, Locale.UK, Locale.GERMAN, Locale.FRENCH }) {
+			assertEquals(OpenmrsUtil.getDateFormat(locale).format(date), LocalizedDateFormat.getInstance(locale).formatDate(
+			    date));
+		}
+		assertEquals("10/07/2011", LocalizedDateFormat.getInstance(Locale.US).formatDate(new java.sql.Date(date.getTime())));
+	}
+	
+	/**
+	 * @see LocalizedDateFormat#formatDateTime(Date)
+	 */
+	@Test
+	public void formatDateTime_shouldFormatADateLikeTheDatetimeFormatOfOpenmrsUtil() throws ParseException {
+		Date date = ymdhm.parse("2011-10-07 17:59");
+		assertEquals("10/07/2011 05:59 PM", LocalizedDateFormat.getInstance(Locale.US).formatDateTime(date));
+		assertEquals("07/10/2011 17:59", LocalizedDateFormat.getInstance(Locale.UK).formatDateTime(date));
+	}
+	
+	/**
+	 * @see LocalizedDateFormat#parseDate(String)
+	 */
+	@Test
+	public void parseDate_shouldParseAValidDate() throws ParseException {
+		assertEquals(ymdhm.parse("2001-12-20 00:00"), LocalizedDateFormat.getInstance(Locale.UK).parseDate("20/12/2001"));
+		assertEquals(ymdhm.parse("2001-12-20 00:00"), LocalizedDateFormat.getInstance(Locale.US).parseDate("12/20/2001"));
+	}
+	
+	/**
+	 * @see LocalizedDateFormat#parseDate(String)
+	 */
+	@Test
+	public void parseDate_shouldAllowSingleDigitDaysAndMonths() throws ParseException {
+		assertEquals(ymdhm.parse("2001-02-03 00:00"), LocalizedDateFormat.getInstance(Locale.US).parseDate("2/3/2001"));
+	}
+	
+	/**
+	 * @see LocalizedDateFormat#parseDate(String)
+	 */
+	@Test(expected = ParseException.class)
+	public void parseDate_shouldNotAllowDatesWithInvalidDaysOrMonths() throws ParseException {
+		LocalizedDateFormat.getInstance(Locale.UK).parseDate("31/02/2001");
+	}
+	
+	/**
+	 * @see LocalizedDateFormat#parseDate(String)
+	 */
+	@Test(expected = ParseException.class)
+	public void parseDate_shouldNotAllowTwoDigitYears() throws ParseException {
+		LocalizedDateFormat.getInstance(Locale.US).parseDate("01/01/01");
+	}
+	
+	/**
+	 * @see LocalizedDateFormat#parseDateTime(String)
+	 */
+	@Test
+	public void parseDateTime_shouldParseAValidDateAndTime() throws ParseException {
+		assertEquals(ymdhm.parse("2011-10-07 17:59"), LocalizedDateFormat.getInstance(Locale.US).parseDateTime(
+		    "10/07/2011 05:59 pm"));
+		assertEquals(ymdhm.parse("2011-10-07 17:59"), LocalizedDateFormat.getInstance(Locale.UK).parseDateTime(
+		    "07/10/2011 17:59"));
+	}
+	
+	/**
+	 * @see LocalizedDateFormat#parseDateTime(String)
+	 */
+	@Test(expected = ParseException.class)
+	public void parseDateTime_shouldNotParseADateWithoutATime() throws ParseException {
+		LocalizedDateFormat.getInstance(Locale.UK).parseDateTime("07/10/2011");
+	}
+	
+	/**
+	 * @see LocalizedDateFormat#parseDateTime(String,boolean)
+	 */
+	@Test
+	public void parseDateTime_shouldRollOutOfRangeFieldsOverIfLenient() throws ParseException {
+		LocalizedDateFormat format = LocalizedDateFormat.getInstance(Locale.UK);
+		assertEquals(ymdhm.parse("2011-10-08 00:30"), format.parseDateTime("07/10/2011 24:30", true));
+		assertEquals(ymdhm.parse("2011-10-02 17:59"), format.parseDateTime("32/09/2011 17:59", true));
+	}
+	
+	/**
+	 * @see LocalizedDateFormat#parseDateTime(String,boolean)
+	 */
+	@Test(expected = ParseException.class)
+	public void parseDateTime_shouldRejectOutOfRangeFieldsIfNotLenient() throws ParseException {
+		LocalizedDateFormat.getInstance(Locale.UK).parseDateTime("07/10/2011 24:30", false);
+	}
+}
@@ -13,6 +13,7 @@ import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.isA;
 
+import java.util.Collections;
 import java.util.Locale;
 
 import org.junit.Assert;
@@ -89,6 +90,55 @@ public class PatientIdentifierValidatorTest extends BaseContextSensitiveTest {
 		PatientIdentifierValidator.validateIdentifier(pi);
 	}
 	
+	/**
+	 * @see PatientIdentifierValidator#validateIdentifier(PatientIdentifier,boolean)
+	 */
+	@Test
+	public void validateIdentifier_shouldNotCheckIfAnotherPatientHasTheIdentifierIfCheckInUseIsFalse() {
+		PatientIdentifier pi = Context.getPatientService().getPatientIdentifiers("7TU-8", null, null, null, null).get(0);
+		pi.setIdentifier("101-6");
+		PatientIdentifierValidator.validateIdentifier(pi, false);
+	}
+	
+	/**
+	 * @see PatientIdentifierValidator#validateIdentifiersNotInUse(java.util.Collection)
+	 */
+	@Test(expected = IdentifierNotUniqueException.class)
+	public void validateIdentifiersNotInUse_shouldFailValidationIfAnotherPatientHasAMatchingIdentifierOfTheSameType() {
+		PatientIdentifier pi = Context.getPatientService().getPatientIdentifiers("7TU-8", null, null, null, null).get(0);
+		pi.setIdentifier("101-6");
+		PatientIdentifierValidator.validateIdentifiersNotInUse(Collections.singletonList(pi));
+	}
+	
+	/**
+	 * @see PatientIdentifierValidator#validateIdentifiersNotInUse(java.util.Collection)
+	 */
+	@Test
+	public void validateIdentifiersNotInUse_shouldPassIfInUseAndIdTypeUniquenessIsSetToNonUnique() {
+		PatientService patientService = Context.getPatientService();
+		PatientIdentifier duplicateId = patientService.getPatientIdentifier(1);
+		
+		PatientIdentifierType idType = duplicateId.getIdentifierType();
+		idType.setUniquenessBehavior(UniquenessBehavior.NON_UNIQUE);
+		patientService.savePatientIdentifierType(idType);
+		
+		PatientIdentifier pi = new PatientIdentifier(duplicateId.getIdentifier(), idType, duplicateId.getLocation());
+		PatientIdentifierValidator.validateIdentifiersNotInUse(Collections.singletonList(pi));
+	}
+	
+	/**
+	 * @see PatientIdentifierValidator#validateIdentifiersNotInUse(java.util.Collection)
+	 */
+	@Test
+	public void validateIdentifiersNotInUse_shouldPassIfTheIdentifierInUseIsVoided() {
+		PatientIdentifier pi = Context.getPatientService().getPatientIdentifiers("7TU-8", null, null, null, null).get(0);
+		pi.setIdentifier("101-6");
+		pi.setVoided(true);
+		pi.setVoidedBy(Context.getAuthenticatedUser());
+		pi.setVoidReason("Testing");
+		PatientIdentifierValidator.validateIdentifiersNotInUse(Collections.singletonList(pi));
+	}
+	
 	/**
 	 * @see PatientIdentifierValidator#validateIdentifier(String,PatientIdentifierType)
 	 */
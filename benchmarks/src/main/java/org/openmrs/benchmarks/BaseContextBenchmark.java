@@ -0,0 +1,66 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Superclass for benchmarks that need a running context. The context is started once for each
+ * fork, and since the session and the authenticated user are bound to the thread, the state is
+ * per thread and the benchmarks are run by a single thread.
+ *
+ * @see BenchmarkContext
+ * @since 2.4.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2g", "-Duser.language=en", "-Duser.region=US",
+        "-Djava.locale.providers=COMPAT" })
+@Threads(1)
+public abstract class BaseContextBenchmark {
+	
+	private BenchmarkContext context;
+	
+	@Setup(Level.Trial)
+	public void startContext() throws Exception {
+		context = new BenchmarkContext();
+		context.start();
+		setUp();
+	}
+	
+	@TearDown(Level.Trial)
+	public void stopContext() throws Exception {
+		context.stop();
+	}
+	
+	/**
+	 * Called once the context is started, to look up what the benchmarks work on
+	 *
+	 * @throws Exception
+	 */
+	protected void setUp() throws Exception {
+	}
+}
@@ -0,0 +1,45 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmarks;
+
+import org.openmrs.test.BaseContextSensitiveTest;
+import org.springframework.test.context.TestContextManager;
+
+/**
+ * Starts the same context as the api tests, backed by the in-memory H2 database with the standard
+ * test dataset, and authenticates the current thread as the test admin user.
+ * <p>
+ * The context is started outside of the JUnit runner, so there is no transaction around the
+ * benchmarks, the service methods open their own just as they do in the web application.
+ *
+ * @since 2.4.0
+ */
+public class BenchmarkContext extends BaseContextSensitiveTest {
+	
+	/**
+	 * Starts the spring context, loads the standard test dataset and authenticates
+	 *
+	 * @throws Exception
+	 */
+	public void start() throws Exception {
+		new TestContextManager(getClass()).prepareTestInstance(this);
+		baseSetupWithStandardDataAndAuthentication();
+	}
+	
+	/**
+	 * Logs out, deletes the test data and closes the session
+	 *
+	 * @throws Exception
+	 */
+	public void stop() throws Exception {
+		clearSessionAfterEachTest();
+		closeSessionAfterEachClass();
+	}
+}
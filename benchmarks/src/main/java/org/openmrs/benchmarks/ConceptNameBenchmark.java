@@ -0,0 +1,55 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmarks;
+
+import java.util.Locale;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openmrs.Concept;
+import org.openmrs.ConceptName;
+import org.openmrs.api.context.Context;
+
+/**
+ * Measures resolving the name of a concept, for the locale it has names in, for a locale it only
+ * has names in a variant of and for a locale it has no names in
+ *
+ * @since 2.4.0
+ */
+public class ConceptNameBenchmark extends BaseContextBenchmark {
+	
+	private Concept concept;
+	
+	@Override
+	protected void setUp() {
+		// WEIGHT (KG), which only has en_GB names
+		concept = Context.getConceptService().getConcept(5089);
+		concept.getNames().size();
+	}
+	
+	@Benchmark
+	public ConceptName getName() {
+		return concept.getName();
+	}
+	
+	@Benchmark
+	public ConceptName getNameInExactLocale() {
+		return concept.getName(Locale.UK);
+	}
+	
+	@Benchmark
+	public ConceptName getNameInLanguage() {
+		return concept.getName(Locale.ENGLISH);
+	}
+	
+	@Benchmark
+	public ConceptName getNameInOtherLocale() {
+		return concept.getName(Locale.FRENCH);
+	}
+}
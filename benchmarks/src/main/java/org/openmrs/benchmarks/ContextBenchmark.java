@@ -0,0 +1,33 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openmrs.api.ConceptService;
+import org.openmrs.api.PatientService;
+import org.openmrs.api.context.Context;
+
+/**
+ * Measures looking up services from the {@link Context}
+ *
+ * @since 2.4.0
+ */
+public class ContextBenchmark extends BaseContextBenchmark {
+	
+	@Benchmark
+	public PatientService getServiceByClass() {
+		return Context.getService(PatientService.class);
+	}
+	
+	@Benchmark
+	public ConceptService getConceptService() {
+		return Context.getConceptService();
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmarks;
+
+import java.text.ParseException;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openmrs.util.LocalizedDateFormat;
+import org.openmrs.util.OpenmrsUtil;
+
+/**
+ * Measures formatting and parsing a date with the {@link java.text.SimpleDateFormat} copy that
+ * {@link OpenmrsUtil#getDateFormat(Locale)} hands out and with the shared
+ * {@link LocalizedDateFormat}. It needs no context, so it does not extend
+ * {@link BaseContextBenchmark}.
+ *
+ * @since 2.4.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2g", "-Duser.language=en", "-Duser.region=US",
+        "-Djava.locale.providers=COMPAT" })
+public class DateFormatBenchmark {
+	
+	private final Locale locale = Locale.UK;
+	
+	private Date date;
+	
+	private String text;
+	
+	@Setup
+	public void setUp() {
+		date = new Date();
+		text = LocalizedDateFormat.getInstance(locale).formatDate(date);
+	}
+	
+	@Benchmark
+	public String formatWithSimpleDateFormat() {
+		return OpenmrsUtil.getDateFormat(locale).format(date);
+	}
+	
+	@Benchmark
+	public String formatWithLocalizedDateFormat() {
+		return LocalizedDateFormat.getInstance(locale).formatDate(date);
+	}
+	
+	@Benchmark
+	public Date parseWithSimpleDateFormat() throws ParseException {
+		return OpenmrsUtil.getDateFormat(locale).parse(text);
+	}
+	
+	@Benchmark
+	public Date parseWithLocalizedDateFormat() throws ParseException {
+		return LocalizedDateFormat.getInstance(locale).parseDate(text);
+	}
+}
@@ -0,0 +1,94 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmarks;
+
+import java.util.Date;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openmrs.Concept;
+import org.openmrs.Encounter;
+import org.openmrs.EncounterRole;
+import org.openmrs.EncounterType;
+import org.openmrs.Location;
+import org.openmrs.Obs;
+import org.openmrs.Patient;
+import org.openmrs.Provider;
+import org.openmrs.api.EncounterService;
+import org.openmrs.api.context.Context;
+import org.openmrs.util.OpenmrsConstants;
+
+/**
+ * Measures saving a new encounter with {@link #OBS_PER_ENCOUNTER} new obs, with the new obs saved
+ * one by one and in one pass, see {@link OpenmrsConstants#GP_ENCOUNTER_SAVE_NEW_OBS_IN_ONE_PASS}.
+ * Every invocation inserts a new encounter, the session is cleared before each one so that it does
+ * not grow with the saved encounters.
+ *
+ * @since 2.4.0
+ */
+public class EncounterSaveBenchmark extends BaseContextBenchmark {
+	
+	public static final int OBS_PER_ENCOUNTER = 20;
+	
+	@Param({ "false", "true" })
+	public boolean saveNewObsInOnePass;
+	
+	private EncounterService encounterService;
+	
+	private Patient patient;
+	
+	private Location location;
+	
+	private EncounterType encounterType;
+	
+	private EncounterRole encounterRole;
+	
+	private Provider provider;
+	
+	private Concept concept;
+	
+	@Override
+	protected void setUp() {
+		encounterService = Context.getEncounterService();
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GP_ENCOUNTER_SAVE_NEW_OBS_IN_ONE_PASS,
+		    String.valueOf(saveNewObsInOnePass));
+	}
+	
+	@Setup(Level.Invocation)
+	public void clearSession() {
+		Context.clearSession();
+		patient = Context.getPatientService().getPatient(7);
+		location = Context.getLocationService().getLocation(1);
+		encounterType = encounterService.getEncounterType(1);
+		encounterRole = encounterService.getEncounterRole(1);
+		provider = Context.getProviderService().getProvider(1);
+		// WEIGHT (KG)
+		concept = Context.getConceptService().getConcept(5089);
+	}
+	
+	@Benchmark
+	public Encounter saveEncounter() {
+		Encounter encounter = new Encounter();
+		encounter.setPatient(patient);
+		encounter.setLocation(location);
+		encounter.setEncounterType(encounterType);
+		encounter.setEncounterDatetime(new Date());
+		encounter.addProvider(encounterRole, provider);
+		for (int i = 0; i < OBS_PER_ENCOUNTER; i++) {
+			Obs obs = new Obs();
+			obs.setConcept(concept);
+			obs.setValueNumeric(50d + i);
+			encounter.addObs(obs);
+		}
+		return encounterService.saveEncounter(encounter);
+	}
+}
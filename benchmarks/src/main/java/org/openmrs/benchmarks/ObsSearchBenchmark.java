@@ -0,0 +1,51 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openmrs.Concept;
+import org.openmrs.Obs;
+import org.openmrs.Person;
+import org.openmrs.api.ObsService;
+import org.openmrs.api.context.Context;
+
+/**
+ * Measures getting the observations of a person, all of them and for a single question
+ *
+ * @since 2.4.0
+ */
+public class ObsSearchBenchmark extends BaseContextBenchmark {
+	
+	private ObsService obsService;
+	
+	private List<Person> whom;
+	
+	private List<Concept> questions;
+	
+	@Override
+	protected void setUp() {
+		obsService = Context.getObsService();
+		whom = Collections.singletonList(Context.getPersonService().getPerson(7));
+		questions = Collections.singletonList(Context.getConceptService().getConcept(5089));
+	}
+	
+	@Benchmark
+	public List<Obs> getObservationsForPerson() {
+		return obsService.getObservations(whom, null, null, null, null, null, null, null, null, null, null, false);
+	}
+	
+	@Benchmark
+	public List<Obs> getObservationsForPersonAndQuestion() {
+		return obsService.getObservations(whom, null, questions, null, null, null, null, null, null, null, null, false);
+	}
+}
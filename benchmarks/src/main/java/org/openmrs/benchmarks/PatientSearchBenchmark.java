@@ -0,0 +1,42 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmarks;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openmrs.Patient;
+import org.openmrs.api.PatientService;
+import org.openmrs.api.context.Context;
+
+/**
+ * Measures searching for patients by name and by identifier
+ *
+ * @since 2.4.0
+ */
+public class PatientSearchBenchmark extends BaseContextBenchmark {
+	
+	private PatientService patientService;
+	
+	@Override
+	protected void setUp() {
+		patientService = Context.getPatientService();
+	}
+	
+	@Benchmark
+	public List<Patient> getPatientsByName() {
+		return patientService.getPatients("Hornblower");
+	}
+	
+	@Benchmark
+	public List<Patient> getPatientsByIdentifier() {
+		return patientService.getPatients("6TS-4");
+	}
+}
@@ -0,0 +1,65 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmarks;
+
+import java.lang.reflect.Method;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openmrs.Encounter;
+import org.openmrs.Patient;
+import org.openmrs.aop.RequiredDataAdvice;
+import org.openmrs.api.EncounterService;
+import org.openmrs.api.PatientService;
+import org.openmrs.api.context.Context;
+
+/**
+ * Measures the {@link RequiredDataAdvice} that runs before saving a patient and an encounter, which
+ * validates the object and then walks its collections to fill in the required data. Nothing is
+ * saved, since the advice is called directly rather than through the service.
+ *
+ * @since 2.4.0
+ */
+public class RequiredDataAdviceBenchmark extends BaseContextBenchmark {
+	
+	private final RequiredDataAdvice advice = new RequiredDataAdvice();
+	
+	private PatientService patientService;
+	
+	private Method savePatient;
+	
+	private Object[] patientArgs;
+	
+	private EncounterService encounterService;
+	
+	private Method saveEncounter;
+	
+	private Object[] encounterArgs;
+	
+	@Override
+	protected void setUp() throws Exception {
+		patientService = Context.getPatientService();
+		savePatient = PatientService.class.getMethod("savePatient", Patient.class);
+		patientArgs = new Object[] { patientService.getPatient(2) };
+		
+		encounterService = Context.getEncounterService();
+		saveEncounter = EncounterService.class.getMethod("saveEncounter", Encounter.class);
+		encounterArgs = new Object[] { encounterService.getEncounter(4) };
+	}
+	
+	@Benchmark
+	public void beforeSavePatient() throws Throwable {
+		advice.before(savePatient, patientArgs, patientService);
+	}
+	
+	@Benchmark
+	public void beforeSaveEncounter() throws Throwable {
+		advice.before(saveEncounter, encounterArgs, encounterService);
+	}
+}
@@ -0,0 +1,48 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openmrs.Encounter;
+import org.openmrs.Patient;
+import org.openmrs.api.context.Context;
+import org.openmrs.validator.ValidateUtil;
+
+/**
+ * Measures {@link ValidateUtil#validate(Object)} of a patient and of an encounter, which runs the
+ * validators of the object and checks the length of its string fields against their columns
+ *
+ * @since 2.4.0
+ */
+public class ValidateBenchmark extends BaseContextBenchmark {
+	
+	private Patient patient;
+	
+	private Encounter encounter;
+	
+	@Override
+	protected void setUp() {
+		patient = Context.getPatientService().getPatient(2);
+		encounter = Context.getEncounterService().getEncounter(4);
+		// load the collections that are validated along with the objects up front
+		ValidateUtil.validate(patient);
+		ValidateUtil.validate(encounter);
+	}
+	
+	@Benchmark
+	public void validatePatient() {
+		ValidateUtil.validate(patient);
+	}
+	
+	@Benchmark
+	public void validateEncounter() {
+		ValidateUtil.validate(encounter);
+	}
+}